@@ -13,19 +13,59 @@
  */
 package com.facebook.presto.cache;
 
+import com.facebook.airlift.log.Logger;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
+import org.weakref.jmx.MBeanExporter;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.Objects.requireNonNull;
+import static org.weakref.jmx.ObjectNames.generatedNameOf;
+
 @ThreadSafe
 public class CacheStats
 {
+    private static final Logger log = Logger.get(CacheStats.class);
+
+    // the number of cache scopes is bounded, as partition level scopes are unbounded
+    private static final int MAX_CACHE_SCOPES = 1_000;
+
     private final AtomicLong inMemoryRetainedBytes = new AtomicLong();
     private final AtomicLong hit = new AtomicLong();
     private final AtomicLong miss = new AtomicLong();
     private final AtomicLong quotaExceed = new AtomicLong();
+    private final AtomicLong admissionRejected = new AtomicLong();
+    private final String connectorId;
+    private final Optional<MBeanExporter> exporter;
+    private final Cache<String, CacheScopeStats> cacheScopeStats;
+
+    public CacheStats()
+    {
+        this("", Optional.empty());
+    }
+
+    /**
+     * @param connectorId the catalog of the cache, which qualifies the names of the exported stats of its cache scopes,
+     * as every catalog has its own cache and scopes such as tables may have the same name in several catalogs
+     */
+    public CacheStats(String connectorId, Optional<MBeanExporter> exporter)
+    {
+        this.connectorId = requireNonNull(connectorId, "connectorId is null");
+        this.exporter = requireNonNull(exporter, "exporter is null");
+        this.cacheScopeStats = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHE_SCOPES)
+                .removalListener((RemovalNotification<String, CacheScopeStats> notification) -> unexport(notification.getKey()))
+                .build();
+    }
 
     public void incrementCacheHit()
     {
@@ -37,11 +77,34 @@ public class CacheStats
         miss.getAndIncrement();
     }
 
+    /**
+     * Records a cache hit for the given cache scope, such as a table, in addition to the global hit count.
+     */
+    public void incrementCacheHit(String cacheScope)
+    {
+        incrementCacheHit();
+        getCacheScopeStats(cacheScope).hit.getAndIncrement();
+    }
+
+    /**
+     * Records a cache miss for the given cache scope, such as a table, in addition to the global miss count.
+     */
+    public void incrementCacheMiss(String cacheScope)
+    {
+        incrementCacheMiss();
+        getCacheScopeStats(cacheScope).miss.getAndIncrement();
+    }
+
     public void incrementQuotaExceed()
     {
         quotaExceed.getAndIncrement();
     }
 
+    public void incrementAdmissionRejected()
+    {
+        admissionRejected.getAndIncrement();
+    }
+
     public void addInMemoryRetainedBytes(long bytes)
     {
         inMemoryRetainedBytes.addAndGet(bytes);
@@ -65,9 +128,107 @@ public class CacheStats
         return miss.get();
     }
 
+    @Managed
+    public double getCacheHitRate()
+    {
+        return hitRate(hit.get(), miss.get());
+    }
+
     @Managed
     public long getQuotaExceed()
     {
         return quotaExceed.get();
     }
+
+    @Managed
+    public long getAdmissionRejected()
+    {
+        return admissionRejected.get();
+    }
+
+    /**
+     * Returns the stats of the most recently used cache scopes. The stats of every scope are also exported
+     * through JMX with the name returned by {@link #getObjectName(String, String)}.
+     */
+    public Map<String, CacheScopeStats> getCacheScopeStats()
+    {
+        return ImmutableMap.copyOf(cacheScopeStats.asMap());
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        cacheScopeStats.invalidateAll();
+    }
+
+    private CacheScopeStats getCacheScopeStats(String cacheScope)
+    {
+        CacheScopeStats stats = cacheScopeStats.getIfPresent(cacheScope);
+        if (stats != null) {
+            return stats;
+        }
+        CacheScopeStats newStats = new CacheScopeStats();
+        stats = cacheScopeStats.asMap().putIfAbsent(cacheScope, newStats);
+        if (stats != null) {
+            return stats;
+        }
+        // the stats of every cache scope are exported as a separate MBean, until the scope is evicted
+        exporter.ifPresent(mbeanExporter -> {
+            try {
+                mbeanExporter.export(getObjectName(connectorId, cacheScope), newStats);
+            }
+            catch (RuntimeException e) {
+                log.debug(e, "Failed to export stats of cache scope %s", cacheScope);
+            }
+        });
+        return newStats;
+    }
+
+    private void unexport(String cacheScope)
+    {
+        exporter.ifPresent(mbeanExporter -> {
+            try {
+                mbeanExporter.unexport(getObjectName(connectorId, cacheScope));
+            }
+            catch (RuntimeException e) {
+                log.debug(e, "Failed to unexport stats of cache scope %s", cacheScope);
+            }
+        });
+    }
+
+    static String getObjectName(String connectorId, String cacheScope)
+    {
+        return generatedNameOf(CacheScopeStats.class, connectorId + "_" + cacheScope);
+    }
+
+    private static double hitRate(long hit, long miss)
+    {
+        long total = hit + miss;
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @ThreadSafe
+    public static class CacheScopeStats
+    {
+        private final AtomicLong hit = new AtomicLong();
+        private final AtomicLong miss = new AtomicLong();
+
+        @Managed
+        public long getCacheHit()
+        {
+            return hit.get();
+        }
+
+        @Managed
+        public long getCacheMiss()
+        {
+            return miss.get();
+        }
+
+        @Managed
+        public double getCacheHitRate()
+        {
+            return hitRate(hit.get(), miss.get());
+        }
+    }
 }
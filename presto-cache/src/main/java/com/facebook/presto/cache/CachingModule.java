@@ -22,23 +22,35 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import org.weakref.jmx.MBeanExporter;
 
 import javax.inject.Singleton;
 
+import java.util.Optional;
+
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.presto.cache.CacheType.FILE_MERGE;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
 public class CachingModule
         implements Module
 {
+    private final String connectorId;
+
+    public CachingModule(String connectorId)
+    {
+        this.connectorId = requireNonNull(connectorId, "connectorId is null");
+    }
+
     @Override
     public void configure(Binder binder)
     {
-        binder.bind(CacheStats.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, MBeanExporter.class);
         newExporter(binder).export(CacheStats.class).withGeneratedName();
         configBinder(binder).bindConfig(CacheConfig.class);
         configBinder(binder).bindConfig(FileMergeCacheConfig.class);
@@ -49,6 +61,13 @@ public class CachingModule
         binder.bind(CacheFactory.class).in(Scopes.SINGLETON);
     }
 
+    @Singleton
+    @Provides
+    public CacheStats createCacheStats(Optional<MBeanExporter> exporter)
+    {
+        return new CacheStats(connectorId, exporter);
+    }
+
     //TODO: how to inject something with having constructor with parameter.
     @Singleton
     @Provides
@@ -29,6 +29,7 @@ public class FileMergeCacheConfig
     private int maxCachedEntries = 1_000;
     private Duration cacheTtl = new Duration(2, DAYS);
     private DataSize maxInMemoryCacheSize = new DataSize(2, GIGABYTE);
+    private int minReadsForAdmission = 1;
 
     @Min(1)
     public int getMaxCachedEntries()
@@ -70,4 +71,18 @@ public class FileMergeCacheConfig
         this.cacheTtl = cacheTtl;
         return this;
     }
+
+    @Min(1)
+    public int getMinReadsForAdmission()
+    {
+        return minReadsForAdmission;
+    }
+
+    @Config("cache.min-reads-for-admission")
+    @ConfigDescription("Number of times a file range has to be read before it is cached, which keeps one-off scans from evicting frequently read data")
+    public FileMergeCacheConfig setMinReadsForAdmission(int minReadsForAdmission)
+    {
+        this.minReadsForAdmission = minReadsForAdmission;
+        return this;
+    }
 }
@@ -63,6 +63,7 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterators.getOnlyElement;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.max;
 import static java.lang.StrictMath.toIntExact;
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.nio.file.StandardOpenOption.CREATE_NEW;
@@ -81,6 +82,11 @@ public class FileMergeCacheManager
 
     private static final int FILE_MERGE_BUFFER_SIZE = toIntExact(new DataSize(8, MEGABYTE).toBytes());
 
+    // number of file blocks whose reads are remembered for the admission to the cache
+    private static final int MAX_READ_HISTORY_ENTRIES = 100_000;
+    // reads are counted per aligned block of a file, so that ranges read by different splits or readers are counted together
+    private static final long READ_HISTORY_BLOCK_SIZE = new DataSize(1, MEGABYTE).toBytes();
+
     private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[FILE_MERGE_BUFFER_SIZE]);
 
     private final ExecutorService cacheFlushExecutor;
@@ -95,6 +101,8 @@ public class FileMergeCacheManager
     // CacheScope identifier to its cached files mapping
     private final Map<Long, Set<Path>> cacheScopeFiles = new ConcurrentHashMap<>();
     private final Map<Long, Long> cacheScopeSizeInBytes = new ConcurrentHashMap<>();
+    // number of reads of the blocks of recently missed file ranges, including the ranges which have not been admitted to the cache
+    private final Cache<ReadHistoryKey, Integer> readHistory;
 
     // stats
     private final CacheStats stats;
@@ -102,6 +110,7 @@ public class FileMergeCacheManager
     // config
     private final Path baseDirectory;
     private final long maxInflightBytes;
+    private final int minReadsForAdmission;
 
     @Inject
     public FileMergeCacheManager(
@@ -126,6 +135,11 @@ public class FileMergeCacheManager
         this.baseDirectory = new Path(cacheConfig.getBaseDirectory());
         checkArgument(fileMergeCacheConfig.getMaxInMemoryCacheSize().toBytes() >= 0, "maxInflightBytes is negative");
         this.maxInflightBytes = fileMergeCacheConfig.getMaxInMemoryCacheSize().toBytes();
+        this.minReadsForAdmission = fileMergeCacheConfig.getMinReadsForAdmission();
+        this.readHistory = CacheBuilder.newBuilder()
+                .maximumSize(MAX_READ_HISTORY_ENTRIES)
+                .expireAfterAccess(fileMergeCacheConfig.getCacheTtl().toMillis(), MILLISECONDS)
+                .build();
 
         File target = new File(baseDirectory.toUri());
         if (!target.exists()) {
@@ -195,11 +209,11 @@ public class FileMergeCacheManager
         }
 
         if (result) {
-            stats.incrementCacheHit();
+            stats.incrementCacheHit(cacheQuota.getIdentity());
             return CacheResult.HIT;
         }
 
-        stats.incrementCacheMiss();
+        stats.incrementCacheMiss(cacheQuota.getIdentity());
         return CacheResult.MISS;
     }
 
@@ -244,6 +258,11 @@ public class FileMergeCacheManager
             return;
         }
 
+        if (!isAdmitted(key)) {
+            stats.incrementAdmissionRejected();
+            return;
+        }
+
         Set<Path> paths = cacheScopeFiles.computeIfAbsent(cacheQuota.getIdentifier(), k -> new ConcurrentHashSet<>());
         paths.add(key.getPath());
 
@@ -260,6 +279,27 @@ public class FileMergeCacheManager
         });
     }
 
+    /**
+     * Records a read of the blocks of the given range, and returns whether all of them have been read often enough
+     * for the range to be cached. A range read only once, such as by a large scan, does not evict the frequently read
+     * ranges. Reads are counted per aligned block rather than per exact range, as different readers of the same data
+     * rarely request the same offsets and lengths.
+     */
+    private boolean isAdmitted(FileReadRequest key)
+    {
+        if (minReadsForAdmission <= 1) {
+            return true;
+        }
+        long firstBlock = key.getOffset() / READ_HISTORY_BLOCK_SIZE;
+        long lastBlock = (key.getOffset() + max(key.getLength(), 1) - 1) / READ_HISTORY_BLOCK_SIZE;
+        boolean admitted = true;
+        for (long block = firstBlock; block <= lastBlock; block++) {
+            int reads = readHistory.asMap().merge(new ReadHistoryKey(key.getPath(), block), 1, Integer::sum);
+            admitted &= reads >= minReadsForAdmission;
+        }
+        return admitted;
+    }
+
     private boolean read(FileReadRequest request, byte[] buffer, int offset)
     {
         if (request.getLength() <= 0) {
@@ -522,6 +562,37 @@ public class FileMergeCacheManager
         }
     }
 
+    private static class ReadHistoryKey
+    {
+        private final Path path;
+        private final long block;   // the offset of the block divided by the block size
+
+        public ReadHistoryKey(Path path, long block)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ReadHistoryKey that = (ReadHistoryKey) o;
+            return block == that.block && Objects.equals(path, that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, block);
+        }
+    }
+
     private static class CacheRange
     {
         private final RangeMap<Long, LocalCacheFile> range = TreeRangeMap.create();
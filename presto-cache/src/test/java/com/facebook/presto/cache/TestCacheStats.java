@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache;
+
+import org.testng.annotations.Test;
+import org.weakref.jmx.MBeanExporter;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCacheStats
+{
+    @Test
+    public void testCacheScopeStatsExport()
+            throws Exception
+    {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        CacheStats stats = new CacheStats("hive", Optional.of(new MBeanExporter(server)));
+        stats.incrementCacheHit("test.table");
+        stats.incrementCacheHit("test.table");
+        stats.incrementCacheMiss("test.table");
+        stats.incrementCacheMiss("test.other_table");
+
+        ObjectName name = new ObjectName(CacheStats.getObjectName("hive", "test.table"));
+        assertEquals(server.getAttribute(name, "CacheHit"), 2L);
+        assertEquals(server.getAttribute(name, "CacheMiss"), 1L);
+        assertEquals(server.getAttribute(name, "CacheHitRate"), 2.0 / 3);
+        assertEquals(server.getAttribute(new ObjectName(CacheStats.getObjectName("hive", "test.other_table")), "CacheHitRate"), 0.0);
+
+        // the stats of the cache scopes are unexported with the cache stats
+        stats.destroy();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testCacheScopeStatsOfSeveralCatalogs()
+            throws Exception
+    {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MBeanExporter exporter = new MBeanExporter(server);
+        CacheStats stats = new CacheStats("hive", Optional.of(exporter));
+        CacheStats otherStats = new CacheStats("other_hive", Optional.of(exporter));
+        stats.incrementCacheHit("test.table");
+        otherStats.incrementCacheMiss("test.table");
+
+        ObjectName name = new ObjectName(CacheStats.getObjectName("hive", "test.table"));
+        ObjectName otherName = new ObjectName(CacheStats.getObjectName("other_hive", "test.table"));
+        assertEquals(server.getAttribute(name, "CacheHit"), 1L);
+        assertEquals(server.getAttribute(name, "CacheMiss"), 0L);
+        assertEquals(server.getAttribute(otherName, "CacheHit"), 0L);
+        assertEquals(server.getAttribute(otherName, "CacheMiss"), 1L);
+
+        // unexporting the stats of a catalog keeps the stats of the same scope in the other catalog
+        stats.destroy();
+        assertFalse(server.isRegistered(name));
+        assertTrue(server.isRegistered(otherName));
+        otherStats.destroy();
+    }
+}
@@ -36,7 +36,8 @@ public class TestFileMergeCacheConfig
         assertRecordedDefaults(recordDefaults(FileMergeCacheConfig.class)
                 .setMaxCachedEntries(1_000)
                 .setMaxInMemoryCacheSize(new DataSize(2, GIGABYTE))
-                .setCacheTtl(new Duration(2, DAYS)));
+                .setCacheTtl(new Duration(2, DAYS))
+                .setMinReadsForAdmission(1));
     }
 
     @Test
@@ -46,12 +47,14 @@ public class TestFileMergeCacheConfig
                 .put("cache.max-cached-entries", "5")
                 .put("cache.max-in-memory-cache-size", "42MB")
                 .put("cache.ttl", "10s")
+                .put("cache.min-reads-for-admission", "3")
                 .build();
 
         FileMergeCacheConfig expected = new FileMergeCacheConfig()
                 .setMaxCachedEntries(5)
                 .setMaxInMemoryCacheSize(new DataSize(42, MEGABYTE))
-                .setCacheTtl(new Duration(10, SECONDS));
+                .setCacheTtl(new Duration(10, SECONDS))
+                .setMinReadsForAdmission(3);
         assertFullMapping(properties, expected);
     }
 }
@@ -202,6 +202,50 @@ public class TestFileMergeCacheManager
         validateBuffer(data, 47, buffer, 0, 90);
     }
 
+    @Test(timeOut = 30_000)
+    public void testAdmission()
+            throws InterruptedException, ExecutionException, IOException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        CacheConfig cacheConfig = new CacheConfig().setBaseDirectory(cacheDirectory);
+        FileMergeCacheConfig fileMergeCacheConfig = new FileMergeCacheConfig().setMinReadsForAdmission(2);
+        CacheManager cacheManager = new FileMergeCacheManager(cacheConfig, fileMergeCacheConfig, stats, flushExecutor, removeExecutor, cacheSizeCalculator);
+        byte[] buffer = new byte[1024];
+
+        CacheQuota cacheQuota = new CacheQuota("test.table", Optional.empty());
+        // the first read is not cached
+        assertFalse(readFully(cacheManager, cacheQuota, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getAdmissionRejected(), 1);
+        assertEquals(stats.getInMemoryRetainedBytes(), 0);
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        // the second read is cached
+        assertFalse(readFully(cacheManager, cacheQuota, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 2);
+        assertEquals(stats.getAdmissionRejected(), 1);
+        stats.trigger();
+        assertEquals(stats.getInMemoryRetainedBytes(), 0);
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        assertTrue(readFully(cacheManager, cacheQuota, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 2);
+        assertEquals(stats.getCacheHit(), 1);
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        // reads of another cache scope are counted separately
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 500, buffer, 0, 100));
+        CacheStats.CacheScopeStats tableStats = stats.getCacheScopeStats().get("test.table");
+        assertEquals(tableStats.getCacheHit(), 1);
+        assertEquals(tableStats.getCacheMiss(), 2);
+        assertEquals(tableStats.getCacheHitRate(), 1.0 / 3);
+        assertEquals(stats.getCacheScopeStats().get(NO_CACHE_CONSTRAINTS.getIdentity()).getCacheMiss(), 1);
+        assertEquals(stats.getCacheHitRate(), 1.0 / 4);
+
+        // reads are counted per block of the file, so another range of a block which was read often enough is cached on its first read
+        assertEquals(stats.getAdmissionRejected(), 1);
+    }
+
     private CacheManager fileMergeCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig)
     {
         return new FileMergeCacheManager(cacheConfig, fileMergeCacheConfig, new CacheStats(), flushExecutor, removeExecutor, cacheSizeCalculator);
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.BooleanType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.DoubleType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.RealType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.VarbinaryType;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.spi.page.PageCodecMarker;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slices;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.StandardTypes.BIGINT;
+import static com.facebook.presto.common.type.StandardTypes.BOOLEAN;
+import static com.facebook.presto.common.type.StandardTypes.DATE;
+import static com.facebook.presto.common.type.StandardTypes.DOUBLE;
+import static com.facebook.presto.common.type.StandardTypes.INTEGER;
+import static com.facebook.presto.common.type.StandardTypes.REAL;
+import static com.facebook.presto.common.type.StandardTypes.SMALLINT;
+import static com.facebook.presto.common.type.StandardTypes.TINYINT;
+import static com.facebook.presto.common.type.StandardTypes.VARBINARY;
+import static com.facebook.presto.common.type.StandardTypes.VARCHAR;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.PAGE_METADATA_SIZE;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Encoding of query results as pages, which spares the coordinator the conversion of every value to JSON.
+ * Every entry of the binary data is a Base64 encoded page, serialized with the block encodings
+ * used by the exchanges. The values decoded by the client are the same as the values of the JSON data.
+ */
+public final class BinaryDataUtils
+{
+    private static final Set<String> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DOUBLE, REAL, BOOLEAN, VARCHAR, VARBINARY, DATE);
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = new BlockEncodingManager();
+
+    private BinaryDataUtils() {}
+
+    /**
+     * Returns whether the results of the given columns can be sent as binary data.
+     */
+    public static boolean isBinaryDataSupported(List<Column> columns)
+    {
+        return columns.stream()
+                .map(column -> parseTypeSignature(column.getType()).getBase())
+                .allMatch(SUPPORTED_TYPES::contains);
+    }
+
+    /**
+     * Encodes a page without codec markers, as clients do not decompress or verify pages.
+     */
+    public static String encodePage(SerializedPage page)
+    {
+        checkArgument(page.getPageCodecMarkers() == PageCodecMarker.none(), "page must not be compressed, encrypted or checksummed");
+        DynamicSliceOutput output = new DynamicSliceOutput(PAGE_METADATA_SIZE + page.getSizeInBytes());
+        writeSerializedPage(output, page);
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+
+    public static Iterable<List<Object>> decodeBinaryData(List<Column> columns, Iterable<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        requireNonNull(columns, "columns is null");
+        checkArgument(isBinaryDataSupported(columns), "binary data is not supported for columns: %s", columns);
+        List<String> types = columns.stream()
+                .map(column -> parseTypeSignature(column.getType()).getBase())
+                .collect(toList());
+
+        PagesSerde serde = new PagesSerde(BLOCK_ENCODING_SERDE, Optional.empty(), Optional.empty(), Optional.empty());
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (String encodedPage : binaryData) {
+            Iterator<SerializedPage> serializedPages = readSerializedPages(Slices.wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput());
+            while (serializedPages.hasNext()) {
+                Page page = serde.deserialize(serializedPages.next());
+                checkArgument(page.getChannelCount() == types.size(), "page/column size mismatch");
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    List<Object> row = new ArrayList<>(types.size());
+                    for (int channel = 0; channel < types.size(); channel++) {
+                        row.add(getValue(types.get(channel), page.getBlock(channel), position));
+                    }
+                    rows.add(unmodifiableList(row)); // allow nulls in list
+                }
+            }
+        }
+        return rows.build();
+    }
+
+    private static Object getValue(String type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        switch (type) {
+            case BIGINT:
+                return BigintType.BIGINT.getLong(block, position);
+            case INTEGER:
+                return toIntExact(IntegerType.INTEGER.getLong(block, position));
+            case SMALLINT:
+                return (short) SmallintType.SMALLINT.getLong(block, position);
+            case TINYINT:
+                return (byte) TinyintType.TINYINT.getLong(block, position);
+            case DOUBLE:
+                return DoubleType.DOUBLE.getDouble(block, position);
+            case REAL:
+                return intBitsToFloat(toIntExact(RealType.REAL.getLong(block, position)));
+            case BOOLEAN:
+                return BooleanType.BOOLEAN.getBoolean(block, position);
+            case VARCHAR:
+                return VarcharType.VARCHAR.getSlice(block, position).toStringUtf8();
+            case VARBINARY:
+                return VarbinaryType.VARBINARY.getSlice(block, position).getBytes();
+            case DATE:
+                return LocalDate.ofEpochDay(DateType.DATE.getLong(block, position)).toString();
+            default:
+                throw new IllegalArgumentException("Unsupported type for binary data: " + type);
+        }
+    }
+}
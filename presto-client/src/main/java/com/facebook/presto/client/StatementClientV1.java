@@ -112,6 +112,7 @@ class StatementClientV1
     private final Duration requestTimeoutNanos;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
 
@@ -129,6 +130,7 @@ class StatementClientV1
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
         this.compressionDisabled = session.isCompressionDisabled();
+        this.binaryResults = session.isBinaryResults();
 
         Request request = buildQueryRequest(session, query);
 
@@ -366,7 +368,11 @@ class StatementClientV1
             return false;
         }
 
-        Request request = prepareRequest(HttpUrl.get(nextUri)).build();
+        HttpUrl url = HttpUrl.get(nextUri);
+        if (binaryResults) {
+            url = url.newBuilder().addQueryParameter("binaryResults", "true").build();
+        }
+        Request request = prepareRequest(url).build();
 
         Exception cause = null;
         long start = System.nanoTime();
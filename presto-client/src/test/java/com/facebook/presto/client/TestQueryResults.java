@@ -14,10 +14,33 @@
 package com.facebook.presto.client;
 
 import com.facebook.airlift.json.JsonCodec;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.client.BinaryDataUtils.encodePage;
+import static com.facebook.presto.client.BinaryDataUtils.isBinaryDataSupported;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.common.type.VarcharType.createVarcharType;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class TestQueryResults
 {
@@ -62,4 +85,61 @@ public class TestQueryResults
         QueryResults results = QUERY_RESULTS_CODEC.fromJson(goldenValue);
         assertEquals(results.getId(), "20160128_214710_00012_rk68b");
     }
+
+    @Test
+    public void testBinaryData()
+    {
+        List<Column> columns = ImmutableList.of(
+                new Column("a", BIGINT),
+                new Column("b", createVarcharType(10)),
+                new Column("c", DOUBLE),
+                new Column("d", VARBINARY),
+                new Column("e", DATE));
+        assertTrue(isBinaryDataSupported(columns));
+        assertFalse(isBinaryDataSupported(ImmutableList.of(new Column("a", BIGINT), new Column("b", TIMESTAMP))));
+
+        BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(null, 2);
+        BIGINT.writeLong(bigintBuilder, 42);
+        bigintBuilder.appendNull();
+        BlockBuilder varcharBuilder = VARCHAR.createBlockBuilder(null, 2);
+        VARCHAR.writeString(varcharBuilder, "alice");
+        VARCHAR.writeString(varcharBuilder, "bob");
+        BlockBuilder doubleBuilder = DOUBLE.createBlockBuilder(null, 2);
+        DOUBLE.writeDouble(doubleBuilder, 1.5);
+        DOUBLE.writeDouble(doubleBuilder, -2.0);
+        BlockBuilder varbinaryBuilder = VARBINARY.createBlockBuilder(null, 2);
+        varbinaryBuilder.appendNull();
+        VARBINARY.writeSlice(varbinaryBuilder, Slices.wrappedBuffer(new byte[] {1, 2, 3}));
+        BlockBuilder dateBuilder = DATE.createBlockBuilder(null, 2);
+        DATE.writeLong(dateBuilder, 0);
+        DATE.writeLong(dateBuilder, 18262);
+        Page page = new Page(bigintBuilder.build(), varcharBuilder.build(), doubleBuilder.build(), varbinaryBuilder.build(), dateBuilder.build());
+
+        PagesSerde serde = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+        String binaryData = encodePage(serde.serialize(page));
+
+        QueryResults serverResults = new QueryResults(
+                "20160128_214710_00012_rk68b",
+                URI.create("http://localhost:54855/query.html?20160128_214710_00012_rk68b"),
+                null,
+                null,
+                columns,
+                null,
+                ImmutableList.of(binaryData),
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+        assertNull(serverResults.getData());
+
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(serverResults));
+        assertNull(results.getBinaryData());
+        List<List<Object>> rows = ImmutableList.copyOf(results.getData());
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0), Arrays.asList(42L, "alice", 1.5, null, "1970-01-01"));
+        assertEquals(rows.get(1).subList(0, 3), Arrays.asList(null, "bob", -2.0));
+        assertEquals((byte[]) rows.get(1).get(3), new byte[] {1, 2, 3});
+        assertEquals(rows.get(1).get(4), "2020-01-01");
+    }
 }
@@ -53,4 +53,16 @@ public class RuntimeMetricName
     public static final String STORAGE_READ_TIME_NANOS = "storageReadTimeNanos";
     // Size of the data retrieved by read call to storage
     public static final String STORAGE_READ_DATA_BYTES = "storageReadDataBytes";
+    // Number of partial aggregation operators switched to pass-through mode because they did not reduce the number of rows.
+    public static final String PARTIAL_AGGREGATION_PASS_THROUGH_COUNT = "partialAggregationPassThroughCount";
+    // Number of input rows aggregated by the pipeline before partial aggregation was switched to pass-through mode.
+    public static final String PARTIAL_AGGREGATION_PASS_THROUGH_AFTER_ROWS = "partialAggregationPassThroughAfterRows";
+    // Percentage of output groups to input rows of partial aggregation which caused the switch to pass-through mode.
+    public static final String PARTIAL_AGGREGATION_UNIQUE_ROWS_PERCENT = "partialAggregationUniqueRowsPercent";
+    // Number of rows passed through partial aggregation without being aggregated.
+    public static final String PARTIAL_AGGREGATION_PASS_THROUGH_ROWS = "partialAggregationPassThroughRows";
+    // Number of table scan rows removed by dynamic filter Bloom filters.
+    public static final String DYNAMIC_FILTER_BLOOM_FILTER_FILTERED_ROWS = "dynamicFilterBloomFilterFilteredRows";
+    // Time operators were blocked waiting for spilled pages to be read back from disk.
+    public static final String SPILL_READ_WAIT_TIME_NANOS = "spillReadWaitTimeNanos";
 }
@@ -298,6 +298,20 @@ public class LazyBlock
         return block != null;
     }
 
+    /**
+     * Returns the given positions of the block. If the block is a lazy block which is not loaded yet, the positions are
+     * copied only when the returned block is loaded, so that columns which are never accessed downstream are never loaded.
+     * The positions array must not be modified afterwards.
+     */
+    public static Block getPositionsLazily(Block block, int[] positions, int positionCount)
+    {
+        if (block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+            LazyBlock lazyBlock = (LazyBlock) block;
+            return new LazyBlock(positionCount, outputBlock -> outputBlock.setBlock(lazyBlock.getLoadedBlock().getPositions(positions, 0, positionCount)));
+        }
+        return block.getPositions(positions, 0, positionCount);
+    }
+
     @Override
     public Block getLoadedBlock()
     {
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.block;
+
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLazyBlock
+{
+    @Test
+    public void testGetPositionsLazily()
+    {
+        int[] positions = {1, 3};
+        Block block = new LongArrayBlock(4, Optional.empty(), new long[] {10, 11, 12, 13});
+        assertPositions(LazyBlock.getPositionsLazily(block, positions, 2));
+
+        // the positions of a lazy block are copied when the returned block is loaded
+        LazyBlock lazyBlock = new LazyBlock(4, outputBlock -> outputBlock.setBlock(block));
+        Block lazyPositions = LazyBlock.getPositionsLazily(lazyBlock, positions, 2);
+        assertTrue(lazyPositions instanceof LazyBlock);
+        assertFalse(lazyBlock.isLoaded());
+        assertPositions(lazyPositions.getLoadedBlock());
+        assertTrue(lazyBlock.isLoaded());
+
+        // the positions of a loaded lazy block are copied immediately
+        assertFalse(LazyBlock.getPositionsLazily(lazyBlock, positions, 2) instanceof LazyBlock);
+    }
+
+    private static void assertPositions(Block block)
+    {
+        assertEquals(block.getPositionCount(), 2);
+        assertEquals(block.getLong(0), 11);
+        assertEquals(block.getLong(1), 13);
+    }
+}
@@ -32,9 +32,11 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_UNSUPPORTED_DATA_FORMAT;
@@ -52,11 +54,13 @@ import static java.util.Objects.requireNonNull;
 public class DeltaClient
 {
     private final HdfsEnvironment hdfsEnvironment;
+    private final DeltaTableStateCache tableStateCache;
 
     @Inject
-    public DeltaClient(HdfsEnvironment hdfsEnvironment)
+    public DeltaClient(HdfsEnvironment hdfsEnvironment, DeltaTableStateCache tableStateCache)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.tableStateCache = requireNonNull(tableStateCache, "tableStateCache is null");
     }
 
     /**
@@ -119,20 +123,42 @@ public class DeltaClient
     public CloseableIterator<AddFile> listFiles(ConnectorSession session, DeltaTable deltaTable)
     {
         checkArgument(deltaTable.getSnapshotId().isPresent(), "Snapshot id is missing from the Delta table");
-        Optional<DeltaLog> deltaLog = loadDeltaTableLog(
+        Supplier<DeltaLog> deltaLog = () -> loadDeltaTableLog(
                 session,
                 new Path(deltaTable.getTableLocation()),
-                new SchemaTableName(deltaTable.getSchemaName(), deltaTable.getTableName()));
-
-        if (!deltaLog.isPresent()) {
-            throw new PrestoException(NOT_FOUND,
-                    format("Delta table (%s.%s) no longer exists.", deltaTable.getSchemaName(), deltaTable.getTableName()));
+                new SchemaTableName(deltaTable.getSchemaName(), deltaTable.getTableName()))
+                .orElseThrow(() -> new PrestoException(NOT_FOUND,
+                        format("Delta table (%s.%s) no longer exists.", deltaTable.getSchemaName(), deltaTable.getTableName())));
+
+        if (!tableStateCache.isEnabled()) {
+            return deltaLog.get()
+                    .getSnapshotForVersionAsOf(deltaTable.getSnapshotId().get())
+                    .scan()
+                    .getFiles();
         }
 
-        return deltaLog.get()
-                .getSnapshotForVersionAsOf(deltaTable.getSnapshotId().get())
-                .scan()
-                .getFiles();
+        // the files of the snapshot are shared with the other queries on the same snapshot of the table
+        List<AddFile> files = tableStateCache.getFiles(deltaTable.getTableLocation(), deltaTable.getSnapshotId().get(), deltaLog);
+        Iterator<AddFile> iterator = files.iterator();
+        return new CloseableIterator<AddFile>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public AddFile next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
     }
 
     private Optional<DeltaLog> loadDeltaTableLog(ConnectorSession session, Path tableLocation, SchemaTableName schemaTableName)
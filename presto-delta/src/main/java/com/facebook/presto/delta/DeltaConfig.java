@@ -15,12 +15,16 @@ package com.facebook.presto.delta;
 
 import com.facebook.airlift.configuration.Config;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class DeltaConfig
 {
     private int maxSplitsBatchSize = 200;
     private boolean parquetDereferencePushdownEnabled = true;
+    private boolean tableStateCacheEnabled;
+    private long tableStateCacheMaxFiles = 1_000_000;
+    private boolean fileStatisticsPruningEnabled = true;
 
     @NotNull
     public boolean isParquetDereferencePushdownEnabled()
@@ -46,4 +50,41 @@ public class DeltaConfig
         this.maxSplitsBatchSize = maxSplitsBatchSize;
         return this;
     }
+
+    public boolean isTableStateCacheEnabled()
+    {
+        return tableStateCacheEnabled;
+    }
+
+    @Config("delta.table-state-cache-enabled")
+    public DeltaConfig setTableStateCacheEnabled(boolean tableStateCacheEnabled)
+    {
+        this.tableStateCacheEnabled = tableStateCacheEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public long getTableStateCacheMaxFiles()
+    {
+        return tableStateCacheMaxFiles;
+    }
+
+    @Config("delta.table-state-cache-max-files")
+    public DeltaConfig setTableStateCacheMaxFiles(long tableStateCacheMaxFiles)
+    {
+        this.tableStateCacheMaxFiles = tableStateCacheMaxFiles;
+        return this;
+    }
+
+    public boolean isFileStatisticsPruningEnabled()
+    {
+        return fileStatisticsPruningEnabled;
+    }
+
+    @Config("delta.file-statistics-pruning-enabled")
+    public DeltaConfig setFileStatisticsPruningEnabled(boolean fileStatisticsPruningEnabled)
+    {
+        this.fileStatisticsPruningEnabled = fileStatisticsPruningEnabled;
+        return this;
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.delta;
 
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.StandardTypes;
@@ -21,8 +22,11 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.PrestoException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slice;
 import io.delta.standalone.actions.AddFile;
 import io.delta.standalone.data.CloseableIterator;
@@ -30,16 +34,23 @@ import io.delta.standalone.data.CloseableIterator;
 import java.io.IOException;
 import java.sql.Date;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.PARTITION;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_INVALID_PARTITION_VALUE;
 import static com.facebook.presto.delta.DeltaErrorCode.DELTA_UNSUPPORTED_COLUMN_TYPE;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Double.doubleToRawLongBits;
 import static java.lang.Double.parseDouble;
@@ -50,6 +61,19 @@ import static java.lang.String.format;
 
 public final class DeltaExpressionUtils
 {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // types whose minimum and maximum values in the statistics of the Delta log are used to prune files
+    private static final Set<String> STATISTICS_TYPES = ImmutableSet.of(
+            StandardTypes.TINYINT,
+            StandardTypes.SMALLINT,
+            StandardTypes.INTEGER,
+            StandardTypes.BIGINT,
+            StandardTypes.REAL,
+            StandardTypes.DOUBLE,
+            StandardTypes.DATE,
+            StandardTypes.VARCHAR);
+    private static final int MAX_STATISTICS_STRING_LENGTH = 32;
+
     private DeltaExpressionUtils()
     {
     }
@@ -127,6 +151,36 @@ public final class DeltaExpressionUtils
                         .map(entry -> entry.getColumn())
                         .collect(Collectors.toList());
 
+        return filter(inputIterator, file -> evaluatePartitionPredicate(partitionPredicate, partitionColumns, typeManager, file));
+    }
+
+    /**
+     * Utility method that takes an iterator of {@link AddFile}s and a predicate and returns an iterator of {@link AddFile}s
+     * whose column statistics in the Delta log may satisfy the predicate on the regular columns. Files without statistics
+     * for a column are never pruned because of the predicate on this column.
+     */
+    public static CloseableIterator<AddFile> iterateWithStatisticsPruning(
+            CloseableIterator<AddFile> inputIterator,
+            TupleDomain<DeltaColumnHandle> predicate,
+            TypeManager typeManager)
+    {
+        if (!predicate.getDomains().isPresent()) {
+            return inputIterator; // the partition pruning already returns no files
+        }
+
+        Map<DeltaColumnHandle, Domain> regularColumnPredicates = predicate.getDomains().get().entrySet().stream()
+                .filter(entry -> entry.getKey().getColumnType() == REGULAR)
+                .filter(entry -> STATISTICS_TYPES.contains(entry.getKey().getDataType().getBase()))
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (regularColumnPredicates.isEmpty()) {
+            return inputIterator;
+        }
+
+        return filter(inputIterator, file -> evaluateStatisticsPredicate(regularColumnPredicates, typeManager, file));
+    }
+
+    private static CloseableIterator<AddFile> filter(CloseableIterator<AddFile> inputIterator, Predicate<AddFile> filter)
+    {
         return new CloseableIterator<AddFile>()
         {
             private AddFile nextItem;
@@ -140,7 +194,7 @@ public final class DeltaExpressionUtils
 
                 while (inputIterator.hasNext()) {
                     AddFile nextFile = inputIterator.next();
-                    if (evaluatePartitionPredicate(partitionPredicate, partitionColumns, typeManager, nextFile)) {
+                    if (filter.test(nextFile)) {
                         nextItem = nextFile;
                         break;
                     }
@@ -252,4 +306,116 @@ public final class DeltaExpressionUtils
                     exception);
         }
     }
+
+    private static boolean evaluateStatisticsPredicate(Map<DeltaColumnHandle, Domain> columnPredicates, TypeManager typeManager, AddFile addFile)
+    {
+        if (addFile.getStats() == null) {
+            return true;
+        }
+
+        JsonNode statistics;
+        try {
+            statistics = OBJECT_MAPPER.readTree(addFile.getStats());
+        }
+        catch (IOException e) {
+            // statistics which can not be read do not prune the file
+            return true;
+        }
+
+        for (Map.Entry<DeltaColumnHandle, Domain> entry : columnPredicates.entrySet()) {
+            Domain domain = getStatisticsDomain(entry.getKey(), typeManager.getType(entry.getKey().getDataType()), statistics);
+            if (entry.getValue().intersect(domain).isNone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the domain of the values of the column in the file, from the statistics of the file in the Delta log.
+     */
+    private static Domain getStatisticsDomain(DeltaColumnHandle column, Type type, JsonNode statistics)
+    {
+        Optional<JsonNode> numRecords = getField(statistics, "numRecords");
+        Optional<JsonNode> nullCount = getField(statistics, "nullCount").flatMap(node -> getField(node, column.getName()));
+        if (numRecords.isPresent() && nullCount.isPresent() && numRecords.get().isIntegralNumber() && nullCount.get().isIntegralNumber()
+                && nullCount.get().asLong() == numRecords.get().asLong()) {
+            return Domain.onlyNull(type);
+        }
+        boolean hasNulls = !nullCount.isPresent() || !nullCount.get().isIntegralNumber() || nullCount.get().asLong() > 0;
+
+        Optional<Object> min = getField(statistics, "minValues")
+                .flatMap(node -> getField(node, column.getName()))
+                .flatMap(node -> getStatisticsValue(column, node, false));
+        Optional<Object> max = getField(statistics, "maxValues")
+                .flatMap(node -> getField(node, column.getName()))
+                .flatMap(node -> getStatisticsValue(column, node, true));
+        if (!min.isPresent() && !max.isPresent()) {
+            return Domain.all(type);
+        }
+
+        Range range;
+        try {
+            if (min.isPresent() && max.isPresent()) {
+                range = Range.range(type, min.get(), true, max.get(), true);
+            }
+            else if (min.isPresent()) {
+                range = Range.greaterThanOrEqual(type, min.get());
+            }
+            else {
+                range = Range.lessThanOrEqual(type, max.get());
+            }
+        }
+        catch (IllegalArgumentException e) {
+            // the minimum is greater than the maximum
+            return Domain.all(type);
+        }
+        return Domain.create(ValueSet.ofRanges(range), hasNulls);
+    }
+
+    private static Optional<Object> getStatisticsValue(DeltaColumnHandle column, JsonNode value, boolean isMax)
+    {
+        switch (column.getDataType().getBase()) {
+            case StandardTypes.TINYINT:
+            case StandardTypes.SMALLINT:
+            case StandardTypes.INTEGER:
+            case StandardTypes.BIGINT:
+                return value.isIntegralNumber() ? Optional.of(value.asLong()) : Optional.empty();
+            case StandardTypes.REAL:
+                return value.isNumber() ? Optional.of((long) floatToRawIntBits(value.floatValue())) : Optional.empty();
+            case StandardTypes.DOUBLE:
+                return value.isNumber() ? Optional.of(value.doubleValue()) : Optional.empty();
+            case StandardTypes.DATE:
+                try {
+                    return value.isTextual() ? Optional.of(LocalDate.parse(value.textValue()).toEpochDay()) : Optional.empty();
+                }
+                catch (DateTimeParseException e) {
+                    return Optional.empty();
+                }
+            case StandardTypes.VARCHAR:
+                if (!value.isTextual()) {
+                    return Optional.empty();
+                }
+                // writers truncate long strings in the statistics, so a truncated maximum is not an upper bound
+                if (isMax && value.textValue().length() >= MAX_STATISTICS_STRING_LENGTH) {
+                    return Optional.empty();
+                }
+                return Optional.of(utf8Slice(value.textValue()));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static Optional<JsonNode> getField(JsonNode node, String name)
+    {
+        // the statistics use the names of the schema, while the names of the column handles are lower case
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().equalsIgnoreCase(name) && !field.getValue().isNull()) {
+                return Optional.of(field.getValue());
+            }
+        }
+        return Optional.empty();
+    }
 }
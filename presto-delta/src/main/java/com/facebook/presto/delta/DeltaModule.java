@@ -44,16 +44,19 @@ import com.facebook.presto.hive.metastore.HiveMetastoreCacheStats;
 import com.facebook.presto.hive.metastore.HivePartitionMutator;
 import com.facebook.presto.hive.metastore.MetastoreCacheStats;
 import com.facebook.presto.hive.metastore.MetastoreConfig;
+import com.facebook.presto.hive.metastore.MetastoreEventPoller;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.FromStringDeserializer;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import org.weakref.jmx.MBeanExporter;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -63,6 +66,7 @@ import static com.facebook.airlift.json.JsonCodec.listJsonCodec;
 import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.weakref.jmx.ObjectNames.generatedNameOf;
@@ -86,13 +90,15 @@ public class DeltaModule
         binder.bind(TypeManager.class).toInstance(typeManager);
         configBinder(binder).bindConfig(FileMergeCacheConfig.class);
         configBinder(binder).bindConfig(CacheConfig.class);
-        binder.bind(CacheStats.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, MBeanExporter.class);
         binder.bind(CacheFactory.class).in(Scopes.SINGLETON);
 
         binder.bind(DeltaConnector.class).in(Scopes.SINGLETON);
         binder.bind(DeltaConnectorId.class).toInstance(new DeltaConnectorId(connectorId));
         binder.bind(DeltaMetadata.class).in(Scopes.SINGLETON);
         binder.bind(DeltaClient.class).in(Scopes.SINGLETON);
+        binder.bind(DeltaTableStateCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(DeltaTableStateCache.class).as(generatedNameOf(DeltaTableStateCache.class, connectorId));
         binder.bind(DeltaSplitManager.class).in(Scopes.SINGLETON);
         binder.bind(DeltaPageSourceProvider.class).in(Scopes.SINGLETON);
         binder.bind(DeltaSessionProperties.class).in(Scopes.SINGLETON);
@@ -106,6 +112,7 @@ public class DeltaModule
         binder.bind(MetastoreCacheStats.class).to(HiveMetastoreCacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MetastoreCacheStats.class).as(generatedNameOf(MetastoreCacheStats.class, connectorId));
         binder.bind(ExtendedHiveMetastore.class).to(CachingHiveMetastore.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, MetastoreEventPoller.class);
         binder.bind(HdfsConfiguration.class).annotatedWith(ForMetastoreHdfsEnvironment.class).to(HiveCachingHdfsConfiguration.class).in(Scopes.SINGLETON);
 
         configBinder(binder).bindConfig(HiveGcsConfig.class);
@@ -143,6 +150,13 @@ public class DeltaModule
         }
     }
 
+    @Singleton
+    @Provides
+    public CacheStats createCacheStats(Optional<MBeanExporter> exporter)
+    {
+        return new CacheStats(connectorId, exporter);
+    }
+
     @Singleton
     @Provides
     public CacheManager createCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig, CacheStats cacheStats)
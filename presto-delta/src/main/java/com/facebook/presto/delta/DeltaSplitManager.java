@@ -76,10 +76,14 @@ public class DeltaSplitManager
         DeltaSplitSource(ConnectorSession session, DeltaTableLayoutHandle deltaTableHandle)
         {
             this.deltaTable = deltaTableHandle.getTable().getDeltaTable();
-            this.fileIterator = DeltaExpressionUtils.iterateWithPartitionPruning(
+            CloseableIterator<AddFile> fileIterator = DeltaExpressionUtils.iterateWithPartitionPruning(
                     deltaClient.listFiles(session, deltaTable),
                     deltaTableHandle.getPredicate(),
                     typeManager);
+            if (deltaConfig.isFileStatisticsPruningEnabled()) {
+                fileIterator = DeltaExpressionUtils.iterateWithStatisticsPruning(fileIterator, deltaTableHandle.getPredicate(), typeManager);
+            }
+            this.fileIterator = fileIterator;
             this.maxBatchSize = deltaConfig.getMaxSplitsBatchSize();
         }
 
@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.delta.standalone.DeltaLog;
+import io.delta.standalone.VersionLog;
+import io.delta.standalone.actions.Action;
+import io.delta.standalone.actions.AddFile;
+import io.delta.standalone.actions.RemoveFile;
+import io.delta.standalone.data.CloseableIterator;
+import org.apache.hadoop.fs.Path;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coordinator cache of the files of Delta table snapshots, keyed by the table location and the snapshot version.
+ * <p>
+ * Reconstructing the files of a snapshot replays the checkpoint and the commits of the log after it. When an
+ * older snapshot of the table is cached, the files of a newer snapshot are computed from it by applying only
+ * the commits between the two versions.
+ */
+public class DeltaTableStateCache
+{
+    private final Cache<SnapshotKey, List<AddFile>> cache;
+    private final CacheStatsMBean cacheStats;
+    private final boolean enabled;
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong incrementalLoads = new AtomicLong();
+
+    @Inject
+    public DeltaTableStateCache(DeltaConfig config)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isTableStateCacheEnabled();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getTableStateCacheMaxFiles())
+                .weigher((key, files) -> max(((List<?>) files).size(), 1))
+                .recordStats()
+                .build();
+        this.cacheStats = new CacheStatsMBean(cache);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Returns the files of the given snapshot of the table. The log is only loaded when the snapshot is not cached.
+     */
+    public List<AddFile> getFiles(String tableLocation, long version, Supplier<DeltaLog> deltaLogSupplier)
+    {
+        SnapshotKey key = new SnapshotKey(tableLocation, version);
+        List<AddFile> files = cache.getIfPresent(key);
+        if (files != null) {
+            return files;
+        }
+
+        DeltaLog deltaLog = deltaLogSupplier.get();
+        Optional<SnapshotKey> baseKey = cache.asMap().keySet().stream()
+                .filter(cachedKey -> cachedKey.getTableLocation().equals(tableLocation) && cachedKey.getVersion() < version)
+                .max((left, right) -> Long.compare(left.getVersion(), right.getVersion()));
+        Optional<List<AddFile>> baseFiles = baseKey.map(cache::getIfPresent);
+        if (baseFiles.isPresent()) {
+            files = applyChanges(deltaLog, baseKey.get().getVersion(), baseFiles.get(), version);
+        }
+        if (files == null) {
+            files = loadFiles(deltaLog, version);
+        }
+        cache.put(key, files);
+        return files;
+    }
+
+    private List<AddFile> loadFiles(DeltaLog deltaLog, long version)
+    {
+        fullLoads.incrementAndGet();
+        ImmutableList.Builder<AddFile> files = ImmutableList.builder();
+        try (CloseableIterator<AddFile> iterator = deltaLog.getSnapshotForVersionAsOf(version).scan().getFiles()) {
+            iterator.forEachRemaining(files::add);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return files.build();
+    }
+
+    /**
+     * Applies the commits after the base version up to the given version to the files of the base version.
+     * Returns null when these commits are no longer in the log, in which case the snapshot is loaded in full.
+     * <p>
+     * The paths of the actions are canonicalized as the snapshot does when it replays the log, since a file may
+     * be added with a relative path and removed with an absolute one, or with a different encoding.
+     */
+    private List<AddFile> applyChanges(DeltaLog deltaLog, long baseVersion, List<AddFile> baseFiles, long version)
+    {
+        Path tablePath = deltaLog.getPath();
+        Map<String, AddFile> files = new LinkedHashMap<>();
+        for (AddFile file : baseFiles) {
+            files.put(canonicalizePath(tablePath, file.getPath()), file);
+        }
+
+        long lastVersion = baseVersion;
+        try {
+            Iterator<VersionLog> changes = deltaLog.getChanges(baseVersion + 1, true);
+            while (changes.hasNext()) {
+                VersionLog versionLog = changes.next();
+                if (versionLog.getVersion() > version) {
+                    break;
+                }
+                for (Action action : versionLog.getActions()) {
+                    if (action instanceof AddFile) {
+                        AddFile file = (AddFile) action;
+                        String path = canonicalizePath(tablePath, file.getPath());
+                        files.put(path, new AddFile(
+                                path,
+                                file.getPartitionValues(),
+                                file.getSize(),
+                                file.getModificationTime(),
+                                false,
+                                file.getStats(),
+                                file.getTags()));
+                    }
+                    else if (action instanceof RemoveFile) {
+                        files.remove(canonicalizePath(tablePath, ((RemoveFile) action).getPath()));
+                    }
+                }
+                lastVersion = versionLog.getVersion();
+            }
+        }
+        catch (IllegalStateException e) {
+            // the commits were removed by the log retention
+            return null;
+        }
+        if (lastVersion != version) {
+            return null;
+        }
+
+        incrementalLoads.incrementAndGet();
+        return ImmutableList.copyOf(files.values());
+    }
+
+    /**
+     * Returns the path of a file of the log as a fully qualified URI, as in the files of a snapshot loaded in full.
+     * Paths in the log are URI encoded, and relative to the table location unless absolute.
+     */
+    static String canonicalizePath(Path tablePath, String path)
+    {
+        Path filePath;
+        try {
+            filePath = new Path(new URI(path));
+        }
+        catch (URISyntaxException e) {
+            // not encoded by the writer
+            filePath = new Path(path);
+        }
+        return filePath.makeQualified(tablePath.toUri(), tablePath).toUri().toString();
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    public long getFullLoads()
+    {
+        return fullLoads.get();
+    }
+
+    @Managed
+    public long getIncrementalLoads()
+    {
+        return incrementalLoads.get();
+    }
+
+    private static final class SnapshotKey
+    {
+        private final String tableLocation;
+        private final long version;
+
+        public SnapshotKey(String tableLocation, long version)
+        {
+            this.tableLocation = requireNonNull(tableLocation, "tableLocation is null");
+            this.version = version;
+        }
+
+        public String getTableLocation()
+        {
+            return tableLocation;
+        }
+
+        public long getVersion()
+        {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SnapshotKey that = (SnapshotKey) o;
+            return version == that.version &&
+                    tableLocation.equals(that.tableLocation);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(tableLocation, version);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("tableLocation", tableLocation)
+                    .add("version", version)
+                    .toString();
+        }
+    }
+}
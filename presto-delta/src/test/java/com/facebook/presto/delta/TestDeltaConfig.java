@@ -26,7 +26,10 @@ public class TestDeltaConfig
     {
         ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(DeltaConfig.class)
                 .setMaxSplitsBatchSize(200)
-                .setParquetDereferencePushdownEnabled(true));
+                .setParquetDereferencePushdownEnabled(true)
+                .setTableStateCacheEnabled(false)
+                .setTableStateCacheMaxFiles(1_000_000)
+                .setFileStatisticsPruningEnabled(true));
     }
 
     @Test
@@ -35,11 +38,17 @@ public class TestDeltaConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("delta.max-splits-batch-size", "400")
                 .put("delta.parquet-dereference-pushdown-enabled", "false")
+                .put("delta.table-state-cache-enabled", "true")
+                .put("delta.table-state-cache-max-files", "5000")
+                .put("delta.file-statistics-pruning-enabled", "false")
                 .build();
 
         DeltaConfig expected = new DeltaConfig()
                 .setMaxSplitsBatchSize(400)
-                .setParquetDereferencePushdownEnabled(false);
+                .setParquetDereferencePushdownEnabled(false)
+                .setTableStateCacheEnabled(true)
+                .setTableStateCacheMaxFiles(5000)
+                .setFileStatisticsPruningEnabled(false);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.TypeManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.delta.standalone.actions.AddFile;
+import io.delta.standalone.data.CloseableIterator;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.delta.DeltaColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.delta.DeltaExpressionUtils.iterateWithStatisticsPruning;
+import static com.facebook.presto.metadata.FunctionAndTypeManager.createTestFunctionAndTypeManager;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+
+public class TestDeltaExpressionUtils
+{
+    private static final TypeManager TYPE_MANAGER = createTestFunctionAndTypeManager();
+    private static final DeltaColumnHandle ID_COLUMN = new DeltaColumnHandle("id", parseTypeSignature("bigint"), REGULAR, Optional.empty());
+    private static final DeltaColumnHandle NAME_COLUMN = new DeltaColumnHandle("name", parseTypeSignature("varchar"), REGULAR, Optional.empty());
+
+    private static final AddFile LOW_IDS = createFile("low", "{\"numRecords\":10,\"minValues\":{\"id\":1,\"name\":\"a\"},\"maxValues\":{\"id\":10,\"name\":\"c\"},\"nullCount\":{\"id\":0,\"name\":0}}");
+    private static final AddFile HIGH_IDS = createFile("high", "{\"numRecords\":10,\"minValues\":{\"id\":100,\"name\":\"x\"},\"maxValues\":{\"id\":200,\"name\":\"z\"},\"nullCount\":{\"id\":0,\"name\":2}}");
+    private static final AddFile NULL_IDS = createFile("null", "{\"numRecords\":5,\"minValues\":{},\"maxValues\":{},\"nullCount\":{\"id\":5}}");
+    private static final AddFile NO_STATISTICS = createFile("none", null);
+    private static final List<AddFile> FILES = ImmutableList.of(LOW_IDS, HIGH_IDS, NULL_IDS, NO_STATISTICS);
+
+    @Test
+    public void testRangePruning()
+    {
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.singleValue(BIGINT, 5L))), "low", "none");
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.singleValue(BIGINT, 150L))), "high", "none");
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.singleValue(BIGINT, 50L))), "none");
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(NAME_COLUMN, Domain.singleValue(VARCHAR, utf8Slice("y")))), "high", "null", "none");
+    }
+
+    @Test
+    public void testNullPruning()
+    {
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.onlyNull(BIGINT))), "null", "none");
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(ID_COLUMN, Domain.notNull(BIGINT))), "low", "high", "none");
+        assertFiles(TupleDomain.withColumnDomains(ImmutableMap.of(NAME_COLUMN, Domain.onlyNull(VARCHAR))), "high", "null", "none");
+    }
+
+    @Test
+    public void testTruncatedStringMaximum()
+    {
+        String truncated = "abcdefghijklmnopqrstuvwxyzabcdef";
+        AddFile file = createFile("truncated", "{\"numRecords\":1,\"minValues\":{\"name\":\"a\"},\"maxValues\":{\"name\":\"" + truncated + "\"},\"nullCount\":{\"name\":0}}");
+        TupleDomain<DeltaColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(NAME_COLUMN, Domain.singleValue(VARCHAR, utf8Slice(truncated + "z"))));
+        assertEquals(getPaths(ImmutableList.of(file), predicate), ImmutableList.of("truncated"));
+    }
+
+    private static void assertFiles(TupleDomain<DeltaColumnHandle> predicate, String... expectedPaths)
+    {
+        assertEquals(getPaths(FILES, predicate), ImmutableList.copyOf(expectedPaths));
+    }
+
+    private static List<String> getPaths(List<AddFile> files, TupleDomain<DeltaColumnHandle> predicate)
+    {
+        Iterator<AddFile> iterator = iterateWithStatisticsPruning(toCloseableIterator(files), predicate, TYPE_MANAGER);
+        return ImmutableList.copyOf(iterator).stream()
+                .map(AddFile::getPath)
+                .collect(toImmutableList());
+    }
+
+    private static AddFile createFile(String path, String statistics)
+    {
+        return new AddFile(path, ImmutableMap.of(), 100, 0, true, statistics, ImmutableMap.of());
+    }
+
+    private static CloseableIterator<AddFile> toCloseableIterator(List<AddFile> files)
+    {
+        Iterator<AddFile> iterator = files.iterator();
+        return new CloseableIterator<AddFile>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public AddFile next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+}
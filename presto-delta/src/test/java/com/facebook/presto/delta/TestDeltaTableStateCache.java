@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.delta;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.delta.standalone.DeltaLog;
+import io.delta.standalone.Operation;
+import io.delta.standalone.OptimisticTransaction;
+import io.delta.standalone.actions.Action;
+import io.delta.standalone.actions.AddFile;
+import io.delta.standalone.actions.Metadata;
+import io.delta.standalone.types.LongType;
+import io.delta.standalone.types.StructType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.delta.DeltaTableStateCache.canonicalizePath;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeltaTableStateCache
+{
+    private File tableDirectory;
+    private String tableLocation;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        tableDirectory = createTempDir();
+        tableLocation = tableDirectory.toURI().toString();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tableDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testIncrementalLoadMatchesFullLoad()
+    {
+        DeltaLog deltaLog = createTable();
+        // version 1 removes a file, version 2 adds it again
+        commit(deltaLog, addFile("a.parquet").remove());
+        commit(deltaLog, addFile("a.parquet"));
+        // files added with a relative encoded path are removed with their absolute path
+        commit(deltaLog, addFile("part=x%20y/c.parquet"), addFile(absolutePath("b.parquet")).remove());
+        commit(deltaLog, addFile(absolutePath("part=x%20y/c.parquet")).remove(), addFile("d.parquet"));
+
+        DeltaTableStateCache cache = createCache();
+        for (long version = 0; version <= 4; version++) {
+            assertEquals(getFileNames(cache, version), getFileNames(createCache(), version), "version " + version);
+        }
+        assertEquals(cache.getFullLoads(), 1);
+        assertEquals(cache.getIncrementalLoads(), 4);
+
+        assertEquals(getFileNames(cache, 0), ImmutableSet.of("a.parquet", "b.parquet"));
+        assertEquals(getFileNames(cache, 1), ImmutableSet.of("b.parquet"));
+        assertEquals(getFileNames(cache, 2), ImmutableSet.of("a.parquet", "b.parquet"));
+        assertEquals(getFileNames(cache, 3), ImmutableSet.of("a.parquet", "part=x y/c.parquet"));
+        assertEquals(getFileNames(cache, 4), ImmutableSet.of("a.parquet", "d.parquet"));
+
+        // several commits are applied at once
+        DeltaTableStateCache skippingCache = createCache();
+        getFileNames(skippingCache, 0);
+        assertEquals(getFileNames(skippingCache, 4), ImmutableSet.of("a.parquet", "d.parquet"));
+        assertEquals(skippingCache.getFullLoads(), 1);
+        assertEquals(skippingCache.getIncrementalLoads(), 1);
+    }
+
+    @Test
+    public void testFullLoadWhenCommitsAreMissing()
+    {
+        DeltaLog deltaLog = createTable();
+        commit(deltaLog, addFile("a.parquet").remove());
+        commit(deltaLog, addFile("c.parquet"));
+        commit(deltaLog, addFile("d.parquet"));
+
+        DeltaTableStateCache cache = createCache();
+        assertEquals(getFileNames(cache, 0), ImmutableSet.of("a.parquet", "b.parquet"));
+
+        // the log retention removed the commits before the checkpoint
+        assertTrue(new File(tableDirectory, format("_delta_log/%020d.checkpoint.parquet", 2)).exists());
+        for (int version = 0; version < 2; version++) {
+            assertTrue(new File(tableDirectory, format("_delta_log/%020d.json", version)).delete());
+        }
+
+        assertEquals(getFileNames(cache, 3), ImmutableSet.of("b.parquet", "c.parquet", "d.parquet"));
+        assertEquals(cache.getFullLoads(), 2);
+        assertEquals(cache.getIncrementalLoads(), 0);
+    }
+
+    @Test
+    public void testCanonicalizePath()
+    {
+        Path tablePath = new Path("file:/tmp/table");
+        String canonicalPath = "file:/tmp/table/part=x%20y/a.parquet";
+        assertEquals(canonicalizePath(tablePath, "part=x%20y/a.parquet"), canonicalPath);
+        assertEquals(canonicalizePath(tablePath, "file:/tmp/table/part=x%20y/a.parquet"), canonicalPath);
+        assertEquals(canonicalizePath(tablePath, "/tmp/table/part=x%20y/a.parquet"), canonicalPath);
+        assertEquals(canonicalizePath(tablePath, "part=x y/a.parquet"), canonicalPath);
+        assertEquals(canonicalizePath(tablePath, canonicalPath), canonicalPath);
+
+        assertEquals(canonicalizePath(new Path("s3://bucket/table"), "a.parquet"), "s3://bucket/table/a.parquet");
+        assertEquals(canonicalizePath(new Path("s3://bucket/table"), "s3://other/table/a.parquet"), "s3://other/table/a.parquet");
+    }
+
+    private DeltaLog createTable()
+    {
+        DeltaLog deltaLog = DeltaLog.forTable(new Configuration(), tableLocation);
+        OptimisticTransaction transaction = deltaLog.startTransaction();
+        transaction.updateMetadata(Metadata.builder()
+                .schema(new StructType().add("id", new LongType()))
+                // checkpoint every other version, so that the commits before a checkpoint can be removed
+                .configuration(ImmutableMap.of("delta.checkpointInterval", "2"))
+                .build());
+        transaction.commit(ImmutableList.of(addFile("a.parquet"), addFile("b.parquet")), new Operation(Operation.Name.WRITE), "presto");
+        return deltaLog;
+    }
+
+    private static void commit(DeltaLog deltaLog, Action... actions)
+    {
+        deltaLog.startTransaction().commit(ImmutableList.copyOf(actions), new Operation(Operation.Name.WRITE), "presto");
+    }
+
+    private static AddFile addFile(String path)
+    {
+        return new AddFile(path, ImmutableMap.of(), 100, 0, true, null, ImmutableMap.of());
+    }
+
+    private String absolutePath(String relativePath)
+    {
+        return tableLocation + relativePath;
+    }
+
+    private DeltaTableStateCache createCache()
+    {
+        return new DeltaTableStateCache(new DeltaConfig().setTableStateCacheEnabled(true));
+    }
+
+    private Set<String> getFileNames(DeltaTableStateCache cache, long version)
+    {
+        List<AddFile> files = cache.getFiles(tableLocation, version, () -> DeltaLog.forTable(new Configuration(), tableLocation));
+        Path tablePath = new Path(tableLocation);
+        String tablePrefix = tablePath + "/";
+        // the decoded paths relative to the table location
+        return files.stream()
+                .map(file -> new Path(URI.create(canonicalizePath(tablePath, file.getPath()))).toString())
+                .peek(path -> assertTrue(path.startsWith(tablePrefix), path))
+                .map(path -> path.substring(tablePrefix.length()))
+                .collect(toImmutableSet());
+    }
+}
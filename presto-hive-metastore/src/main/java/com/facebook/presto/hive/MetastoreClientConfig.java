@@ -52,6 +52,10 @@ public class MetastoreClientConfig
     private int partitionCacheColumnCountLimit = 500;
     private HiveMetastoreAuthenticationType hiveMetastoreAuthenticationType = HiveMetastoreAuthenticationType.NONE;
     private boolean deleteFilesOnTableDrop;
+    private String persistentCachePath;
+    private Duration persistentCacheTtl = new Duration(1, TimeUnit.HOURS);
+    private Duration persistentCacheSnapshotInterval = new Duration(5, MINUTES);
+    private Duration cacheEventPollInterval = new Duration(10, TimeUnit.SECONDS);
 
     public HostAndPort getMetastoreSocksProxy()
     {
@@ -303,4 +307,59 @@ public class MetastoreClientConfig
         this.deleteFilesOnTableDrop = deleteFilesOnTableDrop;
         return this;
     }
+
+    public String getPersistentCachePath()
+    {
+        return persistentCachePath;
+    }
+
+    @Config("hive.metastore-persistent-cache-path")
+    @ConfigDescription("File holding the snapshot of the persistent tier of the metastore cache, which survives coordinator restarts")
+    public MetastoreClientConfig setPersistentCachePath(String persistentCachePath)
+    {
+        this.persistentCachePath = persistentCachePath;
+        return this;
+    }
+
+    @MinDuration("1ms")
+    public Duration getPersistentCacheTtl()
+    {
+        return persistentCacheTtl;
+    }
+
+    @Config("hive.metastore-persistent-cache-ttl")
+    @ConfigDescription("Time after which tables, partitions and statistics of the persistent metastore cache are loaded again from the metastore")
+    public MetastoreClientConfig setPersistentCacheTtl(Duration persistentCacheTtl)
+    {
+        this.persistentCacheTtl = persistentCacheTtl;
+        return this;
+    }
+
+    @MinDuration("1s")
+    public Duration getPersistentCacheSnapshotInterval()
+    {
+        return persistentCacheSnapshotInterval;
+    }
+
+    @Config("hive.metastore-persistent-cache-snapshot-interval")
+    @ConfigDescription("Interval at which the persistent metastore cache is written to its snapshot file")
+    public MetastoreClientConfig setPersistentCacheSnapshotInterval(Duration persistentCacheSnapshotInterval)
+    {
+        this.persistentCacheSnapshotInterval = persistentCacheSnapshotInterval;
+        return this;
+    }
+
+    @MinDuration("1ms")
+    public Duration getCacheEventPollInterval()
+    {
+        return cacheEventPollInterval;
+    }
+
+    @Config("hive.metastore-cache-event-poll-interval")
+    @ConfigDescription("Interval at which metastore notification events are polled to invalidate the metastore cache")
+    public MetastoreClientConfig setCacheEventPollInterval(Duration cacheEventPollInterval)
+    {
+        this.cacheEventPollInterval = cacheEventPollInterval;
+        return this;
+    }
 }
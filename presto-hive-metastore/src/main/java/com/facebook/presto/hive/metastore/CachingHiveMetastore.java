@@ -13,12 +13,14 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import com.facebook.airlift.log.Logger;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.HiveTableHandle;
 import com.facebook.presto.hive.HiveType;
 import com.facebook.presto.hive.MetastoreClientConfig;
+import com.facebook.presto.hive.metastore.PersistentMetastoreCache.Tier;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.constraints.TableConstraint;
 import com.facebook.presto.spi.security.PrestoPrincipal;
@@ -31,14 +33,20 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.units.Duration;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -48,9 +56,12 @@ import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CORRUPTED_PARTITION_CACHE;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
 import static com.facebook.presto.hive.metastore.CachingHiveMetastore.MetastoreCacheScope.ALL;
@@ -60,6 +71,7 @@ import static com.facebook.presto.hive.metastore.NoopMetastoreCacheStats.NOOP_ME
 import static com.facebook.presto.hive.metastore.PartitionFilter.partitionFilter;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheLoader.asyncReloading;
@@ -69,9 +81,11 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.ImmutableSetMultimap.toImmutableSetMultimap;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Streams.stream;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
@@ -81,6 +95,8 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 public class CachingHiveMetastore
         implements ExtendedHiveMetastore
 {
+    private static final Logger log = Logger.get(CachingHiveMetastore.class);
+
     public enum MetastoreCacheScope
     {
         ALL, PARTITION
@@ -108,13 +124,27 @@ public class CachingHiveMetastore
     private final boolean partitionVersioningEnabled;
     private final double partitionCacheValidationPercentage;
     private final int partitionCacheColumnCountLimit;
+    private final Optional<PersistentMetastoreCache> persistentCache;
+
+    @GuardedBy("this")
+    private ScheduledExecutorService scheduledExecutor;
+
+    public CachingHiveMetastore(
+            ExtendedHiveMetastore delegate,
+            ExecutorService executor,
+            MetastoreCacheStats metastoreCacheStats,
+            MetastoreClientConfig metastoreClientConfig)
+    {
+        this(delegate, executor, metastoreCacheStats, metastoreClientConfig, Optional.empty());
+    }
 
     @Inject
     public CachingHiveMetastore(
             @ForCachingHiveMetastore ExtendedHiveMetastore delegate,
             @ForCachingHiveMetastore ExecutorService executor,
             MetastoreCacheStats metastoreCacheStats,
-            MetastoreClientConfig metastoreClientConfig)
+            MetastoreClientConfig metastoreClientConfig,
+            Optional<MetastoreEventPoller> eventPoller)
     {
         this(
                 delegate,
@@ -127,7 +157,14 @@ public class CachingHiveMetastore
                 metastoreClientConfig.getMetastoreCacheScope(),
                 metastoreClientConfig.getPartitionCacheValidationPercentage(),
                 metastoreClientConfig.getPartitionCacheColumnCountLimit(),
-                metastoreCacheStats);
+                metastoreCacheStats,
+                createPersistentCache(metastoreClientConfig));
+
+        if (persistentCache.isPresent()) {
+            long snapshotIntervalMillis = metastoreClientConfig.getPersistentCacheSnapshotInterval().toMillis();
+            getScheduledExecutor().scheduleWithFixedDelay(this::writeSnapshotSafely, snapshotIntervalMillis, snapshotIntervalMillis, MILLISECONDS);
+        }
+        requireNonNull(eventPoller, "eventPoller is null").ifPresent(poller -> startEventPolling(poller, metastoreClientConfig.getCacheEventPollInterval()));
     }
 
     public CachingHiveMetastore(
@@ -154,7 +191,8 @@ public class CachingHiveMetastore
                 metastoreCacheScope,
                 partitionCacheValidationPercentage,
                 partitionCacheColumnCountLimit,
-                metastoreCacheStats);
+                metastoreCacheStats,
+                Optional.empty());
     }
 
     public static CachingHiveMetastore memoizeMetastore(ExtendedHiveMetastore delegate, boolean isMetastoreImpersonationEnabled, long maximumSize, int partitionCacheMaxColumnCount)
@@ -170,7 +208,8 @@ public class CachingHiveMetastore
                 ALL,
                 0.0,
                 partitionCacheMaxColumnCount,
-                NOOP_METASTORE_CACHE_STATS);
+                NOOP_METASTORE_CACHE_STATS,
+                Optional.empty());
     }
 
     private CachingHiveMetastore(
@@ -184,7 +223,8 @@ public class CachingHiveMetastore
             MetastoreCacheScope metastoreCacheScope,
             double partitionCacheValidationPercentage,
             int partitionCacheColumnCountLimit,
-            MetastoreCacheStats metastoreCacheStats)
+            MetastoreCacheStats metastoreCacheStats,
+            Optional<PersistentMetastoreCache> persistentCache)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         requireNonNull(executor, "executor is null");
@@ -193,6 +233,7 @@ public class CachingHiveMetastore
         this.partitionCacheValidationPercentage = partitionCacheValidationPercentage;
         this.partitionCacheColumnCountLimit = partitionCacheColumnCountLimit;
         this.metastoreCacheStats = metastoreCacheStats;
+        this.persistentCache = requireNonNull(persistentCache, "persistentCache is null");
 
         OptionalLong cacheExpiresAfterWriteMillis;
         OptionalLong cacheRefreshMills;
@@ -225,6 +266,9 @@ public class CachingHiveMetastore
                 throw new IllegalArgumentException("Unknown metastore-cache-scope: " + metastoreCacheScope);
         }
 
+        // tables are only kept in the persistent tier when they are cached in memory
+        Optional<PersistentMetastoreCache> tablePersistentCache = metastoreCacheScope == ALL ? persistentCache : Optional.empty();
+
         databaseNamesCache = newCacheBuilder(cacheExpiresAfterWriteMillis, cacheRefreshMills, cacheMaxSize)
                 .build(asyncReloading(CacheLoader.from(this::loadAllDatabases), executor));
 
@@ -235,17 +279,17 @@ public class CachingHiveMetastore
                 .build(asyncReloading(CacheLoader.from(this::loadAllTables), executor));
 
         tableStatisticsCache = newCacheBuilder(cacheExpiresAfterWriteMillis, cacheRefreshMills, cacheMaxSize)
-                .build(asyncReloading(new CacheLoader<KeyAndContext<HiveTableName>, PartitionStatistics>()
+                .build(asyncReloading(withPersistentTier(new CacheLoader<KeyAndContext<HiveTableName>, PartitionStatistics>()
                 {
                     @Override
                     public PartitionStatistics load(KeyAndContext<HiveTableName> key)
                     {
                         return loadTableColumnStatistics(key);
                     }
-                }, executor));
+                }, tablePersistentCache.map(PersistentMetastoreCache::getTableStatistics)), executor));
 
         partitionStatisticsCache = newCacheBuilder(partitionCacheExpiresAfterWriteMillis, partitionCacheRefreshMills, partitionCacheMaxSize)
-                .build(asyncReloading(new CacheLoader<KeyAndContext<HivePartitionName>, PartitionStatistics>()
+                .build(asyncReloading(withPersistentTier(new CacheLoader<KeyAndContext<HivePartitionName>, PartitionStatistics>()
                 {
                     @Override
                     public PartitionStatistics load(KeyAndContext<HivePartitionName> key)
@@ -258,10 +302,10 @@ public class CachingHiveMetastore
                     {
                         return loadPartitionColumnStatistics(keys);
                     }
-                }, executor));
+                }, persistentCache.map(PersistentMetastoreCache::getPartitionStatistics)), executor));
 
         tableCache = newCacheBuilder(cacheExpiresAfterWriteMillis, cacheRefreshMills, cacheMaxSize)
-                .build(asyncReloading(CacheLoader.from(this::loadTable), executor));
+                .build(asyncReloading(withPersistentTier(CacheLoader.from(this::loadTable), tablePersistentCache.map(PersistentMetastoreCache::getTables)), executor));
 
         tableConstraintsCache = newCacheBuilder(cacheExpiresAfterWriteMillis, cacheRefreshMills, cacheMaxSize)
                 .build(asyncReloading(CacheLoader.from(this::loadTableConstraints), executor));
@@ -276,7 +320,7 @@ public class CachingHiveMetastore
                 .build(asyncReloading(CacheLoader.from(this::loadPartitionNamesByFilter), executor));
 
         partitionCache = newCacheBuilder(partitionCacheExpiresAfterWriteMillis, partitionCacheRefreshMills, partitionCacheMaxSize)
-                .build(asyncReloading(new CacheLoader<KeyAndContext<HivePartitionName>, Optional<Partition>>()
+                .build(asyncReloading(withPersistentTier(new CacheLoader<KeyAndContext<HivePartitionName>, Optional<Partition>>()
                 {
                     @Override
                     public Optional<Partition> load(KeyAndContext<HivePartitionName> partitionName)
@@ -289,7 +333,7 @@ public class CachingHiveMetastore
                     {
                         return loadPartitionsByNames(partitionNames);
                     }
-                }, executor));
+                }, persistentCache.map(PersistentMetastoreCache::getPartitions)), executor));
         metastoreCacheStats.setPartitionCache(partitionCache);
 
         tablePrivilegesCache = newCacheBuilder(cacheExpiresAfterWriteMillis, cacheRefreshMills, cacheMaxSize)
@@ -318,6 +362,97 @@ public class CachingHiveMetastore
         tableStatisticsCache.invalidateAll();
         partitionStatisticsCache.invalidateAll();
         rolesCache.invalidateAll();
+        persistentCache.ifPresent(PersistentMetastoreCache::invalidateAll);
+    }
+
+    @Managed
+    public void writePersistentCacheSnapshot()
+            throws IOException
+    {
+        checkState(persistentCache.isPresent(), "persistent metastore cache is not enabled");
+        persistentCache.get().writeSnapshot();
+    }
+
+    /**
+     * Invalidates the tables changed by the events of the given poller, which are polled at the given interval.
+     * Events are polled from the last event applied to the snapshot of the persistent tier, so that the changes
+     * made while the coordinator was down are applied to the entries read from the snapshot.
+     */
+    private void startEventPolling(MetastoreEventPoller eventPoller, Duration pollInterval)
+    {
+        OptionalLong lastEventId = persistentCache.map(PersistentMetastoreCache::getLastEventId).orElse(OptionalLong.empty());
+        EventPollingTask task = new EventPollingTask(eventPoller, lastEventId.isPresent() ? lastEventId.getAsLong() : eventPoller.getCurrentEventId());
+        getScheduledExecutor().scheduleWithFixedDelay(task, pollInterval.toMillis(), pollInterval.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop()
+    {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+        if (persistentCache.isPresent()) {
+            writeSnapshotSafely();
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduledExecutor()
+    {
+        if (scheduledExecutor == null) {
+            scheduledExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-cache-%s"));
+        }
+        return scheduledExecutor;
+    }
+
+    private void writeSnapshotSafely()
+    {
+        try {
+            writePersistentCacheSnapshot();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write metastore cache snapshot");
+        }
+    }
+
+    private void applyEvent(MetastoreEvent event)
+    {
+        String databaseName = event.getDatabaseName();
+        if (event.getTableName().isPresent()) {
+            invalidateTable(databaseName, event.getTableName().get());
+            return;
+        }
+
+        invalidateDatabase(databaseName);
+        Stream.concat(
+                tableCache.asMap().keySet().stream()
+                        .map(hiveTableHandle -> hiveTableName(hiveTableHandle.getKey().getSchemaName(), hiveTableHandle.getKey().getTableName())),
+                partitionCache.asMap().keySet().stream()
+                        .map(partitionNameKey -> partitionNameKey.getKey().getHiveTableName()))
+                .filter(hiveTableName -> hiveTableName.getDatabaseName().equals(databaseName))
+                .distinct()
+                .collect(toImmutableList())
+                .forEach(hiveTableName -> invalidateTable(databaseName, hiveTableName.getTableName()));
+    }
+
+    private static Optional<PersistentMetastoreCache> createPersistentCache(MetastoreClientConfig metastoreClientConfig)
+    {
+        if (metastoreClientConfig.getPersistentCachePath() == null) {
+            return Optional.empty();
+        }
+        // entries of the persistent tier are keyed by name only, so they would be shared by all the users
+        checkArgument(!metastoreClientConfig.isMetastoreImpersonationEnabled(), "Persistent metastore cache cannot be used with metastore impersonation");
+        return Optional.of(new PersistentMetastoreCache(
+                new File(metastoreClientConfig.getPersistentCachePath()),
+                metastoreClientConfig.getPersistentCacheTtl(),
+                metastoreClientConfig.getMetastoreCacheMaximumSize()));
+    }
+
+    private static <K, V> CacheLoader<KeyAndContext<K>, V> withPersistentTier(CacheLoader<KeyAndContext<K>, V> loader, Optional<Tier<K, V>> tier)
+    {
+        if (!tier.isPresent()) {
+            return loader;
+        }
+        return new PersistentTierCacheLoader<>(loader, tier.get());
     }
 
     private static <K, V> V get(LoadingCache<K, V> cache, K key)
@@ -466,6 +601,7 @@ public class CachingHiveMetastore
             tableStatisticsCache.asMap().keySet().stream()
                     .filter(hiveTableNameKey -> hiveTableNameKey.getKey().equals(hiveTableName(databaseName, tableName)))
                     .forEach(tableStatisticsCache::invalidate);
+            persistentCache.ifPresent(cache -> cache.getTableStatistics().invalidate(hiveTableName(databaseName, tableName)));
         }
     }
 
@@ -479,6 +615,7 @@ public class CachingHiveMetastore
             partitionStatisticsCache.asMap().keySet().stream()
                     .filter(partitionFilterKey -> partitionFilterKey.getKey().equals(hivePartitionName(databaseName, tableName, partitionName)))
                     .forEach(partitionStatisticsCache::invalidate);
+            persistentCache.ifPresent(cache -> cache.getPartitionStatistics().invalidate(hivePartitionName(databaseName, tableName, partitionName)));
         }
     }
 
@@ -544,6 +681,7 @@ public class CachingHiveMetastore
                 .filter(databaseKey -> databaseKey.getKey().equals(databaseName))
                 .forEach(databaseCache::invalidate);
         databaseNamesCache.invalidateAll();
+        persistentCache.ifPresent(cache -> cache.invalidateDatabase(databaseName));
     }
 
     @Override
@@ -659,6 +797,8 @@ public class CachingHiveMetastore
                 .filter(hiveTableNameKey -> hiveTableNameKey.getKey().equals(hiveTableName))
                 .forEach(tableStatisticsCache::invalidate);
 
+        persistentCache.ifPresent(cache -> cache.invalidateTable(databaseName, tableName));
+
         invalidatePartitionCache(databaseName, tableName);
     }
 
@@ -722,24 +862,33 @@ public class CachingHiveMetastore
             KeyAndContext<HivePartitionName> partitionNameKey = getCachingKey(metastoreContext, hivePartitionName);
             Optional<Partition> partition = partitionCache.getIfPresent(partitionNameKey);
             if (partition == null || !partition.isPresent()) {
-                partitionCache.invalidate(partitionNameKey);
-                partitionStatisticsCache.invalidate(partitionNameKey);
+                invalidatePartition(partitionNameKey);
             }
             else {
                 Optional<Long> partitionVersion = partition.get().getPartitionVersion();
                 if (!partitionVersion.isPresent() || !partitionVersion.equals(partitionNameWithVersion.getPartitionVersion())) {
-                    partitionCache.invalidate(partitionNameKey);
-                    partitionStatisticsCache.invalidate(partitionNameKey);
+                    invalidatePartition(partitionNameKey);
                 }
             }
         }
     }
 
+    private void invalidatePartition(KeyAndContext<HivePartitionName> partitionNameKey)
+    {
+        partitionCache.invalidate(partitionNameKey);
+        partitionStatisticsCache.invalidate(partitionNameKey);
+        persistentCache.ifPresent(cache -> {
+            cache.getPartitions().invalidate(partitionNameKey.getKey());
+            cache.getPartitionStatistics().invalidate(partitionNameKey.getKey());
+        });
+    }
+
     private void invalidatePartitionsWithHighColumnCount(Optional<Partition> partition, KeyAndContext<HivePartitionName> partitionCacheKey)
     {
         // Do NOT cache partitions with # of columns > partitionCacheColumnLimit
         if (partition.isPresent() && partition.get().getColumns().size() > partitionCacheColumnCountLimit) {
             partitionCache.invalidate(partitionCacheKey);
+            persistentCache.ifPresent(cache -> cache.getPartitions().invalidate(partitionCacheKey.getKey()));
             metastoreCacheStats.incrementPartitionsWithColumnCountGreaterThanThreshold();
         }
     }
@@ -959,6 +1108,7 @@ public class CachingHiveMetastore
         partitionStatisticsCache.asMap().keySet().stream()
                 .filter(partitionFilterKey -> partitionFilterKey.getKey().getHiveTableName().equals(hiveTableName))
                 .forEach(partitionStatisticsCache::invalidate);
+        persistentCache.ifPresent(cache -> cache.invalidatePartitions(hiveTableName));
     }
 
     private void invalidateTablePrivilegesCache(PrestoPrincipal grantee, String databaseName, String tableName)
@@ -1007,6 +1157,7 @@ public class CachingHiveMetastore
     public long lock(MetastoreContext metastoreContext, String databaseName, String tableName)
     {
         tableCache.invalidate(getCachingKey(metastoreContext, new HiveTableHandle(databaseName, tableName)));
+        persistentCache.ifPresent(cache -> cache.getTables().invalidate(new HiveTableHandle(databaseName, tableName)));
         return delegate.lock(metastoreContext, databaseName, tableName);
     }
 
@@ -1021,6 +1172,102 @@ public class CachingHiveMetastore
         return delegate.listTablePrivileges(loadTablePrivilegesKey.getContext(), loadTablePrivilegesKey.getKey().getDatabase(), loadTablePrivilegesKey.getKey().getTable(), loadTablePrivilegesKey.getKey().getPrincipal());
     }
 
+    /**
+     * Loads the entries of a cache from the metastore, and writes them to the persistent tier. The entries restored
+     * from the snapshot of the tier are used instead of the metastore only once, to warm up the cache after a restart,
+     * so the expiration of the cache still applies to them. Refreshes of the cache always go to the metastore.
+     */
+    private static class PersistentTierCacheLoader<K, V>
+            extends CacheLoader<KeyAndContext<K>, V>
+    {
+        private final CacheLoader<KeyAndContext<K>, V> delegate;
+        private final Tier<K, V> tier;
+
+        public PersistentTierCacheLoader(CacheLoader<KeyAndContext<K>, V> delegate, Tier<K, V> tier)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.tier = requireNonNull(tier, "tier is null");
+        }
+
+        @Override
+        public V load(KeyAndContext<K> key)
+                throws Exception
+        {
+            Optional<V> value = tier.getRestored(key.getKey());
+            if (value.isPresent()) {
+                return value.get();
+            }
+            return loadFromMetastore(key);
+        }
+
+        @Override
+        public ListenableFuture<V> reload(KeyAndContext<K> key, V oldValue)
+                throws Exception
+        {
+            return immediateFuture(loadFromMetastore(key));
+        }
+
+        @Override
+        public Map<KeyAndContext<K>, V> loadAll(Iterable<? extends KeyAndContext<K>> keys)
+                throws Exception
+        {
+            Map<KeyAndContext<K>, V> result = new HashMap<>();
+            List<KeyAndContext<K>> missingKeys = new ArrayList<>();
+            for (KeyAndContext<K> key : keys) {
+                Optional<V> value = tier.getRestored(key.getKey());
+                if (value.isPresent()) {
+                    result.put(key, value.get());
+                }
+                else {
+                    missingKeys.add(key);
+                }
+            }
+            if (!missingKeys.isEmpty()) {
+                Map<KeyAndContext<K>, V> loaded = delegate.loadAll(missingKeys);
+                loaded.forEach((key, value) -> tier.put(key.getKey(), value));
+                result.putAll(loaded);
+            }
+            return result;
+        }
+
+        private V loadFromMetastore(KeyAndContext<K> key)
+                throws Exception
+        {
+            V value = delegate.load(key);
+            tier.put(key.getKey(), value);
+            return value;
+        }
+    }
+
+    private class EventPollingTask
+            implements Runnable
+    {
+        private final MetastoreEventPoller eventPoller;
+        private long lastEventId;
+
+        public EventPollingTask(MetastoreEventPoller eventPoller, long lastEventId)
+        {
+            this.eventPoller = requireNonNull(eventPoller, "eventPoller is null");
+            this.lastEventId = lastEventId;
+        }
+
+        @Override
+        public void run()
+        {
+            try {
+                for (MetastoreEvent event : eventPoller.getEventsAfter(lastEventId)) {
+                    applyEvent(event);
+                    lastEventId = event.getEventId();
+                }
+                persistentCache.ifPresent(cache -> cache.setLastEventId(lastEventId));
+            }
+            catch (RuntimeException e) {
+                // the events are polled again at the next run
+                log.warn(e, "Failed to poll metastore events");
+            }
+        }
+    }
+
     private static class KeyAndContext<T>
     {
         private final MetastoreContext context;
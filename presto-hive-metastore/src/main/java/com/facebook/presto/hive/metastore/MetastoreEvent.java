@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class MetastoreEvent
+{
+    private final long eventId;
+    private final String databaseName;
+    private final Optional<String> tableName;
+
+    /**
+     * @param tableName the table changed by the event, or empty if the event changed the database
+     */
+    public MetastoreEvent(long eventId, String databaseName, Optional<String> tableName)
+    {
+        this.eventId = eventId;
+        this.databaseName = requireNonNull(databaseName, "databaseName is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+    }
+
+    public long getEventId()
+    {
+        return eventId;
+    }
+
+    public String getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    public Optional<String> getTableName()
+    {
+        return tableName;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("eventId", eventId)
+                .add("databaseName", databaseName)
+                .add("tableName", tableName.orElse(null))
+                .toString();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import java.util.List;
+
+/**
+ * Source of the notification events of a metastore, such as the notification log of the Hive metastore,
+ * which the {@link CachingHiveMetastore} polls to invalidate the tables changed by other clients.
+ */
+public interface MetastoreEventPoller
+{
+    /**
+     * Returns the id of the latest event of the metastore.
+     */
+    long getCurrentEventId();
+
+    /**
+     * Returns the events with an id greater than the given id, in the order of their ids.
+     */
+    List<MetastoreEvent> getEventsAfter(long eventId);
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.airlift.json.JsonObjectMapperProvider;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.hive.HiveTableHandle;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Predicate;
+
+import static com.facebook.presto.hive.metastore.HiveTableName.hiveTableName;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Persistent tier of the {@link CachingHiveMetastore} for tables, partitions and their statistics.
+ * <p>
+ * The entries are kept in memory and written to a snapshot file, which is read when the coordinator starts,
+ * so that a restarted coordinator does not reload every table and partition from the metastore. Every entry
+ * restored from the snapshot is only used once, to warm up the in-memory caches, which then load the entry
+ * from the metastore according to their own expiration. Entries are keyed by name only, so the tier must not
+ * be used when the metastore user is impersonated.
+ */
+@ThreadSafe
+public class PersistentMetastoreCache
+{
+    private static final Logger log = Logger.get(PersistentMetastoreCache.class);
+
+    private final File snapshotFile;
+    private final ObjectMapper objectMapper = new JsonObjectMapperProvider().get();
+
+    private final Tier<HiveTableHandle, Optional<Table>> tables;
+    private final Tier<HiveTableName, PartitionStatistics> tableStatistics;
+    private final Tier<HivePartitionName, Optional<Partition>> partitions;
+    private final Tier<HivePartitionName, PartitionStatistics> partitionStatistics;
+
+    // id of the last metastore event applied to the entries, if events are polled
+    private volatile OptionalLong lastEventId = OptionalLong.empty();
+
+    public PersistentMetastoreCache(File snapshotFile, Duration ttl, long maximumSize)
+    {
+        this.snapshotFile = requireNonNull(snapshotFile, "snapshotFile is null");
+        long ttlMillis = requireNonNull(ttl, "ttl is null").toMillis();
+        this.tables = new Tier<>(ttlMillis, maximumSize);
+        this.tableStatistics = new Tier<>(ttlMillis, maximumSize);
+        this.partitions = new Tier<>(ttlMillis, maximumSize);
+        this.partitionStatistics = new Tier<>(ttlMillis, maximumSize);
+
+        if (snapshotFile.exists()) {
+            try {
+                loadSnapshot();
+            }
+            catch (IOException | RuntimeException e) {
+                // the snapshot is only an optimization, so the cache starts empty
+                log.warn(e, "Failed to read metastore cache snapshot %s", snapshotFile);
+            }
+        }
+    }
+
+    public Tier<HiveTableHandle, Optional<Table>> getTables()
+    {
+        return tables;
+    }
+
+    public Tier<HiveTableName, PartitionStatistics> getTableStatistics()
+    {
+        return tableStatistics;
+    }
+
+    public Tier<HivePartitionName, Optional<Partition>> getPartitions()
+    {
+        return partitions;
+    }
+
+    public Tier<HivePartitionName, PartitionStatistics> getPartitionStatistics()
+    {
+        return partitionStatistics;
+    }
+
+    public OptionalLong getLastEventId()
+    {
+        return lastEventId;
+    }
+
+    public void setLastEventId(long lastEventId)
+    {
+        this.lastEventId = OptionalLong.of(lastEventId);
+    }
+
+    public void invalidateDatabase(String databaseName)
+    {
+        tables.invalidateAll(key -> key.getSchemaName().equals(databaseName));
+        tableStatistics.invalidateAll(key -> key.getDatabaseName().equals(databaseName));
+        partitions.invalidateAll(key -> key.getHiveTableName().getDatabaseName().equals(databaseName));
+        partitionStatistics.invalidateAll(key -> key.getHiveTableName().getDatabaseName().equals(databaseName));
+    }
+
+    public void invalidateTable(String databaseName, String tableName)
+    {
+        HiveTableName hiveTableName = hiveTableName(databaseName, tableName);
+        tables.invalidateAll(key -> key.getSchemaName().equals(databaseName) && key.getTableName().equals(tableName));
+        tableStatistics.invalidate(hiveTableName);
+        invalidatePartitions(hiveTableName);
+    }
+
+    public void invalidatePartitions(HiveTableName hiveTableName)
+    {
+        partitions.invalidateAll(key -> key.getHiveTableName().equals(hiveTableName));
+        partitionStatistics.invalidateAll(key -> key.getHiveTableName().equals(hiveTableName));
+    }
+
+    public void invalidateAll()
+    {
+        tables.invalidateAll(key -> true);
+        tableStatistics.invalidateAll(key -> true);
+        partitions.invalidateAll(key -> true);
+        partitionStatistics.invalidateAll(key -> true);
+    }
+
+    private void loadSnapshot()
+            throws IOException
+    {
+        Snapshot snapshot = objectMapper.readValue(snapshotFile, Snapshot.class);
+        lastEventId = snapshot.getLastEventId();
+        tables.putAll(snapshot.getTables());
+        tableStatistics.putAll(snapshot.getTableStatistics());
+        partitions.putAll(snapshot.getPartitions());
+        partitionStatistics.putAll(snapshot.getPartitionStatistics());
+    }
+
+    /**
+     * Writes the entries to the snapshot file. The file is replaced atomically, so a coordinator
+     * crash while writing the snapshot leaves the previous snapshot in place.
+     */
+    public void writeSnapshot()
+            throws IOException
+    {
+        // the event id is read first, so the events after it are applied again to the entries of the snapshot
+        Snapshot snapshot = new Snapshot(
+                lastEventId,
+                tables.getEntries(),
+                tableStatistics.getEntries(),
+                partitions.getEntries(),
+                partitionStatistics.getEntries());
+
+        File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+        objectMapper.writeValue(temporaryFile, snapshot);
+        Files.move(temporaryFile.toPath(), snapshotFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    @ThreadSafe
+    public static class Tier<K, V>
+    {
+        private final long ttlMillis;
+        private final Cache<K, Entry<K, V>> cache;
+
+        private Tier(long ttlMillis, long maximumSize)
+        {
+            this.ttlMillis = ttlMillis;
+            this.cache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttlMillis, MILLISECONDS)
+                    .maximumSize(maximumSize)
+                    .build();
+        }
+
+        /**
+         * Returns the value of an entry restored from the snapshot, unless the value was already returned.
+         */
+        public Optional<V> getRestored(K key)
+        {
+            Entry<K, V> entry = cache.getIfPresent(key);
+            if (entry == null || !entry.isRestored() || entry.isExpired(ttlMillis)) {
+                return Optional.empty();
+            }
+            // the entry stays in the tier for the next snapshot, but is not used again
+            if (!cache.asMap().replace(key, entry, new Entry<>(entry.getKey(), entry.getValue(), entry.getWriteTimeMillis()))) {
+                return Optional.empty();
+            }
+            return Optional.of(entry.getValue());
+        }
+
+        public void put(K key, V value)
+        {
+            cache.put(key, new Entry<>(key, value, currentTimeMillis()));
+        }
+
+        public void invalidate(K key)
+        {
+            cache.invalidate(key);
+        }
+
+        public void invalidateAll(Predicate<K> predicate)
+        {
+            cache.asMap().keySet().removeIf(predicate);
+        }
+
+        private List<Entry<K, V>> getEntries()
+        {
+            return cache.asMap().values().stream()
+                    .filter(entry -> !entry.isExpired(ttlMillis))
+                    .collect(toImmutableList());
+        }
+
+        private void putAll(List<Entry<K, V>> entries)
+        {
+            // the entries keep the time they were loaded from the metastore, so the snapshot does not extend their life
+            for (Entry<K, V> entry : entries) {
+                if (!entry.isExpired(ttlMillis)) {
+                    cache.put(entry.getKey(), new Entry<>(entry.getKey(), entry.getValue(), entry.getWriteTimeMillis(), true));
+                }
+            }
+        }
+    }
+
+    public static class Entry<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final long writeTimeMillis;
+        private final boolean restored;
+
+        @JsonCreator
+        public Entry(
+                @JsonProperty("key") K key,
+                @JsonProperty("value") V value,
+                @JsonProperty("writeTimeMillis") long writeTimeMillis)
+        {
+            this(key, value, writeTimeMillis, false);
+        }
+
+        private Entry(K key, V value, long writeTimeMillis, boolean restored)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.value = requireNonNull(value, "value is null");
+            this.writeTimeMillis = writeTimeMillis;
+            this.restored = restored;
+        }
+
+        @JsonProperty
+        public K getKey()
+        {
+            return key;
+        }
+
+        @JsonProperty
+        public V getValue()
+        {
+            return value;
+        }
+
+        @JsonProperty
+        public long getWriteTimeMillis()
+        {
+            return writeTimeMillis;
+        }
+
+        private boolean isRestored()
+        {
+            return restored;
+        }
+
+        private boolean isExpired(long ttlMillis)
+        {
+            return currentTimeMillis() - writeTimeMillis >= ttlMillis;
+        }
+    }
+
+    public static class Snapshot
+    {
+        private final OptionalLong lastEventId;
+        private final List<Entry<HiveTableHandle, Optional<Table>>> tables;
+        private final List<Entry<HiveTableName, PartitionStatistics>> tableStatistics;
+        private final List<Entry<HivePartitionName, Optional<Partition>>> partitions;
+        private final List<Entry<HivePartitionName, PartitionStatistics>> partitionStatistics;
+
+        @JsonCreator
+        public Snapshot(
+                @JsonProperty("lastEventId") OptionalLong lastEventId,
+                @JsonProperty("tables") List<Entry<HiveTableHandle, Optional<Table>>> tables,
+                @JsonProperty("tableStatistics") List<Entry<HiveTableName, PartitionStatistics>> tableStatistics,
+                @JsonProperty("partitions") List<Entry<HivePartitionName, Optional<Partition>>> partitions,
+                @JsonProperty("partitionStatistics") List<Entry<HivePartitionName, PartitionStatistics>> partitionStatistics)
+        {
+            this.lastEventId = requireNonNull(lastEventId, "lastEventId is null");
+            this.tables = requireNonNull(tables, "tables is null");
+            this.tableStatistics = requireNonNull(tableStatistics, "tableStatistics is null");
+            this.partitions = requireNonNull(partitions, "partitions is null");
+            this.partitionStatistics = requireNonNull(partitionStatistics, "partitionStatistics is null");
+        }
+
+        @JsonProperty
+        public OptionalLong getLastEventId()
+        {
+            return lastEventId;
+        }
+
+        @JsonProperty
+        public List<Entry<HiveTableHandle, Optional<Table>>> getTables()
+        {
+            return tables;
+        }
+
+        @JsonProperty
+        public List<Entry<HiveTableName, PartitionStatistics>> getTableStatistics()
+        {
+            return tableStatistics;
+        }
+
+        @JsonProperty
+        public List<Entry<HivePartitionName, Optional<Partition>>> getPartitions()
+        {
+            return partitions;
+        }
+
+        @JsonProperty
+        public List<Entry<HivePartitionName, PartitionStatistics>> getPartitionStatistics()
+        {
+            return partitionStatistics;
+        }
+    }
+}
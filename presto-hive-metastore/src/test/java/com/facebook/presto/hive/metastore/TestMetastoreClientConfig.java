@@ -49,7 +49,11 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheValidationPercentage(0)
                 .setPartitionCacheColumnCountLimit(500)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.NONE)
-                .setDeleteFilesOnTableDrop(false));
+                .setDeleteFilesOnTableDrop(false)
+                .setPersistentCachePath(null)
+                .setPersistentCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setPersistentCacheSnapshotInterval(new Duration(5, TimeUnit.MINUTES))
+                .setCacheEventPollInterval(new Duration(10, TimeUnit.SECONDS)));
     }
 
     @Test
@@ -75,6 +79,10 @@ public class TestMetastoreClientConfig
                 .put("hive.partition-cache-column-count-limit", "50")
                 .put("hive.metastore.authentication.type", "KERBEROS")
                 .put("hive.metastore.thrift.delete-files-on-table-drop", "true")
+                .put("hive.metastore-persistent-cache-path", "/tmp/metastore-cache.json")
+                .put("hive.metastore-persistent-cache-ttl", "6h")
+                .put("hive.metastore-persistent-cache-snapshot-interval", "1m")
+                .put("hive.metastore-cache-event-poll-interval", "30s")
                 .build();
 
         MetastoreClientConfig expected = new MetastoreClientConfig()
@@ -96,7 +104,11 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheValidationPercentage(60.0)
                 .setPartitionCacheColumnCountLimit(50)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.KERBEROS)
-                .setDeleteFilesOnTableDrop(true);
+                .setDeleteFilesOnTableDrop(true)
+                .setPersistentCachePath("/tmp/metastore-cache.json")
+                .setPersistentCacheTtl(new Duration(6, TimeUnit.HOURS))
+                .setPersistentCacheSnapshotInterval(new Duration(1, TimeUnit.MINUTES))
+                .setCacheEventPollInterval(new Duration(30, TimeUnit.SECONDS));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -20,7 +20,9 @@ import com.facebook.presto.hive.util.ResumableTask;
 import com.facebook.presto.hive.util.ResumableTasks;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import java.io.IOException;
 import java.util.Deque;
@@ -28,13 +30,17 @@ import java.util.Iterator;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.getSplitLoaderListingPrefetchCount;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.lang.Math.max;
 import static java.util.Objects.requireNonNull;
 
 public class BackgroundHiveSplitLoader
@@ -43,9 +49,16 @@ public class BackgroundHiveSplitLoader
     private static final ListenableFuture<?> COMPLETED_FUTURE = immediateFuture(null);
 
     private final int loaderConcurrency;
+    // number of partitions whose listing may be in progress or buffered ahead of the loader tasks, zero when disabled
+    private final int listingPrefetchCount;
+    // the loader tasks are scaled up while fewer splits than this are buffered in the split source
+    private final int bufferedSplitsLowWatermark;
+    private final AtomicInteger runningTasks = new AtomicInteger();
     private final Executor executor;
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
     private final Deque<Iterator<InternalHiveSplit>> fileIterators = new ConcurrentLinkedDeque<>();
+    // iterators created by the partition loader, which are moved to fileIterators once their listing is started
+    private final Deque<Iterator<InternalHiveSplit>> loadedFileIterators;
     private final PartitionLoader delegatingPartitionLoader;
 
     // Purpose of this lock:
@@ -79,22 +92,31 @@ public class BackgroundHiveSplitLoader
             DirectoryLister directoryLister,
             Executor executor,
             int loaderConcurrency,
+            int maxOutstandingSplits,
             boolean recursiveDirWalkerEnabled,
             boolean schedulerUsesHostAddresses,
             boolean partialAggregationsPushedDown)
     {
         this.loaderConcurrency = loaderConcurrency;
         checkArgument(loaderConcurrency > 0, "loaderConcurrency must be > 0, found: %s", loaderConcurrency);
+        this.listingPrefetchCount = getSplitLoaderListingPrefetchCount(session);
+        checkArgument(maxOutstandingSplits > 0, "maxOutstandingSplits must be > 0, found: %s", maxOutstandingSplits);
+        this.bufferedSplitsLowWatermark = max(maxOutstandingSplits / 2, 1);
         this.executor = requireNonNull(executor, "executor is null");
         this.partitions = new ConcurrentLazyQueue<>(requireNonNull(partitions, "partitions is null"));
-        this.delegatingPartitionLoader = new DelegatingPartitionLoader(table, pathDomain, tableBucketInfo, session, hdfsEnvironment, namenodeStats, directoryLister, fileIterators, recursiveDirWalkerEnabled, schedulerUsesHostAddresses, partialAggregationsPushedDown);
+        this.loadedFileIterators = listingPrefetchCount > 0 ? new ConcurrentLinkedDeque<>() : fileIterators;
+        this.delegatingPartitionLoader = new DelegatingPartitionLoader(table, pathDomain, tableBucketInfo, session, hdfsEnvironment, namenodeStats, directoryLister, loadedFileIterators, recursiveDirWalkerEnabled, schedulerUsesHostAddresses, partialAggregationsPushedDown);
     }
 
     @Override
     public void start(HiveSplitSource splitSource)
     {
         this.hiveSplitSource = splitSource;
-        for (int i = 0; i < loaderConcurrency; i++) {
+        // with listing prefetch, the loader tasks do not wait for the listings, so they start with a single task
+        // and are scaled up as long as the split source is not filled fast enough
+        int initialConcurrency = listingPrefetchCount > 0 ? 1 : loaderConcurrency;
+        runningTasks.set(initialConcurrency);
+        for (int i = 0; i < initialConcurrency; i++) {
             ResumableTasks.submit(executor, new HiveSplitLoaderTask());
         }
     }
@@ -105,6 +127,12 @@ public class BackgroundHiveSplitLoader
         stopped = true;
     }
 
+    @VisibleForTesting
+    int getRunningTasks()
+    {
+        return runningTasks.get();
+    }
+
     private class HiveSplitLoaderTask
             implements ResumableTask
     {
@@ -137,6 +165,15 @@ public class BackgroundHiveSplitLoader
                     taskExecutionLock.readLock().unlock();
                 }
                 invokeNoMoreSplitsIfNecessary();
+                if (listingPrefetchCount > 0) {
+                    if (hiveSplitSource.getBufferedInternalSplitCount() < bufferedSplitsLowWatermark) {
+                        tryStartTask();
+                    }
+                    else if (!future.isDone() && tryStopTask()) {
+                        // the split source is filled faster than the splits are consumed, so fewer tasks are enough
+                        return TaskStatus.finished();
+                    }
+                }
                 if (!future.isDone()) {
                     return TaskStatus.continueOn(future);
                 }
@@ -144,6 +181,33 @@ public class BackgroundHiveSplitLoader
         }
     }
 
+    private void tryStartTask()
+    {
+        while (true) {
+            int tasks = runningTasks.get();
+            if (tasks >= loaderConcurrency) {
+                return;
+            }
+            if (runningTasks.compareAndSet(tasks, tasks + 1)) {
+                ResumableTasks.submit(executor, new HiveSplitLoaderTask());
+                return;
+            }
+        }
+    }
+
+    private boolean tryStopTask()
+    {
+        while (true) {
+            int tasks = runningTasks.get();
+            if (tasks <= 1) {
+                return false;
+            }
+            if (runningTasks.compareAndSet(tasks, tasks - 1)) {
+                return true;
+            }
+        }
+    }
+
     private void invokeNoMoreSplitsIfNecessary()
     {
         taskExecutionLock.readLock().lock();
@@ -183,13 +247,32 @@ public class BackgroundHiveSplitLoader
     private ListenableFuture<?> loadSplits()
             throws IOException
     {
+        // the size of the deque is linear, but the deque holds at most a few iterators more than the prefetch count
+        if (listingPrefetchCount > 0 && fileIterators.size() < listingPrefetchCount) {
+            // load the next partition ahead of time, so that its listing runs while the splits of the previous partitions are added
+            HivePartitionMetadata partition = partitions.poll();
+            if (partition != null) {
+                return loadPartition(partition);
+            }
+        }
+
         Iterator<InternalHiveSplit> splits = fileIterators.poll();
         if (splits == null) {
             HivePartitionMetadata partition = partitions.poll();
             if (partition == null) {
                 return COMPLETED_FUTURE;
             }
-            return delegatingPartitionLoader.loadPartition(partition, hiveSplitSource, stopped);
+            return loadPartition(partition);
+        }
+
+        if (!isListed(splits)) {
+            // add the splits of a partition which is already listed, and only wait for the listing when there is none
+            fileIterators.addLast(splits);
+            Iterator<InternalHiveSplit> listedSplits = pollListedIterator();
+            if (listedSplits == null) {
+                return ((PrefetchingSplitIterator) splits).getListingFuture();
+            }
+            splits = listedSplits;
         }
 
         while (splits.hasNext() && !stopped) {
@@ -203,4 +286,92 @@ public class BackgroundHiveSplitLoader
         // No need to put the iterator back, since it's either empty or we've stopped
         return COMPLETED_FUTURE;
     }
+
+    private static boolean isListed(Iterator<InternalHiveSplit> splits)
+    {
+        return !(splits instanceof PrefetchingSplitIterator) || ((PrefetchingSplitIterator) splits).getListingFuture().isDone();
+    }
+
+    /**
+     * Removes and returns the first iterator whose listing is done, or null if all of them are still being listed.
+     */
+    private Iterator<InternalHiveSplit> pollListedIterator()
+    {
+        for (Iterator<InternalHiveSplit> splits : fileIterators) {
+            // another task may have taken the iterator in the meantime
+            if (isListed(splits) && fileIterators.removeFirstOccurrence(splits)) {
+                return splits;
+            }
+        }
+        return null;
+    }
+
+    private ListenableFuture<?> loadPartition(HivePartitionMetadata partition)
+            throws IOException
+    {
+        ListenableFuture<?> future = delegatingPartitionLoader.loadPartition(partition, hiveSplitSource, stopped);
+        if (listingPrefetchCount > 0) {
+            // start the listing of the partition in the background, before the iterator becomes visible to the other tasks
+            Iterator<InternalHiveSplit> splits = loadedFileIterators.poll();
+            while (splits != null) {
+                PrefetchingSplitIterator prefetchingSplits = new PrefetchingSplitIterator(splits);
+                executor.execute(prefetchingSplits::prefetch);
+                fileIterators.addLast(prefetchingSplits);
+                splits = loadedFileIterators.poll();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Iterator of the splits of a partition whose first directory listing is requested in the background.
+     * The loader tasks only iterate it once the listing future is done, so it is never iterated concurrently.
+     */
+    private static class PrefetchingSplitIterator
+            implements Iterator<InternalHiveSplit>
+    {
+        private final Iterator<InternalHiveSplit> delegate;
+        private final SettableFuture<?> listingFuture = SettableFuture.create();
+        private volatile Throwable failure;
+
+        public PrefetchingSplitIterator(Iterator<InternalHiveSplit> delegate)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+        }
+
+        public void prefetch()
+        {
+            try {
+                delegate.hasNext();
+            }
+            catch (Throwable t) {
+                // the failure is reported by the loader task which iterates the splits
+                failure = t;
+            }
+            finally {
+                listingFuture.set(null);
+            }
+        }
+
+        public ListenableFuture<?> getListingFuture()
+        {
+            return listingFuture;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new RuntimeException(failure);
+            }
+            return delegate.hasNext();
+        }
+
+        @Override
+        public InternalHiveSplit next()
+        {
+            return delegate.next();
+        }
+    }
 }
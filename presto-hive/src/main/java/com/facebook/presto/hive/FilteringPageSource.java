@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomain;
@@ -185,16 +186,13 @@ public class FilteringPageSource
             }
         }
 
-        if (outputBlockCount == page.getChannelCount()) {
-            return page.getPositions(positions, 0, positionCount);
-        }
-
+        // columns not referenced by the filters are only decoded if they are accessed downstream
         Block[] blocks = new Block[outputBlockCount];
         for (int i = 0; i < outputBlockCount; i++) {
-            blocks[i] = page.getBlock(i);
+            blocks[i] = LazyBlock.getPositionsLazily(page.getBlock(i), positions, positionCount);
         }
 
-        return new Page(page.getPositionCount(), blocks).getPositions(positions, 0, positionCount);
+        return new Page(positionCount, blocks);
     }
 
     @Override
@@ -75,6 +75,7 @@ public class HiveClientConfig
     private int maxPartitionBatchSize = 100;
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
+    private int splitLoaderListingPrefetchCount;
     private DataSize maxInitialSplitSize;
     private int domainCompactionThreshold = 100;
     private DataSize writerSortBufferSize = new DataSize(64, MEGABYTE);
@@ -267,6 +268,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(0)
+    public int getSplitLoaderListingPrefetchCount()
+    {
+        return splitLoaderListingPrefetchCount;
+    }
+
+    @Config("hive.split-loader-listing-prefetch-count")
+    @ConfigDescription("Number of partitions whose directory listing is prefetched by the split loader, 0 to disable")
+    public HiveClientConfig setSplitLoaderListingPrefetchCount(int splitLoaderListingPrefetchCount)
+    {
+        this.splitLoaderListingPrefetchCount = splitLoaderListingPrefetchCount;
+        return this;
+    }
+
     @Min(1)
     public int getDomainCompactionThreshold()
     {
@@ -145,6 +145,7 @@ public final class HiveSessionProperties
     private static final String HUDI_METADATA_ENABLED = "hudi_metadata_enabled";
     private static final String READ_TABLE_CONSTRAINTS = "read_table_constraints";
     public static final String READ_MASKED_VALUE_ENABLED = "read_null_masked_parquet_encrypted_value_enabled";
+    public static final String SPLIT_LOADER_LISTING_PREFETCH_COUNT = "split_loader_listing_prefetch_count";
     private final List<PropertyMetadata<?>> sessionProperties;
 
     @Inject
@@ -700,6 +701,11 @@ public final class HiveSessionProperties
                         READ_MASKED_VALUE_ENABLED,
                         "Return null when access is denied for an encrypted parquet column",
                         hiveClientConfig.getReadNullMaskedParquetEncryptedValue(),
+                        false),
+                integerProperty(
+                        SPLIT_LOADER_LISTING_PREFETCH_COUNT,
+                        "Number of partitions whose directory listing is prefetched by the split loader, 0 to disable",
+                        hiveClientConfig.getSplitLoaderListingPrefetchCount(),
                         false));
     }
 
@@ -1230,4 +1236,9 @@ public final class HiveSessionProperties
     {
         return session.getProperty(READ_MASKED_VALUE_ENABLED, Boolean.class);
     }
+
+    public static int getSplitLoaderListingPrefetchCount(ConnectorSession session)
+    {
+        return session.getProperty(SPLIT_LOADER_LISTING_PREFETCH_COUNT, Integer.class);
+    }
 }
@@ -288,6 +288,7 @@ public class HiveSplitManager
                 directoryLister,
                 executor,
                 min(splitLoaderConcurrency, partitions.size()), // Avoid over-committing split loader concurrency
+                maxOutstandingSplits,
                 recursiveDfsWalkerEnabled,
                 splitSchedulingContext.schedulerUsesHostAddresses(),
                 layout.isPartialAggregationsPushedDown());
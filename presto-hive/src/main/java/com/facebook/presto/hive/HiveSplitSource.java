@@ -24,7 +24,6 @@ import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -366,7 +365,6 @@ class HiveSplitSource
      * The upper bound of outstanding split count.
      * It might be larger than the actual number when called concurrently with other methods.
      */
-    @VisibleForTesting
     int getBufferedInternalSplitCount()
     {
         return bufferedInternalSplitCount.get();
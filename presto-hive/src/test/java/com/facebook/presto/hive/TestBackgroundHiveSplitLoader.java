@@ -21,6 +21,7 @@ import com.facebook.presto.hive.HiveColumnHandle.ColumnType;
 import com.facebook.presto.hive.authentication.NoHdfsAuthentication;
 import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
 import com.facebook.presto.hive.metastore.Column;
+import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.spi.ConnectorSession;
@@ -64,6 +65,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
@@ -80,6 +83,7 @@ import static com.facebook.presto.hive.metastore.PrestoTableType.MANAGED_TABLE;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -204,6 +208,65 @@ public class TestBackgroundHiveSplitLoader
         assertEquals(splits.get(0).getFileSplit().getLength(), 0);
     }
 
+    @Test(timeOut = 30_000)
+    public void testListingPrefetch()
+            throws Exception
+    {
+        ConnectorSession connectorSession = new TestingConnectorSession(
+                new HiveSessionProperties(
+                        new HiveClientConfig()
+                                .setMaxSplitSize(new DataSize(1.0, GIGABYTE))
+                                .setSplitLoaderListingPrefetchCount(3),
+                        new OrcFileWriterConfig(),
+                        new ParquetFileWriterConfig(),
+                        new CacheConfig()).getSessionProperties());
+
+        int partitionCount = 10;
+        int loaderConcurrency = 4;
+        ImmutableList.Builder<HivePartitionMetadata> partitions = ImmutableList.builder();
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new HivePartitionMetadata(
+                    new HivePartition(new SchemaTableName("testSchema", "table_name")),
+                    Optional.empty(),
+                    TableToPartitionMapping.empty(),
+                    Optional.empty(),
+                    ImmutableSet.of()));
+        }
+
+        BlockingDirectoryLister directoryLister = new BlockingDirectoryLister();
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = new BackgroundHiveSplitLoader(
+                SIMPLE_TABLE,
+                partitions.build(),
+                Optional.empty(),
+                createBucketSplitInfo(Optional.empty(), Optional.empty()),
+                connectorSession,
+                new TestingHdfsEnvironment(TEST_FILES),
+                new NamenodeStats(),
+                directoryLister,
+                EXECUTOR,
+                loaderConcurrency,
+                4,
+                false,
+                false,
+                false);
+
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+
+        // the listings of the prefetched partitions start before any split is generated,
+        // and the loader tasks are scaled up while the split source is empty
+        waitUntil(() -> directoryLister.getStartedListings() >= 3 && backgroundHiveSplitLoader.getRunningTasks() == loaderConcurrency);
+        assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
+
+        // once the listings complete and the split source is filled, the loader tasks are scaled down
+        directoryLister.allowListing();
+        waitUntil(() -> backgroundHiveSplitLoader.getRunningTasks() == 1);
+        assertTrue(hiveSplitSource.getBufferedInternalSplitCount() >= 2);
+
+        // every partition points to the table location
+        assertEquals(drain(hiveSplitSource).size(), partitionCount * TEST_FILES.size());
+    }
+
     @Test
     public void testNoHangIfPartitionIsOffline()
     {
@@ -424,6 +487,14 @@ public class TestBackgroundHiveSplitLoader
         return splits.build();
     }
 
+    private static void waitUntil(BooleanSupplier condition)
+            throws InterruptedException
+    {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10);
+        }
+    }
+
     private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(
             List<LocatedFileStatus> files,
             Optional<Domain> pathDomain)
@@ -480,6 +551,7 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HadoopDirectoryLister(), new HiveClientConfig()),
                 EXECUTOR,
                 2,
+                1_000,
                 false,
                 false,
                 false);
@@ -515,6 +587,7 @@ public class TestBackgroundHiveSplitLoader
                 directoryLister,
                 EXECUTOR,
                 2,
+                1_000,
                 false,
                 false,
                 false);
@@ -540,6 +613,7 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HadoopDirectoryLister(), new HiveClientConfig()),
                 directExecutor(),
                 2,
+                1_000,
                 false,
                 false,
                 false);
@@ -650,6 +724,55 @@ public class TestBackgroundHiveSplitLoader
                 new BlockLocation[] {});
     }
 
+    /**
+     * Lists the files through the Hadoop file system, but blocks the listings until they are allowed.
+     */
+    private static class BlockingDirectoryLister
+            implements DirectoryLister
+    {
+        private final DirectoryLister delegate = new HadoopDirectoryLister();
+        private final AtomicInteger startedListings = new AtomicInteger();
+        private final CountDownLatch listingAllowed = new CountDownLatch(1);
+
+        @Override
+        public Iterator<HiveFileInfo> list(
+                ExtendedFileSystem fileSystem,
+                Table table,
+                Path path,
+                Optional<Partition> partition,
+                NamenodeStats namenodeStats,
+                HiveDirectoryContext hiveDirectoryContext)
+        {
+            Iterator<HiveFileInfo> files = delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
+            // the file system is listed lazily, when the first file is requested
+            return new AbstractIterator<HiveFileInfo>()
+            {
+                private boolean started;
+
+                @Override
+                protected HiveFileInfo computeNext()
+                {
+                    if (!started) {
+                        started = true;
+                        startedListings.incrementAndGet();
+                        awaitUninterruptibly(listingAllowed);
+                    }
+                    return files.hasNext() ? files.next() : endOfData();
+                }
+            };
+        }
+
+        public int getStartedListings()
+        {
+            return startedListings.get();
+        }
+
+        public void allowListing()
+        {
+            listingAllowed.countDown();
+        }
+    }
+
     public static class TestingHdfsEnvironment
             extends HdfsEnvironment
     {
@@ -36,10 +36,13 @@ import io.airlift.units.Duration;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -57,7 +60,11 @@ import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.TEST_ROLES;
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.TEST_TABLE;
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.TEST_TABLE_WITH_CONSTRAINTS;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.nio.file.Files.createTempDirectory;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.function.UnaryOperator.identity;
 import static org.testng.Assert.assertEquals;
@@ -468,6 +475,154 @@ public class TestCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 4);
     }
 
+    @Test
+    public void testPersistentCache()
+            throws Exception
+    {
+        File tempDirectory = createTempDirectory("metastore-cache").toFile();
+        try {
+            MetastoreClientConfig metastoreClientConfig = new MetastoreClientConfig()
+                    .setMetastoreCacheTtl(new Duration(5, TimeUnit.MINUTES))
+                    .setPersistentCachePath(new File(tempDirectory, "snapshot.json").getPath());
+
+            CachingHiveMetastore firstMetastore = createMetastore(metastoreClientConfig);
+            assertTrue(firstMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).isPresent());
+            assertEquals(firstMetastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+            int accessCount = mockClient.getAccessCount();
+            // the snapshot is written when the metastore is stopped
+            firstMetastore.stop();
+
+            // a new metastore reads the entries from the snapshot
+            CachingHiveMetastore secondMetastore = createMetastore(metastoreClientConfig);
+            assertTrue(secondMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).isPresent());
+            assertEquals(secondMetastore.getPartitionsByNames(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+            assertEquals(mockClient.getAccessCount(), accessCount);
+
+            // flushing the cache also flushes the persistent tier
+            secondMetastore.flushCache();
+            assertTrue(secondMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).isPresent());
+            assertEquals(mockClient.getAccessCount(), accessCount + 1);
+            secondMetastore.stop();
+        }
+        finally {
+            deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testPersistentCacheWarmUpOnly()
+            throws Exception
+    {
+        File tempDirectory = createTempDirectory("metastore-cache").toFile();
+        try {
+            // the in-memory cache does not keep entries, so every lookup after the warm up goes to the metastore
+            MetastoreClientConfig metastoreClientConfig = new MetastoreClientConfig()
+                    .setPersistentCachePath(new File(tempDirectory, "snapshot.json").getPath());
+            Table table = createDelegate(metastoreClientConfig).getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get();
+            TableMetastore delegate = new TableMetastore(table);
+
+            CachingHiveMetastore firstMetastore = createMetastore(metastoreClientConfig, delegate, Optional.empty());
+            assertEquals(firstMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get().getOwner(), table.getOwner());
+            firstMetastore.stop();
+
+            delegate.setTable(Table.builder(table).setOwner("new_owner").build());
+
+            CachingHiveMetastore secondMetastore = createMetastore(metastoreClientConfig, delegate, Optional.empty());
+            // the entry restored from the snapshot is used once
+            assertEquals(secondMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get().getOwner(), table.getOwner());
+            assertEquals(secondMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get().getOwner(), "new_owner");
+            assertEquals(secondMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).get().getOwner(), "new_owner");
+            secondMetastore.stop();
+        }
+        finally {
+            deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testEventPolling()
+            throws Exception
+    {
+        AtomicReference<List<MetastoreEvent>> events = new AtomicReference<>(ImmutableList.of());
+        // events are polled after the id of the last applied event
+        CountDownLatch applied = new CountDownLatch(1);
+        MetastoreEventPoller eventPoller = new MetastoreEventPoller()
+        {
+            @Override
+            public long getCurrentEventId()
+            {
+                return 42;
+            }
+
+            @Override
+            public List<MetastoreEvent> getEventsAfter(long eventId)
+            {
+                if (eventId == 43) {
+                    applied.countDown();
+                }
+                return events.get().stream()
+                        .filter(event -> event.getEventId() > eventId)
+                        .collect(toImmutableList());
+            }
+        };
+        MetastoreClientConfig metastoreClientConfig = new MetastoreClientConfig()
+                .setMetastoreCacheTtl(new Duration(5, TimeUnit.MINUTES))
+                .setCacheEventPollInterval(new Duration(1, TimeUnit.MILLISECONDS));
+        CachingHiveMetastore pollingMetastore = createMetastore(metastoreClientConfig, createDelegate(metastoreClientConfig), Optional.of(eventPoller));
+
+        assertTrue(pollingMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).isPresent());
+        assertEquals(mockClient.getAccessCount(), 1);
+        events.set(ImmutableList.of(new MetastoreEvent(43, TEST_DATABASE, Optional.of(TEST_TABLE))));
+        assertTrue(applied.await(10, TimeUnit.SECONDS));
+
+        assertTrue(pollingMetastore.getTable(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE).isPresent());
+        assertEquals(mockClient.getAccessCount(), 2);
+        pollingMetastore.stop();
+    }
+
+    private CachingHiveMetastore createMetastore(MetastoreClientConfig metastoreClientConfig)
+    {
+        return createMetastore(metastoreClientConfig, createDelegate(metastoreClientConfig), Optional.empty());
+    }
+
+    private ExtendedHiveMetastore createDelegate(MetastoreClientConfig metastoreClientConfig)
+    {
+        ThriftHiveMetastore thriftHiveMetastore = new ThriftHiveMetastore(new MockHiveCluster(mockClient), metastoreClientConfig, HDFS_ENVIRONMENT);
+        return new BridgingHiveMetastore(thriftHiveMetastore, new HivePartitionMutator());
+    }
+
+    private static CachingHiveMetastore createMetastore(MetastoreClientConfig metastoreClientConfig, ExtendedHiveMetastore delegate, Optional<MetastoreEventPoller> eventPoller)
+    {
+        return new CachingHiveMetastore(
+                delegate,
+                listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                NOOP_METASTORE_CACHE_STATS,
+                metastoreClientConfig,
+                eventPoller);
+    }
+
+    private static class TableMetastore
+            extends UnimplementedHiveMetastore
+    {
+        private volatile Table table;
+
+        public TableMetastore(Table table)
+        {
+            this.table = table;
+        }
+
+        public void setTable(Table table)
+        {
+            this.table = table;
+        }
+
+        @Override
+        public Optional<Table> getTable(MetastoreContext metastoreContext, String databaseName, String tableName)
+        {
+            return Optional.of(table);
+        }
+    }
+
     public static class MockHiveCluster
             implements HiveCluster
     {
@@ -82,7 +82,7 @@ public class HudiConnectorFactory
                     new HiveS3Module(catalogName),
                     new HiveAuthenticationModule(),
                     new HiveMetastoreModule(catalogName, metastore),
-                    new CachingModule(),
+                    new CachingModule(catalogName),
                     binder -> {
                         binder.bind(NodeVersion.class).toInstance(new NodeVersion(context.getNodeManager().getCurrentNode().getVersion()));
                         binder.bind(NodeManager.class).toInstance(context.getNodeManager());
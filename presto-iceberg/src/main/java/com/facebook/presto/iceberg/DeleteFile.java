@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.spi.PrestoException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import org.apache.iceberg.FileContent;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Types;
+
+import java.util.List;
+
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_INVALID_METADATA;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Position or equality delete file which applies to the data file of a split.
+ */
+public class DeleteFile
+{
+    private final FileContent content;
+    private final String path;
+    private final FileFormat format;
+    private final long recordCount;
+    private final long fileSizeInBytes;
+    private final List<IcebergColumnHandle> equalityColumns;
+
+    @JsonCreator
+    public DeleteFile(
+            @JsonProperty("content") FileContent content,
+            @JsonProperty("path") String path,
+            @JsonProperty("format") FileFormat format,
+            @JsonProperty("recordCount") long recordCount,
+            @JsonProperty("fileSizeInBytes") long fileSizeInBytes,
+            @JsonProperty("equalityColumns") List<IcebergColumnHandle> equalityColumns)
+    {
+        this.content = requireNonNull(content, "content is null");
+        this.path = requireNonNull(path, "path is null");
+        this.format = requireNonNull(format, "format is null");
+        this.recordCount = recordCount;
+        this.fileSizeInBytes = fileSizeInBytes;
+        this.equalityColumns = ImmutableList.copyOf(requireNonNull(equalityColumns, "equalityColumns is null"));
+    }
+
+    public static DeleteFile fromIceberg(org.apache.iceberg.DeleteFile deleteFile, Schema schema, TypeManager typeManager)
+    {
+        ImmutableList.Builder<IcebergColumnHandle> equalityColumns = ImmutableList.builder();
+        if (deleteFile.equalityFieldIds() != null) {
+            for (int fieldId : deleteFile.equalityFieldIds()) {
+                Types.NestedField field = schema.findField(fieldId);
+                if (field == null) {
+                    throw new PrestoException(ICEBERG_INVALID_METADATA, format("Equality delete file %s refers to unknown field: %s", deleteFile.path(), fieldId));
+                }
+                equalityColumns.add(IcebergColumnHandle.create(field, typeManager));
+            }
+        }
+        return new DeleteFile(
+                deleteFile.content(),
+                deleteFile.path().toString(),
+                deleteFile.format(),
+                deleteFile.recordCount(),
+                deleteFile.fileSizeInBytes(),
+                equalityColumns.build());
+    }
+
+    @JsonProperty
+    public FileContent getContent()
+    {
+        return content;
+    }
+
+    @JsonProperty
+    public String getPath()
+    {
+        return path;
+    }
+
+    @JsonProperty
+    public FileFormat getFormat()
+    {
+        return format;
+    }
+
+    @JsonProperty
+    public long getRecordCount()
+    {
+        return recordCount;
+    }
+
+    @JsonProperty
+    public long getFileSizeInBytes()
+    {
+        return fileSizeInBytes;
+    }
+
+    /**
+     * Columns whose values identify the deleted rows, empty for position delete files.
+     */
+    @JsonProperty
+    public List<IcebergColumnHandle> getEqualityColumns()
+    {
+        return equalityColumns;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .addValue(content)
+                .addValue(path)
+                .addValue(recordCount)
+                .toString();
+    }
+}
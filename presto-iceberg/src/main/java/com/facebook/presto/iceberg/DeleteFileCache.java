@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_BAD_DATA;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker side cache of decoded delete files, keyed by their path. A delete file usually applies to many
+ * data files, so the splits of these data files share its decoded content instead of reading it again.
+ */
+public class DeleteFileCache
+{
+    private final Cache<String, DeleteFileContents> cache;
+    private final boolean enabled;
+
+    public DeleteFileCache(Cache<String, DeleteFileContents> cache, boolean enabled)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+        this.enabled = enabled;
+    }
+
+    public PositionDeletes getPositionDeletes(DeleteFile deleteFile, Callable<PositionDeletes> loader)
+    {
+        return (PositionDeletes) get(deleteFile, loader);
+    }
+
+    public EqualityDeletes getEqualityDeletes(DeleteFile deleteFile, Callable<EqualityDeletes> loader)
+    {
+        return (EqualityDeletes) get(deleteFile, loader);
+    }
+
+    private DeleteFileContents get(DeleteFile deleteFile, Callable<? extends DeleteFileContents> loader)
+    {
+        try {
+            if (!enabled) {
+                return loader.call();
+            }
+            return cache.get(deleteFile.getPath(), loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new PrestoException(ICEBERG_BAD_DATA, "Failed to read delete file: " + deleteFile.getPath(), e.getCause());
+        }
+        catch (Exception e) {
+            throwIfUnchecked(e);
+            throw new PrestoException(ICEBERG_BAD_DATA, "Failed to read delete file: " + deleteFile.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Removes the rows deleted by the delete files of a split from the pages of its data file.
+ * <p>
+ * Position deletes are applied as a mask, by probing the bitmap of deleted positions with the row position
+ * of every row of the page. Equality deletes are applied by probing the hash set of every equality delete file
+ * with the values of its equality columns.
+ */
+public class DeleteFilter
+{
+    private final Optional<Roaring64Bitmap> deletedPositions;
+    private final int rowPositionChannel;
+    private final List<EqualityDeleteSet> equalityDeletes;
+    private final long retainedSizeInBytes;
+
+    public DeleteFilter(Optional<Roaring64Bitmap> deletedPositions, int rowPositionChannel, List<EqualityDeleteSet> equalityDeletes)
+    {
+        this.deletedPositions = requireNonNull(deletedPositions, "deletedPositions is null");
+        checkArgument(!deletedPositions.isPresent() || rowPositionChannel >= 0, "rowPositionChannel is required to apply position deletes");
+        this.rowPositionChannel = rowPositionChannel;
+        this.equalityDeletes = ImmutableList.copyOf(requireNonNull(equalityDeletes, "equalityDeletes is null"));
+        this.retainedSizeInBytes = deletedPositions.map(Roaring64Bitmap::getLongSizeInBytes).orElse(0L) +
+                this.equalityDeletes.stream()
+                        .mapToLong(equalityDelete -> equalityDelete.getDeletes().getRetainedSizeInBytes())
+                        .sum();
+    }
+
+    /**
+     * Returns the size of the decoded deleted positions and rows, which are kept in memory while the split is read.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    public Page filter(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        Block rowPositions = deletedPositions.isPresent() ? page.getBlock(rowPositionChannel) : null;
+        Block[][] equalityBlocks = new Block[equalityDeletes.size()][];
+        for (int i = 0; i < equalityBlocks.length; i++) {
+            equalityBlocks[i] = equalityDeletes.get(i).getBlocks(page);
+        }
+
+        int[] retainedPositions = new int[positionCount];
+        int retainedPositionCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (!isDeleted(rowPositions, equalityBlocks, position)) {
+                retainedPositions[retainedPositionCount++] = position;
+            }
+        }
+
+        if (retainedPositionCount == positionCount) {
+            return page;
+        }
+        return page.getPositions(retainedPositions, 0, retainedPositionCount);
+    }
+
+    private boolean isDeleted(Block rowPositions, Block[][] equalityBlocks, int position)
+    {
+        if (rowPositions != null && deletedPositions.get().contains(BIGINT.getLong(rowPositions, position))) {
+            return true;
+        }
+        for (int i = 0; i < equalityBlocks.length; i++) {
+            if (equalityDeletes.get(i).getDeletes().isDeleted(equalityBlocks[i], position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deleted rows of an equality delete file, with the channels of its equality columns in the pages of the data file.
+     * <p>
+     * Equality columns that are identity partition columns may instead have a constant value, the partition value of
+     * the data file, as they are not stored in the data files added by a migration.
+     */
+    public static class EqualityDeleteSet
+    {
+        private final EqualityDeletes deletes;
+        private final int[] channels;
+        private final Block[] partitionValues;
+
+        public EqualityDeleteSet(EqualityDeletes deletes, List<Integer> channels)
+        {
+            this(deletes, channels, ImmutableMap.of());
+        }
+
+        /**
+         * @param partitionValues single position blocks with the values of the equality columns filled from the partition,
+         * by index of the equality column. The channels of these columns are ignored.
+         */
+        public EqualityDeleteSet(EqualityDeletes deletes, List<Integer> channels, Map<Integer, Block> partitionValues)
+        {
+            this.deletes = requireNonNull(deletes, "deletes is null");
+            this.channels = requireNonNull(channels, "channels is null").stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            requireNonNull(partitionValues, "partitionValues is null");
+            this.partitionValues = new Block[this.channels.length];
+            for (Map.Entry<Integer, Block> entry : partitionValues.entrySet()) {
+                checkArgument(entry.getKey() >= 0 && entry.getKey() < this.channels.length, "invalid equality column index: %s", entry.getKey());
+                checkArgument(entry.getValue().getPositionCount() == 1, "partition value must have a single position");
+                this.partitionValues[entry.getKey()] = entry.getValue();
+            }
+        }
+
+        public EqualityDeletes getDeletes()
+        {
+            return deletes;
+        }
+
+        private Block[] getBlocks(Page page)
+        {
+            Block[] blocks = new Block[channels.length];
+            for (int i = 0; i < channels.length; i++) {
+                if (partitionValues[i] != null) {
+                    blocks[i] = new RunLengthEncodedBlock(partitionValues[i], page.getPositionCount());
+                }
+                else {
+                    blocks[i] = page.getBlock(channels[i]);
+                }
+            }
+            return blocks;
+        }
+    }
+}
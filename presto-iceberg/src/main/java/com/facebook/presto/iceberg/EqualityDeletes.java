@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static io.airlift.slice.Slices.copyOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rows deleted by an equality delete file, as a hash set of the values of its equality columns.
+ * Values are in their native stack representation, so they are probed with the values of the data file.
+ */
+public class EqualityDeletes
+        implements DeleteFileContents
+{
+    // rough size of a row of the set, including the hash set entry and the list of values
+    private static final int ROW_OVERHEAD_IN_BYTES = 64;
+    private static final int VALUE_OVERHEAD_IN_BYTES = 24;
+
+    private final List<Type> types;
+    private final Set<List<Object>> deletedRows;
+    private final long retainedSizeInBytes;
+
+    private EqualityDeletes(List<Type> types, Set<List<Object>> deletedRows, long retainedSizeInBytes)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    /**
+     * Returns whether the row at the given position of the blocks, which hold the values of the equality columns, is deleted.
+     */
+    public boolean isDeleted(Block[] blocks, int position)
+    {
+        Object[] values = new Object[types.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readNativeValue(types.get(i), blocks[i], position);
+        }
+        return deletedRows.contains(Arrays.asList(values));
+    }
+
+    public boolean isEmpty()
+    {
+        return deletedRows.isEmpty();
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    public static Builder builder(List<Type> types)
+    {
+        return new Builder(types);
+    }
+
+    public static class Builder
+    {
+        private final List<Type> types;
+        private final Set<List<Object>> deletedRows = new HashSet<>();
+        private long retainedSizeInBytes;
+
+        private Builder(List<Type> types)
+        {
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        }
+
+        public Builder addDeletedRow(Block[] blocks, int position)
+        {
+            Object[] values = new Object[types.size()];
+            long rowSizeInBytes = ROW_OVERHEAD_IN_BYTES;
+            for (int i = 0; i < values.length; i++) {
+                Object value = readNativeValue(types.get(i), blocks[i], position);
+                if (value instanceof Slice) {
+                    // do not retain the slice of the whole block
+                    value = copyOf((Slice) value);
+                    rowSizeInBytes += ((Slice) value).getRetainedSize();
+                }
+                values[i] = value;
+                rowSizeInBytes += VALUE_OVERHEAD_IN_BYTES;
+            }
+            if (deletedRows.add(Arrays.asList(values))) {
+                retainedSizeInBytes += rowSizeInBytes;
+            }
+            return this;
+        }
+
+        public EqualityDeletes build()
+        {
+            return new EqualityDeletes(types, deletedRows, retainedSizeInBytes);
+        }
+    }
+}
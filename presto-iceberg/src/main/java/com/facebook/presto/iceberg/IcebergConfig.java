@@ -18,6 +18,7 @@ import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.presto.hive.HiveCompressionCodec;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import org.apache.iceberg.FileFormat;
 
 import javax.validation.constraints.DecimalMax;
@@ -30,6 +31,7 @@ import java.util.List;
 import static com.facebook.presto.hive.HiveCompressionCodec.GZIP;
 import static com.facebook.presto.iceberg.CatalogType.HIVE;
 import static com.facebook.presto.iceberg.IcebergFileFormat.PARQUET;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class IcebergConfig
 {
@@ -41,6 +43,11 @@ public class IcebergConfig
     private int maxPartitionsPerWriter = 100;
     private List<String> hadoopConfigResources = ImmutableList.of();
     private double minimumAssignedSplitWeight = 0.05;
+    private int splitManagerThreads = Runtime.getRuntime().availableProcessors();
+    private boolean manifestCacheEnabled;
+    private DataSize manifestCacheSize = new DataSize(128, MEGABYTE);
+    private boolean deleteFileCacheEnabled;
+    private DataSize deleteFileCacheSize = new DataSize(64, MEGABYTE);
 
     @NotNull
     public FileFormat getFileFormat()
@@ -152,4 +159,72 @@ public class IcebergConfig
     {
         return minimumAssignedSplitWeight;
     }
+
+    @Min(1)
+    public int getSplitManagerThreads()
+    {
+        return splitManagerThreads;
+    }
+
+    @Config("iceberg.split-manager-threads")
+    @ConfigDescription("Number of threads used to read the manifest files of a table in parallel when enumerating its splits")
+    public IcebergConfig setSplitManagerThreads(int splitManagerThreads)
+    {
+        this.splitManagerThreads = splitManagerThreads;
+        return this;
+    }
+
+    public boolean isManifestCacheEnabled()
+    {
+        return manifestCacheEnabled;
+    }
+
+    @Config("iceberg.manifest-cache-enabled")
+    @ConfigDescription("Cache the content of manifest files on the coordinator, so repeated queries on the same snapshot skip reading them")
+    public IcebergConfig setManifestCacheEnabled(boolean manifestCacheEnabled)
+    {
+        this.manifestCacheEnabled = manifestCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getManifestCacheSize()
+    {
+        return manifestCacheSize;
+    }
+
+    @Config("iceberg.manifest-cache-size")
+    @ConfigDescription("Maximum size of the manifest file cache")
+    public IcebergConfig setManifestCacheSize(DataSize manifestCacheSize)
+    {
+        this.manifestCacheSize = manifestCacheSize;
+        return this;
+    }
+
+    public boolean isDeleteFileCacheEnabled()
+    {
+        return deleteFileCacheEnabled;
+    }
+
+    @Config("iceberg.delete-file-cache-enabled")
+    @ConfigDescription("Cache decoded delete files on the workers, so the splits of all the data files a delete file applies to share it")
+    public IcebergConfig setDeleteFileCacheEnabled(boolean deleteFileCacheEnabled)
+    {
+        this.deleteFileCacheEnabled = deleteFileCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getDeleteFileCacheSize()
+    {
+        return deleteFileCacheSize;
+    }
+
+    @Config("iceberg.delete-file-cache-size")
+    @ConfigDescription("Maximum size of the delete file cache")
+    public IcebergConfig setDeleteFileCacheSize(DataSize deleteFileCacheSize)
+    {
+        this.deleteFileCacheSize = deleteFileCacheSize;
+        return this;
+    }
 }
@@ -15,7 +15,6 @@ package com.facebook.presto.iceberg;
 
 import com.facebook.presto.cache.CacheConfig;
 import com.facebook.presto.cache.CacheFactory;
-import com.facebook.presto.cache.CacheStats;
 import com.facebook.presto.cache.ForCachingFileSystem;
 import com.facebook.presto.cache.filemerge.FileMergeCacheConfig;
 import com.facebook.presto.hive.CacheStatsMBean;
@@ -44,6 +43,7 @@ import com.facebook.presto.hive.metastore.HiveMetastoreCacheStats;
 import com.facebook.presto.hive.metastore.HivePartitionMutator;
 import com.facebook.presto.hive.metastore.MetastoreCacheStats;
 import com.facebook.presto.hive.metastore.MetastoreConfig;
+import com.facebook.presto.hive.metastore.MetastoreEventPoller;
 import com.facebook.presto.iceberg.nessie.NessieConfig;
 import com.facebook.presto.iceberg.optimizer.IcebergPlanOptimizer;
 import com.facebook.presto.orc.CachingStripeMetadataSource;
@@ -88,6 +88,7 @@ import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
 import static java.lang.Math.toIntExact;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -110,7 +111,7 @@ public class IcebergModule
         binder.bind(HdfsEnvironment.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CacheConfig.class);
         configBinder(binder).bindConfig(FileMergeCacheConfig.class);
-        binder.bind(CacheStats.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, MBeanExporter.class);
         configBinder(binder).bindConfig(MetastoreClientConfig.class);
         configBinder(binder).bindConfig(HiveGcsConfig.class);
         binder.bind(GcsConfigurationInitializer.class).to(HiveGcsConfigurationInitializer.class).in(Scopes.SINGLETON);
@@ -120,6 +121,7 @@ public class IcebergModule
         binder.bind(MetastoreCacheStats.class).to(HiveMetastoreCacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MetastoreCacheStats.class).as(generatedNameOf(MetastoreCacheStats.class, connectorId));
         binder.bind(ExtendedHiveMetastore.class).to(CachingHiveMetastore.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, MetastoreEventPoller.class);
         binder.bind(MBeanServer.class).toInstance(new TestingMBeanServer());
 
         binder.bind(HdfsConfigurationInitializer.class).in(Scopes.SINGLETON);
@@ -179,6 +181,46 @@ public class IcebergModule
                 daemonThreadsNamed("hive-metastore-iceberg-%s"));
     }
 
+    @ForIcebergSplitManager
+    @Singleton
+    @Provides
+    public ExecutorService createIcebergSplitManagerExecutor(IcebergConfig config)
+    {
+        return newFixedThreadPool(
+                config.getSplitManagerThreads(),
+                daemonThreadsNamed("iceberg-split-manager-" + connectorId + "-%s"));
+    }
+
+    @Singleton
+    @Provides
+    public ManifestFileCache createManifestFileCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        Cache<String, byte[]> cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getManifestCacheSize().toBytes())
+                .weigher((path, content) -> ((byte[]) content).length)
+                .recordStats()
+                .build();
+        if (config.isManifestCacheEnabled()) {
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_IcebergManifest"), new CacheStatsMBean(cache));
+        }
+        return new ManifestFileCache(cache, config.isManifestCacheEnabled());
+    }
+
+    @Singleton
+    @Provides
+    public DeleteFileCache createDeleteFileCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        Cache<String, DeleteFileContents> cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getDeleteFileCacheSize().toBytes())
+                .weigher((path, contents) -> (int) Math.min(((DeleteFileContents) contents).getRetainedSizeInBytes(), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+        if (config.isDeleteFileCacheEnabled()) {
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_IcebergDeleteFile"), new CacheStatsMBean(cache));
+        }
+        return new DeleteFileCache(cache, config.isDeleteFileCacheEnabled());
+    }
+
     @Singleton
     @Provides
     public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
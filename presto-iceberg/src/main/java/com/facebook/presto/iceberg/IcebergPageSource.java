@@ -33,6 +33,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
@@ -62,16 +63,19 @@ public class IcebergPageSource
     private final Block[] prefilledBlocks;
     private final int[] delegateIndexes;
     private final ConnectorPageSource delegate;
+    private final Optional<DeleteFilter> deleteFilter;
 
     public IcebergPageSource(
             List<IcebergColumnHandle> columns,
             Map<Integer, String> partitionKeys,
             ConnectorPageSource delegate,
+            Optional<DeleteFilter> deleteFilter,
             TimeZoneKey timeZoneKey)
     {
         int size = requireNonNull(columns, "columns is null").size();
         requireNonNull(partitionKeys, "partitionKeys is null");
         this.delegate = requireNonNull(delegate, "delegate is null");
+        this.deleteFilter = requireNonNull(deleteFilter, "deleteFilter is null");
 
         prefilledBlocks = new Block[size];
         delegateIndexes = new int[size];
@@ -126,6 +130,9 @@ public class IcebergPageSource
             if (dataPage == null) {
                 return null;
             }
+            if (deleteFilter.isPresent()) {
+                dataPage = deleteFilter.get().filter(dataPage);
+            }
             int batchSize = dataPage.getPositionCount();
             Block[] blocks = new Block[prefilledBlocks.length];
             for (int i = 0; i < prefilledBlocks.length; i++) {
@@ -165,7 +172,8 @@ public class IcebergPageSource
     @Override
     public long getSystemMemoryUsage()
     {
-        return delegate.getSystemMemoryUsage();
+        // the decoded delete files are held for the whole split
+        return delegate.getSystemMemoryUsage() + deleteFilter.map(DeleteFilter::getRetainedSizeInBytes).orElse(0L);
     }
 
     protected void closeWithSuppression(Throwable throwable)
@@ -182,7 +190,7 @@ public class IcebergPageSource
         }
     }
 
-    private static Object deserializePartitionValue(Type type, String valueString, String name, TimeZoneKey timeZoneKey)
+    static Object deserializePartitionValue(Type type, String valueString, String name, TimeZoneKey timeZoneKey)
     {
         if (valueString == null) {
             return null;
@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.iceberg;
 
+import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.StandardTypes;
@@ -33,6 +35,7 @@ import com.facebook.presto.hive.orc.HdfsOrcDataSource;
 import com.facebook.presto.hive.orc.OrcBatchPageSource;
 import com.facebook.presto.hive.orc.ProjectionBasedDwrfKeyProvider;
 import com.facebook.presto.hive.parquet.ParquetPageSource;
+import com.facebook.presto.iceberg.DeleteFilter.EqualityDeleteSet;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
 import com.facebook.presto.orc.DwrfKeyProvider;
@@ -82,6 +85,7 @@ import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 import javax.inject.Inject;
 
@@ -91,20 +95,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.hive.CacheQuota.NO_CACHE_CONSTRAINTS;
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isParquetBatchReadsEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createDecryptor;
+import static com.facebook.presto.iceberg.IcebergColumnHandle.primitiveIcebergColumnHandle;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_BAD_DATA;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_MISSING_DATA;
 import static com.facebook.presto.iceberg.IcebergOrcColumn.ROOT_COLUMN_ID;
+import static com.facebook.presto.iceberg.IcebergPageSource.deserializePartitionValue;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getOrcLazyReadSmallRanges;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getOrcMaxMergeDistance;
@@ -136,11 +146,18 @@ import static java.time.ZoneOffset.UTC;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH;
+import static org.apache.iceberg.MetadataColumns.DELETE_FILE_POS;
+import static org.apache.iceberg.MetadataColumns.ROW_POSITION;
 import static org.apache.parquet.io.ColumnIOConverter.constructField;
 
 public class IcebergPageSourceProvider
         implements ConnectorPageSourceProvider
 {
+    private static final IcebergColumnHandle ROW_POSITION_COLUMN = primitiveIcebergColumnHandle(ROW_POSITION.fieldId(), ROW_POSITION.name(), BIGINT, Optional.empty());
+    private static final IcebergColumnHandle DELETE_FILE_PATH_COLUMN = primitiveIcebergColumnHandle(DELETE_FILE_PATH.fieldId(), DELETE_FILE_PATH.name(), VARCHAR, Optional.empty());
+    private static final IcebergColumnHandle DELETE_FILE_POS_COLUMN = primitiveIcebergColumnHandle(DELETE_FILE_POS.fieldId(), DELETE_FILE_POS.name(), BIGINT, Optional.empty());
+
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats fileFormatDataSourceStats;
     private final TypeManager typeManager;
@@ -148,6 +165,7 @@ public class IcebergPageSourceProvider
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
     private final HiveClientConfig hiveClientConfig;
+    private final DeleteFileCache deleteFileCache;
 
     @Inject
     public IcebergPageSourceProvider(
@@ -157,7 +175,8 @@ public class IcebergPageSourceProvider
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             HiveDwrfEncryptionProvider dwrfEncryptionProvider,
-            HiveClientConfig hiveClientConfig)
+            HiveClientConfig hiveClientConfig,
+            DeleteFileCache deleteFileCache)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.fileFormatDataSourceStats = requireNonNull(fileFormatDataSourceStats, "fileFormatDataSourceStats is null");
@@ -166,6 +185,7 @@ public class IcebergPageSourceProvider
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "DwrfEncryptionProvider is null").toDwrfEncryptionProvider();
         this.hiveClientConfig = requireNonNull(hiveClientConfig, "hiveClientConfig is null");
+        this.deleteFileCache = requireNonNull(deleteFileCache, "deleteFileCache is null");
     }
 
     private static ConnectorPageSource createParquetPageSource(
@@ -216,6 +236,9 @@ public class IcebergPageSourceProvider
 
             List<org.apache.parquet.schema.Type> parquetFields = regularColumns.stream()
                     .map(column -> {
+                        if (isRowPositionColumn(column)) {
+                            return null;
+                        }
                         if (parquetIdToField.isEmpty()) {
                             // This is a migrated table
                             return getParquetTypeByName(column.getName(), fileSchema);
@@ -232,6 +255,9 @@ public class IcebergPageSourceProvider
             final ParquetDataSource finalDataSource = dataSource;
             List<BlockMetaData> blocks = new ArrayList<>();
             List<ColumnIndexStore> blockIndexStores = new ArrayList<>();
+            // position of the first row of every block in the file, which is the row position of deleted rows
+            List<Long> blockStarts = new ArrayList<>();
+            long nextStart = 0;
             for (BlockMetaData block : parquetMetadata.getBlocks()) {
                 Optional<Integer> firstIndex = findFirstNonHiddenColumnId(block);
                 if (firstIndex.isPresent()) {
@@ -241,15 +267,17 @@ public class IcebergPageSourceProvider
                             predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, Optional.of(session.getWarningCollector()))) {
                         blocks.add(block);
                         blockIndexStores.add(columnIndexStore.orElse(null));
+                        blockStarts.add(nextStart);
                     }
                 }
+                nextStart += block.getRowCount();
             }
 
             MessageColumnIO messageColumnIO = getColumnIO(fileSchema, requestedSchema);
             ParquetReader parquetReader = new ParquetReader(
                     messageColumnIO,
                     blocks,
-                    Optional.empty(),
+                    Optional.of(blockStarts),
                     dataSource,
                     systemMemoryContext,
                     getParquetMaxReadBlockSize(session),
@@ -263,6 +291,7 @@ public class IcebergPageSourceProvider
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> prestoTypes = ImmutableList.builder();
             ImmutableList.Builder<Optional<Field>> internalFields = ImmutableList.builder();
+            ImmutableList.Builder<Boolean> rowIndexLocations = ImmutableList.builder();
             for (int columnIndex = 0; columnIndex < regularColumns.size(); columnIndex++) {
                 IcebergColumnHandle column = regularColumns.get(columnIndex);
                 namesBuilder.add(column.getName());
@@ -271,6 +300,7 @@ public class IcebergPageSourceProvider
                 Type prestoType = column.getType();
 
                 prestoTypes.add(prestoType);
+                rowIndexLocations.add(isRowPositionColumn(column));
 
                 if (parquetField == null) {
                     internalFields.add(Optional.empty());
@@ -280,7 +310,7 @@ public class IcebergPageSourceProvider
                 }
             }
 
-            return new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build(), namesBuilder.build(), new RuntimeStats());
+            return new ParquetPageSource(parquetReader, prestoTypes.build(), internalFields.build(), rowIndexLocations.build(), namesBuilder.build(), new RuntimeStats());
         }
         catch (Exception e) {
             try {
@@ -406,11 +436,17 @@ public class IcebergPageSourceProvider
             Map<String, IcebergOrcColumn> fileOrcColumnsByName = uniqueIndex(fileOrcColumns, orcColumn -> orcColumn.getColumnName().toLowerCase(ENGLISH));
 
             int nextMissingColumnIndex = fileOrcColumnsByName.size();
+            OptionalInt rowPositionChannel = OptionalInt.empty();
             for (IcebergColumnHandle column : regularColumns) {
                 IcebergOrcColumn icebergOrcColumn;
                 boolean isExcludeColumn = false;
 
-                if (fileOrcColumnByIcebergId.isEmpty()) {
+                if (isRowPositionColumn(column)) {
+                    // the reader fills the column with nulls, which are replaced with the row positions below
+                    rowPositionChannel = OptionalInt.of(physicalColumnHandles.size());
+                    icebergOrcColumn = null;
+                }
+                else if (fileOrcColumnByIcebergId.isEmpty()) {
                     icebergOrcColumn = fileOrcColumnsByName.get(column.getName());
                 }
                 else {
@@ -490,7 +526,7 @@ public class IcebergPageSourceProvider
                     systemMemoryUsage,
                     INITIAL_BATCH_SIZE);
 
-            return new OrcBatchPageSource(
+            ConnectorPageSource pageSource = new OrcBatchPageSource(
                     recordReader,
                     orcDataSource,
                     physicalColumnHandles,
@@ -498,6 +534,10 @@ public class IcebergPageSourceProvider
                     systemMemoryUsage,
                     stats,
                     runtimeStats);
+            if (rowPositionChannel.isPresent()) {
+                pageSource = new RowPositionPageSource(pageSource, () -> recordReader.getFilePosition(), rowPositionChannel.getAsInt());
+            }
+            return pageSource;
         }
         catch (Exception e) {
             if (orcDataSource != null) {
@@ -609,6 +649,14 @@ public class IcebergPageSourceProvider
 
         // TODO: pushdownFilter for icebergLayout
         HdfsContext hdfsContext = new HdfsContext(session, table.getSchemaName(), table.getTableName());
+
+        // columns only read to apply the delete files are after the regular columns, so they are not returned by the page source
+        List<IcebergColumnHandle> dataColumns = new ArrayList<>(regularColumns);
+        Optional<DeleteFilter> deleteFilter = Optional.empty();
+        if (!split.getDeletes().isEmpty()) {
+            deleteFilter = Optional.of(createDeleteFilter(session, hdfsContext, table.getSchemaTableName(), split, partitionKeys, dataColumns));
+        }
+
         ConnectorPageSource dataPageSource = createDataPageSource(
                 session,
                 hdfsContext,
@@ -617,11 +665,147 @@ public class IcebergPageSourceProvider
                 split.getLength(),
                 split.getFileFormat(),
                 table.getSchemaTableName(),
-                regularColumns,
+                dataColumns,
                 table.getPredicate(),
                 splitContext.isCacheable());
 
-        return new IcebergPageSource(icebergColumns, partitionKeys, dataPageSource, session.getSqlFunctionProperties().getTimeZoneKey());
+        return new IcebergPageSource(icebergColumns, partitionKeys, dataPageSource, deleteFilter, session.getSqlFunctionProperties().getTimeZoneKey());
+    }
+
+    /**
+     * Decodes the delete files of the split, or gets them from the cache, and adds the columns required to apply them to the data columns.
+     * Equality columns that are identity partition columns are filled with the partition value instead,
+     * as the data files added by a migration do not contain the partition columns.
+     */
+    private DeleteFilter createDeleteFilter(
+            ConnectorSession session,
+            HdfsContext hdfsContext,
+            SchemaTableName tableName,
+            IcebergSplit split,
+            Map<Integer, String> partitionKeys,
+            List<IcebergColumnHandle> dataColumns)
+    {
+        Roaring64Bitmap deletedPositions = new Roaring64Bitmap();
+        ImmutableList.Builder<EqualityDeleteSet> equalityDeletes = ImmutableList.builder();
+        for (DeleteFile deleteFile : split.getDeletes()) {
+            switch (deleteFile.getContent()) {
+                case POSITION_DELETES:
+                    deleteFileCache.getPositionDeletes(deleteFile, () -> readPositionDeletes(session, hdfsContext, tableName, deleteFile))
+                            .getDeletedPositions(split.getPath())
+                            .ifPresent(deletedPositions::or);
+                    break;
+                case EQUALITY_DELETES:
+                    EqualityDeletes deletes = deleteFileCache.getEqualityDeletes(deleteFile, () -> readEqualityDeletes(session, hdfsContext, tableName, deleteFile));
+                    if (deletes.isEmpty()) {
+                        break;
+                    }
+                    ImmutableList.Builder<Integer> channels = ImmutableList.builder();
+                    ImmutableMap.Builder<Integer, Block> partitionValues = ImmutableMap.builder();
+                    List<IcebergColumnHandle> equalityColumns = deleteFile.getEqualityColumns();
+                    for (int i = 0; i < equalityColumns.size(); i++) {
+                        IcebergColumnHandle column = equalityColumns.get(i);
+                        if (partitionKeys.containsKey(column.getId())) {
+                            Type type = column.getType();
+                            Object value = deserializePartitionValue(type, partitionKeys.get(column.getId()), column.getName(), session.getSqlFunctionProperties().getTimeZoneKey());
+                            partitionValues.put(i, nativeValueToBlock(type, value));
+                            channels.add(-1);
+                        }
+                        else {
+                            channels.add(getOrAddColumn(dataColumns, column));
+                        }
+                    }
+                    equalityDeletes.add(new EqualityDeleteSet(deletes, channels.build(), partitionValues.build()));
+                    break;
+                default:
+                    throw new PrestoException(NOT_SUPPORTED, "Unsupported delete file content: " + deleteFile.getContent());
+            }
+        }
+
+        if (deletedPositions.isEmpty()) {
+            return new DeleteFilter(Optional.empty(), -1, equalityDeletes.build());
+        }
+        return new DeleteFilter(Optional.of(deletedPositions), getOrAddColumn(dataColumns, ROW_POSITION_COLUMN), equalityDeletes.build());
+    }
+
+    private static int getOrAddColumn(List<IcebergColumnHandle> columns, IcebergColumnHandle column)
+    {
+        for (int channel = 0; channel < columns.size(); channel++) {
+            if (columns.get(channel).getId() == column.getId()) {
+                return channel;
+            }
+        }
+        columns.add(column);
+        return columns.size() - 1;
+    }
+
+    private PositionDeletes readPositionDeletes(ConnectorSession session, HdfsContext hdfsContext, SchemaTableName tableName, DeleteFile deleteFile)
+            throws IOException
+    {
+        PositionDeletes.Builder deletes = PositionDeletes.builder();
+        try (ConnectorPageSource pageSource = createDeleteFilePageSource(session, hdfsContext, tableName, deleteFile, ImmutableList.of(DELETE_FILE_PATH_COLUMN, DELETE_FILE_POS_COLUMN))) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page == null) {
+                    continue;
+                }
+                Block paths = page.getBlock(0);
+                Block positions = page.getBlock(1);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    deletes.addDeletedPosition(VARCHAR.getSlice(paths, position).toStringUtf8(), BIGINT.getLong(positions, position));
+                }
+            }
+        }
+        return deletes.build();
+    }
+
+    private EqualityDeletes readEqualityDeletes(ConnectorSession session, HdfsContext hdfsContext, SchemaTableName tableName, DeleteFile deleteFile)
+            throws IOException
+    {
+        List<IcebergColumnHandle> columns = deleteFile.getEqualityColumns();
+        EqualityDeletes.Builder deletes = EqualityDeletes.builder(columns.stream()
+                .map(IcebergColumnHandle::getType)
+                .collect(toImmutableList()));
+        try (ConnectorPageSource pageSource = createDeleteFilePageSource(session, hdfsContext, tableName, deleteFile, columns)) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page == null) {
+                    continue;
+                }
+                Block[] blocks = new Block[columns.size()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = page.getBlock(channel);
+                }
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    deletes.addDeletedRow(blocks, position);
+                }
+            }
+        }
+        return deletes.build();
+    }
+
+    private ConnectorPageSource createDeleteFilePageSource(
+            ConnectorSession session,
+            HdfsContext hdfsContext,
+            SchemaTableName tableName,
+            DeleteFile deleteFile,
+            List<IcebergColumnHandle> columns)
+    {
+        return createDataPageSource(
+                session,
+                hdfsContext,
+                new Path(deleteFile.getPath()),
+                0,
+                deleteFile.getFileSizeInBytes(),
+                deleteFile.getFormat(),
+                tableName,
+                columns,
+                TupleDomain.all(),
+                false);
+    }
+
+    private static boolean isRowPositionColumn(IcebergColumnHandle column)
+    {
+        return column.getId() == ROW_POSITION.fieldId();
     }
 
     private ConnectorPageSource createDataPageSource(
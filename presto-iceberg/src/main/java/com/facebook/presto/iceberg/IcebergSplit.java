@@ -43,6 +43,7 @@ public class IcebergSplit
     private final Map<Integer, String> partitionKeys;
     private final NodeSelectionStrategy nodeSelectionStrategy;
     private final SplitWeight splitWeight;
+    private final List<DeleteFile> deletes;
 
     @JsonCreator
     public IcebergSplit(
@@ -53,7 +54,8 @@ public class IcebergSplit
             @JsonProperty("addresses") List<HostAddress> addresses,
             @JsonProperty("partitionKeys") Map<Integer, String> partitionKeys,
             @JsonProperty("nodeSelectionStrategy") NodeSelectionStrategy nodeSelectionStrategy,
-            @JsonProperty("splitWeight") SplitWeight splitWeight)
+            @JsonProperty("splitWeight") SplitWeight splitWeight,
+            @JsonProperty("deletes") List<DeleteFile> deletes)
     {
         requireNonNull(nodeSelectionStrategy, "nodeSelectionStrategy is null");
         this.path = requireNonNull(path, "path is null");
@@ -64,6 +66,7 @@ public class IcebergSplit
         this.partitionKeys = Collections.unmodifiableMap(requireNonNull(partitionKeys, "partitionKeys is null"));
         this.nodeSelectionStrategy = nodeSelectionStrategy;
         this.splitWeight = requireNonNull(splitWeight, "splitWeight is null");
+        this.deletes = ImmutableList.copyOf(requireNonNull(deletes, "deletes is null"));
     }
 
     @JsonProperty
@@ -124,6 +127,12 @@ public class IcebergSplit
         return splitWeight;
     }
 
+    @JsonProperty
+    public List<DeleteFile> getDeletes()
+    {
+        return deletes;
+    }
+
     @Override
     public Object getInfo()
     {
@@ -133,6 +142,7 @@ public class IcebergSplit
                 .put("length", length)
                 .put("nodeSelectionStrategy", nodeSelectionStrategy)
                 .put("splitWeight", splitWeight)
+                .put("deletes", deletes.size())
                 .build();
     }
 
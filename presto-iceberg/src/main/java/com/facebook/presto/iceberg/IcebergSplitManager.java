@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.iceberg;
 
+import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.spi.ConnectorSession;
@@ -28,6 +29,8 @@ import org.apache.iceberg.util.TableScanUtil;
 
 import javax.inject.Inject;
 
+import java.util.concurrent.ExecutorService;
+
 import static com.facebook.presto.iceberg.CatalogType.HADOOP;
 import static com.facebook.presto.iceberg.CatalogType.NESSIE;
 import static com.facebook.presto.iceberg.ExpressionConverter.toIcebergExpression;
@@ -43,19 +46,28 @@ public class IcebergSplitManager
     private final HdfsEnvironment hdfsEnvironment;
     private final IcebergResourceFactory resourceFactory;
     private final CatalogType catalogType;
+    private final ManifestFileCache manifestFileCache;
+    private final ExecutorService executor;
+    private final TypeManager typeManager;
 
     @Inject
     public IcebergSplitManager(
             IcebergConfig config,
             IcebergResourceFactory resourceFactory,
             IcebergTransactionManager transactionManager,
-            HdfsEnvironment hdfsEnvironment)
+            HdfsEnvironment hdfsEnvironment,
+            ManifestFileCache manifestFileCache,
+            @ForIcebergSplitManager ExecutorService executor,
+            TypeManager typeManager)
     {
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.resourceFactory = requireNonNull(resourceFactory, "resourceFactory is null");
         requireNonNull(config, "config is null");
         this.catalogType = config.getCatalogType();
+        this.manifestFileCache = requireNonNull(manifestFileCache, "manifestFileCache is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
     }
 
     @Override
@@ -81,14 +93,17 @@ public class IcebergSplitManager
             icebergTable = getHiveIcebergTable(metastore, hdfsEnvironment, session, table.getSchemaTableName());
         }
 
-        TableScan tableScan = icebergTable.newScan()
+        // manifests are read in parallel, and their files are returned as soon as each manifest is read
+        TableScan tableScan = manifestFileCache.wrap(icebergTable).newScan()
                 .filter(toIcebergExpression(table.getPredicate()))
-                .useSnapshot(table.getSnapshotId().get());
+                .useSnapshot(table.getSnapshotId().get())
+                .planWith(executor);
 
         // TODO Use residual. Right now there is no way to propagate residual to presto but at least we can
         //      propagate it at split level so the parquet pushdown can leverage it.
         IcebergSplitSource splitSource = new IcebergSplitSource(
                 session,
+                typeManager,
                 tableScan,
                 TableScanUtil.splitFiles(tableScan.planFiles(), tableScan.targetSplitSize()),
                 getMinimumAssignedSplitWeight(session));
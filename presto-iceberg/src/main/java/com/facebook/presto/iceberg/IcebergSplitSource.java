@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.iceberg;
 
+import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
@@ -42,6 +43,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static com.facebook.presto.iceberg.IcebergSessionProperties.getNodeSelectionStrategy;
 import static com.facebook.presto.iceberg.IcebergUtil.getIdentityPartitions;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.limit;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
@@ -59,14 +61,17 @@ public class IcebergSplitSource
     private final Closer closer = Closer.create();
     private final double minimumAssignedSplitWeight;
     private final ConnectorSession session;
+    private final TypeManager typeManager;
 
     public IcebergSplitSource(
             ConnectorSession session,
+            TypeManager typeManager,
             TableScan tableScan,
             CloseableIterable<FileScanTask> fileScanTaskIterable,
             double minimumAssignedSplitWeight)
     {
         this.session = requireNonNull(session, "session is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.tableScan = requireNonNull(tableScan, "tableScan is null");
         this.fileScanTaskIterable = requireNonNull(fileScanTaskIterable, "combinedScanIterable is null");
         this.fileScanTaskIterator = fileScanTaskIterable.iterator();
@@ -120,7 +125,10 @@ public class IcebergSplitSource
                 ImmutableList.of(),
                 getPartitionKeys(task),
                 getNodeSelectionStrategy(session),
-                SplitWeight.fromProportion(Math.min(Math.max((double) task.length() / tableScan.targetSplitSize(), minimumAssignedSplitWeight), 1.0)));
+                SplitWeight.fromProportion(Math.min(Math.max((double) task.length() / tableScan.targetSplitSize(), minimumAssignedSplitWeight), 1.0)),
+                task.deletes().stream()
+                        .map(deleteFile -> DeleteFile.fromIceberg(deleteFile, tableScan.schema(), typeManager))
+                        .collect(toImmutableList()));
     }
 
     private static Map<Integer, String> getPartitionKeys(FileScanTask scanTask)
@@ -70,7 +70,7 @@ public final class InternalIcebergConnectorFactory
                     new HiveS3Module(catalogName),
                     new HiveAuthenticationModule(),
                     new HiveMetastoreModule(catalogName, metastore),
-                    new CachingModule(),
+                    new CachingModule(catalogName),
                     binder -> {
                         binder.bind(NodeVersion.class).toInstance(new NodeVersion(context.getNodeManager().getCurrentNode().getVersion()));
                         binder.bind(NodeManager.class).toInstance(context.getNodeManager());
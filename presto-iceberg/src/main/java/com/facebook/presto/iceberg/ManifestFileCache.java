@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.StaticTableOperations;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableOperations;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_FILESYSTEM_ERROR;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.io.ByteStreams.readFully;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coordinator side cache of the content of Iceberg metadata files, keyed by their path.
+ * Metadata files, manifest lists and manifests are never modified once they are written, so repeated
+ * split enumerations of the same snapshot read them from memory instead of the file system.
+ */
+public class ManifestFileCache
+{
+    private final Cache<String, byte[]> cache;
+    private final boolean enabled;
+
+    public ManifestFileCache(Cache<String, byte[]> cache, boolean enabled)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a read only view of the current snapshot of the table, which reads its metadata through the cache.
+     */
+    public Table wrap(Table table)
+    {
+        if (!enabled || !(table instanceof HasTableOperations)) {
+            return table;
+        }
+        TableOperations operations = ((HasTableOperations) table).operations();
+        String metadataFileLocation = operations.current().metadataFileLocation();
+        if (metadataFileLocation == null) {
+            return table;
+        }
+        return new BaseTable(new StaticTableOperations(metadataFileLocation, new CachingFileIO(operations.io(), cache)), table.name());
+    }
+
+    static class CachingFileIO
+            implements FileIO
+    {
+        private final FileIO delegate;
+        private final Cache<String, byte[]> cache;
+
+        public CachingFileIO(FileIO delegate, Cache<String, byte[]> cache)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.cache = requireNonNull(cache, "cache is null");
+        }
+
+        @Override
+        public InputFile newInputFile(String path)
+        {
+            return new CachingInputFile(delegate.newInputFile(path), cache);
+        }
+
+        @Override
+        public InputFile newInputFile(String path, long length)
+        {
+            return new CachingInputFile(delegate.newInputFile(path, length), cache);
+        }
+
+        @Override
+        public OutputFile newOutputFile(String path)
+        {
+            throw new UnsupportedOperationException("Cached metadata files are read only");
+        }
+
+        @Override
+        public void deleteFile(String path)
+        {
+            throw new UnsupportedOperationException("Cached metadata files are read only");
+        }
+    }
+
+    private static class CachingInputFile
+            implements InputFile
+    {
+        private final InputFile delegate;
+        private final Cache<String, byte[]> cache;
+
+        public CachingInputFile(InputFile delegate, Cache<String, byte[]> cache)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.cache = requireNonNull(cache, "cache is null");
+        }
+
+        @Override
+        public long getLength()
+        {
+            byte[] content = cache.getIfPresent(location());
+            if (content != null) {
+                return content.length;
+            }
+            return delegate.getLength();
+        }
+
+        @Override
+        public SeekableInputStream newStream()
+        {
+            try {
+                return new ByteArraySeekableInputStream(cache.get(location(), this::readContent));
+            }
+            catch (ExecutionException | UncheckedExecutionException e) {
+                throwIfUnchecked(e.getCause());
+                throw new PrestoException(ICEBERG_FILESYSTEM_ERROR, "Failed to read file: " + location(), e.getCause());
+            }
+        }
+
+        @Override
+        public String location()
+        {
+            return delegate.location();
+        }
+
+        @Override
+        public boolean exists()
+        {
+            return cache.getIfPresent(location()) != null || delegate.exists();
+        }
+
+        private byte[] readContent()
+        {
+            byte[] content = new byte[toIntExact(delegate.getLength())];
+            try (SeekableInputStream input = delegate.newStream()) {
+                readFully(input, content);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return content;
+        }
+    }
+
+    private static class ByteArraySeekableInputStream
+            extends SeekableInputStream
+    {
+        private final byte[] content;
+        private int position;
+
+        public ByteArraySeekableInputStream(byte[] content)
+        {
+            this.content = requireNonNull(content, "content is null");
+        }
+
+        @Override
+        public int read()
+        {
+            if (position >= content.length) {
+                return -1;
+            }
+            return content[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+        {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= content.length) {
+                return -1;
+            }
+            int bytes = Math.min(length, content.length - position);
+            System.arraycopy(content, position, buffer, offset, bytes);
+            position += bytes;
+            return bytes;
+        }
+
+        @Override
+        public long getPos()
+        {
+            return position;
+        }
+
+        @Override
+        public void seek(long newPosition)
+                throws IOException
+        {
+            if (newPosition < 0 || newPosition > content.length) {
+                throw new IOException("Cannot seek to position " + newPosition + " of file with length " + content.length);
+            }
+            position = toIntExact(newPosition);
+        }
+
+        @Override
+        public int available()
+        {
+            return content.length - position;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Positions deleted by a position delete file, as a bitmap of the deleted row positions of every data file.
+ */
+public class PositionDeletes
+        implements DeleteFileContents
+{
+    private final Map<String, Roaring64Bitmap> deletedPositions;
+    private final long retainedSizeInBytes;
+
+    private PositionDeletes(Map<String, Roaring64Bitmap> deletedPositions)
+    {
+        this.deletedPositions = ImmutableMap.copyOf(requireNonNull(deletedPositions, "deletedPositions is null"));
+        long retainedSizeInBytes = 0;
+        for (Map.Entry<String, Roaring64Bitmap> entry : deletedPositions.entrySet()) {
+            retainedSizeInBytes += entry.getKey().length() * Character.BYTES + entry.getValue().getLongSizeInBytes();
+        }
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    /**
+     * Returns the deleted positions of the given data file. The bitmap must not be modified.
+     */
+    public Optional<Roaring64Bitmap> getDeletedPositions(String dataFilePath)
+    {
+        return Optional.ofNullable(deletedPositions.get(dataFilePath));
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static class Builder
+    {
+        private final Map<String, Roaring64Bitmap> deletedPositions = new HashMap<>();
+
+        private Builder() {}
+
+        public Builder addDeletedPosition(String dataFilePath, long position)
+        {
+            deletedPositions.computeIfAbsent(dataFilePath, path -> new Roaring64Bitmap()).addLong(position);
+            return this;
+        }
+
+        public PositionDeletes build()
+        {
+            return new PositionDeletes(deletedPositions);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.spi.ConnectorPageSource;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fills a column with the position of every row in the data file, for readers which do not produce it themselves.
+ * The position of the first row of the page returned last by the delegate is given by {@code batchStartPosition}.
+ */
+public class RowPositionPageSource
+        implements ConnectorPageSource
+{
+    private final ConnectorPageSource delegate;
+    private final LongSupplier batchStartPosition;
+    private final int rowPositionChannel;
+
+    public RowPositionPageSource(ConnectorPageSource delegate, LongSupplier batchStartPosition, int rowPositionChannel)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.batchStartPosition = requireNonNull(batchStartPosition, "batchStartPosition is null");
+        this.rowPositionChannel = rowPositionChannel;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return delegate.getCompletedPositions();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        Page page = delegate.getNextPage();
+        if (page == null) {
+            return null;
+        }
+
+        int positionCount = page.getPositionCount();
+        long startPosition = batchStartPosition.getAsLong();
+        long[] rowPositions = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            rowPositions[position] = startPosition + position;
+        }
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = page.getBlock(channel);
+        }
+        blocks[rowPositionChannel] = new LongArrayBlock(positionCount, Optional.empty(), rowPositions);
+        return new Page(positionCount, blocks);
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
+    @Override
+    public RuntimeStats getRuntimeStats()
+    {
+        return delegate.getRuntimeStats();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return delegate.toString();
+    }
+}
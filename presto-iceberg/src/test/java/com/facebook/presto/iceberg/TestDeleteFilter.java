@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.iceberg.DeleteFilter.EqualityDeleteSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeleteFilter
+{
+    @Test
+    public void testPositionDeletes()
+    {
+        PositionDeletes deletes = PositionDeletes.builder()
+                .addDeletedPosition("a", 101)
+                .addDeletedPosition("a", 103)
+                .addDeletedPosition("b", 102)
+                .build();
+        assertFalse(deletes.getDeletedPositions("c").isPresent());
+
+        // the page holds the rows at positions 100 to 104 of data file "a"
+        Page page = new Page(createNames("v", "w", "x", "y", "z"), createLongs(100, 101, 102, 103, 104));
+        Page filtered = new DeleteFilter(deletes.getDeletedPositions("a"), 1, ImmutableList.of()).filter(page);
+        assertEquals(filtered.getPositionCount(), 3);
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 0).toStringUtf8(), "v");
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 1).toStringUtf8(), "x");
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 2).toStringUtf8(), "z");
+
+        Roaring64Bitmap otherPositions = new Roaring64Bitmap();
+        otherPositions.addLong(7);
+        assertSame(new DeleteFilter(Optional.of(otherPositions), 1, ImmutableList.of()).filter(page), page);
+    }
+
+    @Test
+    public void testEqualityDeletes()
+    {
+        EqualityDeletes deletes = EqualityDeletes.builder(ImmutableList.of(VARCHAR, BIGINT))
+                .addDeletedRow(new Block[] {createNames("x", "y"), createLongs(3, 5)}, 0)
+                .addDeletedRow(new Block[] {createNames("x", "y"), createLongs(3, 5)}, 1)
+                .build();
+        assertFalse(deletes.isEmpty());
+        assertTrue(deletes.getRetainedSizeInBytes() > 0);
+
+        // the equality columns are in the reverse order of the columns of the page
+        Page page = new Page(createLongs(3, 4, 5, 3), createNames("x", "x", "y", "y"));
+        Page filtered = new DeleteFilter(Optional.empty(), -1, ImmutableList.of(new EqualityDeleteSet(deletes, ImmutableList.of(1, 0)))).filter(page);
+        assertEquals(filtered.getPositionCount(), 2);
+        assertEquals(BIGINT.getLong(filtered.getBlock(0), 0), 4);
+        assertEquals(BIGINT.getLong(filtered.getBlock(0), 1), 3);
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(1), 1).toStringUtf8(), "y");
+    }
+
+    @Test
+    public void testNullEqualityDeletes()
+    {
+        EqualityDeletes deletes = EqualityDeletes.builder(ImmutableList.of(BIGINT))
+                .addDeletedRow(new Block[] {createNullableLongs((Long) null)}, 0)
+                .build();
+
+        Page page = new Page(createNullableLongs(1L, null, 2L));
+        Page filtered = new DeleteFilter(Optional.empty(), -1, ImmutableList.of(new EqualityDeleteSet(deletes, ImmutableList.of(0)))).filter(page);
+        assertEquals(filtered.getPositionCount(), 2);
+        assertFalse(filtered.getBlock(0).isNull(0));
+        assertFalse(filtered.getBlock(0).isNull(1));
+    }
+
+    @Test
+    public void testPositionAndEqualityDeletes()
+    {
+        Roaring64Bitmap deletedPositions = new Roaring64Bitmap();
+        deletedPositions.addLong(0);
+        EqualityDeletes deletes = EqualityDeletes.builder(ImmutableList.of(VARCHAR))
+                .addDeletedRow(new Block[] {createNames("z")}, 0)
+                .build();
+
+        Page page = new Page(createNames("x", "y", "z"), createLongs(0, 1, 2));
+        Page filtered = new DeleteFilter(Optional.of(deletedPositions), 1, ImmutableList.of(new EqualityDeleteSet(deletes, ImmutableList.of(0)))).filter(page);
+        assertEquals(filtered.getPositionCount(), 1);
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 0).toStringUtf8(), "y");
+    }
+
+    @Test
+    public void testPartitionValueEqualityDeletes()
+    {
+        EqualityDeletes deletes = EqualityDeletes.builder(ImmutableList.of(BIGINT, VARCHAR))
+                .addDeletedRow(new Block[] {createLongs(1), createNames("x")}, 0)
+                .addDeletedRow(new Block[] {createLongs(2), createNames("y")}, 0)
+                .build();
+
+        // the first equality column is a partition column, which is not in the pages of the data file
+        Page page = new Page(createNames("x", "y", "z"));
+        DeleteFilter deleteFilter = new DeleteFilter(
+                Optional.empty(),
+                -1,
+                ImmutableList.of(new EqualityDeleteSet(deletes, ImmutableList.of(-1, 0), ImmutableMap.of(0, createLongs(1)))));
+        Page filtered = deleteFilter.filter(page);
+        assertEquals(filtered.getPositionCount(), 2);
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 0).toStringUtf8(), "y");
+        assertEquals(VARCHAR.getSlice(filtered.getBlock(0), 1).toStringUtf8(), "z");
+        assertEquals(deleteFilter.getRetainedSizeInBytes(), deletes.getRetainedSizeInBytes());
+    }
+
+    private static Block createNames(String... values)
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, values.length);
+        for (String value : values) {
+            VARCHAR.writeSlice(blockBuilder, utf8Slice(value));
+        }
+        return blockBuilder.build();
+    }
+
+    private static Block createNullableLongs(Long... values)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, values.length);
+        for (Long value : values) {
+            if (value == null) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, value);
+            }
+        }
+        return blockBuilder.build();
+    }
+
+    private static Block createLongs(long... values)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, values.length);
+        for (long value : values) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        return blockBuilder.build();
+    }
+}
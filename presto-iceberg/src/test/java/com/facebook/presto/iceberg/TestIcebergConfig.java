@@ -14,6 +14,7 @@
 package com.facebook.presto.iceberg;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -27,6 +28,7 @@ import static com.facebook.presto.iceberg.CatalogType.HADOOP;
 import static com.facebook.presto.iceberg.CatalogType.HIVE;
 import static com.facebook.presto.iceberg.IcebergFileFormat.ORC;
 import static com.facebook.presto.iceberg.IcebergFileFormat.PARQUET;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestIcebergConfig
 {
@@ -41,7 +43,12 @@ public class TestIcebergConfig
                 .setCatalogCacheSize(10)
                 .setHadoopConfigResources(null)
                 .setMaxPartitionsPerWriter(100)
-                .setMinimumAssignedSplitWeight(0.05));
+                .setMinimumAssignedSplitWeight(0.05)
+                .setSplitManagerThreads(Runtime.getRuntime().availableProcessors())
+                .setManifestCacheEnabled(false)
+                .setManifestCacheSize(new DataSize(128, MEGABYTE))
+                .setDeleteFileCacheEnabled(false)
+                .setDeleteFileCacheSize(new DataSize(64, MEGABYTE)));
     }
 
     @Test
@@ -56,6 +63,11 @@ public class TestIcebergConfig
                 .put("iceberg.hadoop.config.resources", "/etc/hadoop/conf/core-site.xml")
                 .put("iceberg.max-partitions-per-writer", "222")
                 .put("iceberg.minimum-assigned-split-weight", "0.01")
+                .put("iceberg.split-manager-threads", "42")
+                .put("iceberg.manifest-cache-enabled", "true")
+                .put("iceberg.manifest-cache-size", "64MB")
+                .put("iceberg.delete-file-cache-enabled", "true")
+                .put("iceberg.delete-file-cache-size", "256MB")
                 .build();
 
         IcebergConfig expected = new IcebergConfig()
@@ -66,7 +78,12 @@ public class TestIcebergConfig
                 .setCatalogCacheSize(6)
                 .setHadoopConfigResources("/etc/hadoop/conf/core-site.xml")
                 .setMaxPartitionsPerWriter(222)
-                .setMinimumAssignedSplitWeight(0.01);
+                .setMinimumAssignedSplitWeight(0.01)
+                .setSplitManagerThreads(42)
+                .setManifestCacheEnabled(true)
+                .setManifestCacheSize(new DataSize(64, MEGABYTE))
+                .setDeleteFileCacheEnabled(true)
+                .setDeleteFileCacheSize(new DataSize(256, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
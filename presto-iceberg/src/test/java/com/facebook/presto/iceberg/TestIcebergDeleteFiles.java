@@ -0,0 +1,284 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.testing.QueryRunner;
+import com.facebook.presto.tests.AbstractTestQueryFramework;
+import com.facebook.presto.tests.DistributedQueryRunner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.deletes.EqualityDeleteWriter;
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.deletes.PositionDeleteWriter;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.types.Types.NestedField;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+import static com.facebook.presto.SystemSessionProperties.REDISTRIBUTE_WRITES;
+import static com.facebook.presto.SystemSessionProperties.TASK_WRITER_COUNT;
+import static com.facebook.presto.iceberg.CatalogType.HADOOP;
+import static com.facebook.presto.iceberg.IcebergQueryRunner.ICEBERG_CATALOG;
+import static com.facebook.presto.iceberg.IcebergQueryRunner.createIcebergQueryRunner;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.MoreCollectors.onlyElement;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.UUID.randomUUID;
+import static org.apache.iceberg.FileFormat.ORC;
+import static org.apache.iceberg.FileFormat.PARQUET;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Reads format v2 tables with position and equality delete files, written with the Iceberg library,
+ * through the ORC and the Parquet readers.
+ */
+public class TestIcebergDeleteFiles
+        extends AbstractTestQueryFramework
+{
+    private static final int PARTITION_SIZE = 5000;
+    private static final long MIGRATED_PARTITION = 2;
+    private static final int MIGRATED_FILE_SIZE = 100;
+
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return createIcebergQueryRunner(ImmutableMap.of(), ImmutableMap.of("iceberg.catalog.type", HADOOP.name()), PARQUET, false);
+    }
+
+    @Test
+    public void testOrcDeletes()
+            throws IOException
+    {
+        testDeletes(ORC);
+    }
+
+    @Test
+    public void testParquetDeletes()
+            throws IOException
+    {
+        testDeletes(PARQUET);
+    }
+
+    private void testDeletes(FileFormat format)
+            throws IOException
+    {
+        String tableName = "test_deletes_" + format.name().toLowerCase(ENGLISH);
+        assertUpdate(format("CREATE TABLE %s (id BIGINT, part BIGINT) WITH (format = '%s', format_version = '2', partitioning = ARRAY['part'])", tableName, format.name()));
+
+        // a single writer reads the ids in order, so the position of a row in the file of its partition is id % PARTITION_SIZE,
+        // and the small ORC stripes check the row positions are offset by the stripe starts
+        Session session = Session.builder(getSession())
+                .setSystemProperty(REDISTRIBUTE_WRITES, "false")
+                .setSystemProperty(TASK_WRITER_COUNT, "1")
+                .setCatalogSessionProperty(ICEBERG_CATALOG, "orc_optimized_writer_max_stripe_rows", "1000")
+                .build();
+        assertUpdate(session, format("INSERT INTO %s SELECT id, id / %s FROM UNNEST(sequence(0, %s)) AS t(id)", tableName, PARTITION_SIZE, 2 * PARTITION_SIZE - 1), 2 * PARTITION_SIZE);
+
+        Table table = loadTable(tableName);
+        List<DataFile> dataFiles = getDataFiles(table);
+        assertEquals(dataFiles.size(), 2);
+
+        for (DataFile dataFile : dataFiles) {
+            // delete every seventh row of both files
+            table.newRowDelta()
+                    .addDeletes(writePositionDeletes(table, dataFile, position -> position % 7 == 0))
+                    .commit();
+        }
+
+        // delete the ids equal to 1 modulo 11 from the first partition
+        DataFile firstPartitionFile = dataFiles.stream()
+                .filter(dataFile -> getPartition(dataFile) == 0)
+                .collect(onlyElement());
+        Schema idSchema = table.schema().select("id");
+        table.newRowDelta()
+                .addDeletes(writeEqualityDeletes(
+                        table,
+                        firstPartitionFile.partition(),
+                        idSchema,
+                        LongStream.range(0, PARTITION_SIZE)
+                                .filter(id -> id % 11 == 1)
+                                .<Record>mapToObj(id -> GenericRecord.create(idSchema).copy(ImmutableMap.<String, Object>of("id", id)))
+                                .collect(toImmutableList())))
+                .commit();
+
+        // add a file as a migration does, without the identity partition column, and delete the ids multiple of 3 from it
+        DataFile migratedFile = writeMigratedFile(table);
+        table.newAppend()
+                .appendFile(migratedFile)
+                .commit();
+        Schema idAndPartitionSchema = table.schema().select("id", "part");
+        table.newRowDelta()
+                .addDeletes(writeEqualityDeletes(
+                        table,
+                        migratedFile.partition(),
+                        idAndPartitionSchema,
+                        LongStream.range(3 * PARTITION_SIZE, 3 * PARTITION_SIZE + MIGRATED_FILE_SIZE)
+                                .filter(id -> id % 3 == 0)
+                                .<Record>mapToObj(id -> GenericRecord.create(idAndPartitionSchema).copy(ImmutableMap.<String, Object>of("id", id, "part", MIGRATED_PARTITION)))
+                                .collect(toImmutableList())))
+                .commit();
+
+        Set<Long> expected = ImmutableSet.<Long>builder()
+                .addAll(LongStream.range(0, PARTITION_SIZE)
+                        .filter(id -> id % 7 != 0 && id % 11 != 1)
+                        .boxed()
+                        .iterator())
+                .addAll(LongStream.range(PARTITION_SIZE, 2 * PARTITION_SIZE)
+                        .filter(id -> (id - PARTITION_SIZE) % 7 != 0)
+                        .boxed()
+                        .iterator())
+                .addAll(LongStream.range(3 * PARTITION_SIZE, 3 * PARTITION_SIZE + MIGRATED_FILE_SIZE)
+                        .filter(id -> id % 3 != 0)
+                        .boxed()
+                        .iterator())
+                .build();
+
+        assertEquals(computeActual("SELECT id FROM " + tableName).getOnlyColumnAsSet(), expected);
+        assertQuery("SELECT count(*) FROM " + tableName, "VALUES " + expected.size());
+        // the columns of the delete files are read even when they are not selected
+        assertQuery(
+                "SELECT part, count(*) FROM " + tableName + " GROUP BY part",
+                format("VALUES (0, %s), (1, %s), (2, %s)",
+                        expected.stream().filter(id -> id < PARTITION_SIZE).count(),
+                        expected.stream().filter(id -> id >= PARTITION_SIZE && id < 2 * PARTITION_SIZE).count(),
+                        expected.stream().filter(id -> id >= 3 * PARTITION_SIZE).count()));
+        assertEquals(
+                computeActual("SELECT id FROM " + tableName + " WHERE id BETWEEN 3990 AND 4010").getOnlyColumnAsSet(),
+                expected.stream()
+                        .filter(id -> id >= 3990 && id <= 4010)
+                        .collect(toImmutableSet()));
+
+        assertUpdate("DROP TABLE " + tableName);
+    }
+
+    private Table loadTable(String tableName)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        String warehouse = queryRunner.getCoordinator().getDataDirectory().toFile().toURI().toString();
+        return new HadoopCatalog(new Configuration(), warehouse).loadTable(TableIdentifier.of("tpch", tableName));
+    }
+
+    private static List<DataFile> getDataFiles(Table table)
+            throws IOException
+    {
+        try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+            return ImmutableList.copyOf(tasks).stream()
+                    .map(FileScanTask::file)
+                    .collect(toImmutableList());
+        }
+    }
+
+    private static long getPartition(DataFile dataFile)
+    {
+        return dataFile.partition().get(0, Long.class);
+    }
+
+    private static DeleteFile writePositionDeletes(Table table, DataFile dataFile, LongPredicate deleted)
+            throws IOException
+    {
+        PositionDeleteWriter<Record> writer = Parquet.writeDeletes(newOutputFile(table))
+                .forTable(table)
+                .withSpec(table.spec())
+                .withPartition(dataFile.partition())
+                .overwrite()
+                .buildPositionWriter();
+        try (PositionDeleteWriter<Record> closing = writer) {
+            PositionDelete<Record> positionDelete = PositionDelete.create();
+            for (long position = 0; position < dataFile.recordCount(); position++) {
+                if (deleted.test(position)) {
+                    closing.write(positionDelete.set(dataFile.path(), position, null));
+                }
+            }
+        }
+        return writer.toDeleteFile();
+    }
+
+    private static DeleteFile writeEqualityDeletes(Table table, StructLike partition, Schema deleteSchema, List<Record> deletedRows)
+            throws IOException
+    {
+        EqualityDeleteWriter<Record> writer = Parquet.writeDeletes(newOutputFile(table))
+                .forTable(table)
+                .withSpec(table.spec())
+                .withPartition(partition)
+                .overwrite()
+                .rowSchema(deleteSchema)
+                .equalityFieldIds(deleteSchema.columns().stream()
+                        .map(NestedField::fieldId)
+                        .collect(toImmutableList()))
+                .createWriterFunc(GenericParquetWriter::buildWriter)
+                .buildEqualityWriter();
+        try (EqualityDeleteWriter<Record> closing = writer) {
+            for (Record deletedRow : deletedRows) {
+                closing.write(deletedRow);
+            }
+        }
+        return writer.toDeleteFile();
+    }
+
+    private static DataFile writeMigratedFile(Table table)
+            throws IOException
+    {
+        Schema schema = table.schema().select("id");
+        OutputFile outputFile = newOutputFile(table);
+        FileAppender<Record> appender = Parquet.write(outputFile)
+                .schema(schema)
+                .overwrite()
+                .createWriterFunc(GenericParquetWriter::buildWriter)
+                .build();
+        try (FileAppender<Record> closing = appender) {
+            for (long id = 3 * PARTITION_SIZE; id < 3 * PARTITION_SIZE + MIGRATED_FILE_SIZE; id++) {
+                closing.add(GenericRecord.create(schema).copy(ImmutableMap.<String, Object>of("id", id)));
+            }
+        }
+        return DataFiles.builder(table.spec())
+                .withPath(outputFile.location())
+                .withFormat(PARQUET)
+                .withFileSizeInBytes(appender.length())
+                .withMetrics(appender.metrics())
+                .withPartitionPath("part=" + MIGRATED_PARTITION)
+                .build();
+    }
+
+    private static OutputFile newOutputFile(Table table)
+    {
+        return table.io().newOutputFile(table.locationProvider().newDataLocation(PARQUET.addExtension(randomUUID().toString())));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.hadoop.HadoopFileIO;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static com.google.common.io.ByteStreams.readFully;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestManifestFileCache
+{
+    @Test
+    public void testCachingFileIO()
+            throws IOException
+    {
+        byte[] content = new byte[1000];
+        new Random().nextBytes(content);
+        File file = File.createTempFile("manifest", ".avro");
+        Files.write(file.toPath(), content);
+
+        Cache<String, byte[]> cache = CacheBuilder.newBuilder().build();
+        FileIO fileIO = new ManifestFileCache.CachingFileIO(new HadoopFileIO(new Configuration()), cache);
+        String path = file.toURI().toString();
+
+        assertEquals(readAt(fileIO.newInputFile(path), 0, content.length), content);
+        assertEquals(cache.size(), 1);
+
+        // the file is read from the cache once it is loaded
+        assertTrue(file.delete());
+        InputFile inputFile = fileIO.newInputFile(path, content.length);
+        assertTrue(inputFile.exists());
+        assertEquals(inputFile.getLength(), content.length);
+        byte[] expected = new byte[100];
+        System.arraycopy(content, 900, expected, 0, 100);
+        assertEquals(readAt(inputFile, 900, 100), expected);
+
+        try (SeekableInputStream input = inputFile.newStream()) {
+            input.seek(content.length);
+            assertEquals(input.read(), -1);
+            assertEquals(input.read(new byte[10], 0, 10), -1);
+        }
+
+        cache.invalidateAll();
+        assertFalse(fileIO.newInputFile(path).exists());
+    }
+
+    private static byte[] readAt(InputFile inputFile, long position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length];
+        try (SeekableInputStream input = inputFile.newStream()) {
+            input.seek(position);
+            assertEquals(input.getPos(), position);
+            readFully(input, buffer);
+        }
+        return buffer;
+    }
+}
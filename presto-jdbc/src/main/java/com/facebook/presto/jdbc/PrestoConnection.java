@@ -86,6 +86,7 @@ public class PrestoConnection
     private final URI httpUri;
     private final String user;
     private final boolean compressionDisabled;
+    private final boolean binaryResults;
     private final Map<String, String> extraCredentials;
     private final Map<String, String> customHeaders;
     private final Map<String, String> sessionProperties;
@@ -110,6 +111,7 @@ public class PrestoConnection
         this.user = uri.getUser();
         this.applicationNamePrefix = uri.getApplicationNamePrefix();
         this.compressionDisabled = uri.isCompressionDisabled();
+        this.binaryResults = uri.isBinaryResults();
 
         this.extraCredentials = uri.getExtraCredentials();
         this.customHeaders = uri.getCustomHeaders();
@@ -768,6 +770,7 @@ public class PrestoConnection
                 transactionId.get(),
                 timeout,
                 compressionDisabled,
+                binaryResults,
                 ImmutableMap.of(),
                 customHeaders);
 
@@ -82,6 +82,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitRunnerLocalQueueSize;
 
     private boolean legacyLifespanCompletionCondition;
     private TaskPriorityTracking taskPriorityTracking = TaskPriorityTracking.TASK_FAIR;
@@ -261,6 +262,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(0)
+    public int getSplitRunnerLocalQueueSize()
+    {
+        return splitRunnerLocalQueueSize;
+    }
+
+    @Config("task.split-runner-local-queue-size")
+    @ConfigDescription("Maximum number of splits kept in the local queue of a split runner thread while all runner threads are busy. Set to 0 to use only the shared split queue")
+    public TaskManagerConfig setSplitRunnerLocalQueueSize(int splitRunnerLocalQueueSize)
+    {
+        this.splitRunnerLocalQueueSize = splitRunnerLocalQueueSize;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -26,14 +26,20 @@ import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -42,12 +48,21 @@ public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
+    // maximum number of splits a runner takes from its local queue in a row, before it looks at the shared queues
+    static final int MAX_CONSECUTIVE_LOCAL_SPLITS = 8;
 
     @GuardedBy("lock")
     private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
+    // number of waiting splits of every level, in the shared queues and in the runner local queues
+    private final AtomicInteger[] levelWaitingSplitCounts = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
+
+    // priority of the first split of the shared queue of every level, or Long.MAX_VALUE if the queue is empty,
+    // so that runners compare their local splits with the shared splits without acquiring the lock
+    private final AtomicLong[] levelSharedHeadPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
+
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
@@ -56,14 +71,29 @@ public class MultilevelSplitQueue
 
     private final double levelTimeMultiplier;
 
+    private final int localQueueCapacity;
+    private final List<LocalQueue> localQueues = new CopyOnWriteArrayList<>();
+    // runners waiting for a split in take; while any runner is idle, splits are not kept in local queues
+    private final AtomicInteger idleRunners = new AtomicInteger();
+
+    private final CounterStat localQueueSelectedCount = new CounterStat();
+    private final CounterStat stolenSplitCount = new CounterStat();
+    private final CounterStat lockContentionCount = new CounterStat();
+
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitRunnerLocalQueueSize());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 0);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int localQueueCapacity)
+    {
+        checkArgument(localQueueCapacity >= 0, "localQueueCapacity is negative");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
         this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
@@ -72,12 +102,15 @@ public class MultilevelSplitQueue
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
             levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplitCounts[i] = new AtomicInteger();
+            levelSharedHeadPriority[i] = new AtomicLong(Long.MAX_VALUE);
             counters.add(new CounterStat());
         }
 
         this.selectedLevelCounters = counters.build();
 
         this.levelTimeMultiplier = levelTimeMultiplier;
+        this.localQueueCapacity = localQueueCapacity;
     }
 
     private void addLevelTime(int level, long nanos)
@@ -103,18 +136,11 @@ public class MultilevelSplitQueue
         int level = split.getPriority().getLevel();
         lock.lock();
         try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
-            }
+            adjustEmptyLevelScheduledTime(level);
 
             levelWaitingSplits.get(level).offer(split);
+            levelWaitingSplitCounts[level].incrementAndGet();
+            updateSharedHeadPriority(level);
             notEmpty.signal();
         }
         finally {
@@ -122,6 +148,50 @@ public class MultilevelSplitQueue
         }
     }
 
+    private void adjustEmptyLevelScheduledTime(int level)
+    {
+        // the waiting splits of the local queues are counted, so that a level is only adjusted when it is empty
+        if (levelWaitingSplitCounts[level].get() == 0) {
+            // Accesses to levelScheduledTime are not synchronized, so we have a data race
+            // here - our level time math will be off. However, the staleness is bounded by
+            // the fact that only running splits that complete during this computation
+            // can update the level time. Therefore, this is benign.
+            long level0Time = getLevel0TargetTime();
+            long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+            long delta = levelExpectedTime - levelScheduledTime[level].get();
+            levelScheduledTime[level].addAndGet(delta);
+        }
+    }
+
+    @GuardedBy("lock")
+    private void updateSharedHeadPriority(int level)
+    {
+        PrioritizedSplitRunner head = levelWaitingSplits.get(level).peek();
+        levelSharedHeadPriority[level].set(head == null ? Long.MAX_VALUE : head.getPriority().getLevelPriority());
+    }
+
+    /**
+     * Offers a split which was just run by the runner owning the given local queue. While every runner is busy,
+     * the split is kept in the local queue, so that the runner can select it again without acquiring the shared
+     * lock. Splits in a local queue are stolen by runners which find no split in the shared queues.
+     */
+    public void offer(PrioritizedSplitRunner split, LocalQueue localQueue)
+    {
+        checkArgument(split != null, "split is null");
+        requireNonNull(localQueue, "localQueue is null");
+
+        if (localQueueCapacity == 0 || idleRunners.get() > 0 || localQueue.splits.size() >= localQueueCapacity) {
+            offer(split);
+            return;
+        }
+
+        split.setReady();
+        int level = split.getPriority().getLevel();
+        adjustEmptyLevelScheduledTime(level);
+        levelWaitingSplitCounts[level].incrementAndGet();
+        localQueue.splits.offerLast(split);
+    }
+
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
@@ -138,10 +208,7 @@ public class MultilevelSplitQueue
                     continue;
                 }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
-
+                updateSelectedLevel(result);
                 return result;
             }
             finally {
@@ -150,6 +217,134 @@ public class MultilevelSplitQueue
         }
     }
 
+    /**
+     * Takes the next split for the runner owning the given local queue. The level is selected the same way
+     * as for the shared queues, and a split of that level in the local queue is preferred over the shared
+     * queues, unless the shared queue of the level has a split with a better priority, or the runner already
+     * took {@link #MAX_CONSECUTIVE_LOCAL_SPLITS} splits in a row from its local queue. When the shared queues
+     * are empty, a split is stolen from the local queue of another runner.
+     */
+    public PrioritizedSplitRunner take(LocalQueue localQueue)
+            throws InterruptedException
+    {
+        requireNonNull(localQueue, "localQueue is null");
+        if (localQueueCapacity == 0) {
+            return take();
+        }
+
+        while (true) {
+            PrioritizedSplitRunner result = null;
+            if (localQueue.consecutiveLocalSplits < MAX_CONSECUTIVE_LOCAL_SPLITS) {
+                result = pollLocalSplit(localQueue);
+            }
+            if (result != null) {
+                localQueue.consecutiveLocalSplits++;
+                localQueueSelectedCount.update(1);
+            }
+            else {
+                localQueue.consecutiveLocalSplits = 0;
+                result = pollSharedOrStolenSplit(localQueue);
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            updateSelectedLevel(result);
+            return result;
+        }
+    }
+
+    private void updateSelectedLevel(PrioritizedSplitRunner result)
+    {
+        int selectedLevel = result.getPriority().getLevel();
+        levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+        selectedLevelCounters.get(selectedLevel).update(1);
+    }
+
+    private PrioritizedSplitRunner pollLocalSplit(LocalQueue localQueue)
+    {
+        if (localQueue.splits.isEmpty()) {
+            return null;
+        }
+
+        int selectedLevel = selectLevel(level -> levelWaitingSplitCounts[level].get() > 0);
+        if (selectedLevel == -1) {
+            return null;
+        }
+        long sharedHeadPriority = levelSharedHeadPriority[selectedLevel].get();
+        for (PrioritizedSplitRunner split : localQueue.splits) {
+            Priority priority = split.getPriority();
+            if (priority.getLevel() == selectedLevel && priority.getLevelPriority() <= sharedHeadPriority && localQueue.splits.remove(split)) {
+                levelWaitingSplitCounts[selectedLevel].decrementAndGet();
+                return split;
+            }
+        }
+        return null;
+    }
+
+    private PrioritizedSplitRunner pollSharedOrStolenSplit(LocalQueue localQueue)
+            throws InterruptedException
+    {
+        if (!lock.tryLock()) {
+            lockContentionCount.update(1);
+            lock.lockInterruptibly();
+        }
+        try {
+            PrioritizedSplitRunner result = pollSplit();
+            if (result != null) {
+                return result;
+            }
+
+            // register as idle before looking for a split to steal, so that splits offered from now on
+            // are added to the shared queues, and wake up this runner
+            idleRunners.incrementAndGet();
+            try {
+                while (true) {
+                    result = stealSplit(localQueue);
+                    if (result == null) {
+                        result = pollSplit();
+                    }
+                    if (result != null) {
+                        return result;
+                    }
+                    notEmpty.await();
+                }
+            }
+            finally {
+                idleRunners.decrementAndGet();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private PrioritizedSplitRunner stealSplit(LocalQueue thief)
+    {
+        // splits of other levels in the own queue come first
+        PrioritizedSplitRunner split = thief.splits.pollFirst();
+        if (split != null) {
+            levelWaitingSplitCounts[split.getPriority().getLevel()].decrementAndGet();
+            localQueueSelectedCount.update(1);
+            return split;
+        }
+
+        for (LocalQueue localQueue : localQueues) {
+            if (localQueue == thief) {
+                continue;
+            }
+            split = localQueue.splits.pollFirst();
+            if (split != null) {
+                levelWaitingSplitCounts[split.getPriority().getLevel()].decrementAndGet();
+                stolenSplitCount.update(1);
+                return split;
+            }
+        }
+        return null;
+    }
+
     /**
      * Presto attempts to give each level a target amount of scheduled time, which is configurable
      * using levelTimeMultiplier.
@@ -160,12 +355,31 @@ public class MultilevelSplitQueue
      */
     @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
+    {
+        int selectedLevel = selectLevel(level -> !levelWaitingSplits.get(level).isEmpty());
+        if (selectedLevel == -1) {
+            return null;
+        }
+
+        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+        checkState(result != null, "pollSplit cannot return null");
+        levelWaitingSplitCounts[selectedLevel].decrementAndGet();
+        updateSharedHeadPriority(selectedLevel);
+
+        return result;
+    }
+
+    /**
+     * Returns the level with the lowest ratio of actual to target scheduled time among the levels
+     * with waiting splits, or -1 if there is no such level.
+     */
+    private int selectLevel(IntPredicate hasWaitingSplits)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (hasWaitingSplits.test(level)) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -177,17 +391,9 @@ public class MultilevelSplitQueue
             targetScheduledTime /= levelTimeMultiplier;
         }
 
-        if (selectedLevel == -1) {
-            return null;
-        }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
+        return selectedLevel;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -249,9 +455,7 @@ public class MultilevelSplitQueue
         checkArgument(split != null, "split is null");
         lock.lock();
         try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
-            }
+            removeWaitingSplit(split);
         }
         finally {
             lock.unlock();
@@ -262,8 +466,8 @@ public class MultilevelSplitQueue
     {
         lock.lock();
         try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+            for (PrioritizedSplitRunner split : splits) {
+                removeWaitingSplit(split);
             }
         }
         finally {
@@ -271,6 +475,46 @@ public class MultilevelSplitQueue
         }
     }
 
+    @GuardedBy("lock")
+    private void removeWaitingSplit(PrioritizedSplitRunner split)
+    {
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            if (levelWaitingSplits.get(level).remove(split)) {
+                levelWaitingSplitCounts[level].decrementAndGet();
+                updateSharedHeadPriority(level);
+            }
+        }
+        for (LocalQueue localQueue : localQueues) {
+            if (localQueue.splits.remove(split)) {
+                levelWaitingSplitCounts[split.getPriority().getLevel()].decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Creates the local queue of a runner thread. The queue must be released with
+     * {@link #releaseLocalQueue(LocalQueue)} when the runner exits.
+     */
+    public LocalQueue createLocalQueue()
+    {
+        LocalQueue localQueue = new LocalQueue();
+        localQueues.add(localQueue);
+        return localQueue;
+    }
+
+    /**
+     * Moves the splits left in the local queue of an exiting runner to the shared queues.
+     */
+    public void releaseLocalQueue(LocalQueue localQueue)
+    {
+        localQueues.remove(localQueue);
+        PrioritizedSplitRunner split;
+        while ((split = localQueue.splits.pollFirst()) != null) {
+            levelWaitingSplitCounts[split.getPriority().getLevel()].decrementAndGet();
+            offer(split);
+        }
+    }
+
     public long getLevelMinPriority(int level, long taskThreadUsageNanos)
     {
         levelMinPriority[level].compareAndSet(-1, taskThreadUsageNanos);
@@ -285,6 +529,9 @@ public class MultilevelSplitQueue
             for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
                 total += level.size();
             }
+            for (LocalQueue localQueue : localQueues) {
+                total += localQueue.splits.size();
+            }
             return total;
         }
         finally {
@@ -374,4 +621,43 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalQueueSelectedCount()
+    {
+        return localQueueSelectedCount;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplitCount()
+    {
+        return stolenSplitCount;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLockContentionCount()
+    {
+        return lockContentionCount;
+    }
+
+    /**
+     * Splits which are ready to run again on the runner thread that last ran them.
+     */
+    public static final class LocalQueue
+    {
+        private final Deque<PrioritizedSplitRunner> splits = new ConcurrentLinkedDeque<>();
+        // only accessed by the runner owning the queue
+        private int consecutiveLocalSplits;
+
+        private LocalQueue() {}
+
+        @VisibleForTesting
+        int size()
+        {
+            return splits.size();
+        }
+    }
 }
@@ -572,6 +572,7 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        private final MultilevelSplitQueue.LocalQueue localQueue = waitingSplits.createLocalQueue();
 
         @Override
         public void run()
@@ -581,7 +582,7 @@ public class TaskExecutor
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = waitingSplits.take(localQueue);
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -609,7 +610,7 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                waitingSplits.offer(split);
+                                waitingSplits.offer(split, localQueue);
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -638,6 +639,7 @@ public class TaskExecutor
                 }
             }
             finally {
+                waitingSplits.releaseLocalQueue(localQueue);
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
                     addRunnerThread();
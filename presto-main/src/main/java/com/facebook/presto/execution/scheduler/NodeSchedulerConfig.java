@@ -39,6 +39,7 @@ public class NodeSchedulerConfig
     private String networkTopology = NetworkTopologyType.LEGACY;
     private NodeSelectionHashStrategy nodeSelectionHashStrategy = NodeSelectionHashStrategy.MODULAR_HASHING;
     private int minVirtualNodeCount = 1000;
+    private boolean loadAwareSoftAffinityEnabled;
     private ResourceAwareSchedulingStrategy resourceAwareSchedulingStrategy = ResourceAwareSchedulingStrategy.RANDOM;
 
     @NotNull
@@ -148,6 +149,20 @@ public class NodeSchedulerConfig
         return this;
     }
 
+    public boolean isLoadAwareSoftAffinityEnabled()
+    {
+        return loadAwareSoftAffinityEnabled;
+    }
+
+    @Config("node-scheduler.load-aware-soft-affinity-enabled")
+    @ConfigDescription("When scheduling splits with preferred nodes, prefer a secondary preferred node over the primary preferred node when the primary node " +
+            "has more than half of node-scheduler.max-pending-splits-per-task splits queued in excess of the secondary node")
+    public NodeSchedulerConfig setLoadAwareSoftAffinityEnabled(boolean loadAwareSoftAffinityEnabled)
+    {
+        this.loadAwareSoftAffinityEnabled = loadAwareSoftAffinityEnabled;
+        return this;
+    }
+
     public ResourceAwareSchedulingStrategy getResourceAwareSchedulingStrategy()
     {
         return resourceAwareSchedulingStrategy;
@@ -25,6 +25,8 @@ public class NodeSelectionStats
     private final CounterStat primaryPreferredNodeSelectedCount = new CounterStat();
     private final CounterStat nonPrimaryPreferredNodeSelectedCount = new CounterStat();
     private final CounterStat nonPreferredNodeSelectedCount = new CounterStat();
+    private final CounterStat loadBalancedPreferredNodeSelectedCount = new CounterStat();
+    private final CounterStat preferredNodeUnavailableCount = new CounterStat();
 
     private final CounterStat bucketedPreferredNodeSelectedCount = new CounterStat();
     private final CounterStat bucketedNonPreferredNodeSelectedCount = new CounterStat();
@@ -47,6 +49,16 @@ public class NodeSelectionStats
         nonPreferredNodeSelectedCount.update(1);
     }
 
+    public void incrementLoadBalancedPreferredNodeSelectedCount()
+    {
+        loadBalancedPreferredNodeSelectedCount.update(1);
+    }
+
+    public void incrementPreferredNodeUnavailableCount()
+    {
+        preferredNodeUnavailableCount.update(1);
+    }
+
     public void incrementBucketedPreferredNodeSelectedCount()
     {
         bucketedPreferredNodeSelectedCount.update(1);
@@ -88,6 +100,32 @@ public class NodeSelectionStats
         return nonPreferredNodeSelectedCount;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getLoadBalancedPreferredNodeSelectedCount()
+    {
+        return loadBalancedPreferredNodeSelectedCount;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPreferredNodeUnavailableCount()
+    {
+        return preferredNodeUnavailableCount;
+    }
+
+    /**
+     * Fraction of the splits with preferred nodes which were scheduled on one of their preferred nodes,
+     * which is the upper bound of the hit rate of the local data caches of the workers.
+     */
+    @Managed
+    public double getPreferredNodeSelectedRate()
+    {
+        long preferred = primaryPreferredNodeSelectedCount.getTotalCount() + nonPrimaryPreferredNodeSelectedCount.getTotalCount();
+        long total = preferred + preferredNodeUnavailableCount.getTotalCount();
+        return total == 0 ? 0 : (double) preferred / total;
+    }
+
     @Managed
     @Nested
     public CounterStat getBucketedPreferredNodeSelectedCount()
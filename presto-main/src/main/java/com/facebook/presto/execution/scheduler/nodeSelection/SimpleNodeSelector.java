@@ -81,6 +81,9 @@ public class SimpleNodeSelector
     private final int maxUnacknowledgedSplitsPerTask;
     private final int maxTasksPerStage;
     private final NodeSelectionHashStrategy nodeSelectionHashStrategy;
+    private final boolean loadAwareSoftAffinityEnabled;
+    // a later preferred node is chosen when the earlier one has this much more split weight assigned
+    private final long maxPreferredNodeWeightImbalance;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -93,7 +96,8 @@ public class SimpleNodeSelector
             long maxPendingSplitsWeightPerTask,
             int maxUnacknowledgedSplitsPerTask,
             int maxTasksPerStage,
-            NodeSelectionHashStrategy nodeSelectionHashStrategy)
+            NodeSelectionHashStrategy nodeSelectionHashStrategy,
+            boolean loadAwareSoftAffinityEnabled)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeSelectionStats = requireNonNull(nodeSelectionStats, "nodeSelectionStats is null");
@@ -107,6 +111,8 @@ public class SimpleNodeSelector
         checkArgument(maxUnacknowledgedSplitsPerTask > 0, "maxUnacknowledgedSplitsPerTask must be > 0, found: %s", maxUnacknowledgedSplitsPerTask);
         this.maxTasksPerStage = maxTasksPerStage;
         this.nodeSelectionHashStrategy = requireNonNull(nodeSelectionHashStrategy, "nodeSelectionHashStrategy is null");
+        this.loadAwareSoftAffinityEnabled = loadAwareSoftAffinityEnabled;
+        this.maxPreferredNodeWeightImbalance = calculateLowWatermark(maxPendingSplitsWeightPerTask);
     }
 
     @Override
@@ -154,9 +160,9 @@ public class SimpleNodeSelector
 
         NodeProvider nodeProvider = nodeMap.getActiveNodeProvider(nodeSelectionHashStrategy);
 
-        OptionalInt preferredNodeCount = OptionalInt.empty();
         for (Split split : splits) {
             List<InternalNode> candidateNodes;
+            OptionalInt preferredNodeCount = OptionalInt.empty();
             switch (split.getNodeSelectionStrategy()) {
                 case HARD_AFFINITY:
                     candidateNodes = selectExactNodes(nodeMap, split.getPreferredNodes(nodeProvider), includeCoordinator);
@@ -253,13 +259,20 @@ public class SimpleNodeSelector
 
             // choose the preferred node first as long as they're not busy
             if (preferredNodeCount.isPresent() && i < preferredNodeCount.getAsInt() && canAssignToNode) {
-                if (i == 0) {
+                int selected = i;
+                if (loadAwareSoftAffinityEnabled) {
+                    selected = selectLeastLoadedPreferredNode(i, currentWeight, splitWeight, candidateNodes, splitWeightProvider, preferredNodeCount.getAsInt(), maxSplitsWeight, assignmentStats);
+                    if (selected != i) {
+                        nodeSelectionStats.incrementLoadBalancedPreferredNodeSelectedCount();
+                    }
+                }
+                if (selected == 0) {
                     nodeSelectionStats.incrementPrimaryPreferredNodeSelectedCount();
                 }
                 else {
                     nodeSelectionStats.incrementNonPrimaryPreferredNodeSelectedCount();
                 }
-                return Optional.of(new InternalNodeInfo(node, true));
+                return Optional.of(new InternalNodeInfo(candidateNodes.get(selected), true));
             }
             // fallback to choosing the least busy nodes
             if (canAssignToNode && currentWeight < minWeight) {
@@ -271,9 +284,36 @@ public class SimpleNodeSelector
             return Optional.empty();
         }
         nodeSelectionStats.incrementNonPreferredNodeSelectedCount();
+        if (preferredNodeCount.isPresent()) {
+            nodeSelectionStats.incrementPreferredNodeUnavailableCount();
+        }
         return Optional.of(new InternalNodeInfo(chosenNode, false));
     }
 
+    /**
+     * Returns the index of the preferred node to assign the split to, given the first preferred node that can accept it.
+     * The later preferred nodes are usually caching the data of the split as well, so one of them is chosen instead
+     * when the first node is overloaded compared to it. This keeps hot nodes from becoming stragglers without
+     * spreading the splits of a file over more caches than its preferred nodes.
+     */
+    private int selectLeastLoadedPreferredNode(int first, long firstWeight, SplitWeight splitWeight, List<InternalNode> candidateNodes, ToLongFunction<InternalNode> splitWeightProvider, int preferredNodeCount, long maxSplitsWeight, NodeAssignmentStats assignmentStats)
+    {
+        int selected = first;
+        long selectedWeight = firstWeight;
+        for (int i = first + 1; i < preferredNodeCount; i++) {
+            InternalNode node = candidateNodes.get(i);
+            if (node.getNodeStatus() == DEAD || assignmentStats.getUnacknowledgedSplitCountForStage(node) >= maxUnacknowledgedSplitsPerTask) {
+                continue;
+            }
+            long weight = splitWeightProvider.applyAsLong(node);
+            if (canAssignSplitBasedOnWeight(weight, maxSplitsWeight, splitWeight) && weight + maxPreferredNodeWeightImbalance < selectedWeight) {
+                selected = i;
+                selectedWeight = weight;
+            }
+        }
+        return selected;
+    }
+
     private List<InternalNode> getEligibleNodes(int limit, NodeMap nodeMap, List<RemoteTask> existingTasks)
     {
         List<InternalNode> existingNodes = existingTasks.stream()
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import io.airlift.units.DataSize;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bloom filter over the values of a dynamic filter build channel.
+ * <p>
+ * It is used instead of the exact set of values when the build side has too many distinct values.
+ * Filters of the same type and size can be merged, so that the filters collected by every build driver
+ * can be combined into a single filter which is applied to the probe side rows.
+ */
+@NotThreadSafe
+public class DynamicFilterBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DynamicFilterBloomFilter.class).instanceSize();
+    private static final int HASH_FUNCTION_COUNT = 3;
+    private static final int MIN_BIT_COUNT = Long.SIZE;
+
+    private final Type type;
+    private final long[] bits;
+    private final int bitMask;
+
+    public DynamicFilterBloomFilter(Type type, DataSize size)
+    {
+        this(type, new long[getBitCount(size) / Long.SIZE]);
+    }
+
+    private DynamicFilterBloomFilter(Type type, long[] bits)
+    {
+        this.type = requireNonNull(type, "type is null");
+        checkArgument(isSupportedType(type), "Unsupported type: %s", type);
+        this.bits = requireNonNull(bits, "bits is null");
+        this.bitMask = bits.length * Long.SIZE - 1;
+    }
+
+    /**
+     * DOUBLE and REAL are skipped to avoid dealing with NaN and signed zero values, whose hashes do not follow equality.
+     */
+    public static boolean isSupportedType(Type type)
+    {
+        return type.isComparable() && type != DOUBLE && type != REAL;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public void add(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            // nulls never match in an equi-join
+            return;
+        }
+        long hash = murmurHash3(type.hash(block, position));
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTION_COUNT; i++) {
+            int bit = (hash1 + i * hash2) & bitMask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public void addNativeValue(Object value)
+    {
+        add(nativeValueToBlock(type, value), 0);
+    }
+
+    public boolean mightContain(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return false;
+        }
+        long hash = murmurHash3(type.hash(block, position));
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTION_COUNT; i++) {
+            int bit = (hash1 + i * hash2) & bitMask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds all values of the other filter to this filter.
+     */
+    public void merge(DynamicFilterBloomFilter other)
+    {
+        checkCompatible(other);
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    /**
+     * Retains only the values which might be contained in both filters.
+     */
+    public void intersect(DynamicFilterBloomFilter other)
+    {
+        checkCompatible(other);
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] &= other.bits[i];
+        }
+    }
+
+    public boolean isCompatible(DynamicFilterBloomFilter other)
+    {
+        return type.equals(other.type) && bits.length == other.bits.length;
+    }
+
+    public DynamicFilterBloomFilter copy()
+    {
+        return new DynamicFilterBloomFilter(type, bits.clone());
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(bits);
+    }
+
+    private void checkCompatible(DynamicFilterBloomFilter other)
+    {
+        checkArgument(isCompatible(other), "Bloom filters are not compatible: %s, %s", this, other);
+    }
+
+    private static int getBitCount(DataSize size)
+    {
+        long bitCount = max(size.toBytes() * Byte.SIZE, MIN_BIT_COUNT);
+        checkArgument(bitCount <= 1L << 30, "size must be at most 128MB");
+        // round down to a power of two, so that bit indexes can be computed with a mask
+        return Integer.highestOneBit(toIntExact(bitCount));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("type", type)
+                .add("bitCount", bits.length * Long.SIZE)
+                .toString();
+    }
+}
@@ -29,6 +29,7 @@ import io.airlift.units.DataSize;
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -46,7 +47,8 @@ import static java.util.stream.Collectors.toSet;
  * This operator acts as a simple "pass-through" pipe, while saving its input pages.
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
- * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real),
+ * and optionally a Bloom filter of the values per channel (see {@link DynamicFilterBloomFilter}).
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -92,6 +94,8 @@ public class DynamicFilterSourceOperator
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final Optional<DataSize> bloomFilterSize;
+        private final Consumer<Map<String, DynamicFilterBloomFilter>> bloomFilterConsumer;
 
         private boolean closed;
 
@@ -103,6 +107,24 @@ public class DynamicFilterSourceOperator
                 int maxFilterPositionsCount,
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit)
+        {
+            this(operatorId, planNodeId, dynamicPredicateConsumer, channels, maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, Optional.empty(), bloomFilters -> {});
+        }
+
+        /**
+         * @param bloomFilterSize if present, a Bloom filter of this size is collected for every supported channel once the exact predicate becomes too large
+         * @param bloomFilterConsumer receives the Bloom filters of an operator right before its predicate is passed to {@code dynamicPredicateConsumer}
+         */
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+                List<Channel> channels,
+                int maxFilterPositionsCount,
+                DataSize maxFilterSize,
+                int minMaxCollectionLimit,
+                Optional<DataSize> bloomFilterSize,
+                Consumer<Map<String, DynamicFilterBloomFilter>> bloomFilterConsumer)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -117,6 +139,8 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         }
 
         @Override
@@ -130,7 +154,9 @@ public class DynamicFilterSourceOperator
                     planNodeId,
                     maxFilterPositionsCount,
                     maxFilterSize,
-                    minMaxCollectionLimit);
+                    minMaxCollectionLimit,
+                    bloomFilterSize,
+                    bloomFilterConsumer);
         }
 
         @Override
@@ -153,6 +179,9 @@ public class DynamicFilterSourceOperator
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
+    private final Optional<DataSize> bloomFilterSize;
+    private final Consumer<Map<String, DynamicFilterBloomFilter>> bloomFilterConsumer;
+    private final List<Integer> bloomFilterChannels;
 
     private boolean finished;
     private Page current;
@@ -169,6 +198,10 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Collected only after the exact predicate becomes too large.
+    @Nullable
+    private DynamicFilterBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
@@ -176,7 +209,9 @@ public class DynamicFilterSourceOperator
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
-            int minMaxCollectionLimit)
+            int minMaxCollectionLimit,
+            Optional<DataSize> bloomFilterSize,
+            Consumer<Map<String, DynamicFilterBloomFilter>> bloomFilterConsumer)
     {
         this.context = requireNonNull(context, "context is null");
         this.maxFilterPositionsCount = maxFilterPositionsCount;
@@ -187,13 +222,19 @@ public class DynamicFilterSourceOperator
 
         this.blockBuilders = new BlockBuilder[channels.size()];
         this.valueSets = new TypedSet[channels.size()];
+        this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         ImmutableList.Builder<Integer> minMaxChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> bloomFilterChannelsBuilder = ImmutableList.builder();
         for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
             Type type = channels.get(channelIndex).getType();
             // Skipping DOUBLE and REAL in collectMinMaxValues to avoid dealing with NaN values
             if (minMaxCollectionLimit > 0 && type.isOrderable() && type != DOUBLE && type != REAL) {
                 minMaxChannelsBuilder.add(channelIndex);
             }
+            if (bloomFilterSize.isPresent() && DynamicFilterBloomFilter.isSupportedType(type)) {
+                bloomFilterChannelsBuilder.add(channelIndex);
+            }
             this.blockBuilders[channelIndex] = type.createBlockBuilder(null, EXPECTED_BLOCK_BUILDER_SIZE);
             this.valueSets[channelIndex] = new TypedSet(
                     type,
@@ -204,6 +245,7 @@ public class DynamicFilterSourceOperator
         }
         this.minMaxCollectionLimit = minMaxCollectionLimit;
         minMaxChannels = minMaxChannelsBuilder.build();
+        bloomFilterChannels = bloomFilterChannelsBuilder.build();
         if (!minMaxChannels.isEmpty()) {
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
@@ -229,6 +271,11 @@ public class DynamicFilterSourceOperator
         current = page;
         if (valueSets == null) {
             // the exact predicate became too large.
+            if (bloomFilters != null) {
+                for (Integer channelIndex : bloomFilterChannels) {
+                    addToBloomFilter(page.getBlock(channels.get(channelIndex).getIndex()), channelIndex);
+                }
+            }
             if (minValues == null) {
                 // there are too many rows to collect min/max range
                 return;
@@ -268,9 +315,19 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
+        if (!bloomFilterChannels.isEmpty()) {
+            // switch to Bloom filters, starting with the values collected so far
+            bloomFilters = new DynamicFilterBloomFilter[channels.size()];
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFilters[channelIndex] = new DynamicFilterBloomFilter(channels.get(channelIndex).getType(), bloomFilterSize.get());
+                addToBloomFilter(blockBuilders[channelIndex].build(), channelIndex);
+            }
+        }
         if (minMaxChannels.isEmpty()) {
-            // allow all probe-side values to be read.
-            dynamicPredicateConsumer.accept(TupleDomain.all());
+            if (bloomFilters == null) {
+                // allow all probe-side values to be read.
+                dynamicPredicateConsumer.accept(TupleDomain.all());
+            }
         }
         else {
             if (minMaxCollectionLimit < 0) {
@@ -292,13 +349,35 @@ public class DynamicFilterSourceOperator
 
     private void handleMinMaxCollectionLimitExceeded()
     {
-        // allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        if (bloomFilters == null) {
+            // allow all probe-side values to be read.
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+        }
         // Drop references to collected values.
         minValues = null;
         maxValues = null;
     }
 
+    private void addToBloomFilter(Block block, int channelIndex)
+    {
+        checkState(bloomFilters != null);
+        DynamicFilterBloomFilter bloomFilter = bloomFilters[channelIndex];
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            bloomFilter.add(block, position);
+        }
+    }
+
+    private void publishBloomFilters()
+    {
+        checkState(bloomFilters != null);
+        ImmutableMap.Builder<String, DynamicFilterBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        for (Integer channelIndex : bloomFilterChannels) {
+            bloomFiltersBuilder.put(channels.get(channelIndex).getFilterId(), bloomFilters[channelIndex]);
+        }
+        bloomFilters = null;
+        bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex)
     {
         checkState(minValues != null && maxValues != null);
@@ -363,8 +442,12 @@ public class DynamicFilterSourceOperator
         if (valueSets == null) {
             if (minValues == null) {
                 // there were too many rows to collect min/max range
-                // dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate if there are no orderable types,
-                // else it was notified with 'all' in handleMinMaxCollectionLimitExceeded
+                // unless Bloom filters are collected, dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate
+                // if there are no orderable types, else it was notified with 'all' in handleMinMaxCollectionLimitExceeded
+                if (bloomFilters != null) {
+                    publishBloomFilters();
+                    dynamicPredicateConsumer.accept(TupleDomain.all());
+                }
                 return;
             }
             // valueSets became too large, create TupleDomain from min/max values
@@ -384,6 +467,9 @@ public class DynamicFilterSourceOperator
             }
             minValues = null;
             maxValues = null;
+            if (bloomFilters != null) {
+                publishBloomFilters();
+            }
             dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
             return;
         }
@@ -20,6 +20,7 @@ import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.project.MergingPageOutput;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 
@@ -132,6 +133,18 @@ public class FilterAndProjectOperator
             this.minOutputPageRowCount = minOutputPageRowCount;
         }
 
+        @VisibleForTesting
+        public DataSize getMinOutputPageSize()
+        {
+            return minOutputPageSize;
+        }
+
+        @VisibleForTesting
+        public int getMinOutputPageRowCount()
+        {
+            return minOutputPageRowCount;
+        }
+
         @Override
         public Operator createOperator(DriverContext driverContext)
         {
@@ -0,0 +1,527 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.array.LongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link GroupByHash} for keys consisting only of fixed width types which can be represented as a long.
+ * <p>
+ * Keys are copied into a single big array, one row per group: the raw hash, a bit mask of null keys and
+ * the key values are stored next to each other. The hash table is an open addressing table of longs,
+ * each containing the group id and the upper 32 bits of the raw hash of the group. Probing therefore
+ * touches the group row only when the hash bits match, and no objects are allocated per group or per page.
+ */
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, BOOLEAN);
+    // one bit of the null mask per key
+    private static final int MAX_KEY_COUNT = Long.SIZE;
+
+    private static final long EMPTY_SLOT = 0;
+    private static final int RAW_HASH_OFFSET = 0;
+    private static final int NULL_MASK_OFFSET = 1;
+    private static final int KEYS_OFFSET = 2;
+
+    private final List<Type> hashTypes;
+    private final List<Type> types;
+    private final int[] channels;
+    private final boolean[] booleanKeys;
+    private final boolean outputRawHash;
+    private final HashGenerator hashGenerator;
+    private final int rowSize;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from the raw hash to groupIds
+    private LongBigArray hashTable;
+
+    // raw hash, null mask and key values of the groups, indexed by groupId * rowSize
+    private final LongBigArray groupRows;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public FixedWidthGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            UpdateMemory updateMemory)
+    {
+        this.hashTypes = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+        requireNonNull(hashChannels, "hashChannels is null");
+        requireNonNull(inputHashChannel, "inputHashChannel is null");
+        checkArgument(isSupported(hashTypes), "Unsupported group by types: %s", hashTypes);
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.channels = hashChannels.clone();
+        this.outputRawHash = inputHashChannel.isPresent();
+        this.types = outputRawHash ? ImmutableList.copyOf(Iterables.concat(this.hashTypes, ImmutableList.of(BIGINT))) : this.hashTypes;
+        this.hashGenerator = inputHashChannel.isPresent() ? new PrecomputedHashGenerator(inputHashChannel.get()) : new InterpretedHashGenerator(this.hashTypes, hashChannels);
+        this.booleanKeys = new boolean[hashChannels.length];
+        for (int i = 0; i < hashChannels.length; i++) {
+            booleanKeys[i] = this.hashTypes.get(i).equals(BOOLEAN);
+        }
+        this.rowSize = KEYS_OFFSET + hashChannels.length;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        hashTable = new LongBigArray(EMPTY_SLOT);
+        hashTable.ensureCapacity(hashCapacity);
+
+        groupRows = new LongBigArray();
+        groupRows.ensureCapacity((long) maxFill * rowSize);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        return !hashTypes.isEmpty() && hashTypes.size() <= MAX_KEY_COUNT && SUPPORTED_TYPES.containsAll(hashTypes);
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                hashTable.sizeOf() +
+                groupRows.sizeOf() +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        long rowAddress = getRowAddress(groupId);
+        long nullMask = groupRows.get(rowAddress + NULL_MASK_OFFSET);
+        for (int i = 0; i < channels.length; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if (isNull(nullMask, i)) {
+                blockBuilder.appendNull();
+            }
+            else if (booleanKeys[i]) {
+                BOOLEAN.writeBoolean(blockBuilder, groupRows.get(rowAddress + KEYS_OFFSET + i) != 0);
+            }
+            else {
+                hashTypes.get(i).writeLong(blockBuilder, groupRows.get(rowAddress + KEYS_OFFSET + i));
+            }
+        }
+
+        if (outputRawHash) {
+            BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channels.length);
+            BIGINT.writeLong(hashBlockBuilder, groupRows.get(rowAddress + RAW_HASH_OFFSET));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(page);
+    }
+
+    @Override
+    public List<Page> getBufferedPages()
+    {
+        // This method is left unimplemented since it is not invoked from anywhere within code.
+        // Add an implementation, if needed in future
+        throw new UnsupportedOperationException("FixedWidthGroupByHash does not support getBufferedPages");
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(page);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = new InterpretedHashGenerator(hashTypes, hashChannels).hashPosition(position, page);
+        return contains(position, page, hashChannels, rawHash);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        return findGroupId(position, page, hashChannels, rawHash, false) >= 0;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return groupRows.get(getRowAddress(groupId) + RAW_HASH_OFFSET);
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(int position, Page page)
+    {
+        long rawHash = hashGenerator.hashPosition(position, page);
+        int groupId = findGroupId(position, page, channels, rawHash, true);
+        if (groupId >= 0) {
+            return groupId;
+        }
+        return addNewGroup(position, page, rawHash);
+    }
+
+    /**
+     * @return groupId of the row, or -1 if the row does not belong to any group
+     */
+    private int findGroupId(int position, Page page, int[] keyChannels, long rawHash, boolean countCollisions)
+    {
+        int hashTag = (int) (rawHash >>> 32);
+        long hashPosition = getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            long slot = hashTable.get(hashPosition);
+            if (slot == EMPTY_SLOT) {
+                return -1;
+            }
+            if (getHashTag(slot) == hashTag) {
+                int groupId = getGroupId(slot);
+                if (groupRowEqualsPosition(groupId, rawHash, position, page, keyChannels)) {
+                    return groupId;
+                }
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            if (countCollisions) {
+                hashCollisions++;
+            }
+        }
+    }
+
+    private boolean groupRowEqualsPosition(int groupId, long rawHash, int position, Page page, int[] keyChannels)
+    {
+        long rowAddress = getRowAddress(groupId);
+        if (groupRows.get(rowAddress + RAW_HASH_OFFSET) != rawHash) {
+            return false;
+        }
+
+        long nullMask = groupRows.get(rowAddress + NULL_MASK_OFFSET);
+        for (int i = 0; i < keyChannels.length; i++) {
+            Block block = page.getBlock(keyChannels[i]);
+            boolean positionIsNull = block.isNull(position);
+            if (positionIsNull != isNull(nullMask, i)) {
+                return false;
+            }
+            if (!positionIsNull && groupRows.get(rowAddress + KEYS_OFFSET + i) != getKeyValue(i, block, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int position, Page page, long rawHash)
+    {
+        int groupId = nextGroupId++;
+
+        // copy the key into the group row
+        long rowAddress = getRowAddress(groupId);
+        long nullMask = 0;
+        for (int i = 0; i < channels.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            if (block.isNull(position)) {
+                nullMask |= 1L << i;
+                groupRows.set(rowAddress + KEYS_OFFSET + i, 0);
+            }
+            else {
+                groupRows.set(rowAddress + KEYS_OFFSET + i, getKeyValue(i, block, position));
+            }
+        }
+        groupRows.set(rowAddress + RAW_HASH_OFFSET, rawHash);
+        groupRows.set(rowAddress + NULL_MASK_OFFSET, nullMask);
+
+        insertIntoHashTable(hashTable, mask, rawHash, groupId);
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private void insertIntoHashTable(LongBigArray table, int tableMask, long rawHash, int groupId)
+    {
+        // find an empty slot for the group
+        long hashPosition = getHashPosition(rawHash, tableMask);
+        while (table.get(hashPosition) != EMPTY_SLOT) {
+            hashPosition = (hashPosition + 1) & tableMask;
+            hashCollisions++;
+        }
+        table.set(hashPosition, createSlot(rawHash, groupId));
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for the hash table and the group rows as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) Long.BYTES + (calculateMaxFill(newCapacity) - maxFill) * (long) rowSize * Long.BYTES + currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        LongBigArray newHashTable = new LongBigArray(EMPTY_SLOT);
+        newHashTable.ensureCapacity(newCapacity);
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            insertIntoHashTable(newHashTable, newMask, getRawHash(groupId), groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        hashTable = newHashTable;
+
+        groupRows.ensureCapacity((long) maxFill * rowSize);
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private long getKeyValue(int key, Block block, int position)
+    {
+        if (booleanKeys[key]) {
+            return BOOLEAN.getBoolean(block, position) ? 1 : 0;
+        }
+        return hashTypes.get(key).getLong(block, position);
+    }
+
+    private long getRowAddress(int groupId)
+    {
+        return (long) groupId * rowSize;
+    }
+
+    private static boolean isNull(long nullMask, int key)
+    {
+        return (nullMask & (1L << key)) != 0;
+    }
+
+    private static long createSlot(long rawHash, int groupId)
+    {
+        // groupId is stored incremented by one, so that an occupied slot is never equal to EMPTY_SLOT
+        return (rawHash & 0xFFFF_FFFF_0000_0000L) | (groupId + 1L);
+    }
+
+    private static int getHashTag(long slot)
+    {
+        return (int) (slot >>> 32);
+    }
+
+    private static int getGroupId(long slot)
+    {
+        return (int) (slot & 0xFFFF_FFFFL) - 1;
+    }
+
+    private static long getHashPosition(long rawHash, int mask)
+    {
+        return murmurHash3(rawHash) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(lastPosition, page);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, page));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
@@ -15,12 +15,14 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.BigintType;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.SkipAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import com.facebook.presto.operator.scalar.CombineHashFunction;
 import com.facebook.presto.spi.function.aggregation.Accumulator;
@@ -40,9 +42,15 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_AFTER_ROWS;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_COUNT;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_ROWS;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_UNIQUE_ROWS_PERCENT;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
 import static com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
 import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -78,6 +86,7 @@ public class HashAggregationOperator
         private final SpillerFactory spillerFactory;
         private final JoinCompiler joinCompiler;
         private final boolean useSystemMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
 
         private boolean closed;
 
@@ -140,6 +149,48 @@ public class HashAggregationOperator
                 SpillerFactory spillerFactory,
                 JoinCompiler joinCompiler,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    preGroupedChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    unspillMemoryLimit,
+                    spillerFactory,
+                    joinCompiler,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize unspillMemoryLimit,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this(operatorId,
                     planNodeId,
@@ -159,7 +210,8 @@ public class HashAggregationOperator
                     DataSize.succinctBytes((long) (unspillMemoryLimit.toBytes() * MERGE_WITH_MEMORY_RATIO)),
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
         }
 
         @VisibleForTesting
@@ -183,6 +235,51 @@ public class HashAggregationOperator
                 SpillerFactory spillerFactory,
                 JoinCompiler joinCompiler,
                 boolean useSystemMemory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    groupByTypes,
+                    groupByChannels,
+                    preGroupedChannels,
+                    globalAggregationGroupIds,
+                    step,
+                    produceDefaultOutput,
+                    accumulatorFactories,
+                    hashChannel,
+                    groupIdChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    spillEnabled,
+                    memoryLimitForMerge,
+                    memoryLimitForMergeWithMemory,
+                    spillerFactory,
+                    joinCompiler,
+                    useSystemMemory,
+                    Optional.empty());
+        }
+
+        @VisibleForTesting
+        HashAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> globalAggregationGroupIds,
+                Step step,
+                boolean produceDefaultOutput,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                Optional<Integer> groupIdChannel,
+                int expectedGroups,
+                Optional<DataSize> maxPartialMemory,
+                boolean spillEnabled,
+                DataSize memoryLimitForMerge,
+                DataSize memoryLimitForMergeWithMemory,
+                SpillerFactory spillerFactory,
+                JoinCompiler joinCompiler,
+                boolean useSystemMemory,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -203,6 +300,8 @@ public class HashAggregationOperator
             this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.useSystemMemory = useSystemMemory;
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
+            checkArgument(!partialAggregationController.isPresent() || step == Step.PARTIAL, "partialAggregationController should be present only for partial aggregation");
         }
 
         @Override
@@ -229,7 +328,8 @@ public class HashAggregationOperator
                     memoryLimitForMergeWithMemory,
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController);
             return hashAggregationOperator;
         }
 
@@ -261,7 +361,8 @@ public class HashAggregationOperator
                     memoryLimitForMergeWithMemory,
                     spillerFactory,
                     joinCompiler,
-                    useSystemMemory);
+                    useSystemMemory,
+                    partialAggregationController.map(PartialAggregationController::duplicate));
         }
     }
 
@@ -284,9 +385,11 @@ public class HashAggregationOperator
     private final JoinCompiler joinCompiler;
     private final boolean useSystemMemory;
     private final Optional<PagesHashStrategy> preGroupedHashStrategy;
+    private final Optional<PartialAggregationController> partialAggregationController;
 
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
+    private final SpillReadWaitTimeRecorder spillReadWaitTimeRecorder;
 
     private HashAggregationBuilder aggregationBuilder;
     private WorkProcessor<Page> outputPages;
@@ -296,6 +399,11 @@ public class HashAggregationOperator
     private Page firstUnfinishedSegment;
     private Page remainingPageForSegmentedAggregation;
 
+    // number of input rows and output groups of the current aggregation builder, reported to partialAggregationController on flush
+    private long aggregationInputRowsProcessed;
+    private long aggregationUniqueRowsProduced;
+    private boolean passThroughStatsRecorded;
+
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
@@ -318,6 +426,48 @@ public class HashAggregationOperator
             SpillerFactory spillerFactory,
             JoinCompiler joinCompiler,
             boolean useSystemMemory)
+    {
+        this(operatorContext,
+                groupByTypes,
+                groupByChannels,
+                preGroupedChannels,
+                globalAggregationGroupIds,
+                step,
+                produceDefaultOutput,
+                accumulatorFactories,
+                hashChannel,
+                groupIdChannel,
+                expectedGroups,
+                maxPartialMemory,
+                spillEnabled,
+                memoryLimitForMerge,
+                memoryLimitForMergeWithMemory,
+                spillerFactory,
+                joinCompiler,
+                useSystemMemory,
+                Optional.empty());
+    }
+
+    public HashAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            List<Integer> preGroupedChannels,
+            List<Integer> globalAggregationGroupIds,
+            Step step,
+            boolean produceDefaultOutput,
+            List<AccumulatorFactory> accumulatorFactories,
+            Optional<Integer> hashChannel,
+            Optional<Integer> groupIdChannel,
+            int expectedGroups,
+            Optional<DataSize> maxPartialMemory,
+            boolean spillEnabled,
+            DataSize memoryLimitForMerge,
+            DataSize memoryLimitForMergeWithMemory,
+            SpillerFactory spillerFactory,
+            JoinCompiler joinCompiler,
+            boolean useSystemMemory,
+            Optional<PartialAggregationController> partialAggregationController)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(step, "step is null");
@@ -343,7 +493,9 @@ public class HashAggregationOperator
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
         operatorContext.setInfoSupplier(hashCollisionsCounter);
+        this.spillReadWaitTimeRecorder = new SpillReadWaitTimeRecorder(operatorContext);
         this.useSystemMemory = useSystemMemory;
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
 
         checkState(ImmutableSet.copyOf(groupByChannels).containsAll(preGroupedChannels), "groupByChannels must include all channels in preGroupedChannels");
         this.preGroupedHashStrategy = preGroupedChannels.isEmpty()
@@ -371,6 +523,16 @@ public class HashAggregationOperator
         return finished;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (outputPages != null && outputPages.isBlocked()) {
+            // spilled pages are being read in the background
+            return spillReadWaitTimeRecorder.record(outputPages.getBlockedFuture());
+        }
+        return NOT_BLOCKED;
+    }
+
     // This operator needs input from the upstream operator only when all of following conditions are true:
     // - 1. It has not received finish() signal (more input to come).
     // - 2. Current page has been processed.
@@ -396,6 +558,7 @@ public class HashAggregationOperator
         inputProcessed = true;
 
         initializeAggregationBuilderIfNeeded();
+        aggregationInputRowsProcessed += page.getPositionCount();
         processInputPage(page);
 
         // process the current page; save the unfinished work if we are waiting for memory
@@ -465,12 +628,15 @@ public class HashAggregationOperator
         }
 
         if (outputPages.isFinished()) {
+            reportFlushToPartialAggregationController();
             closeAggregationBuilder();
             processRemainingPageForSegmentedAggregation();
             return null;
         }
 
-        return outputPages.getResult();
+        Page result = outputPages.getResult();
+        aggregationUniqueRowsProduced += result.getPositionCount();
+        return result;
     }
 
     @Override
@@ -532,6 +698,21 @@ public class HashAggregationOperator
         return 0;
     }
 
+    private void reportFlushToPartialAggregationController()
+    {
+        if (!partialAggregationController.isPresent()) {
+            return;
+        }
+        if (aggregationBuilder instanceof SkipAggregationBuilder) {
+            operatorContext.getRuntimeStats().addMetricValue(PARTIAL_AGGREGATION_PASS_THROUGH_ROWS, NONE, aggregationInputRowsProcessed);
+        }
+        else {
+            partialAggregationController.get().onFlush(aggregationInputRowsProcessed, aggregationUniqueRowsProduced);
+        }
+        aggregationInputRowsProcessed = 0;
+        aggregationUniqueRowsProduced = 0;
+    }
+
     private void closeAggregationBuilder()
     {
         outputPages = null;
@@ -563,7 +744,11 @@ public class HashAggregationOperator
             return;
         }
 
-        if (step.isOutputPartial() || !spillEnabled) {
+        if (partialAggregationController.isPresent() && partialAggregationController.get().isPartialAggregationDisabled()) {
+            recordPassThroughStats(partialAggregationController.get());
+            aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories);
+        }
+        else if (step.isOutputPartial() || !spillEnabled) {
             aggregationBuilder = new InMemoryHashAggregationBuilder(
                     accumulatorFactories,
                     step,
@@ -594,6 +779,18 @@ public class HashAggregationOperator
         }
     }
 
+    private void recordPassThroughStats(PartialAggregationController controller)
+    {
+        if (passThroughStatsRecorded) {
+            return;
+        }
+        passThroughStatsRecorded = true;
+        RuntimeStats runtimeStats = operatorContext.getRuntimeStats();
+        runtimeStats.addMetricValue(PARTIAL_AGGREGATION_PASS_THROUGH_COUNT, NONE, 1);
+        runtimeStats.addMetricValue(PARTIAL_AGGREGATION_PASS_THROUGH_AFTER_ROWS, NONE, controller.getTotalRowsProcessed());
+        runtimeStats.addMetricValue(PARTIAL_AGGREGATION_UNIQUE_ROWS_PERCENT, NONE, Math.round(controller.getUniqueRowsRatio() * 100));
+    }
+
     // Flush if one of the following is true:
     // - received finish() signal (no more input to come).
     // - it is a partial aggregation and has reached memory limit
@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.airlift.log.Logger;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.ErrorCause;
@@ -24,8 +25,10 @@ import com.facebook.presto.spiller.SingleStreamSpillerFactory;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -33,6 +36,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -47,6 +51,8 @@ import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.units.DataSize.succinctBytes;
 import static java.lang.String.format;
@@ -186,12 +192,13 @@ public class HashBuilderOperator
         INPUT_SPILLED,
 
         /**
-         * Spilled input is being unspilled
+         * Spilled input is being unspilled. When input was spilled into multiple sub-partitions, one sub-partition is unspilled at a time
          */
         INPUT_UNSPILLING,
 
         /**
-         * Spilled input has been unspilled, LookupSource built from it
+         * Spilled input has been unspilled, LookupSource built from it. Returns to {@link #INPUT_SPILLED} if there are sub-partitions
+         * left to be unspilled
          */
         INPUT_UNSPILLED_AND_BUILT,
 
@@ -226,8 +233,11 @@ public class HashBuilderOperator
 
     private State state = State.CONSUMING_INPUT;
     private Optional<ListenableFuture<?>> lookupSourceNotNeeded = Optional.empty();
-    private final SpilledLookupSourceHandle spilledLookupSourceHandle = new SpilledLookupSourceHandle();
-    private Optional<SingleStreamSpiller> spiller = Optional.empty();
+    // One handle and spiller per sub-partition of the spilled input
+    private List<SpilledLookupSourceHandle> spilledLookupSourceHandles = ImmutableList.of();
+    private List<SingleStreamSpiller> spillers = ImmutableList.of();
+    private Optional<JoinSubpartitionGenerator> subpartitionGenerator = Optional.empty();
+    private int unspillingSubpartition;
     private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
     private Optional<ListenableFuture<List<Page>>> unspillInProgress = Optional.empty();
     @Nullable
@@ -306,13 +316,13 @@ public class HashBuilderOperator
                 return lookupSourceNotNeeded.orElseThrow(() -> new IllegalStateException("Lookup source built, but disposal future not set"));
 
             case INPUT_SPILLED:
-                return spilledLookupSourceHandle.getUnspillingOrDisposeRequested();
+                return getSpilledLookupSourceHandle().getUnspillingOrDisposeRequested();
 
             case INPUT_UNSPILLING:
                 return unspillInProgress.orElseThrow(() -> new IllegalStateException("Unspilling in progress, but unspilling future not set"));
 
             case INPUT_UNSPILLED_AND_BUILT:
-                return spilledLookupSourceHandle.getDisposeRequested();
+                return getSpilledLookupSourceHandle().getDisposeRequested();
 
             case CLOSED:
                 return NOT_BLOCKED;
@@ -371,15 +381,28 @@ public class HashBuilderOperator
         long sizeOfPage = page.getSizeInBytes();
 
         // check that spilled data can still fit into memory limit as otherwise
-        // it fails later during unspilling when all spilled pages need to be loaded into memory
+        // it fails later during unspilling when all spilled pages need to be loaded into memory.
+        // Sub-partitions are unspilled one at a time, so only the largest one needs to fit.
         long maxUserMemoryBytes = getQueryMaxMemoryPerNode(operatorContext.getSession()).toBytes();
-        long totalSpilledBytes = sizeOfPage + getSpiller().getSpilledPagesInMemorySize();
+        List<Page> subpartitionPages = partitionBySubpartition(page);
+        long totalSpilledBytes = 0;
+        for (int subpartition = 0; subpartition < spillers.size(); subpartition++) {
+            long subpartitionSpilledBytes = subpartitionPages.get(subpartition).getSizeInBytes() + spillers.get(subpartition).getSpilledPagesInMemorySize();
+            totalSpilledBytes = Math.max(totalSpilledBytes, subpartitionSpilledBytes);
+        }
         if (totalSpilledBytes > maxUserMemoryBytes) {
             String additionalInfo = format("Spilled: %s, Operator: %s", succinctBytes(totalSpilledBytes), HashBuilderOperator.class.getSimpleName());
             throw exceededLocalUserMemoryLimit(succinctBytes(maxUserMemoryBytes), additionalInfo, false, Optional.empty(), ErrorCause.UNKNOWN);
         }
 
-        spillInProgress = getSpiller().spill(page);
+        ImmutableList.Builder<ListenableFuture<?>> spillFutures = ImmutableList.builder();
+        for (int subpartition = 0; subpartition < spillers.size(); subpartition++) {
+            Page subpartitionPage = subpartitionPages.get(subpartition);
+            if (subpartitionPage.getPositionCount() > 0) {
+                spillFutures.add(spillers.get(subpartition).spill(subpartitionPage));
+            }
+        }
+        spillInProgress = allAsList(spillFutures.build());
         long retainedSizeOfPage = page.getRetainedSizeInBytes();
         log.debug("Spilling for operator %s, sizeOfPage %s, retainedSizeOfPage %s, totalSpilledBytes %s", operatorContext, sizeOfPage, retainedSizeOfPage, totalSpilledBytes);
     }
@@ -405,14 +428,15 @@ public class HashBuilderOperator
                 log.debug("Done Revoking Memory for operator %s, estimatedIndexSize: %s, spilled bytes: %s, state: %s", operatorContext, estimatedIndexSize, localRevocableMemoryContext.getBytes(), state);
                 localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes(), enforceBroadcastMemoryLimit);
                 localRevocableMemoryContext.setBytes(0);
-                lookupSourceFactory.setPartitionSpilledLookupSourceHandle(partitionIndex, spilledLookupSourceHandle);
+                lookupSourceFactory.setPartitionSpilledLookupSourceHandles(partitionIndex, spilledLookupSourceHandles);
                 state = State.SPILLING_INPUT;
             });
-            return spillIndex();
+            // Input keeps coming after the index is spilled, so the partition may grow past what can be unspilled at once
+            return spillIndex(lookupSourceFactory.getSpillSubpartitionCount());
         }
         else if (state == State.LOOKUP_SOURCE_BUILT) {
             finishMemoryRevoke = Optional.of(() -> {
-                lookupSourceFactory.setPartitionSpilledLookupSourceHandle(partitionIndex, spilledLookupSourceHandle);
+                lookupSourceFactory.setPartitionSpilledLookupSourceHandles(partitionIndex, spilledLookupSourceHandles);
                 lookupSourceNotNeeded = Optional.empty();
                 index.clear();
                 long estimatedIndexSize = index.getEstimatedSize().toBytes();
@@ -423,7 +447,9 @@ public class HashBuilderOperator
                 lookupSourceSupplier = null;
                 state = State.INPUT_SPILLED;
             });
-            return spillIndex();
+            // Index already fits in memory. Keep it in a single partition, so the lookup source can be rebuilt identically
+            // for probe rows which were in the middle of being joined.
+            return spillIndex(1);
         }
         else if (operatorContext.getReservedRevocableBytes() == 0) {
             // Probably stale revoking request
@@ -434,22 +460,88 @@ public class HashBuilderOperator
         throw new IllegalStateException(format("State %s can not have revocable memory, but has %s revocable bytes", state, operatorContext.getReservedRevocableBytes()));
     }
 
-    private ListenableFuture<?> spillIndex()
+    private ListenableFuture<?> spillIndex(int subpartitionCount)
     {
-        checkState(!spiller.isPresent(), "Spiller already created");
-        spiller = Optional.of(singleStreamSpillerFactory.create(
-                index.getTypes(),
-                operatorContext.getSpillContext().newLocalSpillContext(),
-                operatorContext.localSystemMemoryContext()));
+        checkState(spillers.isEmpty(), "Spiller already created");
+        ImmutableList.Builder<SpilledLookupSourceHandle> handles = ImmutableList.builder();
+        ImmutableList.Builder<SingleStreamSpiller> subpartitionSpillers = ImmutableList.builder();
+        for (int subpartition = 0; subpartition < subpartitionCount; subpartition++) {
+            handles.add(new SpilledLookupSourceHandle());
+            subpartitionSpillers.add(singleStreamSpillerFactory.create(
+                    index.getTypes(),
+                    operatorContext.getSpillContext().newLocalSpillContext(),
+                    operatorContext.newLocalSystemMemoryContext(HashBuilderOperator.class.getSimpleName())));
+        }
+        spilledLookupSourceHandles = handles.build();
+        spillers = subpartitionSpillers.build();
+        if (subpartitionCount > 1) {
+            subpartitionGenerator = Optional.of(new JoinSubpartitionGenerator(createHashGenerator(), subpartitionCount));
+        }
+
         long indexEstimatedSize = index.getEstimatedSize().toBytes();
-        log.debug("Spilling Index for operator: %s, index estimated size: %s", operatorContext, indexEstimatedSize);
+        log.debug("Spilling Index for operator: %s, index estimated size: %s, sub-partitions: %s", operatorContext, indexEstimatedSize, subpartitionCount);
         long maxUserMemoryBytes = getQueryMaxMemoryPerNode(operatorContext.getSession()).toBytes();
         if (indexEstimatedSize > maxUserMemoryBytes) {
             log.error("Spill Index Failure due to memory limit %s, spilled Bytes: %s", indexEstimatedSize, getSpiller().getSpilledPagesInMemorySize());
             String additionalInfo = format("Estimated Spilled: %s, Operator: %s", succinctBytes(indexEstimatedSize), HashBuilderOperator.class.getSimpleName());
             throw exceededLocalUserMemoryLimit(succinctBytes(maxUserMemoryBytes), additionalInfo, false, Optional.empty(), ErrorCause.UNKNOWN);
         }
-        return getSpiller().spill(index.getPages());
+
+        if (subpartitionCount == 1) {
+            return getSpiller().spill(index.getPages());
+        }
+        ImmutableList.Builder<ListenableFuture<?>> spillFutures = ImmutableList.builder();
+        for (int subpartition = 0; subpartition < subpartitionCount; subpartition++) {
+            int currentSubpartition = subpartition;
+            Iterator<Page> subpartitionPages = Iterators.filter(
+                    Iterators.transform(index.getPages(), page -> extractSubpartition(page, currentSubpartition)),
+                    page -> page.getPositionCount() > 0);
+            spillFutures.add(spillers.get(subpartition).spill(subpartitionPages));
+        }
+        return allAsList(spillFutures.build());
+    }
+
+    private HashGenerator createHashGenerator()
+    {
+        if (preComputedHashChannel.isPresent()) {
+            return new PrecomputedHashGenerator(preComputedHashChannel.getAsInt());
+        }
+        List<Type> hashChannelTypes = hashChannels.stream()
+                .map(index.getTypes()::get)
+                .collect(toImmutableList());
+        return new InterpretedHashGenerator(hashChannelTypes, hashChannels);
+    }
+
+    private List<Page> partitionBySubpartition(Page page)
+    {
+        if (!subpartitionGenerator.isPresent()) {
+            return ImmutableList.of(page);
+        }
+        JoinSubpartitionGenerator generator = subpartitionGenerator.get();
+        IntArrayList[] positions = new IntArrayList[generator.getPartitionCount()];
+        for (int subpartition = 0; subpartition < positions.length; subpartition++) {
+            positions[subpartition] = new IntArrayList();
+        }
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            positions[generator.getPartition(page, position)].add(position);
+        }
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (IntArrayList subpartitionPositions : positions) {
+            pages.add(page.copyPositions(subpartitionPositions.elements(), 0, subpartitionPositions.size()));
+        }
+        return pages.build();
+    }
+
+    private Page extractSubpartition(Page page, int subpartition)
+    {
+        JoinSubpartitionGenerator generator = subpartitionGenerator.orElseThrow(() -> new IllegalStateException("Sub-partition generator not created"));
+        IntArrayList positions = new IntArrayList();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            if (generator.getPartition(page, position) == subpartition) {
+                positions.add(position);
+            }
+        }
+        return page.copyPositions(positions.elements(), 0, positions.size());
     }
 
     @Override
@@ -492,7 +584,7 @@ public class HashBuilderOperator
                 return;
 
             case INPUT_SPILLED:
-                if (spilledLookupSourceHandle.getDisposeRequested().isDone()) {
+                if (getSpilledLookupSourceHandle().getDisposeRequested().isDone()) {
                     close();
                 }
                 else {
@@ -565,12 +657,12 @@ public class HashBuilderOperator
     private void unspillLookupSourceIfRequested()
     {
         checkState(state == State.INPUT_SPILLED);
-        if (!spilledLookupSourceHandle.getUnspillingRequested().isDone()) {
+        if (!getSpilledLookupSourceHandle().getUnspillingRequested().isDone()) {
             // Nothing to do yet.
             return;
         }
 
-        verify(spiller.isPresent());
+        verify(!spillers.isEmpty());
         verify(!unspillInProgress.isPresent());
 
         long memorySizeOfSpillPages = getSpiller().getSpilledPagesInMemorySize();
@@ -620,7 +712,7 @@ public class HashBuilderOperator
                 checkState(partition.checksum() == checksum, "Unspilled lookupSource checksum does not match original one"));
         localUserMemoryContext.setBytes(partition.get().getInMemorySizeInBytes(), enforceBroadcastMemoryLimit);
 
-        spilledLookupSourceHandle.setLookupSource(partition);
+        getSpilledLookupSourceHandle().setLookupSource(partition);
 
         state = State.INPUT_UNSPILLED_AND_BUILT;
     }
@@ -628,6 +720,7 @@ public class HashBuilderOperator
     private void disposeUnspilledLookupSourceIfRequested()
     {
         checkState(state == State.INPUT_UNSPILLED_AND_BUILT);
+        SpilledLookupSourceHandle spilledLookupSourceHandle = getSpilledLookupSourceHandle();
         if (!spilledLookupSourceHandle.getDisposeRequested().isDone()) {
             return;
         }
@@ -635,7 +728,16 @@ public class HashBuilderOperator
         index.clear();
         localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes(), enforceBroadcastMemoryLimit);
 
-        close();
+        if (unspillingSubpartition + 1 < spilledLookupSourceHandles.size()) {
+            // Release the spill file of the consumed sub-partition early and move on to the next one
+            spillers.get(unspillingSubpartition).close();
+            lookupSourceSupplier = null;
+            unspillingSubpartition++;
+            state = State.INPUT_SPILLED;
+        }
+        else {
+            close();
+        }
         spilledLookupSourceHandle.setDisposeCompleted();
     }
 
@@ -662,7 +764,13 @@ public class HashBuilderOperator
 
     private SingleStreamSpiller getSpiller()
     {
-        return spiller.orElseThrow(() -> new IllegalStateException("Spiller not created"));
+        checkState(!spillers.isEmpty(), "Spiller not created");
+        return spillers.get(unspillingSubpartition);
+    }
+
+    private SpilledLookupSourceHandle getSpilledLookupSourceHandle()
+    {
+        return spilledLookupSourceHandles.get(unspillingSubpartition);
     }
 
     @Override
@@ -679,7 +787,8 @@ public class HashBuilderOperator
 
         try (Closer closer = Closer.create()) {
             closer.register(index::clear);
-            spiller.ifPresent(closer::register);
+            // spillers of already consumed sub-partitions are closed
+            spillers.subList(unspillingSubpartition, spillers.size()).forEach(closer::register);
             closer.register(() -> localUserMemoryContext.setBytes(0, enforceBroadcastMemoryLimit));
             closer.register(() -> localRevocableMemoryContext.setBytes(0));
         }
@@ -26,14 +26,13 @@ import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.ListenableFuture;
-import io.airlift.slice.InputStreamSliceInput;
-import io.airlift.slice.SliceInput;
 import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.List;
@@ -198,7 +197,7 @@ public final class HttpRpcShuffleClient
                 long nextToken = getNextToken(request, response);
                 boolean complete = getComplete(request, response);
 
-                try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
+                try (InputStream input = response.getInputStream()) {
                     List<SerializedPage> pages = ImmutableList.copyOf(readSerializedPages(input));
                     return createPagesResponse(taskInstanceId, token, nextToken, pages, complete);
                 }
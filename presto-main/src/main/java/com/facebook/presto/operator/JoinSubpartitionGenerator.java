@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
+import io.airlift.slice.XxHash64;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits the rows of a single spilled join partition into sub-partitions.
+ * <p>
+ * The raw hash is mixed with a different seed than the one used by {@link LocalPartitionGenerator},
+ * so rows that landed in the same join partition are spread evenly across its sub-partitions.
+ * Build and probe side must use hash generators producing the same raw hash for matching rows.
+ */
+public class JoinSubpartitionGenerator
+        implements PartitionFunction
+{
+    private static final long SUBPARTITION_HASH_SEED = 0x9E3779B97F4A7C15L;
+
+    private final HashGenerator hashGenerator;
+    private final int subpartitionCount;
+    private final int hashMask;
+
+    public JoinSubpartitionGenerator(HashGenerator hashGenerator, int subpartitionCount)
+    {
+        this.hashGenerator = requireNonNull(hashGenerator, "hashGenerator is null");
+        checkArgument(Integer.bitCount(subpartitionCount) == 1, "subpartitionCount must be a power of 2");
+        this.subpartitionCount = subpartitionCount;
+        this.hashMask = subpartitionCount - 1;
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return subpartitionCount;
+    }
+
+    @Override
+    public int getPartition(Page page, int position)
+    {
+        return getSubpartition(hashGenerator.hashPosition(position, page));
+    }
+
+    public int getSubpartition(long rawHash)
+    {
+        return (int) XxHash64.hash(rawHash ^ SUBPARTITION_HASH_SEED) & hashMask;
+    }
+}
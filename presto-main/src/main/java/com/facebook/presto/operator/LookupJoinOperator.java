@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
@@ -76,6 +77,7 @@ public class LookupJoinOperator
 
     private Optional<PartitioningSpiller> spiller = Optional.empty();
     private Optional<LocalPartitionGenerator> partitionGenerator = Optional.empty();
+    private Optional<SpillPartitionFunction> spillPartitionFunction = Optional.empty();
     private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
     private long inputPageSpillEpoch;
     private boolean closed;
@@ -208,7 +210,7 @@ public class LookupJoinOperator
         requireNonNull(spillInfoSnapshot, "spillInfoSnapshot is null");
 
         if (spillInfoSnapshot.hasSpilled()) {
-            page = spillAndMaskSpilledPositions(page, spillInfoSnapshot.getSpillMask());
+            page = spillAndMaskSpilledPositions(page, spillInfoSnapshot);
             if (page.getPositionCount() == 0) {
                 return;
             }
@@ -234,20 +236,22 @@ public class LookupJoinOperator
         return true;
     }
 
-    private Page spillAndMaskSpilledPositions(Page page, IntPredicate spillMask)
+    private Page spillAndMaskSpilledPositions(Page page, SpillInfoSnapshot spillInfoSnapshot)
     {
         checkState(spillInProgress.isDone(), "Previous spill still in progress");
         checkSpillSucceeded(spillInProgress);
 
+        SpillPartitionFunction spillPartitionFunction = getSpillPartitionFunction(spillInfoSnapshot);
         if (!spiller.isPresent()) {
             spiller = Optional.of(partitioningSpillerFactory.create(
                     probeTypes,
-                    getPartitionGenerator(),
+                    spillPartitionFunction,
                     operatorContext.getSpillContext().newLocalSpillContext(),
                     operatorContext.aggregateSystemMemoryContext()));
         }
 
-        PartitioningSpillResult result = spiller.get().partitionAndSpill(page, spillMask);
+        IntPredicate spillMask = spillInfoSnapshot.getSpillMask();
+        PartitioningSpillResult result = spiller.get().partitionAndSpill(page, spillPartition -> spillMask.test(spillPartitionFunction.getJoinPartition(spillPartition)));
         spillInProgress = result.getSpillingFuture();
         return result.getRetained();
     }
@@ -260,6 +264,18 @@ public class LookupJoinOperator
         return partitionGenerator.get();
     }
 
+    private SpillPartitionFunction getSpillPartitionFunction(SpillInfoSnapshot spillInfoSnapshot)
+    {
+        if (!spillPartitionFunction.isPresent()) {
+            spillPartitionFunction = Optional.of(new SpillPartitionFunction(
+                    getPartitionGenerator(),
+                    new JoinSubpartitionGenerator(hashGenerator, lookupSourceFactory.getSpillSubpartitionCount())));
+        }
+        // Number of sub-partitions of a partition never changes once it is spilled, so the latest snapshot is valid for all previously spilled rows
+        spillPartitionFunction.get().setSpilledSubpartitionCounts(spillInfoSnapshot.getSpilledSubpartitionCounts());
+        return spillPartitionFunction.get();
+    }
+
     @Override
     public Page getOutput()
     {
@@ -442,8 +458,9 @@ public class LookupJoinOperator
             boolean currentRowSpilled = spillInfoSnapshot.getSpillMask().test(currentRowPartition);
 
             if (currentRowSpilled) {
+                int currentRowSpillPartition = getSpillPartitionFunction(spillInfoSnapshot).getPartition(currentPage, currentPosition);
                 savedRows.merge(
-                        currentRowPartition,
+                        currentRowSpillPartition,
                         new SavedRow(currentPage, currentPosition, joinPositionWithinPartition, currentProbePositionProducedRow, joinSourcePositions),
                         (oldValue, newValue) -> {
                             throw new IllegalStateException(format("Partition %s is already spilled", currentRowPartition));
@@ -603,12 +620,14 @@ public class LookupJoinOperator
         private final boolean hasSpilled;
         private final long spillEpoch;
         private final IntPredicate spillMask;
+        private final IntUnaryOperator spilledSubpartitionCounts;
 
-        public SpillInfoSnapshot(boolean hasSpilled, long spillEpoch, IntPredicate spillMask)
+        public SpillInfoSnapshot(boolean hasSpilled, long spillEpoch, IntPredicate spillMask, IntUnaryOperator spilledSubpartitionCounts)
         {
             this.hasSpilled = hasSpilled;
             this.spillEpoch = spillEpoch;
             this.spillMask = requireNonNull(spillMask, "spillMask is null");
+            this.spilledSubpartitionCounts = requireNonNull(spilledSubpartitionCounts, "spilledSubpartitionCounts is null");
         }
 
         public static SpillInfoSnapshot from(LookupSourceLease lookupSourceLease)
@@ -616,12 +635,13 @@ public class LookupJoinOperator
             return new SpillInfoSnapshot(
                     lookupSourceLease.hasSpilled(),
                     lookupSourceLease.spillEpoch(),
-                    lookupSourceLease.getSpillMask());
+                    lookupSourceLease.getSpillMask(),
+                    lookupSourceLease.getSpilledSubpartitionCounts());
         }
 
         public static SpillInfoSnapshot noSpill()
         {
-            return new SpillInfoSnapshot(false, 0, i -> false);
+            return new SpillInfoSnapshot(false, 0, i -> false, i -> 1);
         }
 
         public boolean hasSpilled()
@@ -638,6 +658,59 @@ public class LookupJoinOperator
         {
             return spillMask;
         }
+
+        public IntUnaryOperator getSpilledSubpartitionCounts()
+        {
+            return spilledSubpartitionCounts;
+        }
+    }
+
+    /**
+     * Maps probe rows to spill partitions. Rows of a join partition which was spilled into sub-partitions are further split
+     * using {@link JoinSubpartitionGenerator}, so that spill partition {@code p * subpartitionCount + s} holds the rows
+     * matching sub-partition {@code s} of join partition {@code p}.
+     */
+    // This class must be public because LookupJoinOperator is isolated.
+    public static class SpillPartitionFunction
+            implements PartitionFunction
+    {
+        private final LocalPartitionGenerator partitionGenerator;
+        private final JoinSubpartitionGenerator subpartitionGenerator;
+        private IntUnaryOperator spilledSubpartitionCounts = partition -> 1;
+
+        public SpillPartitionFunction(LocalPartitionGenerator partitionGenerator, JoinSubpartitionGenerator subpartitionGenerator)
+        {
+            this.partitionGenerator = requireNonNull(partitionGenerator, "partitionGenerator is null");
+            this.subpartitionGenerator = requireNonNull(subpartitionGenerator, "subpartitionGenerator is null");
+        }
+
+        public void setSpilledSubpartitionCounts(IntUnaryOperator spilledSubpartitionCounts)
+        {
+            this.spilledSubpartitionCounts = requireNonNull(spilledSubpartitionCounts, "spilledSubpartitionCounts is null");
+        }
+
+        @Override
+        public int getPartitionCount()
+        {
+            return partitionGenerator.getPartitionCount() * subpartitionGenerator.getPartitionCount();
+        }
+
+        @Override
+        public int getPartition(Page page, int position)
+        {
+            long rawHash = partitionGenerator.getRawHash(page, position);
+            int partition = partitionGenerator.getPartition(rawHash);
+            int subpartition = 0;
+            if (spilledSubpartitionCounts.applyAsInt(partition) > 1) {
+                subpartition = subpartitionGenerator.getSubpartition(rawHash);
+            }
+            return partition * subpartitionGenerator.getPartitionCount() + subpartition;
+        }
+
+        public int getJoinPartition(int spillPartition)
+        {
+            return spillPartition / subpartitionGenerator.getPartitionCount();
+        }
     }
 
     // This class must be public because LookupJoinOperator is isolated.
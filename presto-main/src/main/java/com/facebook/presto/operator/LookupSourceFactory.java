@@ -36,6 +36,15 @@ public interface LookupSourceFactory
 
     int partitions();
 
+    /**
+     * Maximum number of sub-partitions a spilled partition can be split into. Spilled partition {@code p}
+     * is consumed as partitions {@code p * getSpillSubpartitionCount() + subpartition}.
+     */
+    default int getSpillSubpartitionCount()
+    {
+        return 1;
+    }
+
     default ListenableFuture<PartitionedConsumption<Supplier<LookupSource>>> finishProbeOperator(OptionalInt lookupJoinsCount)
     {
         return immediateFuture(new PartitionedConsumption<>(
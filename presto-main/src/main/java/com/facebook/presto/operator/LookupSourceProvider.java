@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import java.util.function.Function;
 import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 
 public interface LookupSourceProvider
         extends AutoCloseable
@@ -33,5 +34,13 @@ public interface LookupSourceProvider
         long spillEpoch();
 
         IntPredicate getSpillMask();
+
+        /**
+         * Number of sub-partitions each spilled partition was split into. Only meaningful for partitions matched by {@link #getSpillMask()}.
+         */
+        default IntUnaryOperator getSpilledSubpartitionCounts()
+        {
+            return partition -> 1;
+        }
     }
 }
@@ -35,8 +35,6 @@ import static com.facebook.presto.util.MergeSortedPages.mergeSortedPages;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
-import static com.google.common.collect.ImmutableList.toImmutableList;
-import static com.google.common.collect.Iterators.transform;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.util.Objects.requireNonNull;
 
@@ -157,7 +155,9 @@ public class OrderByOperator
     private ListenableFuture<?> spillInProgress = immediateFuture(null);
     private Runnable finishMemoryRevoke = () -> {};
 
-    private Iterator<Optional<Page>> sortedPages;
+    private final SpillReadWaitTimeRecorder spillReadWaitTimeRecorder;
+
+    private WorkProcessor<Page> sortedPages;
 
     private State state = State.NEEDS_INPUT;
 
@@ -187,6 +187,7 @@ public class OrderByOperator
         this.spillEnabled = spillEnabled;
         this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
+        this.spillReadWaitTimeRecorder = new SpillReadWaitTimeRecorder(operatorContext);
         checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
     }
 
@@ -227,10 +228,10 @@ public class OrderByOperator
 
             List<WorkProcessor<Page>> spilledPages = getSpilledPages();
             if (spilledPages.isEmpty()) {
-                sortedPages = transform(sortedPagesIndex, Optional::of);
+                sortedPages = WorkProcessor.fromIterator(sortedPagesIndex);
             }
             else {
-                sortedPages = mergeSpilledAndMemoryPages(spilledPages, sortedPagesIndex).yieldingIterator();
+                sortedPages = mergeSpilledAndMemoryPages(spilledPages, sortedPagesIndex);
             }
         }
     }
@@ -241,6 +242,16 @@ public class OrderByOperator
         return state == State.FINISHED;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (state == State.HAS_OUTPUT && sortedPages.isBlocked()) {
+            // spilled pages are being read in the background
+            return spillReadWaitTimeRecorder.record(sortedPages.getBlockedFuture());
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public boolean needsInput()
     {
@@ -267,16 +278,15 @@ public class OrderByOperator
         }
 
         verify(sortedPages != null, "sortedPages is null");
-        if (!sortedPages.hasNext()) {
-            state = State.FINISHED;
+        if (!sortedPages.process()) {
             return null;
         }
-
-        Optional<Page> next = sortedPages.next();
-        if (!next.isPresent()) {
+        if (sortedPages.isFinished()) {
+            state = State.FINISHED;
             return null;
         }
-        Page nextPage = next.get();
+
+        Page nextPage = sortedPages.getResult();
         Block[] blocks = new Block[outputChannels.length];
         for (int i = 0; i < outputChannels.length; i++) {
             blocks[i] = nextPage.getBlock(outputChannels[i]);
@@ -333,9 +343,7 @@ public class OrderByOperator
             return ImmutableList.of();
         }
 
-        return spiller.get().getSpills().stream()
-                .map(WorkProcessor::fromIterator)
-                .collect(toImmutableList());
+        return spiller.get().getSpillProcessors();
     }
 
     private WorkProcessor<Page> mergeSpilledAndMemoryPages(List<WorkProcessor<Page>> spilledPages, Iterator<Page> sortedPagesIndex)
@@ -87,6 +87,7 @@ public class PagesIndex
     private final AdaptiveLongBigArray valueAddresses;
     private final ObjectArrayList<Block>[] channels;
     private final boolean eagerCompact;
+    private final boolean columnCompressionEnabled;
 
     private int nextBlockToCompact;
     private int positionCount;
@@ -100,7 +101,8 @@ public class PagesIndex
             boolean groupByUsesEqualTo,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean columnCompressionEnabled)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -110,6 +112,7 @@ public class PagesIndex
         this.valueAddresses = new AdaptiveLongBigArray();
         this.valueAddresses.ensureCapacity(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.columnCompressionEnabled = columnCompressionEnabled;
 
         //noinspection rawtypes
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -132,16 +135,23 @@ public class PagesIndex
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager(), new FeaturesConfig());
         private final boolean groupByUsesEqualTo = new FeaturesConfig().isGroupByUsesEqualTo();
         private final boolean eagerCompact;
+        private final boolean columnCompressionEnabled;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, false);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean columnCompressionEnabled)
         {
             this.eagerCompact = eagerCompact;
+            this.columnCompressionEnabled = columnCompressionEnabled;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), groupByUsesEqualTo, types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionAndTypeManager(), groupByUsesEqualTo, types, expectedPositions, eagerCompact, columnCompressionEnabled);
         }
     }
 
@@ -151,6 +161,7 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean columnCompressionEnabled;
         private final FunctionAndTypeManager functionAndTypeManager;
         private final boolean groupByUsesEqualTo;
 
@@ -160,6 +171,7 @@ public class PagesIndex
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            this.columnCompressionEnabled = featuresConfig.isPagesIndexColumnCompressionEnabled();
             this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
             this.groupByUsesEqualTo = featuresConfig.isGroupByUsesEqualTo();
         }
@@ -167,7 +179,7 @@ public class PagesIndex
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, groupByUsesEqualTo, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, functionAndTypeManager, groupByUsesEqualTo, types, expectedPositions, eagerCompact, columnCompressionEnabled);
         }
     }
 
@@ -238,7 +250,7 @@ public class PagesIndex
 
     public void compact()
     {
-        if (eagerCompact) {
+        if (eagerCompact && !columnCompressionEnabled) {
             return;
         }
         for (int channel = 0; channel < types.size(); channel++) {
@@ -246,8 +258,12 @@ public class PagesIndex
             for (int i = nextBlockToCompact; i < blocks.size(); i++) {
                 Block block = blocks.get(i);
 
-                // Copy the block to compact its size
-                Block compactedBlock = block.copyRegion(0, block.getPositionCount());
+                // Copy the block to compact its size, unless it was already copied when it was added
+                Block compactedBlock = eagerCompact ? block : block.copyRegion(0, block.getPositionCount());
+                if (columnCompressionEnabled) {
+                    // Store repeated values only once, as dictionary or run length encoded blocks
+                    compactedBlock = PagesIndexColumnEncoder.encode(types.get(channel), compactedBlock);
+                }
                 blocks.set(i, compactedBlock);
                 pagesMemorySize -= block.getRetainedSizeInBytes();
                 pagesMemorySize += compactedBlock.getRetainedSizeInBytes();
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.type.Type;
+import io.airlift.slice.Slice;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the blocks of a {@link PagesIndex} column as run length encoded or dictionary blocks, when this reduces
+ * their retained size. Sort comparators, hash strategies and window functions access the values through the
+ * {@link Block} interface, so they operate on the encoded blocks without decoding them.
+ * <p>
+ * Values are deduplicated by their stack representation, so that an encoded block returns exactly the same
+ * values as the original block. Only types which are represented by a long or a slice are encoded.
+ */
+final class PagesIndexColumnEncoder
+{
+    // a dictionary with more entries than this fraction of the positions is unlikely to pay off
+    private static final int MAX_DICTIONARY_SIZE_DIVISOR = 2;
+
+    private PagesIndexColumnEncoder() {}
+
+    public static Block encode(Type type, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount < 2 || block instanceof RunLengthEncodedBlock || block instanceof DictionaryBlock) {
+            return block;
+        }
+
+        Class<?> javaType = type.getJavaType();
+        if (javaType != long.class && javaType != Slice.class) {
+            return block;
+        }
+
+        int[] ids = new int[positionCount];
+        int[] dictionaryPositions = new int[positionCount / MAX_DICTIONARY_SIZE_DIVISOR];
+        int dictionarySize = 0;
+        int nullId = -1;
+        Long2IntOpenHashMap longIds = null;
+        Object2IntOpenHashMap<Slice> sliceIds = null;
+        if (javaType == long.class) {
+            longIds = new Long2IntOpenHashMap();
+            longIds.defaultReturnValue(-1);
+        }
+        else {
+            sliceIds = new Object2IntOpenHashMap<>();
+            sliceIds.defaultReturnValue(-1);
+        }
+
+        for (int position = 0; position < positionCount; position++) {
+            int id;
+            if (block.isNull(position)) {
+                id = nullId;
+            }
+            else if (longIds != null) {
+                id = longIds.get(type.getLong(block, position));
+            }
+            else {
+                id = sliceIds.getInt(type.getSlice(block, position));
+            }
+
+            if (id < 0) {
+                if (dictionarySize == dictionaryPositions.length) {
+                    return block;
+                }
+                id = dictionarySize;
+                dictionaryPositions[dictionarySize++] = position;
+                if (block.isNull(position)) {
+                    nullId = id;
+                }
+                else if (longIds != null) {
+                    longIds.put(type.getLong(block, position), id);
+                }
+                else {
+                    sliceIds.put(type.getSlice(block, position), id);
+                }
+            }
+            ids[position] = id;
+        }
+
+        if (dictionarySize == 1) {
+            return new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount);
+        }
+        Block dictionary = block.copyPositions(Arrays.copyOf(dictionaryPositions, dictionarySize), 0, dictionarySize);
+        Block dictionaryBlock = new DictionaryBlock(positionCount, dictionary, ids, true);
+        if (dictionaryBlock.getRetainedSizeInBytes() >= block.getRetainedSizeInBytes()) {
+            return block;
+        }
+        return dictionaryBlock;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides whether partial aggregation should be switched to pass-through mode.
+ * It is shared by all {@link HashAggregationOperator}s of a pipeline, which report the number of input rows
+ * and output groups every time they flush. Once enough rows were processed and the ratio of output groups
+ * to input rows exceeds the threshold, partial aggregation is disabled for the remaining input.
+ */
+@ThreadSafe
+public class PartialAggregationController
+{
+    private final double uniqueRowsRatioThreshold;
+    private final long minRows;
+
+    private volatile boolean partialAggregationDisabled;
+    @GuardedBy("this")
+    private long totalRowsProcessed;
+    @GuardedBy("this")
+    private long totalUniqueRowsProduced;
+
+    public PartialAggregationController(double uniqueRowsRatioThreshold, long minRows)
+    {
+        checkArgument(uniqueRowsRatioThreshold >= 0 && uniqueRowsRatioThreshold <= 1, "uniqueRowsRatioThreshold must be between 0 and 1");
+        checkArgument(minRows >= 0, "minRows is negative");
+        this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+        this.minRows = minRows;
+    }
+
+    public boolean isPartialAggregationDisabled()
+    {
+        return partialAggregationDisabled;
+    }
+
+    public synchronized void onFlush(long rowsProcessed, long uniqueRowsProduced)
+    {
+        if (partialAggregationDisabled) {
+            return;
+        }
+
+        totalRowsProcessed += rowsProcessed;
+        totalUniqueRowsProduced += uniqueRowsProduced;
+        if (totalRowsProcessed >= minRows && totalUniqueRowsProduced > totalRowsProcessed * uniqueRowsRatioThreshold) {
+            partialAggregationDisabled = true;
+        }
+    }
+
+    public synchronized long getTotalRowsProcessed()
+    {
+        return totalRowsProcessed;
+    }
+
+    public synchronized double getUniqueRowsRatio()
+    {
+        if (totalRowsProcessed == 0) {
+            return 0;
+        }
+        return (double) totalUniqueRowsProduced / totalRowsProcessed;
+    }
+
+    public PartialAggregationController duplicate()
+    {
+        return new PartialAggregationController(uniqueRowsRatioThreshold, minRows);
+    }
+}
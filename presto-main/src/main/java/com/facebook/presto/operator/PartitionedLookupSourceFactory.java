@@ -20,7 +20,7 @@ import com.facebook.presto.operator.LookupSourceProvider.LookupSourceLease;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -34,18 +34,21 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static com.facebook.presto.operator.OuterLookupSource.createOuterLookupSourceSupplier;
 import static com.facebook.presto.operator.PartitionedLookupSource.createPartitionedLookupSourceSupplier;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
 import static com.google.common.util.concurrent.Futures.transform;
@@ -61,6 +64,7 @@ public final class PartitionedLookupSourceFactory
     private final Map<VariableReferenceExpression, Integer> layout;
     private final List<Type> hashChannelTypes;
     private final boolean outer;
+    private final int spillSubpartitionCount;
     private final SpilledLookupSource spilledLookupSource;
 
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
@@ -77,10 +81,13 @@ public final class PartitionedLookupSourceFactory
     private int partitionsSet;
 
     @GuardedBy("lock")
-    private SpillingInfo spillingInfo = new SpillingInfo(0, ImmutableSet.of());
+    private SpillingInfo spillingInfo = new SpillingInfo(0, ImmutableMap.of());
 
+    /**
+     * Handles of spilled partitions, one per sub-partition.
+     */
     @GuardedBy("lock")
-    private final Map<Integer, SpilledLookupSourceHandle> spilledPartitions = new HashMap<>();
+    private final Map<Integer, List<SpilledLookupSourceHandle>> spilledPartitions = new HashMap<>();
 
     @GuardedBy("lock")
     private TrackingLookupSourceSupplier lookupSourceSupplier;
@@ -107,8 +114,21 @@ public final class PartitionedLookupSourceFactory
     private final ConcurrentHashMap<SpillAwareLookupSourceProvider, LookupSource> suppliedLookupSources = new ConcurrentHashMap<>();
 
     public PartitionedLookupSourceFactory(List<Type> types, List<Type> outputTypes, List<Type> hashChannelTypes, int partitionCount, Map<VariableReferenceExpression, Integer> layout, boolean outer)
+    {
+        this(types, outputTypes, hashChannelTypes, partitionCount, layout, outer, 1);
+    }
+
+    public PartitionedLookupSourceFactory(
+            List<Type> types,
+            List<Type> outputTypes,
+            List<Type> hashChannelTypes,
+            int partitionCount,
+            Map<VariableReferenceExpression, Integer> layout,
+            boolean outer,
+            int spillSubpartitionCount)
     {
         checkArgument(Integer.bitCount(partitionCount) == 1, "partitionCount must be a power of 2");
+        checkArgument(Integer.bitCount(spillSubpartitionCount) == 1, "spillSubpartitionCount must be a power of 2");
 
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.outputTypes = ImmutableList.copyOf(requireNonNull(outputTypes, "outputTypes is null"));
@@ -117,6 +137,7 @@ public final class PartitionedLookupSourceFactory
         checkArgument(partitionCount > 0);
         this.partitions = (Supplier<LookupSource>[]) new Supplier<?>[partitionCount];
         this.outer = outer;
+        this.spillSubpartitionCount = spillSubpartitionCount;
         spilledLookupSource = new SpilledLookupSource(outputTypes.size());
     }
 
@@ -146,6 +167,12 @@ public final class PartitionedLookupSourceFactory
         return partitions.length;
     }
 
+    @Override
+    public int getSpillSubpartitionCount()
+    {
+        return spillSubpartitionCount;
+    }
+
     @Override
     public ListenableFuture<LookupSourceProvider> createLookupSourceProvider()
     {
@@ -208,22 +235,35 @@ public final class PartitionedLookupSourceFactory
         return partitionsNoLongerNeeded;
     }
 
-    public void setPartitionSpilledLookupSourceHandle(int partitionIndex, SpilledLookupSourceHandle spilledLookupSourceHandle)
+    /**
+     * Marks partition as spilled. The partition is split into as many sub-partitions as there are handles, each of them
+     * unspilled and consumed separately. Handles are consumed in order.
+     */
+    public void setPartitionSpilledLookupSourceHandles(int partitionIndex, List<SpilledLookupSourceHandle> spilledLookupSourceHandles)
     {
-        requireNonNull(spilledLookupSourceHandle, "spilledLookupSourceHandle is null");
+        requireNonNull(spilledLookupSourceHandles, "spilledLookupSourceHandles is null");
+        checkArgument(!spilledLookupSourceHandles.isEmpty(), "spilledLookupSourceHandles is empty");
+        checkArgument(
+                spilledLookupSourceHandles.size() == 1 || spilledLookupSourceHandles.size() == spillSubpartitionCount,
+                "Expected 1 or %s sub-partitions, but got %s",
+                spillSubpartitionCount,
+                spilledLookupSourceHandles.size());
 
         boolean completed;
 
         lock.writeLock().lock();
         try {
             if (partitionsNoLongerNeeded.isDone()) {
-                spilledLookupSourceHandle.dispose();
+                spilledLookupSourceHandles.forEach(SpilledLookupSourceHandle::dispose);
                 return;
             }
 
             checkState(!spilledPartitions.containsKey(partitionIndex), "Partition already set as spilled");
-            spilledPartitions.put(partitionIndex, spilledLookupSourceHandle);
-            spillingInfo = new SpillingInfo(spillingInfo.spillEpoch() + 1, spilledPartitions.keySet());
+            spilledPartitions.put(partitionIndex, ImmutableList.copyOf(spilledLookupSourceHandles));
+            spillingInfo = new SpillingInfo(
+                    spillingInfo.spillEpoch() + 1,
+                    spilledPartitions.entrySet().stream()
+                            .collect(toImmutableMap(Map.Entry::getKey, entry -> entry.getValue().size())));
 
             if (partitions[partitionIndex] != null) {
                 // Was present and now it's spilled
@@ -342,7 +382,7 @@ public final class PartitionedLookupSourceFactory
                 verify(!partitionedConsumption.isDone());
                 partitionedConsumption.set(new PartitionedConsumption<>(
                         partitionedConsumptionParticipants.getAsInt(),
-                        spilledPartitions.keySet(),
+                        getSpilledSubpartitionNumbers(),
                         this::loadSpilledLookupSource,
                         this::disposeSpilledLookupSource,
                         this::spilledLookupSourceDisposed));
@@ -355,6 +395,18 @@ public final class PartitionedLookupSourceFactory
         }
     }
 
+    /**
+     * Sub-partitions of the same partition must be consumed in order, since they are unspilled one after another by the same operator.
+     */
+    @GuardedBy("lock")
+    private List<Integer> getSpilledSubpartitionNumbers()
+    {
+        return ImmutableSortedMap.copyOf(spilledPartitions).entrySet().stream()
+                .flatMap(entry -> IntStream.range(0, entry.getValue().size())
+                        .mapToObj(subpartition -> entry.getKey() * spillSubpartitionCount + subpartition))
+                .collect(toImmutableList());
+    }
+
     private ListenableFuture<Supplier<LookupSource>> loadSpilledLookupSource(int partitionNumber)
     {
         return getSpilledLookupSourceHandle(partitionNumber).getLookupSource();
@@ -374,7 +426,8 @@ public final class PartitionedLookupSourceFactory
     {
         lock.readLock().lock();
         try {
-            return requireNonNull(spilledPartitions.get(partitionNumber), "spilledPartitions.get(partitionNumber) is null");
+            List<SpilledLookupSourceHandle> handles = requireNonNull(spilledPartitions.get(partitionNumber / spillSubpartitionCount), "spilledPartitions.get(partitionNumber) is null");
+            return handles.get(partitionNumber % spillSubpartitionCount);
         }
         finally {
             lock.readLock().unlock();
@@ -404,7 +457,9 @@ public final class PartitionedLookupSourceFactory
         lock.writeLock().lock();
         try {
             freePartitions();
-            spilledPartitions.values().forEach(SpilledLookupSourceHandle::dispose);
+            spilledPartitions.values().stream()
+                    .flatMap(List::stream)
+                    .forEach(SpilledLookupSourceHandle::dispose);
 
             // Setting destroyed must be last because it's a part of the state exposed by isDestroyed() without synchronization.
             destroyed.set(null);
@@ -520,6 +575,12 @@ public final class PartitionedLookupSourceFactory
         {
             return spillingInfo.getSpillMask();
         }
+
+        @Override
+        public IntUnaryOperator getSpilledSubpartitionCounts()
+        {
+            return spillingInfo.getSubpartitionCounts();
+        }
     }
 
     private static class SpilledLookupSource
@@ -603,12 +664,12 @@ public final class PartitionedLookupSourceFactory
     private static final class SpillingInfo
     {
         private final long spillEpoch;
-        private final Set<Integer> spilledPartitions;
+        private final Map<Integer, Integer> spilledPartitions;
 
-        SpillingInfo(long spillEpoch, Set<Integer> spilledPartitions)
+        SpillingInfo(long spillEpoch, Map<Integer, Integer> spilledPartitions)
         {
             this.spillEpoch = spillEpoch;
-            this.spilledPartitions = ImmutableSet.copyOf(requireNonNull(spilledPartitions, "spilledPartitions is null"));
+            this.spilledPartitions = ImmutableMap.copyOf(requireNonNull(spilledPartitions, "spilledPartitions is null"));
         }
 
         boolean hasSpilled()
@@ -623,7 +684,12 @@ public final class PartitionedLookupSourceFactory
 
         IntPredicate getSpillMask()
         {
-            return spilledPartitions::contains;
+            return spilledPartitions::containsKey;
+        }
+
+        IntUnaryOperator getSubpartitionCounts()
+        {
+            return partition -> spilledPartitions.getOrDefault(partition, 1);
         }
     }
 }
@@ -39,8 +39,10 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
@@ -56,10 +58,12 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.concurrent.MoreFutures.toListenableFuture;
+import static com.facebook.presto.common.RuntimeMetricName.DYNAMIC_FILTER_BLOOM_FILTER_FILTERED_ROWS;
 import static com.facebook.presto.common.RuntimeMetricName.STORAGE_READ_DATA_BYTES;
 import static com.facebook.presto.common.RuntimeMetricName.STORAGE_READ_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeUnit.BYTE;
 import static com.facebook.presto.common.RuntimeUnit.NANO;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -81,10 +85,13 @@ public class ScanFilterAndProjectOperator
     private final LocalMemoryContext outputMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
     private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+    private final Optional<Supplier<Map<Integer, DynamicFilterBloomFilter>>> dynamicFilterBloomFilterSupplier;
     private final MergingPageOutput mergingOutput;
 
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
+    // Bloom filters per input channel, applied to the pages of pageSource
+    private Map<Integer, DynamicFilterBloomFilter> bloomFilters = ImmutableMap.of();
 
     private Split split;
 
@@ -104,6 +111,7 @@ public class ScanFilterAndProjectOperator
             Iterable<ColumnHandle> columns,
             Iterable<Type> types,
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+            Optional<Supplier<Map<Integer, DynamicFilterBloomFilter>>> dynamicFilterBloomFilterSupplier,
             MergingPageOutput mergingOutput)
     {
         this.cursorProcessor = requireNonNull(cursorProcessor, "cursorProcessor is null");
@@ -118,6 +126,7 @@ public class ScanFilterAndProjectOperator
         this.pageProcessorMemoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.outputMemoryContext = operatorContext.newLocalSystemMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+        this.dynamicFilterBloomFilterSupplier = requireNonNull(dynamicFilterBloomFilterSupplier, "dynamicFilterBloomFilterSupplier is null");
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
 
         this.pageBuilder = new PageBuilder(ImmutableList.copyOf(requireNonNull(types, "types is null")));
@@ -253,6 +262,7 @@ public class ScanFilterAndProjectOperator
             }
             else {
                 pageSource = source;
+                bloomFilters = dynamicFilterBloomFilterSupplier.map(Supplier::get).orElse(ImmutableMap.of());
             }
         }
 
@@ -301,6 +311,10 @@ public class ScanFilterAndProjectOperator
                 // update operator stats
                 page = recordProcessedInput(page);
 
+                if (!bloomFilters.isEmpty()) {
+                    page = filterWithBloomFilters(page);
+                }
+
                 Iterator<Optional<Page>> output = pageProcessor.process(sqlFunctionProperties, yieldSignal, pageProcessorMemoryContext, page);
                 mergingOutput.addInput(output);
             }
@@ -395,6 +409,38 @@ public class ScanFilterAndProjectOperator
         return (blocks == null) ? page : new Page(page.getPositionCount(), blocks);
     }
 
+    private Page filterWithBloomFilters(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        int[] positions = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            positions[position] = position;
+        }
+        for (Map.Entry<Integer, DynamicFilterBloomFilter> entry : bloomFilters.entrySet()) {
+            Block block = page.getBlock(entry.getKey());
+            DynamicFilterBloomFilter bloomFilter = entry.getValue();
+            int outputCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                if (bloomFilter.mightContain(block, positions[i])) {
+                    positions[outputCount++] = positions[i];
+                }
+            }
+            positionCount = outputCount;
+        }
+
+        if (positionCount == page.getPositionCount()) {
+            return page;
+        }
+        operatorContext.getRuntimeStats().addMetricValue(DYNAMIC_FILTER_BLOOM_FILTER_FILTERED_ROWS, NONE, page.getPositionCount() - positionCount);
+
+        // columns not referenced by the Bloom filters are only loaded if they are accessed downstream
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = LazyBlock.getPositionsLazily(page.getBlock(i), positions, positionCount);
+        }
+        return new Page(positionCount, blocks);
+    }
+
     private static Block[] copyOfPageBlocks(Page page)
     {
         Block[] blocks = new Block[page.getChannelCount()];
@@ -417,6 +463,7 @@ public class ScanFilterAndProjectOperator
         private final List<ColumnHandle> columns;
         private final List<Type> types;
         private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+        private final Optional<Supplier<Map<Integer, DynamicFilterBloomFilter>>> dynamicFilterBloomFilterSupplier;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
         private boolean closed;
@@ -434,6 +481,27 @@ public class ScanFilterAndProjectOperator
                 Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(operatorId, planNodeId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, table, columns, types, dynamicFilterSupplier, Optional.empty(), minOutputPageSize, minOutputPageRowCount);
+        }
+
+        /**
+         * @param dynamicFilterBloomFilterSupplier supplies the dynamic filter Bloom filters keyed by the index of the column in {@code columns}
+         */
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+                Optional<Supplier<Map<Integer, DynamicFilterBloomFilter>>> dynamicFilterBloomFilterSupplier,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -445,10 +513,23 @@ public class ScanFilterAndProjectOperator
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.types = requireNonNull(types, "types is null");
             this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+            this.dynamicFilterBloomFilterSupplier = requireNonNull(dynamicFilterBloomFilterSupplier, "dynamicFilterBloomFilterSupplier is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
         }
 
+        @VisibleForTesting
+        public DataSize getMinOutputPageSize()
+        {
+            return minOutputPageSize;
+        }
+
+        @VisibleForTesting
+        public int getMinOutputPageRowCount()
+        {
+            return minOutputPageRowCount;
+        }
+
         @Override
         public PlanNodeId getSourceId()
         {
@@ -470,6 +551,7 @@ public class ScanFilterAndProjectOperator
                     columns,
                     types,
                     dynamicFilterSupplier,
+                    dynamicFilterBloomFilterSupplier,
                     new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount));
         }
 
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.RuntimeStats;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import static com.facebook.presto.common.RuntimeMetricName.SPILL_READ_WAIT_TIME_NANOS;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records in the operator runtime stats the time an operator is blocked waiting for spilled pages
+ * which are read in the background.
+ */
+class SpillReadWaitTimeRecorder
+{
+    private final RuntimeStats runtimeStats;
+    private ListenableFuture<?> lastRecorded;
+
+    public SpillReadWaitTimeRecorder(OperatorContext operatorContext)
+    {
+        this.runtimeStats = requireNonNull(operatorContext, "operatorContext is null").getRuntimeStats();
+    }
+
+    /**
+     * Returns the given future, starting to measure the wait time if the future was not seen before.
+     */
+    public ListenableFuture<?> record(ListenableFuture<?> blocked)
+    {
+        if (blocked.isDone() || blocked == lastRecorded) {
+            return blocked;
+        }
+        lastRecorded = blocked;
+        long start = System.nanoTime();
+        blocked.addListener(() -> runtimeStats.addMetricValue(SPILL_READ_WAIT_TIME_NANOS, NANO, System.nanoTime() - start), directExecutor());
+        return blocked;
+    }
+}
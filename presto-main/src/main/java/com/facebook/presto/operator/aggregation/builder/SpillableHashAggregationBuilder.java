@@ -39,7 +39,6 @@ import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.lang.Math.max;
 
@@ -271,9 +270,7 @@ public class SpillableHashAggregationBuilder
                 groupByTypes,
                 hashAggregationBuilder.buildIntermediateTypes(),
                 ImmutableList.<WorkProcessor<Page>>builder()
-                        .addAll(spiller.get().getSpills().stream()
-                                .map(WorkProcessor::fromIterator)
-                                .collect(toImmutableList()))
+                        .addAll(spiller.get().getSpillProcessors())
                         .add(hashAggregationBuilder.buildHashSortedResult())
                         .build(),
                 operatorContext.getDriverContext().getYieldSignal());
@@ -290,9 +287,7 @@ public class SpillableHashAggregationBuilder
         WorkProcessor<Page> mergedSpilledPages = mergeHashSort.get().merge(
                 groupByTypes,
                 hashAggregationBuilder.buildIntermediateTypes(),
-                spiller.get().getSpills().stream()
-                        .map(WorkProcessor::fromIterator)
-                        .collect(toImmutableList()),
+                spiller.get().getSpillProcessors(),
                 operatorContext.getDriverContext().getYieldSignal());
 
         return mergeSortedPages(mergedSpilledPages, memoryLimitForMerge);
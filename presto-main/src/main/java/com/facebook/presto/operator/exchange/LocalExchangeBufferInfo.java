@@ -27,15 +27,21 @@ public class LocalExchangeBufferInfo
 {
     private final long bufferedBytes;
     private final int bufferedPages;
+    private final long contendedWrites;
+    private final long blockedReads;
 
     @JsonCreator
     @ThriftConstructor
     public LocalExchangeBufferInfo(
             @JsonProperty("bufferedBytes") long bufferedBytes,
-            @JsonProperty("bufferedPages") int bufferedPages)
+            @JsonProperty("bufferedPages") int bufferedPages,
+            @JsonProperty("contendedWrites") long contendedWrites,
+            @JsonProperty("blockedReads") long blockedReads)
     {
         this.bufferedBytes = bufferedBytes;
         this.bufferedPages = bufferedPages;
+        this.contendedWrites = contendedWrites;
+        this.blockedReads = blockedReads;
     }
 
     @JsonProperty
@@ -52,9 +58,33 @@ public class LocalExchangeBufferInfo
         return bufferedPages;
     }
 
+    /**
+     * Number of pages added to the buffer while another page was being added to it.
+     */
+    @JsonProperty
+    @ThriftField(3)
+    public long getContendedWrites()
+    {
+        return contendedWrites;
+    }
+
+    /**
+     * Number of times a reader found the buffer empty and had to wait for a page.
+     */
+    @JsonProperty
+    @ThriftField(4)
+    public long getBlockedReads()
+    {
+        return blockedReads;
+    }
+
     @Override
     public LocalExchangeBufferInfo mergeWith(LocalExchangeBufferInfo other)
     {
-        return new LocalExchangeBufferInfo(bufferedBytes + other.getBufferedBytes(), bufferedPages + other.getBufferedPages());
+        return new LocalExchangeBufferInfo(
+                bufferedBytes + other.getBufferedBytes(),
+                bufferedPages + other.getBufferedPages(),
+                contendedWrites + other.getContendedWrites(),
+                blockedReads + other.getBlockedReads());
     }
 }
@@ -19,15 +19,13 @@ import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
-import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -41,12 +39,17 @@ public class LocalExchangeSource
 
     private final Consumer<LocalExchangeSource> onFinish;
 
-    private final BlockingQueue<PageReference> buffer = new LinkedBlockingDeque<>();
+    // pages are added and removed without locking, so that producers and consumers do not serialize on the buffer
+    private final Queue<PageReference> buffer = new ConcurrentLinkedQueue<>();
     private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicInteger bufferedPages = new AtomicInteger();
 
-    @Nullable
-    @GuardedBy("this")
-    private SettableFuture<?> notEmptyFuture; // null indicates no callback present
+    // null indicates no callback present
+    private final AtomicReference<SettableFuture<?>> notEmptyFuture = new AtomicReference<>();
+
+    private final AtomicInteger activeWriters = new AtomicInteger();
+    private final AtomicLong contendedWrites = new AtomicLong();
+    private final AtomicLong blockedReads = new AtomicLong();
 
     private volatile boolean finishing;
 
@@ -59,39 +62,43 @@ public class LocalExchangeSource
     {
         // This must be lock free to assure task info creation is fast
         // Note: the stats my be internally inconsistent
-        return new LocalExchangeBufferInfo(bufferedBytes.get(), buffer.size());
+        return new LocalExchangeBufferInfo(bufferedBytes.get(), bufferedPages.get(), contendedWrites.get(), blockedReads.get());
     }
 
     void addPage(PageReference pageReference)
     {
         checkNotHoldsLock();
 
-        boolean added = false;
-        SettableFuture<?> notEmptyFuture = null;
-        long retainedSizeInBytes = pageReference.getRetainedSizeInBytes();
-        synchronized (this) {
-            // ignore pages after finish
-            if (!finishing) {
-                // buffered bytes must be updated before adding to the buffer to assure
-                // the count does not go negative
-                bufferedBytes.addAndGet(retainedSizeInBytes);
-                buffer.add(pageReference);
-                added = true;
-            }
+        // ignore pages after finish
+        if (finishing) {
+            pageReference.removePage();
+            return;
+        }
 
-            // we just added a page (or we are finishing) so we are not empty
-            if (this.notEmptyFuture != null) {
-                notEmptyFuture = this.notEmptyFuture;
-                this.notEmptyFuture = null;
-            }
+        if (activeWriters.incrementAndGet() > 1) {
+            contendedWrites.incrementAndGet();
+        }
+        try {
+            // buffered bytes must be updated before adding to the buffer to assure
+            // the count does not go negative
+            bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
+            bufferedPages.incrementAndGet();
+            buffer.add(pageReference);
+        }
+        finally {
+            activeWriters.decrementAndGet();
         }
 
-        if (!added) {
-            // dereference the page outside of lock
+        // the buffer was finished or closed while the page was added, and readers may already have
+        // observed it as finished, so the page is ignored unless it was already read
+        if (finishing && buffer.remove(pageReference)) {
+            bufferedBytes.addAndGet(-pageReference.getRetainedSizeInBytes());
+            bufferedPages.decrementAndGet();
             pageReference.removePage();
         }
 
-        // notify readers outside of lock since this may result in a callback
+        // we just added a page so we are not empty
+        SettableFuture<?> notEmptyFuture = this.notEmptyFuture.getAndSet(null);
         if (notEmptyFuture != null) {
             notEmptyFuture.set(null);
         }
@@ -133,6 +140,7 @@ public class LocalExchangeSource
         // dereference the page outside of lock, since may trigger a callback
         Page page = pageReference.removePage();
         bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
+        bufferedPages.decrementAndGet();
 
         checkFinished();
 
@@ -148,17 +156,23 @@ public class LocalExchangeSource
             return NOT_BLOCKED;
         }
 
-        synchronized (this) {
-            // re-check after synchronizing
-            if (finishing || !buffer.isEmpty()) {
+        // register the future before re-checking the buffer, so that either this reader observes
+        // a page added concurrently, or the writer of that page observes the future and completes it
+        SettableFuture<?> future = notEmptyFuture.get();
+        if (future == null) {
+            SettableFuture<?> newFuture = SettableFuture.create();
+            future = notEmptyFuture.compareAndSet(null, newFuture) ? newFuture : notEmptyFuture.get();
+            if (future == null) {
+                // completed by a writer in the meantime
                 return NOT_BLOCKED;
             }
-            // if we need to block readers, and the current future is complete, create a new one
-            if (notEmptyFuture == null) {
-                notEmptyFuture = SettableFuture.create();
-            }
-            return notEmptyFuture;
         }
+
+        if (finishing || !buffer.isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        blockedReads.incrementAndGet();
+        return future;
     }
 
     public boolean isFinished()
@@ -177,21 +191,15 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
-        SettableFuture<?> notEmptyFuture;
         synchronized (this) {
             if (finishing) {
                 return;
             }
             finishing = true;
-
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = null;
         }
 
         // notify readers outside of lock since this may result in a callback
-        if (notEmptyFuture != null) {
-            notEmptyFuture.set(null);
-        }
+        notifyReaders();
 
         checkFinished();
     }
@@ -200,31 +208,39 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
-        List<PageReference> remainingPages = new ArrayList<>();
-        SettableFuture<?> notEmptyFuture;
         synchronized (this) {
             finishing = true;
-
-            buffer.drainTo(remainingPages);
-            bufferedBytes.addAndGet(-remainingPages.stream().mapToLong(PageReference::getRetainedSizeInBytes).sum());
-
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = null;
         }
 
         // free all the remaining pages
-        remainingPages.forEach(PageReference::removePage);
+        releaseBufferedPages();
 
         // notify readers outside of lock since this may result in a callback
-        if (notEmptyFuture != null) {
-            notEmptyFuture.set(null);
-        }
+        notifyReaders();
 
         // this will always fire the finished event
         checkState(isFinished(), "Expected buffer to be finished");
         checkFinished();
     }
 
+    private void releaseBufferedPages()
+    {
+        PageReference pageReference;
+        while ((pageReference = buffer.poll()) != null) {
+            bufferedBytes.addAndGet(-pageReference.getRetainedSizeInBytes());
+            bufferedPages.decrementAndGet();
+            pageReference.removePage();
+        }
+    }
+
+    private void notifyReaders()
+    {
+        SettableFuture<?> notEmptyFuture = this.notEmptyFuture.getAndSet(null);
+        if (notEmptyFuture != null) {
+            notEmptyFuture.set(null);
+        }
+    }
+
     private void checkFinished()
     {
         checkNotHoldsLock();
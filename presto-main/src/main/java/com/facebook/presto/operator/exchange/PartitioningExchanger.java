@@ -62,6 +62,10 @@ class PartitioningExchanger
     @Override
     public synchronized void accept(Page page)
     {
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
         // reset the assignment lists
         for (IntList partitionAssignment : partitionAssignments) {
             partitionAssignment.clear();
@@ -77,14 +81,23 @@ class PartitioningExchanger
         // build a page for each partition
         for (int partition = 0; partition < buffers.size(); partition++) {
             IntArrayList positions = partitionAssignments[partition];
+            if (positions.size() == page.getPositionCount()) {
+                // all rows belong to this partition, so the page is passed on without copying it
+                sendPage(partition, page);
+                return;
+            }
             if (!positions.isEmpty()) {
-                Page pageSplit = page.copyPositions(positions.elements(), 0, positions.size());
-                memoryManager.updateMemoryUsage(pageSplit.getRetainedSizeInBytes());
-                buffers.get(partition).accept(new PageReference(pageSplit, 1, onPageReleased));
+                sendPage(partition, page.copyPositions(positions.elements(), 0, positions.size()));
             }
         }
     }
 
+    private void sendPage(int partition, Page page)
+    {
+        memoryManager.updateMemoryUsage(page.getRetainedSizeInBytes());
+        buffers.get(partition).accept(new PageReference(page, 1, onPageReleased));
+    }
+
     private Page extractPartitioningChannels(Page inputPage)
     {
         // hash value is pre-computed, only needs to extract that channel
@@ -14,6 +14,9 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.FixedWidthType;
+import com.facebook.presto.common.type.RowType;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.UpdateMemory;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.BuiltInAggregationFunctionImplementation;
@@ -34,13 +37,18 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // number of rows aggregated directly by the leaves of the segment tree
+    private static final int SEGMENT_TREE_LEAF_SIZE = 32;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean segmentTreeSupported;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    private WindowAggregationSegmentTree segmentTree;
 
     private AggregateWindowFunction(AggregationFunctionImplementation function, List<Integer> argumentChannels)
     {
@@ -48,12 +56,14 @@ public class AggregateWindowFunction
         BuiltInAggregationFunctionImplementation builtinFunction = (BuiltInAggregationFunctionImplementation) function;
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = generateAccumulatorFactory(builtinFunction, createArgs(builtinFunction), Optional.empty());
+        this.segmentTreeSupported = builtinFunction.isDecomposable() && isFixedWidth(builtinFunction.getIntermediateType());
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -72,7 +82,16 @@ public class AggregateWindowFunction
         else {
             // different frame
             resetAccumulator();
-            accumulate(frameStart, frameEnd);
+            if (useSegmentTree(frameStart, frameEnd)) {
+                // sliding frame: combine the precomputed states of the frame instead of aggregating all of its rows
+                if (segmentTree == null) {
+                    segmentTree = new WindowAggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels, SEGMENT_TREE_LEAF_SIZE);
+                }
+                segmentTree.aggregate(accumulator, frameStart, frameEnd);
+            }
+            else {
+                accumulate(frameStart, frameEnd);
+            }
             currentStart = frameStart;
             currentEnd = frameEnd;
         }
@@ -85,6 +104,12 @@ public class AggregateWindowFunction
         accumulator.addInput(windowIndex, argumentChannels, start, end);
     }
 
+    private boolean useSegmentTree(int frameStart, int frameEnd)
+    {
+        // the tree only pays off when frames cover several leaves
+        return segmentTreeSupported && frameEnd - frameStart + 1 >= 4 * SEGMENT_TREE_LEAF_SIZE;
+    }
+
     private void resetAccumulator()
     {
         if (currentStart >= 0) {
@@ -110,6 +135,17 @@ public class AggregateWindowFunction
         };
     }
 
+    /**
+     * Intermediate states are stored for every node of the segment tree, so the tree is only used when their size is bounded.
+     */
+    private static boolean isFixedWidth(Type intermediateType)
+    {
+        if (intermediateType instanceof RowType) {
+            return intermediateType.getTypeParameters().stream().allMatch(AggregateWindowFunction::isFixedWidth);
+        }
+        return intermediateType instanceof FixedWidthType;
+    }
+
     private static List<Integer> createArgs(BuiltInAggregationFunctionImplementation function)
     {
         ImmutableList.Builder<Integer> list = ImmutableList.builder();
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.function.aggregation.Accumulator;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of the intermediate aggregation states of a window partition.
+ * <p>
+ * The partition is divided into leaves of {@code leafSize} rows. Every node of the tree holds the intermediate
+ * state of the rows of its leaves, so the aggregation of an arbitrary frame is computed by combining
+ * O(log(n)) intermediate states, plus the rows of the leaves partially covered by the frame. Intermediate
+ * states are combined in the order of the rows, so order sensitive aggregations see their input in order.
+ */
+class WindowAggregationSegmentTree
+{
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final int leafSize;
+    private final int firstLeafNode;
+    // intermediate state of every node, with the root at index 1 and the children of node k at 2k and 2k + 1
+    private final Block[] nodes;
+
+    public WindowAggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels, int leafSize)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        checkArgument(leafSize > 0, "leafSize must be positive");
+        this.leafSize = leafSize;
+
+        int leafCount = (windowIndex.size() + leafSize - 1) / leafSize;
+        this.firstLeafNode = leafCount <= 1 ? 1 : highestOneBit(leafCount - 1) << 1;
+        this.nodes = new Block[firstLeafNode * 2];
+
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            Accumulator accumulator = createAccumulator();
+            accumulator.addInput(windowIndex, argumentChannels, leaf * leafSize, min((leaf + 1) * leafSize, windowIndex.size()) - 1);
+            nodes[firstLeafNode + leaf] = evaluateIntermediate(accumulator);
+        }
+        for (int node = firstLeafNode - 1; node > 0; node--) {
+            Block left = nodes[2 * node];
+            Block right = nodes[2 * node + 1];
+            if (left == null || right == null) {
+                nodes[node] = left == null ? right : left;
+                continue;
+            }
+            Accumulator accumulator = createAccumulator();
+            accumulator.addIntermediate(left);
+            accumulator.addIntermediate(right);
+            nodes[node] = evaluateIntermediate(accumulator);
+        }
+    }
+
+    /**
+     * Adds the rows between {@code start} and {@code end} (inclusive) to the given accumulator.
+     */
+    public void aggregate(Accumulator accumulator, int start, int end)
+    {
+        // leaves fully covered by the frame
+        int firstLeaf = (start + leafSize - 1) / leafSize;
+        int lastLeaf = (end + 1) / leafSize - 1;
+        if (firstLeaf > lastLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return;
+        }
+
+        int leavesStart = firstLeaf * leafSize;
+        int leavesEnd = (lastLeaf + 1) * leafSize - 1;
+        if (start < leavesStart) {
+            accumulator.addInput(windowIndex, argumentChannels, start, leavesStart - 1);
+        }
+
+        List<Block> rightNodes = new ArrayList<>();
+        for (int left = firstLeafNode + firstLeaf, right = firstLeafNode + lastLeaf + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                accumulator.addIntermediate(nodes[left++]);
+            }
+            if ((right & 1) == 1) {
+                rightNodes.add(nodes[--right]);
+            }
+        }
+        for (int i = rightNodes.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(rightNodes.get(i));
+        }
+
+        if (end > leavesEnd) {
+            accumulator.addInput(windowIndex, argumentChannels, leavesEnd + 1, end);
+        }
+    }
+
+    private Accumulator createAccumulator()
+    {
+        // window functions do not support distinct and ordering accumulators, which are the only users of the callback
+        return accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+    }
+
+    private static Block evaluateIntermediate(Accumulator accumulator)
+    {
+        BlockBuilder blockBuilder = accumulator.getIntermediateType().createBlockBuilder(null, 1);
+        accumulator.evaluateIntermediate(blockBuilder);
+        return blockBuilder.build();
+    }
+}
@@ -47,6 +47,7 @@ import com.facebook.presto.security.AccessControlModule;
 import com.facebook.presto.server.security.PasswordAuthenticatorManager;
 import com.facebook.presto.server.security.ServerSecurityModule;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.parser.SqlParserOptions;
 import com.facebook.presto.storage.TempStorageManager;
 import com.facebook.presto.storage.TempStorageModule;
@@ -176,6 +177,8 @@ public class PrestoServer
             injector.getInstance(NodeTtlFetcherManager.class).loadNodeTtlFetcher();
             injector.getInstance(ClusterTtlProviderManager.class).loadClusterTtlProvider();
             injector.getInstance(TracerProviderManager.class).loadTracerProvider();
+            // compile the persisted joins once the types of the plugins and function namespaces are available
+            injector.getInstance(JoinCompiler.class).loadPersistentCacheAsync();
 
             startAssociatedProcesses(injector);
 
@@ -36,6 +36,7 @@ import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
+import com.facebook.presto.spi.page.PageCodecMarker;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.security.SelectedRole;
@@ -77,6 +78,9 @@ import static com.facebook.presto.SystemSessionProperties.getQueryRetryMaxExecut
 import static com.facebook.presto.SystemSessionProperties.getTargetResultSize;
 import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.client.BinaryDataUtils.decodeBinaryData;
+import static com.facebook.presto.client.BinaryDataUtils.encodePage;
+import static com.facebook.presto.client.BinaryDataUtils.isBinaryDataSupported;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.WAITING_FOR_PREREQUISITES;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toStatementStats;
@@ -108,6 +112,7 @@ class Query
     private final ScheduledExecutorService timeoutExecutor;
 
     private final PagesSerde serde;
+    private final PagesSerde binaryDataSerde;
     private final RetryCircuitBreaker retryCircuitBreaker;
 
     @GuardedBy("this")
@@ -221,6 +226,7 @@ class Query
         this.timeoutExecutor = timeoutExecutor;
 
         this.serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), isExchangeChecksumEnabled(session)).createPagesSerde();
+        this.binaryDataSerde = new PagesSerdeFactory(blockEncodingSerde, false).createPagesSerde();
         this.retryCircuitBreaker = retryCircuitBreaker;
     }
 
@@ -308,6 +314,11 @@ class Query
     }
 
     public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize)
+    {
+        return waitForResults(token, uriInfo, scheme, wait, targetResultSize, false);
+    }
+
+    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, boolean binaryResults)
     {
         // before waiting, check if this request has already been processed and cached
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -323,7 +334,7 @@ class Query
                 timeoutExecutor);
 
         // when state changes, fetch the next result
-        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize), resultsProcessorExecutor);
+        return Futures.transform(futureStateChange, ignored -> getNextResultWithRetry(token, uriInfo, scheme, targetResultSize, binaryResults), resultsProcessorExecutor);
     }
 
     private synchronized ListenableFuture<?> getFutureStateChange()
@@ -376,9 +387,9 @@ class Query
         return Optional.empty();
     }
 
-    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize)
+    private synchronized QueryResults getNextResultWithRetry(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
     {
-        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize);
+        QueryResults queryResults = getNextResult(token, uriInfo, scheme, targetResultSize, binaryResults);
         if (queryResults.getError() == null || !queryResults.getError().isRetriable()) {
             return queryResults;
         }
@@ -420,7 +431,7 @@ class Query
                 queryResults.getUpdateCount());
     }
 
-    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize)
+    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, boolean binaryResults)
     {
         // check if the result for the token have already been created
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -442,8 +453,12 @@ class Query
         // last page is removed.  If another thread observes this state before the response is cached
         // the pages will be lost.
         Iterable<List<Object>> data = null;
+        List<String> binaryData = null;
+        // pages are only sent as binary data when the client can decode all the column types
+        boolean binaryDataEnabled = binaryResults && columns != null && isBinaryDataSupported(columns);
         try {
             ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<String> encodedPages = ImmutableList.builder();
             long bytes = 0;
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
@@ -453,6 +468,17 @@ class Query
                     break;
                 }
 
+                if (binaryDataEnabled) {
+                    if (serializedPage.getPageCodecMarkers() != PageCodecMarker.none()) {
+                        // clients do not decompress or verify pages, so the page is serialized again without codecs
+                        serializedPage = binaryDataSerde.serialize(serde.deserialize(serializedPage));
+                    }
+                    encodedPages.add(encodePage(serializedPage));
+                    bytes += serializedPage.getSizeInBytes();
+                    rows += serializedPage.getPositionCount();
+                    continue;
+                }
+
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
                 rows += page.getPositionCount();
@@ -460,7 +486,12 @@ class Query
             }
             if (rows > 0) {
                 // client implementations do not properly handle empty list of data
-                data = Iterables.concat(pages.build());
+                if (binaryDataEnabled) {
+                    binaryData = encodedPages.build();
+                }
+                else {
+                    data = Iterables.concat(pages.build());
+                }
                 hasProducedResult = true;
             }
         }
@@ -475,9 +506,9 @@ class Query
 
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
-        if ((data != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
+        if ((data != null || binaryData != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
                 (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
-            Iterator<List<Object>> iterator = data.iterator();
+            Iterator<List<Object>> iterator = (data != null ? data : decodeBinaryData(columns, binaryData)).iterator();
             if (iterator.hasNext()) {
                 Number number = (Number) iterator.next().get(0);
                 if (number != null) {
@@ -492,6 +523,7 @@ class Query
         if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
             columns = ImmutableList.of(new Column("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
+            binaryData = null;
         }
 
         // advance next token
@@ -542,6 +574,7 @@ class Query
                 nextResultsUri,
                 columns,
                 data,
+                binaryData,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo),
                 queryInfo.getWarnings(),
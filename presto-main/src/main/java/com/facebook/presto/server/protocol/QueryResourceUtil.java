@@ -139,6 +139,7 @@ public final class QueryResourceUtil
                 prependUri(queryResults.getNextUri(), xPrestoPrefixUri),
                 queryResults.getColumns(),
                 queryResults.getData(),
+                queryResults.getBinaryData(),
                 queryResults.getStats(),
                 queryResults.getError(),
                 queryResults.getWarnings(),
@@ -16,6 +16,7 @@ package com.facebook.presto.spiller;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.PagesSerdeUtil;
@@ -31,6 +32,7 @@ import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -49,10 +51,12 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterators.transform;
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -69,6 +73,8 @@ public class FileSingleStreamSpiller
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
     private final Optional<SpillCipher> spillCipher;
+    private final boolean memoryMappedReadEnabled;
+    private final int prefetchPages;
 
     private final ListeningExecutorService executor;
 
@@ -76,6 +82,8 @@ public class FileSingleStreamSpiller
     private boolean committed;
     private volatile long spilledPagesInMemorySize;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+    @Nullable
+    private PrefetchingSpilledPages prefetchingPages;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -85,6 +93,33 @@ public class FileSingleStreamSpiller
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
             Optional<SpillCipher> spillCipher)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, false);
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            boolean memoryMappedReadEnabled)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, memoryMappedReadEnabled, 0);
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            boolean memoryMappedReadEnabled,
+            int prefetchPages)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -94,6 +129,9 @@ public class FileSingleStreamSpiller
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
+        this.memoryMappedReadEnabled = memoryMappedReadEnabled;
+        checkArgument(prefetchPages >= 0, "prefetchPages is negative");
+        this.prefetchPages = prefetchPages;
         // HACK!
         // The writePages() method is called in a separate thread pool and it's possible that
         // these spiller thread can run concurrently with the close() method.
@@ -135,6 +173,17 @@ public class FileSingleStreamSpiller
         return readPages();
     }
 
+    @Override
+    public WorkProcessor<Page> getSpilledPagesProcessor()
+    {
+        if (prefetchPages == 0) {
+            return WorkProcessor.fromIterator(getSpilledPages());
+        }
+        // pages are read on the spiller threads, which are idle once the spill has finished
+        prefetchingPages = new PrefetchingSpilledPages(getSpilledPages(), executor, prefetchPages, prefetchedBytes -> memoryContext.setBytes(BUFFER_SIZE + prefetchedBytes));
+        return WorkProcessor.create(prefetchingPages);
+    }
+
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
@@ -182,6 +231,13 @@ public class FileSingleStreamSpiller
             }
 
             checkState(committed, "Cannot read pages since spill file is not committed");
+            if (memoryMappedReadEnabled) {
+                MemoryMappedSpillFileReader reader = closer.register(new MemoryMappedSpillFileReader(serde, targetFile.newFileChannel(READ)));
+                spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
+                // variable width blocks are views into the mapped region, and compacting the pages copies them out of it,
+                // so that unspilled pages neither retain the region nor report its size as their retained size
+                return closeWhenExhausted(transform(reader, Page::compact), reader);
+            }
             InputStream input = closer.register(targetFile.newInputStream());
             Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
             Iterator<Page> compactPages = transform(deserializedPages, Page::compact);
@@ -198,6 +254,10 @@ public class FileSingleStreamSpiller
     {
         closer.register(localSpillContext);
         closer.register(() -> memoryContext.setBytes(0));
+        if (prefetchingPages != null) {
+            // closed first, so that the prefetch stops before the files are closed and does not reserve memory after it is released
+            closer.register(prefetchingPages);
+        }
         try {
             closer.close();
         }
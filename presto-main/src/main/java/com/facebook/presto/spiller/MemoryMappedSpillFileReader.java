@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.PAGE_METADATA_SIZE;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the pages of a spill file through a memory mapping of the file.
+ * <p>
+ * Serialized pages are deserialized directly from the mapped region, without read system calls or
+ * intermediate buffers. Unless a page is compressed or encrypted, its variable width blocks are views
+ * into the region, and the region reports its full size as their retained size. A region stays mapped
+ * until it is no longer referenced, even after the reader is closed and the file is deleted, so callers
+ * should compact the pages to copy their data out of the region.
+ */
+@NotThreadSafe
+class MemoryMappedSpillFileReader
+        extends AbstractIterator<Page>
+        implements Closeable
+{
+    @VisibleForTesting
+    static final long MAX_MAPPED_REGION_SIZE = 256 * 1024 * 1024;
+
+    private final PagesSerde serde;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long maxMappedRegionSize;
+
+    private Slice region;
+    private long regionOffset;
+    private long position;
+
+    public MemoryMappedSpillFileReader(PagesSerde serde, FileChannel channel)
+            throws IOException
+    {
+        this(serde, channel, MAX_MAPPED_REGION_SIZE);
+    }
+
+    @VisibleForTesting
+    MemoryMappedSpillFileReader(PagesSerde serde, FileChannel channel, long maxMappedRegionSize)
+            throws IOException
+    {
+        this.serde = requireNonNull(serde, "serde is null");
+        this.channel = requireNonNull(channel, "channel is null");
+        this.fileSize = channel.size();
+        this.maxMappedRegionSize = maxMappedRegionSize;
+    }
+
+    @Override
+    protected Page computeNext()
+    {
+        if (position >= fileSize) {
+            return endOfData();
+        }
+        try {
+            // see PagesSerdeUtil.writeSerializedPageMetadata for the layout of the metadata
+            int metadataOffset = map(position, PAGE_METADATA_SIZE);
+            int positionCount = region.getInt(metadataOffset);
+            byte codecMarkers = region.getByte(metadataOffset + SIZE_OF_INT);
+            int uncompressedSizeInBytes = region.getInt(metadataOffset + SIZE_OF_INT + SIZE_OF_BYTE);
+            int sizeInBytes = region.getInt(metadataOffset + SIZE_OF_INT * 2 + SIZE_OF_BYTE);
+            long checksum = region.getLong(metadataOffset + SIZE_OF_INT * 3 + SIZE_OF_BYTE);
+
+            int dataOffset = map(position, PAGE_METADATA_SIZE + sizeInBytes) + PAGE_METADATA_SIZE;
+            Slice slice = region.slice(dataOffset, sizeInBytes);
+            position += PAGE_METADATA_SIZE + sizeInBytes;
+
+            return serde.deserialize(new SerializedPage(slice, codecMarkers, positionCount, uncompressedSizeInBytes, checksum));
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to read spilled pages: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Makes sure the given range of the file is mapped, and returns the offset of the range in the current region.
+     */
+    private int map(long offset, long length)
+            throws IOException
+    {
+        if (offset + length > fileSize) {
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Spill file is truncated: expected at least %s bytes, but file has %s bytes", offset + length, fileSize));
+        }
+        if (region == null || offset < regionOffset || offset + length > regionOffset + region.length()) {
+            long regionSize = min(max(maxMappedRegionSize, length), fileSize - offset);
+            region = Slices.wrappedBuffer(channel.map(READ_ONLY, offset, regionSize));
+            regionOffset = offset;
+        }
+        return toIntExact(offset - regionOffset);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        region = null;
+        channel.close();
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.spiller;
 import com.facebook.airlift.configuration.Config;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NodeSpillConfig
@@ -27,6 +28,8 @@ public class NodeSpillConfig
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
+    private boolean spillMemoryMappedReadEnabled;
+    private int spillPrefetchPages;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -91,6 +94,31 @@ public class NodeSpillConfig
         return this;
     }
 
+    public boolean isSpillMemoryMappedReadEnabled()
+    {
+        return spillMemoryMappedReadEnabled;
+    }
+
+    @Config("experimental.spill-memory-mapped-read-enabled")
+    public NodeSpillConfig setSpillMemoryMappedReadEnabled(boolean spillMemoryMappedReadEnabled)
+    {
+        this.spillMemoryMappedReadEnabled = spillMemoryMappedReadEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public int getSpillPrefetchPages()
+    {
+        return spillPrefetchPages;
+    }
+
+    @Config("experimental.spill-prefetch-pages")
+    public NodeSpillConfig setSpillPrefetchPages(int spillPrefetchPages)
+    {
+        this.spillPrefetchPages = spillPrefetchPages;
+        return this;
+    }
+
     @NotNull
     public DataSize getTempStorageBufferSize()
     {
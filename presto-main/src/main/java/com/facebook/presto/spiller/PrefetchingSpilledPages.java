@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.WorkProcessor;
+import com.facebook.presto.operator.WorkProcessor.ProcessState;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads spilled pages on the given executor, keeping up to {@code maxPrefetchedPages} pages read ahead
+ * of the consumer. When no page is available yet, the process is blocked until the next page is read,
+ * so that the driver thread does not wait on disk I/O.
+ * <p>
+ * At most one read of the underlying iterator is in progress at a time. The retained size of the
+ * prefetched pages is reported to {@code prefetchedBytesListener} whenever it changes. Once closed,
+ * the prefetched pages are released and a read in progress discards its page.
+ */
+@ThreadSafe
+class PrefetchingSpilledPages
+        implements WorkProcessor.Process<Page>, Closeable
+{
+    private final Iterator<Page> pages;
+    private final Executor executor;
+    private final int maxPrefetchedPages;
+    private final LongConsumer prefetchedBytesListener;
+
+    @GuardedBy("this")
+    private final Queue<Page> prefetchedPages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long prefetchedBytes;
+    @GuardedBy("this")
+    private boolean readInProgress;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private boolean finished;
+    @GuardedBy("this")
+    @Nullable
+    private Throwable failure;
+    @GuardedBy("this")
+    @Nullable
+    private SettableFuture<?> pageAvailable;
+
+    public PrefetchingSpilledPages(Iterator<Page> pages, Executor executor, int maxPrefetchedPages, LongConsumer prefetchedBytesListener)
+    {
+        this.pages = requireNonNull(pages, "pages is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxPrefetchedPages > 0, "maxPrefetchedPages must be positive");
+        this.maxPrefetchedPages = maxPrefetchedPages;
+        this.prefetchedBytesListener = requireNonNull(prefetchedBytesListener, "prefetchedBytesListener is null");
+    }
+
+    @Override
+    public synchronized ProcessState<Page> process()
+    {
+        checkState(!closed, "already closed");
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+
+        Page page = prefetchedPages.poll();
+        if (page != null) {
+            updatePrefetchedBytes(-page.getRetainedSizeInBytes());
+            startRead();
+            return ProcessState.ofResult(page);
+        }
+        if (finished) {
+            return ProcessState.finished();
+        }
+
+        startRead();
+        pageAvailable = SettableFuture.create();
+        return ProcessState.blocked(pageAvailable);
+    }
+
+    @Override
+    public void close()
+    {
+        SettableFuture<?> future;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            prefetchedPages.clear();
+            updatePrefetchedBytes(-prefetchedBytes);
+            future = pageAvailable;
+            pageAvailable = null;
+        }
+        if (future != null) {
+            future.set(null);
+        }
+    }
+
+    @GuardedBy("this")
+    private void updatePrefetchedBytes(long delta)
+    {
+        prefetchedBytes += delta;
+        prefetchedBytesListener.accept(prefetchedBytes);
+    }
+
+    @GuardedBy("this")
+    private void startRead()
+    {
+        if (closed || readInProgress || finished || prefetchedPages.size() >= maxPrefetchedPages) {
+            return;
+        }
+        readInProgress = true;
+        executor.execute(this::readPages);
+    }
+
+    private void readPages()
+    {
+        while (true) {
+            synchronized (this) {
+                // a read scheduled before close must not touch the closed iterator
+                if (closed) {
+                    readInProgress = false;
+                    return;
+                }
+            }
+
+            Page page = null;
+            Throwable readFailure = null;
+            try {
+                if (pages.hasNext()) {
+                    page = pages.next();
+                }
+            }
+            catch (Throwable t) {
+                readFailure = t;
+            }
+
+            SettableFuture<?> future;
+            boolean continueReading;
+            synchronized (this) {
+                if (readFailure != null) {
+                    failure = readFailure;
+                }
+                else if (page == null) {
+                    finished = true;
+                }
+                else if (!closed) {
+                    // a page read while closing is discarded, as its memory would never be released
+                    prefetchedPages.add(page);
+                    updatePrefetchedBytes(page.getRetainedSizeInBytes());
+                }
+                continueReading = !closed && failure == null && !finished && prefetchedPages.size() < maxPrefetchedPages;
+                readInProgress = continueReading;
+                future = pageAvailable;
+                pageAvailable = null;
+            }
+
+            // unblock the consumer outside of the lock, as listeners are run inline
+            if (future != null) {
+                future.set(null);
+            }
+            if (!continueReading) {
+                return;
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.WorkProcessor;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.Closeable;
@@ -48,6 +49,15 @@ public interface SingleStreamSpiller
      */
     Iterator<Page> getSpilledPages();
 
+    /**
+     * Same as {@link #getSpilledPages()}, but the returned processor may read the pages in the background,
+     * in which case it is blocked until the next page has been read.
+     */
+    default WorkProcessor<Page> getSpilledPagesProcessor()
+    {
+        return WorkProcessor.fromIterator(getSpilledPages());
+    }
+
     /**
      * Returns estimate size of pages that would be returned by {@link #getAllSpilledPages()}.
      */
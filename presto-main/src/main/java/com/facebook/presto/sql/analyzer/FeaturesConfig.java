@@ -19,6 +19,7 @@ import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.presto.operator.aggregation.arrayagg.ArrayAggGroupImplementation;
 import com.facebook.presto.operator.aggregation.histogram.HistogramGroupImplementation;
 import com.facebook.presto.operator.aggregation.multimapagg.MultimapAggGroupImplementation;
+import com.facebook.presto.util.PowerOfTwo;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
@@ -40,6 +41,7 @@ import static com.facebook.presto.sql.analyzer.FeaturesConfig.AggregationPartiti
 import static com.facebook.presto.sql.analyzer.FeaturesConfig.TaskSpillingStrategy.ORDER_BY_CREATE_TIME;
 import static com.facebook.presto.sql.analyzer.RegexLibrary.JONI;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
@@ -115,11 +117,13 @@ public class FeaturesConfig
     private boolean optimizeMixedDistinctAggregations;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexColumnCompressionEnabled;
     private boolean distributedSort = true;
     private boolean optimizeJoinsWithEmptySources;
     private boolean logFormattedQueryEnabled;
 
     private boolean dictionaryAggregation;
+    private boolean fixedWidthGroupByHashEnabled;
 
     private int re2JDfaStatesLimit = Integer.MAX_VALUE;
     private int re2JDfaRetries = 5;
@@ -129,6 +133,7 @@ public class FeaturesConfig
     private MultimapAggGroupImplementation multimapAggGroupImplementation = MultimapAggGroupImplementation.NEW;
     private boolean spillEnabled;
     private boolean joinSpillingEnabled = true;
+    private int joinSpillSubpartitionCount = 1;
     private boolean aggregationSpillEnabled = true;
     private boolean distinctAggregationSpillEnabled = true;
     private boolean dedupBasedDistinctAggregationSpillEnabled;
@@ -167,11 +172,13 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private DataSize dynamicFilteringBloomFilterSize = new DataSize(0, BYTE);
 
     private boolean fragmentResultCachingEnabled;
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(500, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
+    private boolean skipFilterAndProjectOutputMergingForPartialAggregation;
     private int maxGroupingSets = 2048;
     private boolean legacyUnnestArrayRows;
     private AggregationPartitioningMergingStrategy aggregationPartitioningMergingStrategy = LEGACY;
@@ -224,6 +231,9 @@ public class FeaturesConfig
     private boolean verboseRuntimeStatsEnabled;
 
     private boolean streamingForPartialAggregationEnabled;
+    private boolean adaptivePartialAggregationEnabled;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
+    private long adaptivePartialAggregationMinRows = 100_000;
     private boolean preferMergeJoin;
     private boolean segmentedAggregationEnabled;
 
@@ -986,6 +996,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFixedWidthGroupByHashEnabled()
+    {
+        return fixedWidthGroupByHashEnabled;
+    }
+
+    @Config("experimental.fixed-width-group-by-hash-enabled")
+    @ConfigDescription("Use a row-wise open addressing hash table for aggregations on fixed width keys")
+    public FeaturesConfig setFixedWidthGroupByHashEnabled(boolean fixedWidthGroupByHashEnabled)
+    {
+        this.fixedWidthGroupByHashEnabled = fixedWidthGroupByHashEnabled;
+        return this;
+    }
+
     @Min(2)
     public int getRe2JDfaStatesLimit()
     {
@@ -1048,6 +1071,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @PowerOfTwo
+    public int getJoinSpillSubpartitionCount()
+    {
+        return joinSpillSubpartitionCount;
+    }
+
+    @Config("experimental.join-spill-subpartition-count")
+    @ConfigDescription("Number of sub-partitions a join build partition spilled while still consuming input is split into, so that it can be unspilled in parts")
+    public FeaturesConfig setJoinSpillSubpartitionCount(int joinSpillSubpartitionCount)
+    {
+        this.joinSpillSubpartitionCount = joinSpillSubpartitionCount;
+        return this;
+    }
+
     @Config("experimental.aggregation-spill-enabled")
     @ConfigDescription("Spill aggregations if spill is enabled")
     public FeaturesConfig setAggregationSpillEnabled(boolean aggregationSpillEnabled)
@@ -1398,6 +1435,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @MaxDataSize("128MB")
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("experimental.dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the Bloom filter collected per driver for dynamic filtering when the build side is too large for an exact filter, 0 to disable")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -1507,6 +1558,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexColumnCompressionEnabled()
+    {
+        return pagesIndexColumnCompressionEnabled;
+    }
+
+    @Config("pages-index.column-compression-enabled")
+    @ConfigDescription("Dictionary or run length encode the columns of sort, window and join build indexes when they are compacted under memory pressure")
+    public FeaturesConfig setPagesIndexColumnCompressionEnabled(boolean pagesIndexColumnCompressionEnabled)
+    {
+        this.pagesIndexColumnCompressionEnabled = pagesIndexColumnCompressionEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -1533,6 +1597,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSkipFilterAndProjectOutputMergingForPartialAggregation()
+    {
+        return skipFilterAndProjectOutputMergingForPartialAggregation;
+    }
+
+    @Config("experimental.skip-filter-and-project-output-merging-for-partial-aggregation")
+    @ConfigDescription("Skip merging small output pages of filter and project operators whose output is consumed by a partial aggregation")
+    public FeaturesConfig setSkipFilterAndProjectOutputMergingForPartialAggregation(boolean skipFilterAndProjectOutputMergingForPartialAggregation)
+    {
+        this.skipFilterAndProjectOutputMergingForPartialAggregation = skipFilterAndProjectOutputMergingForPartialAggregation;
+        return this;
+    }
+
     @Config("histogram.implementation")
     public FeaturesConfig setHistogramGroupImplementation(HistogramGroupImplementation groupByMode)
     {
@@ -2106,6 +2183,48 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-enabled")
+    @ConfigDescription("Switch partial aggregation to pass-through mode when it does not reduce the number of rows")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-unique-rows-ratio-threshold")
+    @ConfigDescription("Ratio of output groups to input rows above which partial aggregation is switched to pass-through mode")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-min-rows")
+    @ConfigDescription("Minimum number of rows processed by partial aggregation before it can be switched to pass-through mode")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
     public int getMaxStageCountForEagerScheduling()
     {
         return maxStageCountForEagerScheduling;
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.sql.gen;
 
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
 import com.facebook.presto.Session;
 import com.facebook.presto.bytecode.BytecodeBlock;
 import com.facebook.presto.bytecode.BytecodeNode;
@@ -48,6 +50,7 @@ import com.facebook.presto.operator.PagesHashStrategy;
 import com.facebook.presto.spi.function.JavaScalarFunctionImplementation;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
+import com.facebook.presto.sql.planner.CompilerConfig;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -57,16 +60,25 @@ import org.openjdk.jol.info.ClassLayout;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.json.JsonCodec.listJsonCodec;
 import static com.facebook.presto.bytecode.Access.FINAL;
 import static com.facebook.presto.bytecode.Access.PRIVATE;
 import static com.facebook.presto.bytecode.Access.PUBLIC;
@@ -88,12 +100,21 @@ import static com.facebook.presto.sql.gen.SqlTypeBytecodeExpression.constantType
 import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 
 public class JoinCompiler
 {
+    private static final Logger log = Logger.get(JoinCompiler.class);
+    private static final JsonCodec<List<JoinCompilerCacheEntry>> CACHE_ENTRIES_CODEC = listJsonCodec(JoinCompilerCacheEntry.class);
+
     private final FunctionAndTypeManager functionAndTypeManager;
     private final boolean groupByUsesEqualTo;
+    private final Optional<Path> persistentCacheFile;
+    private final AtomicLong persistentCacheLoadedEntries = new AtomicLong();
+    private final AtomicLong persistentCacheFailedEntries = new AtomicLong();
 
     private final LoadingCache<CacheKey, LookupSourceSupplierFactory> lookupSourceFactories = CacheBuilder.newBuilder()
             .recordStats()
@@ -112,11 +133,112 @@ public class JoinCompiler
         return compileLookupSourceFactory(types, joinChannels, sortChannel, Optional.empty());
     }
 
-    @Inject
     public JoinCompiler(Metadata metadata, FeaturesConfig config)
+    {
+        this(metadata, config, new CompilerConfig());
+    }
+
+    @Inject
+    public JoinCompiler(Metadata metadata, FeaturesConfig config, CompilerConfig compilerConfig)
     {
         this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
         this.groupByUsesEqualTo = requireNonNull(config, "config is null").isGroupByUsesEqualTo();
+        this.persistentCacheFile = Optional.ofNullable(requireNonNull(compilerConfig, "compilerConfig is null").getJoinCompilerCacheFile())
+                .map(Paths::get);
+    }
+
+    /**
+     * Starts compiling the joins recorded in the persistent cache file on a background thread. The server calls this
+     * after the plugins are loaded, so that the types of the recorded joins can be resolved, without delaying startup.
+     */
+    public void loadPersistentCacheAsync()
+    {
+        if (!persistentCacheFile.isPresent()) {
+            return;
+        }
+
+        ExecutorService executor = newSingleThreadExecutor(daemonThreadsNamed("join-compiler-cache-loader-%s"));
+        executor.execute(this::loadPersistentCache);
+        // the thread exits once the cache is loaded
+        executor.shutdown();
+    }
+
+    /**
+     * Compiles the classes of the joins recorded in the persistent cache file, so that they are available before the first query.
+     * Generated classes bind method handles when they are defined, so the class bytes cannot be reused across restarts,
+     * only the cache keys are persisted.
+     */
+    public void loadPersistentCache()
+    {
+        if (!persistentCacheFile.isPresent() || !Files.exists(persistentCacheFile.get())) {
+            return;
+        }
+
+        List<JoinCompilerCacheEntry> entries;
+        try {
+            entries = CACHE_ENTRIES_CODEC.fromJson(Files.readAllBytes(persistentCacheFile.get()));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Failed to read join compiler cache file %s", persistentCacheFile.get());
+            return;
+        }
+
+        for (JoinCompilerCacheEntry entry : entries) {
+            try {
+                List<Type> types = entry.getTypes().stream()
+                        .map(functionAndTypeManager::getType)
+                        .collect(toImmutableList());
+                CacheKey key = new CacheKey(types, entry.getOutputChannels(), entry.getJoinChannels(), entry.getSortChannel());
+                if (entry.isLookupSource()) {
+                    lookupSourceFactories.getUnchecked(key);
+                }
+                else {
+                    hashStrategies.getUnchecked(key);
+                }
+                persistentCacheLoadedEntries.incrementAndGet();
+            }
+            catch (RuntimeException e) {
+                // types may no longer exist, for example after a plugin was removed
+                log.debug(e, "Failed to compile join compiler cache entry %s", entry);
+                persistentCacheFailedEntries.incrementAndGet();
+            }
+        }
+        log.info("Compiled %s join compiler cache entries from %s", persistentCacheLoadedEntries.get(), persistentCacheFile.get());
+    }
+
+    @PreDestroy
+    public void storePersistentCache()
+    {
+        if (!persistentCacheFile.isPresent()) {
+            return;
+        }
+
+        ImmutableList.Builder<JoinCompilerCacheEntry> entries = ImmutableList.builder();
+        lookupSourceFactories.asMap().keySet().forEach(key -> entries.add(key.toCacheEntry(true)));
+        hashStrategies.asMap().keySet().forEach(key -> entries.add(key.toCacheEntry(false)));
+
+        Path file = persistentCacheFile.get();
+        try {
+            // write to a temporary file first, so that a failed write does not corrupt the existing cache file
+            Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporaryFile, CACHE_ENTRIES_CODEC.toJsonBytes(entries.build()));
+            Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write join compiler cache file %s", file);
+        }
+    }
+
+    @Managed
+    public long getPersistentCacheLoadedEntries()
+    {
+        return persistentCacheLoadedEntries.get();
+    }
+
+    @Managed
+    public long getPersistentCacheFailedEntries()
+    {
+        return persistentCacheFailedEntries.get();
     }
 
     @Managed
@@ -994,6 +1116,18 @@ public class JoinCompiler
             return sortChannel;
         }
 
+        private JoinCompilerCacheEntry toCacheEntry(boolean lookupSource)
+        {
+            return new JoinCompilerCacheEntry(
+                    lookupSource,
+                    types.stream()
+                            .map(Type::getTypeSignature)
+                            .collect(toImmutableList()),
+                    outputChannels,
+                    joinChannels,
+                    sortChannel);
+        }
+
         @Override
         public int hashCode()
         {
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.common.type.TypeSignature;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persisted form of a {@link JoinCompiler} cache key, used to compile the classes of recurring joins when a node starts.
+ */
+public class JoinCompilerCacheEntry
+{
+    private final boolean lookupSource;
+    private final List<TypeSignature> types;
+    private final List<Integer> outputChannels;
+    private final List<Integer> joinChannels;
+    private final Optional<Integer> sortChannel;
+
+    @JsonCreator
+    public JoinCompilerCacheEntry(
+            @JsonProperty("lookupSource") boolean lookupSource,
+            @JsonProperty("types") List<TypeSignature> types,
+            @JsonProperty("outputChannels") List<Integer> outputChannels,
+            @JsonProperty("joinChannels") List<Integer> joinChannels,
+            @JsonProperty("sortChannel") Optional<Integer> sortChannel)
+    {
+        this.lookupSource = lookupSource;
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.outputChannels = ImmutableList.copyOf(requireNonNull(outputChannels, "outputChannels is null"));
+        this.joinChannels = ImmutableList.copyOf(requireNonNull(joinChannels, "joinChannels is null"));
+        this.sortChannel = requireNonNull(sortChannel, "sortChannel is null");
+    }
+
+    /**
+     * Whether the entry is a lookup source factory, or only a pages hash strategy.
+     */
+    @JsonProperty
+    public boolean isLookupSource()
+    {
+        return lookupSource;
+    }
+
+    @JsonProperty
+    public List<TypeSignature> getTypes()
+    {
+        return types;
+    }
+
+    @JsonProperty
+    public List<Integer> getOutputChannels()
+    {
+        return outputChannels;
+    }
+
+    @JsonProperty
+    public List<Integer> getJoinChannels()
+    {
+        return joinChannels;
+    }
+
+    @JsonProperty
+    public Optional<Integer> getSortChannel()
+    {
+        return sortChannel;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("lookupSource", lookupSource)
+                .add("types", types)
+                .add("outputChannels", outputChannels)
+                .add("joinChannels", joinChannels)
+                .add("sortChannel", sortChannel.orElse(null))
+                .toString();
+    }
+}
@@ -26,6 +26,7 @@ public class CompilerConfig
     private int expressionCacheSize = 10_000;
     private int leafNodeLimit = 10_000;
     private boolean leafNodeLimitEnabled;
+    private String joinCompilerCacheFile;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -66,4 +67,17 @@ public class CompilerConfig
         this.leafNodeLimitEnabled = enabled;
         return this;
     }
+
+    public String getJoinCompilerCacheFile()
+    {
+        return joinCompilerCacheFile;
+    }
+
+    @Config("compiler.join-compiler-cache-file")
+    @ConfigDescription("File where the keys of compiled join classes are stored on shutdown, to compile them again on startup")
+    public CompilerConfig setJoinCompilerCacheFile(String joinCompilerCacheFile)
+    {
+        this.joinCompilerCacheFile = joinCompilerCacheFile;
+        return this;
+    }
 }
@@ -14,28 +14,35 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.operator.DynamicFilterBloomFilter;
 import com.facebook.presto.spi.plan.FilterNode;
 import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.TableScanNode;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
 import com.facebook.presto.sql.planner.plan.AbstractJoinNode;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
@@ -52,12 +59,22 @@ public class LocalDynamicFilter
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
 
+    private final SettableFuture<Map<VariableReferenceExpression, DynamicFilterBloomFilter>> bloomFilterResultFuture;
+
     // Number of build-side partitions to be collected.
     private final int partitionCount;
 
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<String>> partitions;
 
+    // Bloom filters of the build-side partitions whose exact predicate became too large, merged per dynamic filter ID.
+    @GuardedBy("this")
+    private final Map<String, DynamicFilterBloomFilter> bloomFilters = new HashMap<>();
+
+    // Number of build-side partitions which provided a Bloom filter, per dynamic filter ID.
+    @GuardedBy("this")
+    private final Map<String, Integer> bloomFilterPartitionCounts = new HashMap<>();
+
     public LocalDynamicFilter(Multimap<String, DynamicFilterPlaceholder> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
     {
         this.probeVariables = requireNonNull(probeVariables, "probeVariables is null");
@@ -65,6 +82,7 @@ public class LocalDynamicFilter
         verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
@@ -79,11 +97,79 @@ public class LocalDynamicFilter
         partitions.add(tupleDomain);
         if (partitions.size() == partitionCount) {
             // No more partitions are left to be processed.
+            // Bloom filters are provided first, so that they are available once the predicate is.
+            verify(bloomFilterResultFuture.set(mergeBloomFilters()), "dynamic filter Bloom filters are provided more than once");
             TupleDomain<VariableReferenceExpression> result = convertTupleDomain(TupleDomain.columnWiseUnion(partitions));
             verify(resultFuture.set(result), "dynamic filter result is provided more than once");
         }
     }
 
+    private synchronized void addBloomFilters(Map<String, DynamicFilterBloomFilter> partitionBloomFilters)
+    {
+        // Called by a DynamicFilterSourceOperator instance right before it calls addPartition.
+        verify(partitions.size() < partitionCount);
+        for (Map.Entry<String, DynamicFilterBloomFilter> entry : partitionBloomFilters.entrySet()) {
+            bloomFilters.merge(entry.getKey(), entry.getValue(), (merged, bloomFilter) -> {
+                merged.merge(bloomFilter);
+                return merged;
+            });
+            bloomFilterPartitionCounts.merge(entry.getKey(), 1, Integer::sum);
+        }
+    }
+
+    @GuardedBy("this")
+    private Map<VariableReferenceExpression, DynamicFilterBloomFilter> mergeBloomFilters()
+    {
+        Map<VariableReferenceExpression, DynamicFilterBloomFilter> result = new HashMap<>();
+        for (Map.Entry<String, DynamicFilterBloomFilter> entry : bloomFilters.entrySet()) {
+            String filterId = entry.getKey();
+            DynamicFilterBloomFilter bloomFilter = entry.getValue();
+            // Partitions which did not overflow provided their exact values instead of a Bloom filter.
+            int nonDiscretePartitions = 0;
+            for (TupleDomain<String> partition : partitions) {
+                if (partition.isNone()) {
+                    continue;
+                }
+                Domain domain = partition.getDomains().get().get(filterId);
+                Optional<List<Object>> values = domain == null ? Optional.empty() : getDiscreteValues(domain);
+                if (values.isPresent()) {
+                    values.get().forEach(bloomFilter::addNativeValue);
+                }
+                else {
+                    nonDiscretePartitions++;
+                }
+            }
+            if (nonDiscretePartitions > bloomFilterPartitionCounts.get(filterId)) {
+                // some partition provided neither its values nor a Bloom filter
+                continue;
+            }
+            for (DynamicFilterPlaceholder placeholder : probeVariables.get(filterId)) {
+                if (placeholder.getOperator() == EQUAL) {
+                    result.putIfAbsent((VariableReferenceExpression) placeholder.getInput(), bloomFilter);
+                }
+            }
+        }
+        bloomFilters.clear();
+        return ImmutableMap.copyOf(result);
+    }
+
+    private static Optional<List<Object>> getDiscreteValues(Domain domain)
+    {
+        return domain.getValues().getValuesProcessor().transform(
+                ranges -> {
+                    ImmutableList.Builder<Object> values = ImmutableList.builder();
+                    for (Range range : ranges.getOrderedRanges()) {
+                        if (!range.isSingleValue()) {
+                            return Optional.empty();
+                        }
+                        values.add(range.getSingleValue());
+                    }
+                    return Optional.of(values.build());
+                },
+                discreteValues -> discreteValues.isWhiteList() ? Optional.of(ImmutableList.copyOf(discreteValues.getValues())) : Optional.empty(),
+                allOrNone -> allOrNone.isAll() ? Optional.empty() : Optional.of(ImmutableList.of()));
+    }
+
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
     {
         if (result.isNone()) {
@@ -167,6 +253,20 @@ public class LocalDynamicFilter
         return this::addPartition;
     }
 
+    /**
+     * Bloom filters of the probe variables, available when the result predicate is.
+     * A probe variable has a Bloom filter only if the predicate of some build-side partition became too large.
+     */
+    public ListenableFuture<Map<VariableReferenceExpression, DynamicFilterBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
+    public Consumer<Map<String, DynamicFilterBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilters;
+    }
+
     @Override
     public String toString()
     {
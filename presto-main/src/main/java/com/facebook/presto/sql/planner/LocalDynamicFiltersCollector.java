@@ -14,11 +14,16 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.operator.DynamicFilterBloomFilter;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableMap;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @ThreadSafe
 public class LocalDynamicFiltersCollector
 {
@@ -29,6 +34,12 @@ public class LocalDynamicFiltersCollector
     @GuardedBy ("this")
     private TupleDomain<VariableReferenceExpression> predicate;
 
+    /**
+     * Bloom filters of the dynamic filters whose build side was too large for an exact predicate.
+     */
+    @GuardedBy ("this")
+    private final Map<VariableReferenceExpression, DynamicFilterBloomFilter> bloomFilters = new HashMap<>();
+
     public LocalDynamicFiltersCollector()
     {
         this.predicate = TupleDomain.all();
@@ -43,4 +54,26 @@ public class LocalDynamicFiltersCollector
     {
         this.predicate = this.predicate.intersect(predicate);
     }
+
+    public synchronized Map<VariableReferenceExpression, DynamicFilterBloomFilter> getBloomFilters()
+    {
+        return ImmutableMap.copyOf(bloomFilters);
+    }
+
+    public synchronized void intersectBloomFilters(Map<VariableReferenceExpression, DynamicFilterBloomFilter> bloomFilters)
+    {
+        // The stored filters are never modified, since they may be used by table scans concurrently.
+        for (Map.Entry<VariableReferenceExpression, DynamicFilterBloomFilter> entry : bloomFilters.entrySet()) {
+            DynamicFilterBloomFilter existing = this.bloomFilters.get(entry.getKey());
+            if (existing == null) {
+                this.bloomFilters.put(entry.getKey(), entry.getValue().copy());
+            }
+            else if (existing.isCompatible(entry.getValue())) {
+                DynamicFilterBloomFilter intersection = existing.copy();
+                intersection.intersect(entry.getValue());
+                this.bloomFilters.put(entry.getKey(), intersection);
+            }
+            // otherwise keep the existing filter, which is less selective but still correct
+        }
+    }
 }
@@ -55,6 +55,7 @@ import com.facebook.presto.operator.AssignUniqueIdOperator;
 import com.facebook.presto.operator.DeleteOperator.DeleteOperatorFactory;
 import com.facebook.presto.operator.DevNullOperator.DevNullOperatorFactory;
 import com.facebook.presto.operator.DriverFactory;
+import com.facebook.presto.operator.DynamicFilterBloomFilter;
 import com.facebook.presto.operator.DynamicFilterSourceOperator;
 import com.facebook.presto.operator.EnforceSingleRowOperator;
 import com.facebook.presto.operator.ExplainAnalyzeOperator.ExplainAnalyzeOperatorFactory;
@@ -82,6 +83,7 @@ import com.facebook.presto.operator.OutputFactory;
 import com.facebook.presto.operator.PageSinkCommitStrategy;
 import com.facebook.presto.operator.PagesIndex;
 import com.facebook.presto.operator.PagesSpatialIndexFactory;
+import com.facebook.presto.operator.PartialAggregationController;
 import com.facebook.presto.operator.PartitionFunction;
 import com.facebook.presto.operator.PartitionedLookupSourceFactory;
 import com.facebook.presto.operator.PipelineExecutionStrategy;
@@ -231,6 +233,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -245,16 +248,21 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static com.facebook.presto.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static com.facebook.presto.SystemSessionProperties.getIndexLoaderTimeout;
+import static com.facebook.presto.SystemSessionProperties.getJoinSpillSubpartitionCount;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskPartitionedWriterCount;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static com.facebook.presto.SystemSessionProperties.isAggregationSpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isDistinctAggregationSpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isEnableDynamicFiltering;
@@ -266,6 +274,7 @@ import static com.facebook.presto.SystemSessionProperties.isOptimizedRepartition
 import static com.facebook.presto.SystemSessionProperties.isOrderByAggregationSpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isOrderBySpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isQuickDistinctLimitEnabled;
+import static com.facebook.presto.SystemSessionProperties.isSkipFilterAndProjectOutputMergingForPartialAggregation;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isWindowSpillEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -900,6 +909,8 @@ public class LocalExecutionPlanner
         private final boolean pageSinkCommitRequired;
         private final PlanFragment fragment;
         private final List<CustomPlanTranslator> customPlanTranslators;
+        // filter and project nodes whose output is consumed directly by a partial aggregation
+        private final Set<PlanNodeId> partialAggregationSources = new HashSet<>();
 
         private Visitor(
                 Session session,
@@ -1315,6 +1326,9 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitAggregation(AggregationNode node, LocalExecutionPlanContext context)
         {
+            if (node.getStep() == PARTIAL && isSkipFilterAndProjectOutputMergingForPartialAggregation(session)) {
+                partialAggregationSources.add(node.getSource().getId());
+            }
             PhysicalOperation source = node.getSource().accept(this, context);
 
             if (node.getGroupingKeys().isEmpty()) {
@@ -1384,8 +1398,23 @@ public class LocalExecutionPlanner
             return visitScanFilterAndProject(context, node.getId(), sourceNode, filterExpression, node.getAssignments(), node.getOutputVariables(), node.getLocality());
         }
 
-        private int getFilterProjectMinRowCount(PlanNode projectSource)
+        private DataSize getFilterProjectMinOutputPageSize(PlanNodeId planNodeId)
+        {
+            // A partial aggregation hashes its input pages as they arrive, so merging small pages into larger ones before
+            // the aggregation only copies positions into blocks which are discarded right after they are hashed
+            if (partialAggregationSources.contains(planNodeId)) {
+                return new DataSize(0, BYTE);
+            }
+
+            return getFilterAndProjectMinOutputPageSize(session);
+        }
+
+        private int getFilterProjectMinRowCount(PlanNodeId planNodeId, PlanNode projectSource)
         {
+            if (partialAggregationSources.contains(planNodeId)) {
+                return 0;
+            }
+
             // For final DistinctLimit, this project simply drops the hash variable so for better user experience, we set the limit to 1 so that results are shown quicker
             if (isQuickDistinctLimitEnabled(session) && projectSource instanceof DistinctLimitNode && !((DistinctLimitNode) projectSource).isPartial()) {
                 return 1;
@@ -1463,6 +1492,7 @@ public class LocalExecutionPlanner
 
             Optional<List<DynamicFilterPlaceholder>> dynamicFilters = extractDynamicFilterResult.map(DynamicFilterExtractResult::getDynamicConjuncts);
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier = Optional.empty();
+            Optional<Supplier<Map<Integer, DynamicFilterBloomFilter>>> dynamicFilterBloomFilterSupplier = Optional.empty();
             if (dynamicFilters.isPresent() && !dynamicFilters.get().isEmpty() && sourceNode instanceof TableScanNode) {
                 TableScanNode tableScanNode = (TableScanNode) sourceNode;
                 LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
@@ -1470,6 +1500,17 @@ public class LocalExecutionPlanner
                     TupleDomain<VariableReferenceExpression> predicate = collector.getPredicate();
                     return predicate.transform(tableScanNode.getAssignments()::get);
                 });
+                Map<VariableReferenceExpression, Integer> scanLayout = ImmutableMap.copyOf(sourceLayout);
+                dynamicFilterBloomFilterSupplier = Optional.of(() -> {
+                    ImmutableMap.Builder<Integer, DynamicFilterBloomFilter> bloomFilters = ImmutableMap.builder();
+                    collector.getBloomFilters().forEach((variable, bloomFilter) -> {
+                        Integer channel = scanLayout.get(variable);
+                        if (channel != null && variable.getType().equals(bloomFilter.getType())) {
+                            bloomFilters.put(channel, bloomFilter);
+                        }
+                    });
+                    return bloomFilters.build();
+                });
             }
 
             // compiler uses inputs instead of variables, so rewrite the expressions first
@@ -1506,8 +1547,9 @@ public class LocalExecutionPlanner
                             columns,
                             projections.stream().map(RowExpression::getType).collect(toImmutableList()),
                             dynamicFilterSupplier,
-                            getFilterAndProjectMinOutputPageSize(session),
-                            getFilterAndProjectMinOutputPageRowCount(session));
+                            dynamicFilterBloomFilterSupplier,
+                            getFilterProjectMinOutputPageSize(planNodeId),
+                            getFilterProjectMinRowCount(planNodeId, sourceNode));
 
                     return new PhysicalOperation(operatorFactory, outputMappings, context, stageExecutionDescriptor.isScanGroupedExecution(sourceNode.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
@@ -1525,8 +1567,8 @@ public class LocalExecutionPlanner
                             planNodeId,
                             pageProcessor,
                             projections.stream().map(RowExpression::getType).collect(toImmutableList()),
-                            getFilterAndProjectMinOutputPageSize(session),
-                            getFilterProjectMinRowCount(sourceNode));
+                            getFilterProjectMinOutputPageSize(planNodeId),
+                            getFilterProjectMinRowCount(planNodeId, sourceNode));
 
                     return new PhysicalOperation(operatorFactory, outputMappings, context, source);
                 }
@@ -2345,6 +2387,7 @@ public class LocalExecutionPlanner
                     .collect(toImmutableList());
             boolean buildOuter = node.getType() == RIGHT || node.getType() == FULL;
             int partitionCount = buildContext.getDriverInstanceCount().orElse(1);
+            int spillSubpartitionCount = spillEnabled ? getJoinSpillSubpartitionCount(session) : 1;
             JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager = new JoinBridgeManager<>(
                     buildOuter,
                     probeSource.getPipelineExecutionStrategy(),
@@ -2357,7 +2400,8 @@ public class LocalExecutionPlanner
                                     .collect(toImmutableList()),
                             partitionCount,
                             buildSource.getLayout(),
-                            buildOuter),
+                            buildOuter,
+                            spillSubpartitionCount),
                     buildOutputTypes);
 
             ImmutableList.Builder<OperatorFactory> factoriesBuilder = new ImmutableList.Builder<>();
@@ -2420,7 +2464,9 @@ public class LocalExecutionPlanner
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
                     getDynamicFilteringMaxPerDriverSize(context.getSession()),
-                    getDynamicFilteringRangeRowLimitPerDriver(context.getSession()));
+                    getDynamicFilteringRangeRowLimitPerDriver(context.getSession()),
+                    Optional.of(getDynamicFilteringBloomFilterSize(context.getSession())).filter(size -> size.toBytes() > 0),
+                    dynamicFilter.getBloomFilterConsumer());
         }
 
         private Optional<LocalDynamicFilter> createDynamicFilter(PhysicalOperation buildSource, AbstractJoinNode node, LocalExecutionPlanContext context, int partitionCount)
@@ -2440,6 +2486,7 @@ public class LocalExecutionPlanner
                     .map(filter -> {
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::intersectBloomFilters);
                         addSuccessCallback(filter.getResultFuture(), collector::intersect);
                         return filter;
                     });
@@ -3253,6 +3300,13 @@ public class LocalExecutionPlanner
             else {
                 Optional<Integer> hashChannel = hashVariable.map(variableChannelGetter(source));
                 List<Integer> preGroupedChannels = getChannelsForVariables(preGroupedVariables, source.getLayout());
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                // partial aggregation flushes only when it reaches its memory limit, which is when the reduction ratio is evaluated
+                if (step == Step.PARTIAL && maxPartialAggregationMemorySize.isPresent() && preGroupedChannels.isEmpty() && isAdaptivePartialAggregationEnabled(context.getSession())) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(context.getSession()),
+                            getAdaptivePartialAggregationMinRows(context.getSession())));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -3271,7 +3325,8 @@ public class LocalExecutionPlanner
                         unspillMemoryLimit,
                         spillerFactory,
                         joinCompiler,
-                        useSystemMemory);
+                        useSystemMemory,
+                        partialAggregationController);
             }
         }
 
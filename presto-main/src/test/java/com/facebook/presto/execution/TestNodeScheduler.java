@@ -762,6 +762,56 @@ public class TestNodeScheduler
         assertEquals(splitPlacementResult.getAssignments().get(node4).stream().map(Split::getConnectorSplit).map(ConnectorSplit::getSplitIdentifier).collect(toImmutableSet()), ImmutableSet.of(5, 6, 8));
     }
 
+    @Test
+    public void testLoadAwareSoftAffinityAssignment()
+    {
+        TestingTransactionHandle transactionHandle = TestingTransactionHandle.create();
+        InternalNode primaryNode = new InternalNode("other1", URI.create("http://127.0.0.1:11"), NodeVersion.UNKNOWN, false);
+        InternalNode secondaryNode = new InternalNode("other2", URI.create("http://127.0.0.1:12"), NodeVersion.UNKNOWN, false);
+        List<HostAddress> preferredNodes = ImmutableList.of(primaryNode.getHostAndPort(), secondaryNode.getHostAndPort());
+
+        // queue splits on the primary node, which can still accept more splits
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 10; i++) {
+            initialSplits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote()));
+        }
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor, remoteTaskScheduledExecutor);
+        TaskId taskId = new TaskId("test", 1, 0, 1);
+        RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(taskId, primaryNode, initialSplits.build(), nodeTaskMap.createTaskStatsTracker(primaryNode, taskId));
+        nodeTaskMap.addTask(primaryNode, remoteTask);
+
+        Set<Split> splits = ImmutableSet.of(new Split(CONNECTOR_ID, transactionHandle, new TestSoftAffinitySplitRemote(preferredNodes)));
+
+        // the primary node is chosen as long as it is not overloaded
+        Multimap<InternalNode, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.keySet(), ImmutableSet.of(primaryNode));
+
+        // the secondary node is chosen when the primary node has much more splits queued
+        NodeSelectionStats nodeSelectionStats = new NodeSelectionStats();
+        NodeScheduler nodeScheduler = new NodeScheduler(
+                new LegacyNetworkTopology(),
+                nodeManager,
+                nodeSelectionStats,
+                new NodeSchedulerConfig()
+                        .setMaxSplitsPerNode(20)
+                        .setIncludeCoordinator(false)
+                        .setMaxPendingSplitsPerTask(10)
+                        .setLoadAwareSoftAffinityEnabled(true),
+                nodeTaskMap,
+                new ThrowingNodeTtlFetcherManager(),
+                new NoOpQueryManager(),
+                new SimpleTtlNodeSelectorConfig());
+        NodeSelector nodeSelector = nodeScheduler.createNodeSelector(session, CONNECTOR_ID);
+        assignments = nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.keySet(), ImmutableSet.of(secondaryNode));
+        assertTrue(Iterables.getOnlyElement(assignments.values()).getSplitContext().isCacheable());
+        assertEquals(nodeSelectionStats.getLoadBalancedPreferredNodeSelectedCount().getTotalCount(), 1);
+        assertEquals(nodeSelectionStats.getNonPrimaryPreferredNodeSelectedCount().getTotalCount(), 1);
+        assertEquals(nodeSelectionStats.getPreferredNodeSelectedRate(), 1.0);
+
+        remoteTask.abort();
+    }
+
     @Test
     public void testHardAffinityAssignment()
     {
@@ -1376,6 +1426,30 @@ public class TestNodeScheduler
         }
     }
 
+    private static class TestSoftAffinitySplitRemote
+            extends TestSplitRemote
+    {
+        private final List<HostAddress> preferredNodes;
+
+        public TestSoftAffinitySplitRemote(List<HostAddress> preferredNodes)
+        {
+            super();
+            this.preferredNodes = ImmutableList.copyOf(requireNonNull(preferredNodes, "preferredNodes is null"));
+        }
+
+        @Override
+        public NodeSelectionStrategy getNodeSelectionStrategy()
+        {
+            return NodeSelectionStrategy.SOFT_AFFINITY;
+        }
+
+        @Override
+        public List<HostAddress> getPreferredNodes(NodeProvider nodeProvider)
+        {
+            return preferredNodes;
+        }
+    }
+
     private static class TestHardAffinitySplitRemote
             extends TestSplitRemote
     {
@@ -40,6 +40,7 @@ public class TestNodeSchedulerConfig
                 .setIncludeCoordinator(true)
                 .setNodeSelectionHashStrategy(MODULAR_HASHING)
                 .setMinVirtualNodeCount(1000)
+                .setLoadAwareSoftAffinityEnabled(false)
                 .setResourceAwareSchedulingStrategy(RANDOM));
     }
 
@@ -55,6 +56,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.node-selection-hash-strategy", "CONSISTENT_HASHING")
                 .put("node-scheduler.consistent-hashing-min-virtual-node-count", "2000")
+                .put("node-scheduler.load-aware-soft-affinity-enabled", "true")
                 .put("experimental.resource-aware-scheduling-strategy", "TTL")
                 .build();
 
@@ -67,6 +69,7 @@ public class TestNodeSchedulerConfig
                 .setMinCandidates(11)
                 .setNodeSelectionHashStrategy(CONSISTENT_HASHING)
                 .setMinVirtualNodeCount(2000)
+                .setLoadAwareSoftAffinityEnabled(true)
                 .setResourceAwareSchedulingStrategy(TTL);
 
         ConfigAssertions.assertFullMapping(properties, expected);
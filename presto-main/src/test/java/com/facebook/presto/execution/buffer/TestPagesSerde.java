@@ -18,11 +18,17 @@ import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
@@ -32,10 +38,13 @@ import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readPages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writePages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPages;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class TestPagesSerde
 {
@@ -63,6 +72,38 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testStreamRoundTrip()
+            throws IOException
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 100);
+        LongStream.range(0, 100).forEach(value -> BIGINT.writeLong(blockBuilder, value));
+        List<SerializedPage> pages = ImmutableList.of(
+                serde.serialize(new Page(blockBuilder.build())),
+                serde.serialize(new Page(BIGINT.createBlockBuilder(null, 0).build())),
+                serde.serialize(new Page(blockBuilder.build().getRegion(10, 20))));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeSerializedPages(output, pages);
+        byte[] bytes = output.toByteArray();
+
+        // the stream format is the same as the slice format
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writeSerializedPages(sliceOutput, pages);
+        assertEquals(bytes, sliceOutput.slice().getBytes());
+
+        assertEquals(ImmutableList.copyOf(readSerializedPages(new ByteArrayInputStream(bytes))), pages);
+        assertEquals(ImmutableList.copyOf(readSerializedPages(sliceOutput.slice().getInput())), pages);
+
+        try {
+            ImmutableList.copyOf(readSerializedPages(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1))));
+            fail("expected exception");
+        }
+        catch (UncheckedIOException expected) {
+        }
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
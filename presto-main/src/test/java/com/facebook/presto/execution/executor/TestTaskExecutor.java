@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.execution.executor;
 
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
 import com.facebook.airlift.testing.TestingTicker;
 import com.facebook.presto.execution.SplitRunner;
 import com.facebook.presto.execution.TaskId;
@@ -41,12 +43,14 @@ import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracki
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
+import static com.facebook.presto.execution.executor.MultilevelSplitQueue.MAX_CONSECUTIVE_LOCAL_SPLITS;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -376,6 +380,120 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testLocalSplitQueues()
+            throws Exception
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 1);
+        TestingTicker ticker = new TestingTicker();
+        TaskHandle handle = new TaskHandle(new TaskId("test", 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        PrioritizedSplitRunner split0 = createSplitRunner(handle, ticker);
+        PrioritizedSplitRunner split1 = createSplitRunner(handle, ticker);
+        PrioritizedSplitRunner split2 = createSplitRunner(handle, ticker);
+        MultilevelSplitQueue.LocalQueue runner0 = splitQueue.createLocalQueue();
+        MultilevelSplitQueue.LocalQueue runner1 = splitQueue.createLocalQueue();
+
+        // while no runner is idle, splits stay in the local queue of their runner, up to its capacity
+        splitQueue.offer(split0, runner0);
+        splitQueue.offer(split1, runner0);
+        assertEquals(runner0.size(), 1);
+        assertEquals(splitQueue.size(), 2);
+
+        assertSame(splitQueue.take(runner0), split0);
+        assertEquals(splitQueue.getLocalQueueSelectedCount().getTotalCount(), 1);
+
+        // another runner takes the shared split first, and then steals from the local queue of the first runner
+        splitQueue.offer(split2, runner0);
+        assertSame(splitQueue.take(runner1), split1);
+        assertSame(splitQueue.take(runner1), split2);
+        assertEquals(splitQueue.getStolenSplitCount().getTotalCount(), 1);
+        assertEquals(splitQueue.size(), 0);
+
+        // splits left in the local queue of an exiting runner are moved to the shared queue
+        splitQueue.offer(split0, runner1);
+        splitQueue.releaseLocalQueue(runner1);
+        assertEquals(runner1.size(), 0);
+        assertSame(splitQueue.take(), split0);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testLocalSplitQueuesDoNotStarveSharedSplits()
+            throws Exception
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 1);
+        TestingTicker ticker = new TestingTicker();
+        TaskHandle busyHandle = new TaskHandle(new TaskId("busy", 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle waitingHandle = new TaskHandle(new TaskId("waiting", 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        busyHandle.addScheduledNanos(MILLISECONDS.toNanos(500));
+        PrioritizedSplitRunner busySplit = createSplitRunner(busyHandle, ticker);
+        busySplit.updateLevelPriority();
+        PrioritizedSplitRunner waitingSplit = createSplitRunner(waitingHandle, ticker);
+        MultilevelSplitQueue.LocalQueue runner = splitQueue.createLocalQueue();
+
+        // a shared split of the same level with a better priority is taken before the local split
+        splitQueue.offer(waitingSplit);
+        splitQueue.offer(busySplit, runner);
+        assertSame(splitQueue.take(runner), waitingSplit);
+        assertSame(splitQueue.take(runner), busySplit);
+
+        // a local split with the same priority as the shared split is only taken a limited number of times in a row
+        PrioritizedSplitRunner sharedSplit = createSplitRunner(busyHandle, ticker);
+        sharedSplit.updateLevelPriority();
+        splitQueue.offer(sharedSplit);
+        // busySplit was just taken from the local queue
+        int localSplits = 1;
+        while (true) {
+            splitQueue.offer(busySplit, runner);
+            PrioritizedSplitRunner split = splitQueue.take(runner);
+            if (split == sharedSplit) {
+                break;
+            }
+            assertSame(split, busySplit);
+            localSplits++;
+            assertLessThan(localSplits, MAX_CONSECUTIVE_LOCAL_SPLITS + 1);
+        }
+        assertEquals(localSplits, MAX_CONSECUTIVE_LOCAL_SPLITS);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testLocalSplitQueuesWithTaskExecutor()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 8, TASK_FAIR, new MultilevelSplitQueue(2, 2), ticker);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            ImmutableList.Builder<TestingJob> jobs = ImmutableList.builder();
+            for (int i = 0; i < 8; i++) {
+                jobs.add(new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 20, 0));
+            }
+            taskExecutor.enqueueSplits(taskHandle, false, jobs.build());
+
+            // every split is run until completion, whether it is re-queued in a local queue or in the shared queue
+            for (TestingJob job : jobs.build()) {
+                job.getCompletedFuture().get();
+                assertEquals(job.getCompletedPhases(), 20);
+            }
+            assertEquals(taskExecutor.getWaitingSplits(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle handle, TestingTicker ticker)
+    {
+        return new PrioritizedSplitRunner(
+                handle,
+                new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
@@ -0,0 +1,288 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.operator.FilterAndProjectOperator.FilterAndProjectOperatorFactory;
+import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOperatorFactory;
+import com.facebook.presto.operator.project.PageProcessor;
+import com.facebook.presto.spi.function.JavaAggregationFunctionImplementation;
+import com.facebook.presto.spi.plan.AggregationNode;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.gen.ExpressionCompiler;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.facebook.presto.sql.gen.PageFunctionCompiler;
+import com.facebook.presto.testing.TestingTaskContext;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.function.OperatorType.ADD;
+import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures a filter and project operator feeding a partial aggregation, with and without merging
+ * the small output pages of the filter and project operator, as planned with
+ * {@code skip_filter_and_project_output_merging_for_partial_aggregation}.
+ */
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkFilterAndProjectPartialAggregation
+{
+    private static final int TOTAL_PAGES = 100;
+    private static final int ROWS_PER_PAGE = 10_000;
+    private static final int GROUP_COUNT = 1_000;
+
+    private static final MetadataManager METADATA = MetadataManager.createTestMetadataManager();
+    private static final FunctionAndTypeManager FUNCTION_AND_TYPE_MANAGER = METADATA.getFunctionAndTypeManager();
+    private static final JavaAggregationFunctionImplementation LONG_SUM = FUNCTION_AND_TYPE_MANAGER.getJavaAggregateFunctionImplementation(
+            FUNCTION_AND_TYPE_MANAGER.lookupFunction("sum", fromTypes(BIGINT)));
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"1", "10", "50", "100"})
+        public int selectivityPercent = 10;
+
+        @Param({"true", "false"})
+        public boolean mergeOutput = true;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory filterAndProjectOperatorFactory;
+        private OperatorFactory aggregationOperatorFactory;
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            // channel 0 is the group key, channel 1 the filtered value, and channel 2 the summed value;
+            // the group key changes every 100 rows, so every group has rows selected by the filter
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int page = 0; page < TOTAL_PAGES; page++) {
+                BlockBuilder groupKeys = BIGINT.createBlockBuilder(null, ROWS_PER_PAGE);
+                BlockBuilder filterValues = BIGINT.createBlockBuilder(null, ROWS_PER_PAGE);
+                BlockBuilder values = BIGINT.createBlockBuilder(null, ROWS_PER_PAGE);
+                for (int position = 0; position < ROWS_PER_PAGE; position++) {
+                    long row = (long) page * ROWS_PER_PAGE + position;
+                    BIGINT.writeLong(groupKeys, (row / 100) % GROUP_COUNT);
+                    BIGINT.writeLong(filterValues, row % 100);
+                    BIGINT.writeLong(values, row);
+                }
+                pages.add(new Page(groupKeys.build(), filterValues.build(), values.build()));
+            }
+            this.pages = pages.build();
+
+            filterAndProjectOperatorFactory = createFilterAndProjectOperatorFactory();
+            aggregationOperatorFactory = createPartialAggregationOperatorFactory();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        private OperatorFactory createFilterAndProjectOperatorFactory()
+        {
+            RowExpression filter = call(
+                    LESS_THAN.name(),
+                    FUNCTION_AND_TYPE_MANAGER.resolveOperator(LESS_THAN, fromTypes(BIGINT, BIGINT)),
+                    BOOLEAN,
+                    field(1, BIGINT),
+                    constant((long) selectivityPercent, BIGINT));
+            RowExpression add = call(
+                    ADD.name(),
+                    FUNCTION_AND_TYPE_MANAGER.resolveOperator(ADD, fromTypes(BIGINT, BIGINT)),
+                    BIGINT,
+                    field(2, BIGINT),
+                    constant(5L, BIGINT));
+
+            ExpressionCompiler compiler = new ExpressionCompiler(METADATA, new PageFunctionCompiler(METADATA, 0));
+            Supplier<PageProcessor> processor = compiler.compilePageProcessor(TEST_SESSION.getSqlFunctionProperties(), Optional.of(filter), ImmutableList.of(field(0, BIGINT), add));
+
+            // the planner uses the session defaults when merging, and zero otherwise
+            return new FilterAndProjectOperatorFactory(
+                    0,
+                    new PlanNodeId("filterAndProject"),
+                    processor,
+                    ImmutableList.of(BIGINT, BIGINT),
+                    mergeOutput ? new DataSize(500, KILOBYTE) : new DataSize(0, BYTE),
+                    mergeOutput ? 256 : 0);
+        }
+
+        private OperatorFactory createPartialAggregationOperatorFactory()
+        {
+            return new HashAggregationOperatorFactory(
+                    1,
+                    new PlanNodeId("aggregation"),
+                    ImmutableList.of(BIGINT),
+                    ImmutableList.of(0),
+                    ImmutableList.of(),
+                    ImmutableList.of(),
+                    AggregationNode.Step.PARTIAL,
+                    ImmutableList.of(generateAccumulatorFactory(LONG_SUM, ImmutableList.of(1), Optional.empty())),
+                    Optional.empty(),
+                    Optional.empty(),
+                    GROUP_COUNT,
+                    Optional.of(new DataSize(16, MEGABYTE)),
+                    new JoinCompiler(METADATA, new FeaturesConfig()),
+                    false);
+        }
+
+        public DriverContext createDriverContext()
+        {
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE))
+                    .addPipelineContext(0, true, true, false)
+                    .addDriverContext();
+        }
+    }
+
+    @Benchmark
+    public List<Page> benchmark(Context context)
+    {
+        DriverContext driverContext = context.createDriverContext();
+        Operator filterAndProject = context.filterAndProjectOperatorFactory.createOperator(driverContext);
+        Operator aggregation = context.aggregationOperatorFactory.createOperator(driverContext);
+
+        ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
+        for (Page page : context.pages) {
+            while (!filterAndProject.needsInput()) {
+                transferPage(filterAndProject, aggregation, outputPages);
+            }
+            filterAndProject.addInput(page);
+            transferPage(filterAndProject, aggregation, outputPages);
+        }
+
+        filterAndProject.finish();
+        while (!filterAndProject.isFinished()) {
+            transferPage(filterAndProject, aggregation, outputPages);
+        }
+
+        aggregation.finish();
+        while (!aggregation.isFinished()) {
+            addOutput(aggregation, outputPages);
+        }
+        return outputPages.build();
+    }
+
+    private static void transferPage(Operator filterAndProject, Operator aggregation, ImmutableList.Builder<Page> outputPages)
+    {
+        Page page = filterAndProject.getOutput();
+        if (page == null) {
+            return;
+        }
+        while (!aggregation.needsInput()) {
+            addOutput(aggregation, outputPages);
+        }
+        aggregation.addInput(page);
+    }
+
+    private static void addOutput(Operator aggregation, ImmutableList.Builder<Page> outputPages)
+    {
+        Page page = aggregation.getOutput();
+        if (page != null) {
+            outputPages.add(page);
+        }
+    }
+
+    @Test
+    public void verify()
+    {
+        verify(1, true);
+        verify(1, false);
+        verify(50, true);
+        verify(50, false);
+    }
+
+    private void verify(int selectivityPercent, boolean mergeOutput)
+    {
+        Context context = new Context();
+        context.selectivityPercent = selectivityPercent;
+        context.mergeOutput = mergeOutput;
+        context.setup();
+        try {
+            List<Page> outputPages = benchmark(context);
+            assertEquals(outputPages.stream().mapToInt(Page::getPositionCount).sum(), GROUP_COUNT);
+        }
+        finally {
+            context.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkFilterAndProjectPartialAggregation.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.block.Block;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilterBloomFilter
+{
+    private static final DataSize SIZE = new DataSize(16, KILOBYTE);
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        Block block = createLongSequenceBlock(0, 10_000);
+        addAll(bloomFilter, block);
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(block, position));
+        }
+    }
+
+    @Test
+    public void testFalsePositives()
+    {
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        addAll(bloomFilter, createLongSequenceBlock(0, 10_000));
+
+        Block absent = createLongSequenceBlock(1_000_000, 1_100_000);
+        int falsePositives = 0;
+        for (int position = 0; position < absent.getPositionCount(); position++) {
+            if (bloomFilter.mightContain(absent, position)) {
+                falsePositives++;
+            }
+        }
+        // 128K bits with 10K values and 3 hash functions give a false positive rate of about 1%
+        assertTrue(falsePositives < absent.getPositionCount() / 20, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testNulls()
+    {
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        Block block = createLongsBlock(Arrays.asList(1L, null));
+        addAll(bloomFilter, block);
+        assertTrue(bloomFilter.mightContain(block, 0));
+        assertFalse(bloomFilter.mightContain(block, 1));
+    }
+
+    @Test
+    public void testAddNativeValue()
+    {
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(VARCHAR, SIZE);
+        bloomFilter.addNativeValue(utf8Slice("presto"));
+        Block block = createStringsBlock("presto", "trino");
+        assertTrue(bloomFilter.mightContain(block, 0));
+        assertFalse(bloomFilter.mightContain(block, 1));
+    }
+
+    @Test
+    public void testMergeAndIntersect()
+    {
+        Block block = createLongsBlock(1L, 2L, 3L);
+        DynamicFilterBloomFilter first = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        first.add(block, 0);
+        first.add(block, 1);
+        DynamicFilterBloomFilter second = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        second.add(block, 1);
+        second.add(block, 2);
+
+        DynamicFilterBloomFilter union = first.copy();
+        union.merge(second);
+        assertTrue(union.mightContain(block, 0));
+        assertTrue(union.mightContain(block, 1));
+        assertTrue(union.mightContain(block, 2));
+
+        DynamicFilterBloomFilter intersection = first.copy();
+        intersection.intersect(second);
+        assertFalse(intersection.mightContain(block, 0));
+        assertTrue(intersection.mightContain(block, 1));
+        assertFalse(intersection.mightContain(block, 2));
+
+        // copies are independent of the original filter
+        assertFalse(first.mightContain(block, 2));
+    }
+
+    @Test
+    public void testCompatibility()
+    {
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(BIGINT, SIZE);
+        assertTrue(bloomFilter.isCompatible(new DynamicFilterBloomFilter(BIGINT, SIZE)));
+        assertFalse(bloomFilter.isCompatible(new DynamicFilterBloomFilter(BIGINT, new DataSize(32, KILOBYTE))));
+        assertFalse(bloomFilter.isCompatible(new DynamicFilterBloomFilter(VARCHAR, SIZE)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Bloom filters are not compatible.*")
+    public void testMergeIncompatible()
+    {
+        new DynamicFilterBloomFilter(BIGINT, SIZE).merge(new DynamicFilterBloomFilter(VARCHAR, SIZE));
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(DynamicFilterBloomFilter.isSupportedType(BIGINT));
+        assertTrue(DynamicFilterBloomFilter.isSupportedType(VARCHAR));
+        assertFalse(DynamicFilterBloomFilter.isSupportedType(DOUBLE));
+    }
+
+    private static void addAll(DynamicFilterBloomFilter bloomFilter, Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.add(block, position);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -32,6 +33,8 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
@@ -69,6 +72,7 @@ import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -78,6 +82,7 @@ public class TestDynamicFilterSourceOperator
     private PipelineContext pipelineContext;
 
     private ImmutableList.Builder<TupleDomain<String>> partitions;
+    private ImmutableList.Builder<Map<String, DynamicFilterBloomFilter>> bloomFilters;
 
     @BeforeMethod
     public void setUp()
@@ -88,6 +93,7 @@ public class TestDynamicFilterSourceOperator
                 .addPipelineContext(0, true, true, false);
 
         partitions = ImmutableList.builder();
+        bloomFilters = ImmutableList.builder();
     }
 
     @AfterMethod(alwaysRun = true)
@@ -537,4 +543,59 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxPositionsCount + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        int maxPositionsCount = 100;
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT), channel(1, DOUBLE)),
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                0,
+                Optional.of(new DataSize(16, KILOBYTE)),
+                bloomFilters::add);
+        Page firstPage = new Page(createLongSequenceBlock(0, maxPositionsCount + 1), createDoubleSequenceBlock(0, maxPositionsCount + 1));
+        Page secondPage = new Page(createLongSequenceBlock(1000, 2000), createDoubleSequenceBlock(1000, 2000));
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT, DOUBLE), firstPage, secondPage);
+        operatorFactory.noMoreOperators();
+
+        // the predicate is only reported once the Bloom filters are complete
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        List<Map<String, DynamicFilterBloomFilter>> collected = bloomFilters.build();
+        assertEquals(collected.size(), 1);
+        // DOUBLE is not supported by Bloom filters
+        assertEquals(collected.get(0).keySet(), ImmutableSet.of("0"));
+        DynamicFilterBloomFilter bloomFilter = collected.get(0).get("0");
+        for (Page page : ImmutableList.of(firstPage, secondPage)) {
+            Block block = page.getBlock(0);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                assertTrue(bloomFilter.mightContain(block, position));
+            }
+        }
+    }
+
+    @Test
+    public void testNoBloomFilterWhenPredicateIsSmall()
+    {
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                ImmutableList.of(channel(0, BIGINT)),
+                100,
+                new DataSize(10, KILOBYTE),
+                1_000_000,
+                Optional.of(new DataSize(16, KILOBYTE)),
+                bloomFilters::add);
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT), new Page(createLongsBlock(1, 2, 3)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "0", Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L, 3L))))));
+        assertTrue(bloomFilters.build().isEmpty());
+    }
 }
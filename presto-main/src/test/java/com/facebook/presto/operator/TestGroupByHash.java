@@ -38,15 +38,20 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.block.BlockAssertions.createBooleansBlock;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.math.DoubleMath.log2;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -475,4 +480,83 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10);
         assertEquals(currentQuota.get() / 3, yields);
     }
+
+    @Test
+    public void testFixedWidthGroupByHash()
+    {
+        List<Type> types = ImmutableList.of(INTEGER, BIGINT, BOOLEAN);
+        List<Integer> intValues = new ArrayList<>();
+        List<Long> longValues = new ArrayList<>();
+        List<Boolean> booleanValues = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int key = i % 100;
+            intValues.add(key % 10 == 0 ? null : key);
+            longValues.add(key * 2L);
+            booleanValues.add(key % 2 == 0);
+        }
+        Block intBlock = createIntsBlock(intValues);
+        Block longBlock = createLongsBlock(longValues);
+        Block booleanBlock = createBooleansBlock(booleanValues);
+        Block hashBlock = getHashBlock(types, intBlock, longBlock, booleanBlock);
+        Page page = new Page(intBlock, longBlock, booleanBlock, hashBlock);
+        int[] hashChannels = {0, 1, 2};
+
+        GroupByHash groupByHash = createGroupByHash(types, hashChannels, Optional.of(3), 1, false, true, JOIN_COMPILER, UpdateMemory.NOOP);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+        assertEquals(groupByHash.getTypes(), ImmutableList.of(INTEGER, BIGINT, BOOLEAN, BIGINT));
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 100);
+        assertEquals(groupIds.getGroupCount(), 100);
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), position % 100);
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        Page outputPage = pageBuilder.build();
+        Page expectedPage = page.getRegion(0, 100);
+        BlockAssertions.assertBlockEquals(INTEGER, outputPage.getBlock(0), expectedPage.getBlock(0));
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(1), expectedPage.getBlock(1));
+        BlockAssertions.assertBlockEquals(BOOLEAN, outputPage.getBlock(2), expectedPage.getBlock(2));
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(3), expectedPage.getBlock(3));
+
+        // raw hashes must match the ones computed by the default implementation, as they are used for merging spilled pages
+        GroupByHash multiChannelGroupByHash = createGroupByHash(types, hashChannels, Optional.empty(), 1, false, false, JOIN_COMPILER, UpdateMemory.NOOP);
+        assertTrue(multiChannelGroupByHash instanceof MultiChannelGroupByHash);
+        multiChannelGroupByHash.addPage(page).process();
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            assertEquals(groupByHash.getRawHash(groupId), multiChannelGroupByHash.getRawHash(groupId));
+        }
+
+        Block testIntBlock = createIntsBlock(5);
+        Block testLongBlock = createLongsBlock(11L);
+        Block testBooleanBlock = createBooleansBlock(false);
+        Page testPage = new Page(testIntBlock, testLongBlock, testBooleanBlock, getHashBlock(types, testIntBlock, testLongBlock, testBooleanBlock));
+        assertFalse(groupByHash.contains(0, testPage, hashChannels));
+    }
+
+    @Test
+    public void testFixedWidthGroupByHashRehash()
+    {
+        int length = 100_000;
+        Block intBlock = createIntsBlock(IntStream.range(0, length).boxed().collect(toImmutableList()));
+        Block longBlock = createLongSequenceBlock(0, length);
+        Page page = new Page(intBlock, longBlock);
+        int[] hashChannels = {0, 1};
+
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(INTEGER, BIGINT), hashChannels, Optional.empty(), 1, false, true, JOIN_COMPILER, UpdateMemory.NOOP);
+        assertTrue(groupByHash.addPage(page).process());
+        assertEquals(groupByHash.getGroupCount(), length);
+        assertTrue(groupByHash.getCapacity() > length);
+        for (int position = 0; position < length; position++) {
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+    }
 }
@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.ByteArrayBlock;
@@ -61,6 +62,10 @@ import static com.facebook.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_AFTER_ROWS;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_COUNT;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_PASS_THROUGH_ROWS;
+import static com.facebook.presto.common.RuntimeMetricName.PARTIAL_AGGREGATION_UNIQUE_ROWS_PERCENT;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
@@ -92,6 +97,7 @@ import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -577,6 +583,107 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 0)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(0.8, 100);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(generateAccumulatorFactory(LONG_SUM, ImmutableList.of(0), Optional.empty()),
+                        generateAccumulatorFactory(COUNT, ImmutableList.of(), Optional.empty())),
+                rowPagesBuilder.getHashChannel(),
+                Optional.empty(),
+                100,
+                Optional.of(new DataSize(1, KILOBYTE)),
+                false,
+                new DataSize(16, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        DriverContext driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            if (hashEnabled) {
+                // Drop the hashChannel for all pages
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+            }
+
+            // first page is aggregated, it does not reduce the number of rows so the remaining pages are passed through
+            assertTrue(partialAggregationController.isPartialAggregationDisabled());
+            MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+            for (int i = 0; i < input.size(); i++) {
+                for (long value = 0; value < 500; value++) {
+                    expected.row(value, value, 1L);
+                }
+            }
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT, BIGINT, BIGINT), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+
+            RuntimeStats runtimeStats = operator.getOperatorContext().getRuntimeStats();
+            assertEquals(runtimeStats.getMetric(PARTIAL_AGGREGATION_PASS_THROUGH_COUNT).getSum(), 1);
+            assertEquals(runtimeStats.getMetric(PARTIAL_AGGREGATION_PASS_THROUGH_AFTER_ROWS).getSum(), 500);
+            assertEquals(runtimeStats.getMetric(PARTIAL_AGGREGATION_UNIQUE_ROWS_PERCENT).getSum(), 100);
+            assertEquals(runtimeStats.getMetric(PARTIAL_AGGREGATION_PASS_THROUGH_ROWS).getSum(), 1000);
+        }
+    }
+
+    @Test
+    public void testAdaptivePartialAggregationKeepsReducingAggregation()
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT);
+        for (int i = 0; i < 10; i++) {
+            rowPagesBuilder.addBlocksPage(RunLengthEncodedBlock.create(BIGINT, 1L, 500));
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(0.8, 100);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(generateAccumulatorFactory(COUNT, ImmutableList.of(), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100,
+                Optional.of(new DataSize(16, MEGABYTE)),
+                false,
+                new DataSize(16, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                .row(1L, 5000L)
+                .build();
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected);
+        assertEquals(partialAggregationController.getUniqueRowsRatio(), 1.0 / 5000);
+        assertFalse(partialAggregationController.isPartialAggregationDisabled());
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
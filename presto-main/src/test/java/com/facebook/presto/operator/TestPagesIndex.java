@@ -14,18 +14,30 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_FIRST;
+import static com.facebook.presto.common.block.SortOrder.DESC_NULLS_LAST;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -82,11 +94,59 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @Test
+    public void testColumnCompression()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+
+        PagesIndex pagesIndex = newPagesIndex(types, 100, false);
+        PagesIndex compressedPagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 100);
+        for (int i = 0; i < 5; i++) {
+            pagesIndex.addPage(repeatedValuesPage(i));
+            compressedPagesIndex.addPage(repeatedValuesPage(i));
+        }
+
+        pagesIndex.compact();
+        compressedPagesIndex.compact();
+        assertTrue(
+                compressedPagesIndex.getEstimatedSize().toBytes() < pagesIndex.getEstimatedSize().toBytes(),
+                "Expect compressedPagesIndex to retain less data than pagesIndex, because the pages used in the test have repeated values.");
+        assertTrue(compressedPagesIndex.getChannel(0).get(0) instanceof RunLengthEncodedBlock);
+        assertTrue(compressedPagesIndex.getChannel(1).get(0) instanceof DictionaryBlock);
+        // distinct values are not encoded
+        assertFalse(compressedPagesIndex.getChannel(2).get(0) instanceof DictionaryBlock);
+
+        // sorting and output operate on the encoded blocks
+        List<Integer> sortChannels = ImmutableList.of(1, 2);
+        List<SortOrder> sortOrders = ImmutableList.of(ASC_NULLS_FIRST, DESC_NULLS_LAST);
+        pagesIndex.sort(sortChannels, sortOrders);
+        compressedPagesIndex.sort(sortChannels, sortOrders);
+        Iterator<Page> expectedPages = pagesIndex.getSortedPages();
+        Iterator<Page> actualPages = compressedPagesIndex.getSortedPages();
+        while (expectedPages.hasNext()) {
+            assertTrue(actualPages.hasNext());
+            assertPageEquals(types, actualPages.next(), expectedPages.next());
+        }
+        assertFalse(actualPages.hasNext());
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
     }
 
+    private static Page repeatedValuesPage(int pageNumber)
+    {
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            strings.add(i % 3 == 0 ? null : "a long value repeated in the page " + (i % 4));
+        }
+        return new Page(
+                createLongRepeatBlock(pageNumber, 20),
+                createStringsBlock(strings),
+                createLongSequenceBlock(pageNumber * 20, (pageNumber + 1) * 20));
+    }
+
     private static Page somePage(List<Type> types)
     {
         int[] initialValues = new int[types.size()];
@@ -51,6 +51,7 @@ import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 
 import static com.facebook.airlift.testing.Assertions.assertContains;
+import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.operator.PipelineExecutionStrategy.GROUPED_EXECUTION;
 import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
@@ -69,6 +70,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -451,6 +453,53 @@ public class TestLocalExchange
         });
     }
 
+    @Test
+    public void testPartitionSinglePartitionPage()
+    {
+        LocalExchangeFactory localExchangeFactory = new LocalExchangeFactory(
+                partitioningProviderManager,
+                session,
+                FIXED_HASH_DISTRIBUTION,
+                2,
+                TYPES,
+                ImmutableList.of(0),
+                Optional.empty(),
+                UNGROUPED_EXECUTION,
+                LOCAL_EXCHANGE_MAX_BUFFERED_BYTES);
+        LocalExchangeSinkFactoryId localExchangeSinkFactoryId = localExchangeFactory.newSinkFactoryId();
+        localExchangeFactory.noMoreSinkFactories();
+
+        run(localExchangeFactory, UNGROUPED_EXECUTION, exchange -> {
+            LocalExchangeSinkFactory sinkFactory = exchange.getSinkFactory(localExchangeSinkFactoryId);
+            LocalExchangeSink sink = sinkFactory.createSink();
+            sinkFactory.close();
+            sinkFactory.noMoreSinkFactories();
+
+            LocalExchangeSource sourceA = exchange.getSource(0);
+            LocalExchangeSource sourceB = exchange.getSource(1);
+            assertFalse(sourceA.waitForReading().isDone());
+            assertFalse(sourceB.waitForReading().isDone());
+
+            // all rows of the page belong to the same partition, so the page is not copied
+            Page page = new Page(createLongRepeatBlock(42, 100));
+            sink.addPage(page);
+            LocalExchangeSource source = sourceA.getBufferInfo().getBufferedPages() == 1 ? sourceA : sourceB;
+            LocalExchangeSource otherSource = source == sourceA ? sourceB : sourceA;
+            assertSource(source, 1);
+            assertSource(otherSource, 0);
+            assertSame(source.removePage(), page);
+
+            sink.finish();
+            assertSourceFinished(sourceA);
+            assertSourceFinished(sourceB);
+            assertExchangeTotalBufferedBytes(exchange, 0);
+
+            assertEquals(sourceA.getBufferInfo().getContendedWrites(), 0);
+            assertTrue(sourceA.getBufferInfo().getBlockedReads() > 0);
+            assertTrue(sourceB.getBufferInfo().getBlockedReads() > 0);
+        });
+    }
+
     @Test
     public void testCreatePartitionFunction()
     {
@@ -43,14 +43,18 @@ import io.airlift.units.DataSize;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -96,33 +100,32 @@ import static java.util.Collections.nCopies;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @State(Scope.Thread)
-@OutputTimeUnit(MILLISECONDS)
+@OutputTimeUnit(SECONDS)
 @Fork(3)
 @Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
 @Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
-@BenchmarkMode(Mode.AverageTime)
+@BenchmarkMode(Mode.Throughput)
 public class BenchmarkPartitionedOutputOperator
 {
+    // Every invocation adds a single page, so that the reported throughput is in rows per second
+    // and the allocations reported by the GC profiler (gc.alloc.rate.norm) are in bytes per row
+    private static final int POSITION_COUNT = 8192;
+
     @Benchmark
+    @OperationsPerInvocation(POSITION_COUNT)
     public void addPage(BenchmarkData data)
     {
-        PartitionedOutputOperator operator = data.createPartitionedOutputOperator();
-        for (int i = 0; i < data.pageCount; i++) {
-            operator.addInput(data.dataPage);
-        }
-        operator.finish();
+        data.partitionedOutputOperator.addInput(data.dataPage);
     }
 
     @Benchmark
+    @OperationsPerInvocation(POSITION_COUNT)
     public void optimizedAddPage(BenchmarkData data)
     {
-        OptimizedPartitionedOutputOperator operator = data.createOptimizedPartitionedOutputOperator();
-        for (int i = 0; i < data.pageCount; i++) {
-            operator.addInput(data.dataPage);
-        }
-        operator.finish();
+        data.optimizedPartitionedOutputOperator.addInput(data.dataPage);
     }
 
     @Test
@@ -130,7 +133,9 @@ public class BenchmarkPartitionedOutputOperator
     {
         BenchmarkData data = new BenchmarkData();
         data.setup();
+        data.createOperators();
         new BenchmarkPartitionedOutputOperator().addPage(data);
+        data.finishOperators();
     }
 
     @Test
@@ -138,14 +143,14 @@ public class BenchmarkPartitionedOutputOperator
     {
         BenchmarkData data = new BenchmarkData();
         data.setup();
+        data.createOperators();
         new BenchmarkPartitionedOutputOperator().optimizedAddPage(data);
+        data.finishOperators();
     }
 
     @State(Scope.Thread)
     public static class BenchmarkData
     {
-        private static final int PARTITION_COUNT = 256;
-        private static final int POSITION_COUNT = 8192;
         private static final DataSize MAX_MEMORY = new DataSize(4, GIGABYTE);
         private static final DataSize MAX_PARTITION_BUFFER_SIZE = new DataSize(256, MEGABYTE);
         private static final ExecutorService EXECUTOR = newCachedThreadPool(daemonThreadsNamed("test-EXECUTOR-%s"));
@@ -158,10 +163,15 @@ public class BenchmarkPartitionedOutputOperator
         @Param({"1", "2"})
         private int channelCount = 1;
 
+        @Param({"1", "16", "256", "1024"})
+        private int partitionCount = 256;
+
         @Param({
                 "BIGINT",
                 "DICTIONARY(BIGINT)",
                 "RLE(BIGINT)",
+                "DICTIONARY(VARCHAR)",
+                "RLE(VARCHAR)",
                 "LONG_DECIMAL",
                 "INTEGER",
                 "SMALLINT",
@@ -182,8 +192,9 @@ public class BenchmarkPartitionedOutputOperator
         private boolean hasNull;
 
         private List<Type> types;
-        private int pageCount;
         private Page dataPage;
+        private PartitionedOutputOperator partitionedOutputOperator;
+        private OptimizedPartitionedOutputOperator optimizedPartitionedOutputOperator;
 
         @Setup
         public void setup()
@@ -191,6 +202,21 @@ public class BenchmarkPartitionedOutputOperator
             createPages(type);
         }
 
+        @Setup(Level.Iteration)
+        public void createOperators()
+        {
+            partitionedOutputOperator = createPartitionedOutputOperator();
+            optimizedPartitionedOutputOperator = createOptimizedPartitionedOutputOperator();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finishOperators()
+        {
+            // flush the rows buffered in the operators, so that memory does not accumulate across iterations
+            partitionedOutputOperator.finish();
+            optimizedPartitionedOutputOperator.finish();
+        }
+
         private void createPages(String inputType)
         {
             float primitiveNullRate = 0.0f;
@@ -204,77 +230,70 @@ public class BenchmarkPartitionedOutputOperator
                 case "BIGINT":
                     types = nCopies(channelCount, BIGINT);
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "DICTIONARY(BIGINT)":
                     types = nCopies(channelCount, BIGINT);
                     dataPage = createDictionaryPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 3000;
                     break;
                 case "RLE(BIGINT)":
                     types = nCopies(channelCount, BIGINT);
                     dataPage = createRlePageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 3000;
+                    break;
+                case "DICTIONARY(VARCHAR)":
+                    types = nCopies(channelCount, VARCHAR);
+                    dataPage = createDictionaryPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
+                    break;
+                case "RLE(VARCHAR)":
+                    types = nCopies(channelCount, VARCHAR);
+                    dataPage = createRlePageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
                     break;
                 case "LONG_DECIMAL":
                     types = nCopies(channelCount, createDecimalType(MAX_SHORT_PRECISION + 1));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "INTEGER":
                     types = nCopies(channelCount, INTEGER);
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "SMALLINT":
                     types = nCopies(channelCount, SMALLINT);
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "BOOLEAN":
                     types = nCopies(channelCount, BOOLEAN);
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "VARCHAR":
                     types = nCopies(channelCount, VARCHAR);
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 5000;
                     break;
                 case "ARRAY(BIGINT)":
                     types = nCopies(channelCount, new ArrayType(BIGINT));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "ARRAY(VARCHAR)":
                     types = nCopies(channelCount, new ArrayType(VARCHAR));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "ARRAY(ARRAY(BIGINT))":
                     types = nCopies(channelCount, new ArrayType(new ArrayType(BIGINT)));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "MAP(BIGINT,BIGINT)":
                     types = nCopies(channelCount, createMapType(BIGINT, BIGINT));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "MAP(BIGINT,MAP(BIGINT,BIGINT))":
                     types = nCopies(channelCount, createMapType(BIGINT, createMapType(BIGINT, BIGINT)));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "ROW(BIGINT,BIGINT)":
                     types = nCopies(channelCount, withDefaultFieldNames(ImmutableList.of(BIGINT, BIGINT)));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
                 case "ROW(ARRAY(BIGINT),ARRAY(BIGINT))":
                     types = nCopies(channelCount, withDefaultFieldNames(ImmutableList.of(new ArrayType(BIGINT), new ArrayType(BIGINT))));
                     dataPage = PageAssertions.createPageWithRandomData(types, POSITION_COUNT, primitiveNullRate, nestedNullRate);
-                    pageCount = 1000;
                     break;
 
                 default:
@@ -287,7 +306,7 @@ public class BenchmarkPartitionedOutputOperator
         private PartitionedOutputBuffer createPartitionedOutputBuffer()
         {
             OutputBuffers buffers = createInitialEmptyOutputBuffers(PARTITIONED);
-            for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            for (int partition = 0; partition < partitionCount; partition++) {
                 buffers = buffers.withBuffer(new OutputBuffers.OutputBufferId(partition), partition);
             }
             PartitionedOutputBuffer buffer = createPartitionedBuffer(
@@ -301,8 +320,8 @@ public class BenchmarkPartitionedOutputOperator
         private OptimizedPartitionedOutputOperator createOptimizedPartitionedOutputOperator()
         {
             PartitionFunction partitionFunction = new BucketPartitionFunction(
-                    HASH.createBucketFunction(ImmutableList.of(BIGINT), true, PARTITION_COUNT),
-                    IntStream.range(0, PARTITION_COUNT).toArray());
+                    HASH.createBucketFunction(ImmutableList.of(BIGINT), true, partitionCount),
+                    IntStream.range(0, partitionCount).toArray());
             OutputPartitioning outputPartitioning = createOutputPartitioning(partitionFunction);
 
             PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(), enableCompression);
@@ -317,7 +336,7 @@ public class BenchmarkPartitionedOutputOperator
 
         private PartitionedOutputOperator createPartitionedOutputOperator()
         {
-            PartitionFunction partitionFunction = new LocalPartitionGenerator(new PrecomputedHashGenerator(0), PARTITION_COUNT);
+            PartitionFunction partitionFunction = new LocalPartitionGenerator(new PrecomputedHashGenerator(0), partitionCount);
             OutputPartitioning outputPartitioning = createOutputPartitioning(partitionFunction);
 
             PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(), enableCompression);
@@ -395,6 +414,7 @@ public class BenchmarkPartitionedOutputOperator
                 .verbosity(VerboseMode.NORMAL)
                 .jvmArgs("-Xmx10g")
                 .include(".*" + BenchmarkPartitionedOutputOperator.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
                 .build();
         new Runner(options).run();
     }
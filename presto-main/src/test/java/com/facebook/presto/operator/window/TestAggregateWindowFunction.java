@@ -14,14 +14,22 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.LongStream;
+
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +538,37 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testSlidingFrameOverLargePartition()
+    {
+        // frames cover enough rows for the aggregations to be computed with a segment tree
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT x, " +
+                "sum(v) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 50 FOLLOWING), " +
+                "min(v) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 50 FOLLOWING), " +
+                "max(v) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 50 FOLLOWING), " +
+                "count(v) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 50 FOLLOWING), " +
+                "sum(v) OVER (ORDER BY x ROWS BETWEEN 150 FOLLOWING AND 400 FOLLOWING) " +
+                "FROM (SELECT x, IF(x % 7 = 0, NULL, x % 100) v FROM UNNEST(sequence(1, 2000)) t(x))");
+
+        assertEquals(actual.getRowCount(), 2000);
+        for (MaterializedRow row : actual.getMaterializedRows()) {
+            long x = (long) row.getField(0);
+            assertEquals(row.getField(1), expectedAggregation(x - 300, x + 50, Long::sum));
+            assertEquals(row.getField(2), expectedAggregation(x - 300, x + 50, Math::min));
+            assertEquals(row.getField(3), expectedAggregation(x - 300, x + 50, Math::max));
+            assertEquals(row.getField(4), LongStream.rangeClosed(max(x - 300, 1), min(x + 50, 2000)).filter(value -> value % 7 != 0).count());
+            assertEquals(row.getField(5), expectedAggregation(x + 150, x + 400, Long::sum));
+        }
+    }
+
+    private static Long expectedAggregation(long start, long end, LongBinaryOperator function)
+    {
+        OptionalLong result = LongStream.rangeClosed(max(start, 1), min(end, 2000))
+                .filter(x -> x % 7 != 0)
+                .map(x -> x % 100)
+                .reduce(function);
+        return result.isPresent() ? result.getAsLong() : null;
+    }
 }
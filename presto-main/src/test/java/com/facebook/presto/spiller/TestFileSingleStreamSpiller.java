@@ -17,9 +17,12 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.BlockEncodingManager;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.PageAssertions;
+import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.spi.page.PageCodecMarker;
+import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.PagesSerdeUtil;
 import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
@@ -27,11 +30,15 @@ import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
@@ -46,7 +53,9 @@ import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -94,8 +103,134 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillMemoryMapped()
+            throws Exception
+    {
+        assertSpill(false, false, true);
+    }
+
+    @Test
+    public void testSpillMemoryMappedWithCompressionAndEncryption()
+            throws Exception
+    {
+        assertSpill(true, true, true);
+    }
+
+    @Test
+    public void testMemoryMappedReaderRemapsRegions()
+            throws Exception
+    {
+        File spillFile = new File(tempDirectory, UUID.randomUUID().toString());
+        PagesSerde serde = new PagesSerdeFactory(new BlockEncodingManager(), false).createPagesSerde();
+        Page page = buildPage();
+        try (SliceOutput output = new OutputStreamSliceOutput(new FileOutputStream(spillFile))) {
+            PagesSerdeUtil.writePages(serde, output, page, page, page);
+        }
+
+        // a region smaller than a single serialized page forces a new mapping for every page
+        List<Page> pages;
+        try (MemoryMappedSpillFileReader reader = new MemoryMappedSpillFileReader(serde, FileChannel.open(spillFile.toPath(), READ), 1)) {
+            pages = ImmutableList.copyOf(reader);
+        }
+
+        // a mapping stays valid while pages reference it, even after the reader is closed and the file is deleted
+        assertTrue(spillFile.delete());
+        assertEquals(pages.size(), 3);
+        for (Page spilledPage : pages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+    }
+
+    @Test
+    public void testSpillPrefetch()
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = createPrefetchingSpillerFactory(spillPath, 2).create(TYPES, new TestingSpillContext(), memoryContext);
+
+        Page page = buildPage();
+        spiller.spill(Iterators.limit(Iterators.cycle(page), 10)).get();
+
+        WorkProcessor<Page> spilledPages = spiller.getSpilledPagesProcessor();
+        int pageCount = 0;
+        while (!spilledPages.isFinished()) {
+            if (spilledPages.process()) {
+                if (!spilledPages.isFinished()) {
+                    PageAssertions.assertPageEquals(TYPES, page, spilledPages.getResult());
+                    pageCount++;
+                }
+            }
+            else {
+                // pages are read in the background
+                assertTrue(spilledPages.isBlocked());
+                spilledPages.getBlockedFuture().get(10, SECONDS);
+            }
+        }
+        assertEquals(pageCount, 10);
+        // all prefetched pages have been consumed
+        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testSpillPrefetchClose()
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = createPrefetchingSpillerFactory(spillPath, 2).create(TYPES, new TestingSpillContext(), memoryContext);
+
+        Page page = buildPage();
+        spiller.spill(Iterators.limit(Iterators.cycle(page), 10)).get();
+
+        WorkProcessor<Page> spilledPages = spiller.getSpilledPagesProcessor();
+        while (!spilledPages.process()) {
+            spilledPages.getBlockedFuture().get(10, SECONDS);
+        }
+        long retainedSize = spilledPages.getResult().getRetainedSizeInBytes();
+
+        // the prefetched pages are accounted in the memory context of the spiller
+        long expectedBytes = FileSingleStreamSpiller.BUFFER_SIZE + 2 * retainedSize;
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (memoryContext.getBytes() < expectedBytes) {
+            assertTrue(System.nanoTime() < deadline, "pages were not prefetched");
+            Thread.sleep(10);
+        }
+        assertEquals(memoryContext.getBytes(), expectedBytes);
+
+        // closing with pages left unread drops the prefetched pages and stops reading
+        spiller.close();
+        assertEquals(memoryContext.getBytes(), 0);
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+    }
+
+    private FileSingleStreamSpillerFactory createPrefetchingSpillerFactory(File spillPath, int prefetchPages)
+    {
+        return new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                new BlockEncodingManager(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false,
+                false,
+                prefetchPages);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
+    {
+        assertSpill(compression, encryption, false);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, boolean memoryMappedRead)
+            throws Exception
     {
         File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
@@ -105,7 +240,8 @@ public class TestFileSingleStreamSpiller
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
-                encryption);
+                encryption,
+                memoryMappedRead);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
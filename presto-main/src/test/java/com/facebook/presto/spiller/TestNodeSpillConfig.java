@@ -37,6 +37,8 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
                 .setSpillEncryptionEnabled(false)
+                .setSpillMemoryMappedReadEnabled(false)
+                .setSpillPrefetchPages(0)
                 .setTempStorageBufferSize(new DataSize(4, KILOBYTE)));
     }
 
@@ -49,6 +51,8 @@ public class TestNodeSpillConfig
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-enabled", "true")
                 .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.spill-memory-mapped-read-enabled", "true")
+                .put("experimental.spill-prefetch-pages", "4")
                 .put("experimental.temp-storage-buffer-size", "24MB")
                 .build();
 
@@ -58,6 +62,8 @@ public class TestNodeSpillConfig
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
                 .setSpillEncryptionEnabled(true)
+                .setSpillMemoryMappedReadEnabled(true)
+                .setSpillPrefetchPages(4)
                 .setTempStorageBufferSize(new DataSize(24, MEGABYTE));
 
         assertFullMapping(properties, expected);
@@ -17,6 +17,7 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.ArrayType;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.metadata.MetadataManager;
@@ -24,6 +25,7 @@ import com.facebook.presto.operator.PagesHashStrategy;
 import com.facebook.presto.operator.SimplePagesHashStrategy;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinCompiler.PagesHashStrategyFactory;
+import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.type.TypeUtils;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
@@ -31,6 +33,7 @@ import org.openjdk.jol.info.ClassLayout;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -43,6 +46,9 @@ import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.type.TypeUtils.hashPosition;
 import static com.facebook.presto.type.TypeUtils.positionEqualsPosition;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -283,4 +289,36 @@ public class TestJoinCompiler
             }
         }
     }
+
+    @Test
+    public void testPersistentCache()
+            throws Exception
+    {
+        File cacheDirectory = createTempDir();
+        try {
+            CompilerConfig compilerConfig = new CompilerConfig().setJoinCompilerCacheFile(new File(cacheDirectory, "join-compiler-cache.json").getPath());
+            List<Type> types = ImmutableList.of(BIGINT, VARCHAR, new ArrayType(DOUBLE));
+
+            JoinCompiler joinCompiler = new JoinCompiler(MetadataManager.createTestMetadataManager(), new FeaturesConfig(), compilerConfig);
+            joinCompiler.loadPersistentCache();
+            assertEquals(joinCompiler.getPersistentCacheLoadedEntries(), 0);
+            joinCompiler.compileLookupSourceFactory(types, ImmutableList.of(0, 1), Optional.of(2));
+            joinCompiler.compilePagesHashStrategyFactory(types, ImmutableList.of(1));
+            joinCompiler.storePersistentCache();
+
+            // a restarted node compiles the classes of the recorded joins before they are requested
+            JoinCompiler restartedJoinCompiler = new JoinCompiler(MetadataManager.createTestMetadataManager(), new FeaturesConfig(), compilerConfig);
+            restartedJoinCompiler.loadPersistentCache();
+            assertEquals(restartedJoinCompiler.getPersistentCacheLoadedEntries(), 2);
+            assertEquals(restartedJoinCompiler.getPersistentCacheFailedEntries(), 0);
+
+            restartedJoinCompiler.compileLookupSourceFactory(types, ImmutableList.of(0, 1), Optional.of(2));
+            restartedJoinCompiler.compilePagesHashStrategyFactory(types, ImmutableList.of(1));
+            assertEquals(restartedJoinCompiler.getLookupSourceStats().getHitCount(), 1);
+            assertEquals(restartedJoinCompiler.getHashStrategiesStats().getHitCount(), 1);
+        }
+        finally {
+            deleteRecursively(cacheDirectory.toPath(), ALLOW_INSECURE);
+        }
+    }
 }
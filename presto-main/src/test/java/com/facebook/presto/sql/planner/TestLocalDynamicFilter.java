@@ -15,9 +15,11 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.operator.DynamicFilterBloomFilter;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.planner.assertions.BasePlanTest;
 import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
@@ -27,6 +29,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
 import java.util.List;
@@ -39,12 +42,17 @@ import java.util.function.Consumer;
 import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
+import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -190,6 +198,54 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression(Optional.empty(), "b", BIGINT), Domain.multipleValues(BIGINT, ImmutableList.of(100L, 200L)))));
     }
 
+    @Test
+    public void testBloomFilterWithExactPartition()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression probeVariable = new VariableReferenceExpression(Optional.empty(), "a", BIGINT);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", probeVariable, EQUAL)),
+                ImmutableMap.of("123", 0),
+                2);
+        ListenableFuture<Map<VariableReferenceExpression, DynamicFilterBloomFilter>> bloomFilterResult = filter.getBloomFilterResultFuture();
+
+        // the first partition was too large for an exact predicate
+        DynamicFilterBloomFilter bloomFilter = new DynamicFilterBloomFilter(BIGINT, new DataSize(1, KILOBYTE));
+        Block largeBlock = createLongSequenceBlock(1000, 2000);
+        for (int position = 0; position < largeBlock.getPositionCount(); position++) {
+            bloomFilter.add(largeBlock, position);
+        }
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of("123", bloomFilter));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        assertFalse(bloomFilterResult.isDone());
+
+        // the second partition provided its values
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "123", Domain.multipleValues(BIGINT, ImmutableList.of(7L, 9L)))));
+
+        assertEquals(filter.getResultFuture().get(), TupleDomain.all());
+        DynamicFilterBloomFilter result = bloomFilterResult.get().get(probeVariable);
+        for (int position = 0; position < largeBlock.getPositionCount(); position++) {
+            assertTrue(result.mightContain(largeBlock, position));
+        }
+        Block smallBlock = createLongsBlock(7L, 9L);
+        assertTrue(result.mightContain(smallBlock, 0));
+        assertTrue(result.mightContain(smallBlock, 1));
+    }
+
+    @Test
+    public void testBloomFilterNotUsedForRangeComparison()
+            throws ExecutionException, InterruptedException
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", new VariableReferenceExpression(Optional.empty(), "a", BIGINT), LESS_THAN)),
+                ImmutableMap.of("123", 0),
+                1);
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of("123", new DynamicFilterBloomFilter(BIGINT, new DataSize(1, KILOBYTE))));
+        filter.getTupleDomainConsumer().accept(TupleDomain.all());
+        assertEquals(filter.getBloomFilterResultFuture().get(), ImmutableMap.of());
+    }
+
     @Test
     public void testCreateSingleColumn()
             throws ExecutionException, InterruptedException
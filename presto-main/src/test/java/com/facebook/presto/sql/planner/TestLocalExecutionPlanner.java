@@ -33,6 +33,7 @@ import com.facebook.presto.operator.DriverFactory;
 import com.facebook.presto.operator.Operator;
 import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.OperatorFactory;
+import com.facebook.presto.operator.ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory;
 import com.facebook.presto.operator.SourceOperator;
 import com.facebook.presto.operator.SourceOperatorFactory;
 import com.facebook.presto.operator.StageExecutionDescriptor;
@@ -79,6 +80,9 @@ import static com.facebook.airlift.testing.Closeables.closeAllRuntimeException;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.SystemSessionProperties.ENABLE_INTERMEDIATE_AGGREGATIONS;
 import static com.facebook.presto.SystemSessionProperties.FRAGMENT_RESULT_CACHING_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.SKIP_FILTER_AND_PROJECT_OUTPUT_MERGING_FOR_PARTIAL_AGGREGATION;
+import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
+import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.execution.TaskTestUtils.createTestingPlanner;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
@@ -86,6 +90,8 @@ import static com.facebook.presto.sql.planner.LogicalPlanner.Stage.OPTIMIZED_AND
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.util.Collections.nCopies;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
@@ -163,6 +169,37 @@ public class TestLocalExecutionPlanner
         assertEquals(contextWithIntermediateAggregation.get().getHashedCanonicalPlanFragment(), contextWithoutIntermediateAggregation.get().getHashedCanonicalPlanFragment());
     }
 
+    @Test
+    public void testSkipFilterAndProjectOutputMergingForPartialAggregation()
+    {
+        @Language("SQL") String sql = "SELECT orderstatus, count(*), sum(totalprice * 2), max(custkey) FROM orders WHERE orderkey % 7 = 0 GROUP BY orderstatus";
+        Session session = Session.builder(runner.getDefaultSession())
+                .setSystemProperty(SKIP_FILTER_AND_PROJECT_OUTPUT_MERGING_FOR_PARTIAL_AGGREGATION, "true")
+                .build();
+
+        // the filter and project feeding the partial aggregation does not merge its output pages
+        ScanFilterAndProjectOperatorFactory unmergedOperatorFactory = getScanFilterAndProjectOperatorFactory(getLeafLocalExecutionPlan(session, sql));
+        assertEquals(unmergedOperatorFactory.getMinOutputPageSize().toBytes(), 0);
+        assertEquals(unmergedOperatorFactory.getMinOutputPageRowCount(), 0);
+
+        ScanFilterAndProjectOperatorFactory operatorFactory = getScanFilterAndProjectOperatorFactory(getLeafLocalExecutionPlan(runner.getDefaultSession(), sql));
+        assertEquals(operatorFactory.getMinOutputPageSize(), getFilterAndProjectMinOutputPageSize(runner.getDefaultSession()));
+        assertEquals(operatorFactory.getMinOutputPageRowCount(), getFilterAndProjectMinOutputPageRowCount(runner.getDefaultSession()));
+
+        assertEquals(
+                ImmutableSet.copyOf(runner.execute(session, sql).getMaterializedRows()),
+                ImmutableSet.copyOf(runner.execute(sql).getMaterializedRows()));
+    }
+
+    private static ScanFilterAndProjectOperatorFactory getScanFilterAndProjectOperatorFactory(LocalExecutionPlan plan)
+    {
+        return getOnlyElement(plan.getDriverFactories().stream()
+                .flatMap(driverFactory -> driverFactory.getOperatorFactories().stream())
+                .filter(ScanFilterAndProjectOperatorFactory.class::isInstance)
+                .map(ScanFilterAndProjectOperatorFactory.class::cast)
+                .collect(toImmutableList()));
+    }
+
     @Test
     public void testCustomPlanTranslator()
     {
@@ -233,6 +270,24 @@ public class TestLocalExecutionPlanner
                 new TableWriteInfo(Optional.empty(), Optional.empty(), Optional.empty()));
     }
 
+    private LocalExecutionPlan getLeafLocalExecutionPlan(Session session, @Language("SQL") String sql)
+    {
+        SubPlan subPlan = runner.inTransaction(session, transactionSession -> {
+            Plan plan = runner.createPlan(transactionSession, sql, OPTIMIZED_AND_VALIDATED, false, WarningCollector.NOOP);
+            return runner.createSubPlans(transactionSession, plan, false);
+        });
+        while (!subPlan.getChildren().isEmpty()) {
+            subPlan = getOnlyElement(subPlan.getChildren());
+        }
+
+        return createTestingPlanner().plan(
+                createTaskContext(EXECUTOR, SCHEDULED_EXECUTOR, session),
+                subPlan.getFragment(),
+                new TestingOutputBuffer(),
+                new TestingRemoteSourceFactory(),
+                new TableWriteInfo(Optional.empty(), Optional.empty(), Optional.empty()));
+    }
+
     private static class TestingOutputBuffer
             implements OutputBuffer
     {
@@ -47,6 +47,7 @@ import static com.facebook.presto.parquet.ParquetTypeUtils.isTimeStampMicrosType
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static org.apache.parquet.schema.OriginalType.DECIMAL;
 import static org.apache.parquet.schema.OriginalType.TIMESTAMP_MICROS;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
 
 public class ColumnReaderFactory
 {
@@ -56,8 +57,7 @@ public class ColumnReaderFactory
 
     public static ColumnReader createReader(RichColumnDescriptor descriptor, boolean batchReadEnabled)
     {
-        // decimal is not supported in batch readers
-        if (batchReadEnabled && descriptor.getPrimitiveType().getOriginalType() != DECIMAL) {
+        if (batchReadEnabled && isBatchReadSupported(descriptor)) {
             final boolean isNested = descriptor.getPath().length > 1;
             switch (descriptor.getPrimitiveType().getPrimitiveTypeName()) {
                 case BOOLEAN:
@@ -104,6 +104,16 @@ public class ColumnReaderFactory
         }
     }
 
+    private static boolean isBatchReadSupported(RichColumnDescriptor descriptor)
+    {
+        if (descriptor.getPrimitiveType().getOriginalType() != DECIMAL) {
+            return true;
+        }
+        // Short decimals stored as INT64 hold the unscaled value, which is exactly what the int64 batch readers produce.
+        // Other decimal representations need a conversion and are not supported in batch readers.
+        return descriptor.getPrimitiveType().getPrimitiveTypeName() == INT64 && createDecimalType(descriptor).map(type -> ((DecimalType) type).isShort()).orElse(false);
+    }
+
     private static Optional<AbstractColumnReader> createDecimalColumnReader(RichColumnDescriptor descriptor)
     {
         Optional<Type> type = createDecimalType(descriptor);
@@ -223,6 +223,13 @@ public class Int32FlatBatchReader
         int startOffset = 0;
         while (remainingInBatch > 0) {
             if (remainingCountInPage == 0) {
+                // a page which is skipped entirely does not need to be decompressed and decoded
+                int nextPageValueCount = pageReader.getNextPageValueCount();
+                if (nextPageValueCount > 0 && nextPageValueCount <= remainingInBatch) {
+                    pageReader.skipNextPage();
+                    remainingInBatch -= nextPageValueCount;
+                    continue;
+                }
                 if (!readNextPage()) {
                     break;
                 }
@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.Optional;
 
 import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
+import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.slice.Slices.wrappedBuffer;
 import static java.lang.Math.toIntExact;
 
@@ -142,6 +143,27 @@ public class PageReader
         }
     }
 
+    /**
+     * Returns the number of values in the next data page, or 0 if there are no more pages.
+     */
+    public int getNextPageValueCount()
+    {
+        if (compressedPages.isEmpty()) {
+            return 0;
+        }
+        return compressedPages.getFirst().getValueCount();
+    }
+
+    /**
+     * Discards the next data page without decrypting or decompressing it.
+     */
+    public void skipNextPage()
+    {
+        checkState(!compressedPages.isEmpty(), "No more pages to skip");
+        compressedPages.removeFirst();
+        pageIndex = pageIndex + 1;
+    }
+
     public DictionaryPage readDictionaryPage()
     {
         if (compressedDictionaryPage == null) {
@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.batchreader;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.parquet.ColumnReader;
+import com.facebook.presto.parquet.DataPage;
+import com.facebook.presto.parquet.DataPageV1;
+import com.facebook.presto.parquet.DictionaryPage;
+import com.facebook.presto.parquet.ParquetEncoding;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.reader.PageReader;
+import io.airlift.slice.Slice;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.values.plain.PlainValuesWriter;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridEncoder;
+import org.apache.parquet.schema.PrimitiveType;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.parquet.ParquetEncoding.PLAIN;
+import static com.facebook.presto.parquet.ParquetEncoding.PLAIN_DICTIONARY;
+import static com.facebook.presto.parquet.ParquetEncoding.RLE;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static org.apache.parquet.bytes.BytesUtils.getWidthFromMaxInt;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestFlatBatchReaderPageSkipping
+{
+    private static final int PAGE_COUNT = 5;
+    private static final int PAGE_VALUE_COUNT = 100;
+    private static final int DICTIONARY_SIZE = 8;
+
+    @Test
+    public void testPageReaderSkipNextPage()
+            throws IOException
+    {
+        LinkedList<DataPage> pages = new LinkedList<>();
+        for (int valueCount = 10; valueCount <= 40; valueCount += 10) {
+            pages.add(createDataPage(new byte[valueCount], valueCount, PLAIN));
+        }
+        PageReader pageReader = new PageReader(UNCOMPRESSED, pages, null);
+        assertEquals(pageReader.getTotalValueCount(), 100);
+
+        assertEquals(pageReader.getNextPageValueCount(), 10);
+        pageReader.skipNextPage();
+        assertEquals(pageReader.getNextPageValueCount(), 20);
+        pageReader.skipNextPage();
+        assertEquals(pageReader.getNextPageValueCount(), 30);
+
+        DataPage page = pageReader.readPage();
+        assertEquals(page.getValueCount(), 30);
+        assertEquals(((DataPageV1) page).getSlice().length(), 30);
+
+        assertEquals(pageReader.getNextPageValueCount(), 40);
+        pageReader.skipNextPage();
+        assertEquals(pageReader.getNextPageValueCount(), 0);
+        assertNull(pageReader.readPage());
+        try {
+            pageReader.skipNextPage();
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "No more pages to skip");
+        }
+    }
+
+    @Test
+    public void testSkipPagesOfRequiredColumn()
+            throws IOException
+    {
+        RichColumnDescriptor descriptor = createDescriptor(new PrimitiveType(REQUIRED, INT64, "c"), 0);
+        PrimitiveField field = new PrimitiveField(BIGINT, 0, 0, true, descriptor, 0);
+
+        CountingPageReader pageReader = createInt64PlainPageReader();
+        ColumnReader reader = new Int64FlatBatchReader(descriptor);
+        reader.init(pageReader, field, null);
+
+        // the first two pages are skipped without being read, the third is read to skip its first 50 values
+        reader.prepareNextRead(250);
+        reader.prepareNextRead(100);
+        assertInt64Values(reader.readNext().getBlock(), 250, 100, position -> position * 3L);
+        assertEquals(pageReader.getReadPageCount(), 2);
+
+        reader.prepareNextRead(150);
+        assertInt64Values(reader.readNext().getBlock(), 350, 150, position -> position * 3L);
+        assertEquals(pageReader.getReadPageCount(), 3);
+    }
+
+    @Test
+    public void testSkipPagesAtPageBoundary()
+            throws IOException
+    {
+        RichColumnDescriptor descriptor = createDescriptor(new PrimitiveType(REQUIRED, INT64, "c"), 0);
+        PrimitiveField field = new PrimitiveField(BIGINT, 0, 0, true, descriptor, 0);
+
+        CountingPageReader pageReader = createInt64PlainPageReader();
+        ColumnReader reader = new Int64FlatBatchReader(descriptor);
+        reader.init(pageReader, field, null);
+
+        reader.prepareNextRead(200);
+        reader.prepareNextRead(100);
+        assertInt64Values(reader.readNext().getBlock(), 200, 100, position -> position * 3L);
+        assertEquals(pageReader.getReadPageCount(), 1);
+    }
+
+    @Test
+    public void testSkipPagesOfDictionaryEncodedColumn()
+            throws IOException
+    {
+        RichColumnDescriptor descriptor = createDescriptor(new PrimitiveType(REQUIRED, INT64, "c"), 0);
+        PrimitiveField field = new PrimitiveField(BIGINT, 0, 0, true, descriptor, 0);
+
+        PlainValuesWriter dictionaryWriter = new PlainValuesWriter(20, 1024 * 1000, new HeapByteBufferAllocator());
+        for (int id = 0; id < DICTIONARY_SIZE; id++) {
+            dictionaryWriter.writeLong(dictionaryValue(id));
+        }
+        DictionaryPage dictionaryPage = new DictionaryPage(wrappedBuffer(dictionaryWriter.getBytes().toByteArray()), DICTIONARY_SIZE, PLAIN);
+
+        int bitWidth = getWidthFromMaxInt(DICTIONARY_SIZE - 1);
+        LinkedList<DataPage> pages = new LinkedList<>();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(bitWidth, 200, 1024 * 1000, new HeapByteBufferAllocator());
+            for (int position = page * PAGE_VALUE_COUNT; position < (page + 1) * PAGE_VALUE_COUNT; position++) {
+                encoder.writeInt(position % DICTIONARY_SIZE);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            output.write(bitWidth);
+            encoder.toBytes().writeAllTo(output);
+            pages.add(createDataPage(output.toByteArray(), PAGE_VALUE_COUNT, PLAIN_DICTIONARY));
+        }
+        CountingPageReader pageReader = new CountingPageReader(pages, dictionaryPage);
+
+        ColumnReader reader = new Int64FlatBatchReader(descriptor);
+        reader.init(pageReader, field, null);
+
+        reader.prepareNextRead(250);
+        reader.prepareNextRead(100);
+        assertInt64Values(reader.readNext().getBlock(), 250, 100, position -> dictionaryValue(position % DICTIONARY_SIZE));
+        assertEquals(pageReader.getReadPageCount(), 2);
+
+        reader.prepareNextRead(150);
+        assertInt64Values(reader.readNext().getBlock(), 350, 150, position -> dictionaryValue(position % DICTIONARY_SIZE));
+        assertEquals(pageReader.getReadPageCount(), 3);
+    }
+
+    @Test
+    public void testSkipPagesOfOptionalColumn()
+            throws IOException
+    {
+        RichColumnDescriptor descriptor = createDescriptor(new PrimitiveType(OPTIONAL, INT32, "c"), 1);
+        PrimitiveField field = new PrimitiveField(INTEGER, 0, 1, false, descriptor, 0);
+        IntPredicate isNull = position -> position % 5 == 0;
+
+        LinkedList<DataPage> pages = new LinkedList<>();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            RunLengthBitPackingHybridEncoder definitionLevels = new RunLengthBitPackingHybridEncoder(1, 200, 1024 * 1000, new HeapByteBufferAllocator());
+            PlainValuesWriter values = new PlainValuesWriter(20, 1024 * 1000, new HeapByteBufferAllocator());
+            for (int position = page * PAGE_VALUE_COUNT; position < (page + 1) * PAGE_VALUE_COUNT; position++) {
+                if (isNull.test(position)) {
+                    definitionLevels.writeInt(0);
+                }
+                else {
+                    definitionLevels.writeInt(1);
+                    values.writeInteger(position * 2);
+                }
+            }
+            byte[] definitionLevelBytes = definitionLevels.toBytes().toByteArray();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            writeIntLittleEndian(output, definitionLevelBytes.length);
+            output.write(definitionLevelBytes);
+            values.getBytes().writeAllTo(output);
+            pages.add(createDataPage(output.toByteArray(), PAGE_VALUE_COUNT, PLAIN));
+        }
+        CountingPageReader pageReader = new CountingPageReader(pages, null);
+
+        ColumnReader reader = new Int32FlatBatchReader(descriptor);
+        reader.init(pageReader, field, null);
+
+        reader.prepareNextRead(250);
+        reader.prepareNextRead(100);
+        assertInt32Values(reader.readNext().getBlock(), 250, 100, isNull);
+        assertEquals(pageReader.getReadPageCount(), 2);
+
+        reader.prepareNextRead(150);
+        assertInt32Values(reader.readNext().getBlock(), 350, 150, isNull);
+        assertEquals(pageReader.getReadPageCount(), 3);
+    }
+
+    private static CountingPageReader createInt64PlainPageReader()
+            throws IOException
+    {
+        LinkedList<DataPage> pages = new LinkedList<>();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            PlainValuesWriter writer = new PlainValuesWriter(20, 1024 * 1000, new HeapByteBufferAllocator());
+            for (int position = page * PAGE_VALUE_COUNT; position < (page + 1) * PAGE_VALUE_COUNT; position++) {
+                writer.writeLong(position * 3L);
+            }
+            pages.add(createDataPage(writer.getBytes().toByteArray(), PAGE_VALUE_COUNT, PLAIN));
+        }
+        return new CountingPageReader(pages, null);
+    }
+
+    private static void assertInt64Values(Block block, int firstPosition, int positionCount, IntToLongFunction expectedValue)
+    {
+        assertEquals(block.getPositionCount(), positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            int position = firstPosition + i;
+            assertFalse(block.isNull(i), "position " + position);
+            assertEquals(block.getLong(i), expectedValue.applyAsLong(position), "position " + position);
+        }
+    }
+
+    private static void assertInt32Values(Block block, int firstPosition, int positionCount, IntPredicate isNull)
+    {
+        assertEquals(block.getPositionCount(), positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            int position = firstPosition + i;
+            if (isNull.test(position)) {
+                assertTrue(block.isNull(i), "position " + position);
+            }
+            else {
+                assertFalse(block.isNull(i), "position " + position);
+                assertEquals(block.getInt(i), position * 2, "position " + position);
+            }
+        }
+    }
+
+    private static long dictionaryValue(int id)
+    {
+        return 1000 + 7L * id;
+    }
+
+    private static RichColumnDescriptor createDescriptor(PrimitiveType type, int maxDefinitionLevel)
+    {
+        return new RichColumnDescriptor(new ColumnDescriptor(new String[] {type.getName()}, type, 0, maxDefinitionLevel), type);
+    }
+
+    private static DataPage createDataPage(byte[] bytes, int valueCount, ParquetEncoding valuesEncoding)
+    {
+        Slice slice = wrappedBuffer(bytes);
+        return new DataPageV1(slice, valueCount, slice.length(), -1, null, RLE, RLE, valuesEncoding);
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream output, int value)
+    {
+        output.write(value & 0xFF);
+        output.write((value >>> 8) & 0xFF);
+        output.write((value >>> 16) & 0xFF);
+        output.write((value >>> 24) & 0xFF);
+    }
+
+    private static class CountingPageReader
+            extends PageReader
+    {
+        private int readPageCount;
+
+        public CountingPageReader(LinkedList<DataPage> pages, DictionaryPage dictionaryPage)
+                throws IOException
+        {
+            super(UNCOMPRESSED, pages, dictionaryPage);
+        }
+
+        @Override
+        public DataPage readPage()
+        {
+            DataPage page = super.readPage();
+            if (page != null) {
+                readPageCount++;
+            }
+            return page;
+        }
+
+        public int getReadPageCount()
+        {
+            return readPageCount;
+        }
+    }
+}
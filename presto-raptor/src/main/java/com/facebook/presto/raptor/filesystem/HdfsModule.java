@@ -20,6 +20,7 @@ import com.facebook.presto.cache.ForCachingFileSystem;
 import com.facebook.presto.cache.NoOpCacheManager;
 import com.facebook.presto.cache.filemerge.FileMergeCacheConfig;
 import com.facebook.presto.cache.filemerge.FileMergeCacheManager;
+import com.facebook.presto.raptor.RaptorConnectorId;
 import com.facebook.presto.raptor.storage.OrcDataEnvironment;
 import com.facebook.presto.raptor.storage.StorageManagerConfig;
 import com.facebook.presto.raptor.storage.StorageService;
@@ -28,9 +29,12 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import org.apache.hadoop.fs.Path;
+import org.weakref.jmx.MBeanExporter;
 
 import javax.inject.Singleton;
 
+import java.util.Optional;
+
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.presto.cache.CacheType.FILE_MERGE;
@@ -48,7 +52,6 @@ public class HdfsModule
 
         configBinder(binder).bindConfig(CacheConfig.class);
         configBinder(binder).bindConfig(FileMergeCacheConfig.class);
-        binder.bind(CacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(CacheStats.class).withGeneratedName();
 
         binder.bind(RaptorHdfsConfiguration.class).annotatedWith(ForCachingFileSystem.class).to(RaptorHiveHdfsConfiguration.class).in(Scopes.SINGLETON);
@@ -65,6 +68,13 @@ public class HdfsModule
         return new Path(config.getDataDirectory());
     }
 
+    @Singleton
+    @Provides
+    public CacheStats createCacheStats(RaptorConnectorId connectorId, MBeanExporter exporter)
+    {
+        return new CacheStats(connectorId.toString(), Optional.of(exporter));
+    }
+
     @Singleton
     @Provides
     public CacheManager createCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig, CacheStats cacheStats)
@@ -19,7 +19,13 @@ import com.facebook.presto.common.block.BlockEncodingSerde;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.zip.CRC32;
@@ -87,6 +93,24 @@ public class PagesSerdeUtil
         return new SerializedPage(slice, codecMarker, positionCount, uncompressedSizeInBytes, checksum);
     }
 
+    /**
+     * Writes the pages to the given stream in the same format as {@link #writeSerializedPages(SliceOutput, Iterable)}.
+     * The page data is written to the stream directly, instead of being copied through an intermediate buffer.
+     */
+    public static long writeSerializedPages(OutputStream output, Iterable<SerializedPage> pages)
+            throws IOException
+    {
+        Slice metadata = Slices.allocate(PAGE_METADATA_SIZE);
+        long size = 0;
+        for (SerializedPage page : pages) {
+            writeSerializedPageMetadata(metadata.getOutput(), page);
+            metadata.getBytes(0, output, PAGE_METADATA_SIZE);
+            page.getSlice().getBytes(0, output, page.getSizeInBytes());
+            size += page.getSizeInBytes();
+        }
+        return size;
+    }
+
     public static long writeSerializedPages(SliceOutput sliceOutput, Iterable<SerializedPage> pages)
     {
         Iterator<SerializedPage> pageIterator = pages.iterator();
@@ -187,6 +211,15 @@ public class PagesSerdeUtil
         return new SerializedPageReader(sliceInput);
     }
 
+    /**
+     * Reads pages written by {@link #writeSerializedPages(OutputStream, Iterable)}. The data of every page is read from
+     * the stream directly into the page, instead of being copied through an intermediate buffer.
+     */
+    public static Iterator<SerializedPage> readSerializedPages(InputStream inputStream)
+    {
+        return new SerializedPageStreamReader(inputStream);
+    }
+
     private static class SerializedPageReader
             implements Iterator<SerializedPage>
     {
@@ -212,4 +245,76 @@ public class PagesSerdeUtil
             return readSerializedPage(input);
         }
     }
+
+    private static class SerializedPageStreamReader
+            implements Iterator<SerializedPage>
+    {
+        private final InputStream input;
+        private final byte[] metadata = new byte[PAGE_METADATA_SIZE];
+        private boolean metadataRead;
+        private boolean finished;
+
+        SerializedPageStreamReader(InputStream input)
+        {
+            this.input = requireNonNull(input, "input is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (!metadataRead && !finished) {
+                int length = readFully(input, metadata);
+                if (length == 0) {
+                    finished = true;
+                }
+                else if (length < metadata.length) {
+                    throw new UncheckedIOException(new EOFException("Unexpected end of stream while reading page metadata"));
+                }
+                else {
+                    metadataRead = true;
+                }
+            }
+            return metadataRead;
+        }
+
+        @Override
+        public SerializedPage next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            metadataRead = false;
+
+            SliceInput metadataInput = Slices.wrappedBuffer(metadata).getInput();
+            int positionCount = metadataInput.readInt();
+            byte codecMarker = metadataInput.readByte();
+            int uncompressedSizeInBytes = metadataInput.readInt();
+            int sizeInBytes = metadataInput.readInt();
+            long checksum = metadataInput.readLong();
+
+            byte[] data = new byte[sizeInBytes];
+            if (readFully(input, data) < sizeInBytes) {
+                throw new UncheckedIOException(new EOFException("Unexpected end of stream while reading page data"));
+            }
+            return new SerializedPage(Slices.wrappedBuffer(data), codecMarker, positionCount, uncompressedSizeInBytes, checksum);
+        }
+
+        private static int readFully(InputStream input, byte[] buffer)
+        {
+            int length = 0;
+            try {
+                while (length < buffer.length) {
+                    int read = input.read(buffer, length, buffer.length - length);
+                    if (read < 0) {
+                        break;
+                    }
+                    length += read;
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return length;
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.client.ClientSession;
+import com.facebook.presto.client.StatementClient;
+import com.facebook.presto.server.testing.TestingPrestoServer;
+import com.facebook.presto.tpch.TpchPlugin;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.Duration;
+import okhttp3.OkHttpClient;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.facebook.airlift.testing.Closeables.closeQuietly;
+import static com.facebook.presto.client.StatementClientFactory.newStatementClient;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestBinaryQueryResults
+{
+    private TestingPrestoServer server;
+    private OkHttpClient httpClient;
+
+    @BeforeClass
+    public void setup()
+            throws Exception
+    {
+        server = new TestingPrestoServer();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        httpClient = new OkHttpClient();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+    {
+        closeQuietly(server);
+        if (httpClient != null) {
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+        }
+        server = null;
+        httpClient = null;
+    }
+
+    @Test(timeOut = 60_000)
+    public void testBinaryResults()
+    {
+        // the result spans several responses, and all the column types are sent as binary data
+        String sql = "SELECT orderkey, orderstatus, totalprice, orderdate, shippriority FROM tpch.tiny.orders ORDER BY orderkey";
+        List<List<Object>> jsonRows = execute(sql, false);
+        assertEquals(jsonRows.size(), 15000);
+        assertEquals(execute(sql, true), jsonRows);
+    }
+
+    @Test(timeOut = 60_000)
+    public void testBinaryResultsFallbackToJson()
+    {
+        // arrays are not supported by the binary data, so the rows are sent as JSON
+        String sql = "SELECT orderkey, ARRAY[custkey] FROM tpch.tiny.orders ORDER BY orderkey";
+        List<List<Object>> jsonRows = execute(sql, false);
+        assertEquals(jsonRows.size(), 15000);
+        assertEquals(execute(sql, true), jsonRows);
+    }
+
+    private List<List<Object>> execute(String sql, boolean binaryResults)
+    {
+        ClientSession session = ClientSession.builder(createClientSession())
+                .withBinaryResults(binaryResults)
+                .build();
+
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        try (StatementClient client = newStatementClient(httpClient, session, sql)) {
+            while (client.isRunning()) {
+                Iterable<List<Object>> data = client.currentData().getData();
+                if (data != null) {
+                    data.forEach(rows::add);
+                }
+                client.advance();
+            }
+            assertTrue(client.isFinished());
+            assertNull(client.finalStatusInfo().getError());
+        }
+        return rows.build();
+    }
+
+    private ClientSession createClientSession()
+    {
+        return new ClientSession(
+                server.getBaseUrl(),
+                "user",
+                "source",
+                Optional.empty(),
+                ImmutableSet.of(),
+                null,
+                null,
+                null,
+                "America/Los_Angeles",
+                Locale.ENGLISH,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                null,
+                new Duration(2, MINUTES),
+                true,
+                ImmutableMap.of(),
+                ImmutableMap.of());
+    }
+}